@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.broker.TransportConnector;
+
+/**
+ * In-process ActiveMQ broker used by the benchmarks.
+ * <p>
+ * The broker is non-persistent and runs without JMX. Every queue the benchmarks
+ * write to is drained by a discarding consumer, so producer flow control never
+ * kicks in and the numbers reflect the client send path only.
+ */
+public class EmbeddedBroker implements AutoCloseable {
+
+    private final BrokerService broker;
+    private final String vmURL;
+    private final String tcpURL;
+    private Connection drainConnection;
+
+    private EmbeddedBroker(BrokerService broker, String vmURL, String tcpURL) {
+        this.broker = broker;
+        this.vmURL = vmURL;
+        this.tcpURL = tcpURL;
+    }
+
+    public static EmbeddedBroker start(String brokerName) throws Exception {
+        BrokerService broker = new BrokerService();
+        broker.setBrokerName(brokerName);
+        broker.setPersistent(false);
+        broker.setUseJmx(false);
+        broker.setAdvisorySupport(false);
+        TransportConnector tcp = broker.addConnector("tcp://localhost:0");
+        broker.start();
+        broker.waitUntilStarted();
+
+        String vmURL = "vm://" + brokerName + "?create=false";
+        String tcpURL = tcp.getPublishableConnectString();
+        return new EmbeddedBroker(broker, vmURL, tcpURL);
+    }
+
+    /**
+     * Returns the client URL for the given transport, either {@code vm} or {@code tcp}.
+     */
+    public String url(String transport) {
+        return "tcp".equals(transport) ? tcpURL : vmURL;
+    }
+
+    public String getVmURL() {
+        return vmURL;
+    }
+
+    public String getTcpURL() {
+        return tcpURL;
+    }
+
+    /**
+     * Attaches a consumer that throws away every message arriving on the queue.
+     */
+    public synchronized void drain(String queueName) throws JMSException {
+        if (drainConnection == null) {
+            drainConnection = new ActiveMQConnectionFactory(vmURL).createConnection();
+            drainConnection.start();
+        }
+        Session session = drainConnection.createSession(false, Session.DUPS_OK_ACKNOWLEDGE);
+        MessageConsumer consumer = session.createConsumer(session.createQueue(queueName));
+        consumer.setMessageListener(message -> { });
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (drainConnection != null) {
+            try {
+                drainConnection.close();
+            } catch (JMSException e) {
+                // Broker is going away anyway
+            }
+            drainConnection = null;
+        }
+        broker.stop();
+        broker.waitUntilStopped();
+    }
+}
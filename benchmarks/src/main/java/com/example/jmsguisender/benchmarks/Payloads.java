@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+/**
+ * Deterministic JSON payloads of a given size for the benchmarks.
+ */
+public final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * Builds a JSON document of exactly {@code size} characters (minimum 16).
+     */
+    public static String json(int size) {
+        String prefix = "{\"data\":\"";
+        String suffix = "\"}";
+        int fill = Math.max(0, size - prefix.length() - suffix.length());
+
+        StringBuilder builder = new StringBuilder(prefix.length() + fill + suffix.length());
+        builder.append(prefix);
+        for (int i = 0; i < fill; i++) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+        builder.append(suffix);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+import com.example.jmsguisender.PEMCertificateHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * PEM bundle parsing, comparing the previous regex based parser (kept here as
+ * the baseline) with the streaming parser in {@link PEMCertificateHelper}.
+ * <p>
+ * The bundle repeats one freshly generated self-signed certificate, which is
+ * enough to measure parsing cost on corporate CA bundle sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PemLoadingBenchmark {
+
+    private static final Pattern LEGACY_CERT_PATTERN = Pattern.compile(
+        "-----BEGIN CERTIFICATE-----\\s*([\\s\\S]*?)\\s*-----END CERTIFICATE-----"
+    );
+
+    @Param({"1", "100", "500"})
+    public int certificateCount;
+
+    private Path workDir;
+    private Path bundleFile;
+    private String bundle;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDir = Files.createTempDirectory("pem-bench");
+        String certificate = TestCertificates.selfSignedPEM(workDir);
+
+        StringBuilder builder = new StringBuilder(certificate.length() * certificateCount);
+        for (int i = 0; i < certificateCount; i++) {
+            builder.append(certificate);
+            if (!certificate.endsWith("\n")) {
+                builder.append('\n');
+            }
+        }
+        bundle = builder.toString();
+        bundleFile = workDir.resolve("bundle.pem");
+        Files.writeString(bundleFile, bundle);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        try (Stream<Path> files = Files.walk(workDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<X509Certificate> legacyRegexParse() throws Exception {
+        return legacyParse(bundle);
+    }
+
+    @Benchmark
+    public List<X509Certificate> streamingParse() throws Exception {
+        return PEMCertificateHelper.parsePEMCertificates(bundle);
+    }
+
+    @Benchmark
+    public List<X509Certificate> legacyLoadFromFile() throws Exception {
+        return legacyParse(Files.readString(bundleFile));
+    }
+
+    @Benchmark
+    public List<X509Certificate> streamingLoadFromFile() throws Exception {
+        return PEMCertificateHelper.loadCertificatesFromPEM(bundleFile.toString());
+    }
+
+    private static List<X509Certificate> legacyParse(String pemContent) throws Exception {
+        List<X509Certificate> certificates = new ArrayList<>();
+        CertificateFactory cf = CertificateFactory.getInstance("X.509");
+
+        Matcher matcher = LEGACY_CERT_PATTERN.matcher(pemContent);
+        while (matcher.find()) {
+            String base64Cert = matcher.group(1).replaceAll("\\s", "");
+            byte[] certBytes = Base64.getDecoder().decode(base64Cert);
+            Certificate cert = cf.generateCertificate(new ByteArrayInputStream(certBytes));
+            if (cert instanceof X509Certificate) {
+                certificates.add((X509Certificate) cert);
+            }
+        }
+        return certificates;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+import com.example.jmsguisender.JMSSender;
+import jakarta.jms.Connection;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Send hot path benchmarks.
+ * <p>
+ * {@link #currentSendMessage()} measures {@link JMSSender#sendMessage} exactly as the
+ * GUI calls it. The other benchmarks are the candidate alternatives: reusing one
+ * session and producer, sending in transacted batches, and ActiveMQ async sends.
+ * All of them build the same message (payload plus default and custom headers) so
+ * the difference is the cost of the send path itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SendBenchmark {
+
+    private static final String QUEUE_NAME = "bench.send";
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"100", "1024", "10240", "102400"})
+    public int payloadSize;
+
+    @Param({"0", "5", "20"})
+    public int headerCount;
+
+    /** {@code vm} for the in-VM transport, {@code tcp} for a localhost socket. */
+    @Param({"vm"})
+    public String transport;
+
+    private EmbeddedBroker broker;
+    private String brokerURL;
+    private String payload;
+    private Map<String, Object> headers;
+
+    private JMSSender jmsSender;
+    private Connection connection;
+    private Connection asyncConnection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        broker = EmbeddedBroker.start("jms-bench");
+        broker.drain(QUEUE_NAME);
+        brokerURL = broker.url(transport);
+
+        payload = Payloads.json(payloadSize);
+        headers = new LinkedHashMap<>();
+        for (int i = 0; i < headerCount; i++) {
+            headers.put("header" + i, "value-" + i);
+        }
+
+        jmsSender = new JMSSender();
+
+        connection = new ActiveMQConnectionFactory(brokerURL).createConnection();
+        connection.start();
+
+        ActiveMQConnectionFactory asyncFactory = new ActiveMQConnectionFactory(brokerURL);
+        asyncFactory.setUseAsyncSend(true);
+        asyncConnection = asyncFactory.createConnection();
+        asyncConnection.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        jmsSender.close();
+        connection.close();
+        asyncConnection.close();
+        broker.close();
+    }
+
+    /**
+     * Session and producer owned by one benchmark thread, since JMS sessions are
+     * single-threaded.
+     */
+    @State(Scope.Thread)
+    public static class ThreadSession {
+        Session session;
+        Session transactedSession;
+        Session asyncSession;
+        MessageProducer producer;
+        MessageProducer transactedProducer;
+        MessageProducer asyncProducer;
+
+        @Setup(Level.Trial)
+        public void setUp(SendBenchmark benchmark) throws JMSException {
+            session = benchmark.connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            producer = session.createProducer(session.createQueue(QUEUE_NAME));
+            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            transactedSession = benchmark.connection.createSession(true, Session.SESSION_TRANSACTED);
+            transactedProducer = transactedSession.createProducer(transactedSession.createQueue(QUEUE_NAME));
+            transactedProducer.setDeliveryMode(DeliveryMode.PERSISTENT);
+
+            asyncSession = benchmark.asyncConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            asyncProducer = asyncSession.createProducer(asyncSession.createQueue(QUEUE_NAME));
+            asyncProducer.setDeliveryMode(DeliveryMode.PERSISTENT);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws JMSException {
+            session.close();
+            transactedSession.close();
+            asyncSession.close();
+        }
+    }
+
+    @Benchmark
+    public void currentSendMessage() throws JMSException {
+        jmsSender.sendMessage(brokerURL, null, null, QUEUE_NAME, payload, false, null, headers);
+    }
+
+    @Benchmark
+    public void sessionReuse(ThreadSession state) throws JMSException {
+        state.producer.send(createMessage(state.session));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void transactedBatch(ThreadSession state) throws JMSException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            state.transactedProducer.send(createMessage(state.transactedSession));
+        }
+        state.transactedSession.commit();
+    }
+
+    @Benchmark
+    public void asyncSend(ThreadSession state) throws JMSException {
+        state.asyncProducer.send(createMessage(state.asyncSession));
+    }
+
+    private TextMessage createMessage(Session session) throws JMSException {
+        TextMessage message = session.createTextMessage(payload);
+        message.setStringProperty("contentType", "application/json");
+        message.setLongProperty("timestamp", System.currentTimeMillis());
+        message.setStringProperty("sender", "JMS-GUI-Sender");
+        for (Map.Entry<String, Object> header : headers.entrySet()) {
+            message.setObjectProperty(header.getKey(), header.getValue());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Generates certificates for the benchmarks with the JDK's {@code keytool}, so
+ * no extra crypto dependency is needed.
+ */
+public final class TestCertificates {
+
+    private static final String PASSWORD = "changeit";
+
+    private TestCertificates() {
+    }
+
+    /**
+     * Creates a self-signed certificate in a PKCS12 keystore under {@code dir}
+     * and returns it PEM encoded.
+     */
+    public static String selfSignedPEM(Path dir) throws IOException, InterruptedException {
+        Path keyStore = dir.resolve("bench.p12");
+        Path pem = dir.resolve("bench.pem");
+
+        keytool("-genkeypair", "-alias", "bench", "-keyalg", "RSA", "-keysize", "2048",
+            "-dname", "CN=jms-gui-sender-benchmark", "-validity", "30",
+            "-storetype", "PKCS12", "-keystore", keyStore.toString(),
+            "-storepass", PASSWORD, "-keypass", PASSWORD);
+        keytool("-exportcert", "-rfc", "-alias", "bench",
+            "-keystore", keyStore.toString(), "-storepass", PASSWORD,
+            "-file", pem.toString());
+
+        return Files.readString(pem, StandardCharsets.US_ASCII);
+    }
+
+    private static void keytool(String... args) throws IOException, InterruptedException {
+        Path keytool = Paths.get(System.getProperty("java.home"), "bin", "keytool");
+        List<String> command = new ArrayList<>();
+        command.add(keytool.toString());
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (process.waitFor() != 0) {
+            throw new IOException("keytool failed: " + output);
+        }
+    }
+}
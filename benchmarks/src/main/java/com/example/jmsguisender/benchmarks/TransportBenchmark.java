@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender.benchmarks;
+
+import com.example.jmsguisender.JMSSender;
+import com.example.jmsguisender.SendRequest;
+import com.example.jmsguisender.ServerConfiguration;
+import com.example.jmsguisender.Transport;
+import jakarta.jms.JMSException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the wire protocols on one broker, through {@link JMSSender#sendMessage(SendRequest)}.
+ * <p>
+ * The embedded ActiveMQ Classic broker only speaks OpenWire, so this benchmark needs an ActiveMQ
+ * Artemis broker accepting OpenWire and core on port 61616 and AMQP on 5672, such as the one in
+ * {@code docker-compose.yml}. Set {@code -Dbench.host}, {@code -Dbench.user} and
+ * {@code -Dbench.password} to point it elsewhere.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransportBenchmark {
+
+    private static final String QUEUE_NAME = "bench.transport";
+
+    @Param({"OPENWIRE", "AMQP", "ARTEMIS_CORE"})
+    public Transport transport;
+
+    @Param({"1024"})
+    public int payloadSize;
+
+    private JMSSender jmsSender;
+    private SendRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws JMSException {
+        String host = System.getProperty("bench.host", "localhost");
+        String brokerURL = transport == Transport.AMQP ? "amqp://" + host + ":5672" : "tcp://" + host + ":61616";
+
+        ServerConfiguration config = new ServerConfiguration();
+        config.setTransport(transport);
+        config.setUsername(System.getProperty("bench.user", "admin"));
+        config.setPassword(System.getProperty("bench.password", "admin"));
+        config.setServerUrl(brokerURL);
+
+        jmsSender = new JMSSender();
+        request = SendRequest.of(config, QUEUE_NAME, false, Payloads.json(payloadSize), Map.of());
+        // Connect before measuring
+        jmsSender.sendMessage(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jmsSender.close();
+    }
+
+    @Benchmark
+    public void send() throws JMSException {
+        jmsSender.sendMessage(request);
+    }
+}
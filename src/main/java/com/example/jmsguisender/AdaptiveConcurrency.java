@@ -0,0 +1,329 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Closed-loop load run that searches for the concurrency a broker sustains, instead of a fixed rate
+ * or thread count.
+ * <p>
+ * The number of senders is adjusted once per window, additive increase / multiplicative decrease:
+ * while the window's p99 send time stays under the target and no send fails, one sender is added
+ * (doubling at first, until the first back-off, to get close quickly); otherwise the number of
+ * senders is cut to {@value #DECREASE_FACTOR} of itself. It ends up oscillating just under the
+ * level where latency starts to climb, and the best window under the target is reported as the
+ * sustainable throughput.
+ */
+public class AdaptiveConcurrency {
+    
+    public static final int DEFAULT_MAX_CONCURRENCY = 256;
+    public static final long DEFAULT_WINDOW_MILLIS = 1000;
+    
+    private static final double DECREASE_FACTOR = 0.75;
+    
+    /**
+     * One window of the run and the decision taken after it.
+     */
+    public static class Step {
+        private final double seconds;
+        private final int concurrency;
+        private final double throughput;
+        private final long failed;
+        private final double p99Millis;
+        private final int nextConcurrency;
+        
+        Step(double seconds, int concurrency, double throughput, long failed, double p99Millis, int nextConcurrency) {
+            this.seconds = seconds;
+            this.concurrency = concurrency;
+            this.throughput = throughput;
+            this.failed = failed;
+            this.p99Millis = p99Millis;
+            this.nextConcurrency = nextConcurrency;
+        }
+        
+        /**
+         * Time into the run at the end of the window.
+         */
+        public double getSeconds() {
+            return seconds;
+        }
+        
+        public int getConcurrency() {
+            return concurrency;
+        }
+        
+        public double getThroughput() {
+            return throughput;
+        }
+        
+        public long getFailed() {
+            return failed;
+        }
+        
+        public double getP99Millis() {
+            return p99Millis;
+        }
+        
+        public int getNextConcurrency() {
+            return nextConcurrency;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "t=%.1fs concurrency=%d actual=%.1f msg/s failed=%d p99=%.3fms -> %d",
+                seconds, concurrency, throughput, failed, p99Millis, nextConcurrency);
+        }
+    }
+    
+    private final RateScheduler.SendTask task;
+    private final double targetP99Millis;
+    private final long durationNanos;
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram windowServiceTime = new LatencyHistogram();
+    private final List<Step> steps = new ArrayList<>();
+    private final Object concurrencyLock = new Object();
+    private int minConcurrency = 1;
+    private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+    private long windowMillis = DEFAULT_WINDOW_MILLIS;
+    private volatile int concurrency;
+    private volatile String lastError;
+    private volatile boolean stopped;
+    private long elapsedNanos;
+    private Consumer<Step> progressListener = step -> { };
+    
+    /**
+     * @param task            one send; called from several threads
+     * @param targetP99Millis the p99 send time above which senders are removed
+     */
+    public AdaptiveConcurrency(RateScheduler.SendTask task, double targetP99Millis, long durationSeconds) {
+        if (targetP99Millis <= 0) {
+            throw new IllegalArgumentException("Target p99 must be positive");
+        }
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        this.task = task;
+        this.targetP99Millis = targetP99Millis;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+    }
+    
+    /**
+     * Bounds of the number of senders; the run starts at the minimum.
+     */
+    public void setConcurrencyLimits(int minConcurrency, int maxConcurrency) {
+        if (minConcurrency <= 0 || maxConcurrency < minConcurrency) {
+            throw new IllegalArgumentException("Concurrency limits must be positive, the minimum not above the maximum");
+        }
+        this.minConcurrency = minConcurrency;
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    /**
+     * How long each concurrency level is measured before the next decision.
+     */
+    public void setWindow(long windowMillis) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.windowMillis = windowMillis;
+    }
+    
+    /**
+     * Sets the callback receiving every window, on the controlling thread.
+     */
+    public void setProgressListener(Consumer<Step> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : step -> { };
+    }
+    
+    /**
+     * Stops the run early. Sends already started complete.
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (concurrencyLock) {
+            concurrencyLock.notifyAll();
+        }
+    }
+    
+    public double getTargetP99Millis() {
+        return targetP99Millis;
+    }
+    
+    public List<Step> getSteps() {
+        return steps;
+    }
+    
+    /**
+     * Runs on the calling thread, which takes the decisions, and returns once all sends have completed.
+     */
+    public LoadRunResult run() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        setConcurrency(minConcurrency, workers);
+        boolean slowStart = true;
+        
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        long nextDecision = start + windowNanos;
+        long sentAtLastStep = 0;
+        long failedAtLastStep = 0;
+        try {
+            while (!stopped && nextDecision <= end) {
+                long remaining = nextDecision - System.nanoTime();
+                if (remaining > 0) {
+                    TimeUnit.NANOSECONDS.sleep(remaining);
+                }
+                long sentNow = sent.sum();
+                long failedNow = failed.sum();
+                long windowSent = sentNow - sentAtLastStep;
+                long windowFailed = failedNow - failedAtLastStep;
+                double p99Millis = windowServiceTime.snapshotAndReset().getValueAtPercentile(99) / 1e6;
+                sentAtLastStep = sentNow;
+                failedAtLastStep = failedNow;
+                
+                int current = concurrency;
+                int next = nextConcurrency(current, windowSent, windowFailed, p99Millis, slowStart);
+                slowStart &= !overTarget(windowFailed, p99Millis);
+                
+                Step step = new Step((nextDecision - start) / 1e9, current, windowSent / (windowNanos / 1e9), windowFailed, p99Millis, next);
+                steps.add(step);
+                progressListener.accept(step);
+                setConcurrency(next, workers);
+                nextDecision += windowNanos;
+            }
+        } finally {
+            stop();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            elapsedNanos = System.nanoTime() - start;
+        }
+        
+        // Closed loop: there is no intended send time, so latency is the send time
+        return new LoadRunResult(describe(), elapsedNanos, sent.sum(), failed.sum(), serviceTime, serviceTime,
+            List.of(), lastError, nextDecision <= end);
+    }
+    
+    /**
+     * The decision after one window: back off on errors or a p99 over the target, otherwise add a
+     * sender, or double them during the slow start.
+     */
+    int nextConcurrency(int current, long windowSent, long windowFailed, double p99Millis, boolean slowStart) {
+        if (overTarget(windowFailed, p99Millis)) {
+            return Math.max(minConcurrency, Math.min(current - 1, (int) (current * DECREASE_FACTOR)));
+        }
+        if (windowSent == 0) {
+            // Nothing completed, e.g. a send blocked on flow control: no evidence either way
+            return current;
+        }
+        return Math.min(maxConcurrency, slowStart ? current * 2 : current + 1);
+    }
+    
+    private boolean overTarget(long windowFailed, double p99Millis) {
+        return windowFailed > 0 || p99Millis > targetP99Millis;
+    }
+    
+    private String describe() {
+        return String.format(Locale.ROOT, "adaptive concurrency %d-%d, p99 target %.1f ms", minConcurrency, maxConcurrency, targetP99Millis);
+    }
+    
+    /**
+     * Starts senders up to the new level; senders above it wait until the level rises again.
+     */
+    private void setConcurrency(int level, List<Thread> workers) {
+        synchronized (concurrencyLock) {
+            concurrency = level;
+            concurrencyLock.notifyAll();
+        }
+        while (workers.size() < level) {
+            int index = workers.size();
+            Thread worker = new Thread(() -> work(index), "adaptive-sender-" + index);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+    }
+    
+    private void work(int index) {
+        try {
+            while (!stopped) {
+                if (index >= concurrency) {
+                    synchronized (concurrencyLock) {
+                        while (index >= concurrency && !stopped) {
+                            concurrencyLock.wait();
+                        }
+                    }
+                    continue;
+                }
+                long begin = System.nanoTime();
+                try {
+                    task.send(sequence.getAndIncrement());
+                    long elapsed = System.nanoTime() - begin;
+                    serviceTime.record(elapsed);
+                    windowServiceTime.record(elapsed);
+                    sent.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    lastError = e.getMessage();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * The best window under the target, and how the concurrency moved over the run.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%s, %.1fs, %d window(s)%n", describe(), elapsedNanos / 1e9, steps.size()));
+        Step best = null;
+        for (Step step : steps) {
+            if (step.failed == 0 && step.p99Millis <= targetP99Millis && (best == null || step.throughput > best.throughput)) {
+                best = step;
+            }
+        }
+        if (best == null) {
+            report.append(String.format(Locale.ROOT, "No window stayed under %.1f ms p99 without errors, even at concurrency %d%n",
+                targetP99Millis, minConcurrency));
+        } else {
+            report.append(String.format(Locale.ROOT, "Sustainable: %.1f msg/s at concurrency %d (p99 %.3f ms, t=%.1fs)%n",
+                best.throughput, best.concurrency, best.p99Millis, best.seconds));
+        }
+        if (!steps.isEmpty()) {
+            // The level it oscillates around once past the initial search
+            List<Step> settled = steps.subList(steps.size() / 2, steps.size());
+            double meanConcurrency = settled.stream().mapToInt(Step::getConcurrency).average().orElse(0);
+            double meanThroughput = settled.stream().mapToDouble(Step::getThroughput).average().orElse(0);
+            report.append(String.format(Locale.ROOT, "Second half: mean concurrency %.1f, %.1f msg/s%n", meanConcurrency, meanThroughput));
+            report.append("Concurrency per window: ");
+            report.append(String.join(" ", steps.stream().map(step -> String.valueOf(step.concurrency)).toList()));
+            report.append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.qpid.jms.JmsConnectionFactory;
+
+/**
+ * Apache Qpid JMS client, speaking AMQP 1.0 ({@code amqp://host:5672}, {@code amqps://host:5671}).
+ */
+public class AmqpConnectionFactoryProvider implements ConnectionFactoryProvider {
+    
+    @Override
+    public ConnectionFactory createConnectionFactory(String brokerURL, ServerConfiguration sslConfig) throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory(brokerURL);
+        if (sslConfig != null) {
+            if (sslConfig.getConnectTimeout() > 0) {
+                factory.setConnectTimeout(sslConfig.getConnectTimeout());
+            }
+            if (sslConfig.getSendTimeout() > 0) {
+                factory.setSendTimeout(sslConfig.getSendTimeout());
+            }
+        }
+        
+        // Qpid JMS takes the SSL context directly; it is used for amqps:// and amqpwss:// URLs
+        if (sslConfig != null && sslConfig.isUseSsl()) {
+            factory.setSslContext(SSLContextHelper.createSSLContext(sslConfig));
+        }
+        return factory;
+    }
+}
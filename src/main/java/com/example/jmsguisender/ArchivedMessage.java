@@ -0,0 +1,214 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.ObjectMessage;
+import jakarta.jms.StreamMessage;
+import jakarta.jms.TextMessage;
+
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One message as stored in a {@link QueueExport} archive: its JMS headers, properties and body.
+ * <p>
+ * Text, bytes and map bodies are kept. Object and stream messages are recorded with their headers
+ * and properties only, since their content cannot be restored without the producer's classes.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ArchivedMessage {
+    
+    public enum BodyType {
+        TEXT, BYTES, MAP, OBJECT, STREAM, NONE
+    }
+    
+    @JsonProperty("messageId")
+    private String messageId;
+    
+    @JsonProperty("correlationId")
+    private String correlationId;
+    
+    @JsonProperty("type")
+    private String type;
+    
+    @JsonProperty("timestamp")
+    private long timestamp;
+    
+    @JsonProperty("priority")
+    private int priority;
+    
+    @JsonProperty("persistent")
+    private boolean persistent;
+    
+    @JsonProperty("expiration")
+    private long expiration;
+    
+    @JsonProperty("redelivered")
+    private boolean redelivered;
+    
+    @JsonProperty("destination")
+    private String destination;
+    
+    @JsonProperty("replyTo")
+    private String replyTo;
+    
+    @JsonProperty("properties")
+    private Map<String, Object> properties = new LinkedHashMap<>();
+    
+    @JsonProperty("bodyType")
+    private BodyType bodyType = BodyType.NONE;
+    
+    @JsonProperty("text")
+    private String text;
+    
+    /** Base64 in NDJSON archives. */
+    @JsonProperty("bytes")
+    private byte[] bytes;
+    
+    @JsonProperty("map")
+    private Map<String, Object> map;
+    
+    public ArchivedMessage() {
+    }
+    
+    /**
+     * Captures a received or browsed message.
+     */
+    public static ArchivedMessage from(Message message) throws JMSException {
+        ArchivedMessage archived = new ArchivedMessage();
+        archived.messageId = message.getJMSMessageID();
+        archived.correlationId = message.getJMSCorrelationID();
+        archived.type = message.getJMSType();
+        archived.timestamp = message.getJMSTimestamp();
+        archived.priority = message.getJMSPriority();
+        archived.persistent = message.getJMSDeliveryMode() == DeliveryMode.PERSISTENT;
+        archived.expiration = message.getJMSExpiration();
+        archived.redelivered = message.getJMSRedelivered();
+        archived.destination = describe(message.getJMSDestination());
+        archived.replyTo = describe(message.getJMSReplyTo());
+        
+        Enumeration<?> names = message.getPropertyNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            archived.properties.put(name, message.getObjectProperty(name));
+        }
+        
+        if (message instanceof TextMessage textMessage) {
+            archived.bodyType = BodyType.TEXT;
+            archived.text = textMessage.getText();
+        } else if (message instanceof BytesMessage bytesMessage) {
+            archived.bodyType = BodyType.BYTES;
+            archived.bytes = new byte[(int) bytesMessage.getBodyLength()];
+            bytesMessage.readBytes(archived.bytes);
+        } else if (message instanceof MapMessage mapMessage) {
+            archived.bodyType = BodyType.MAP;
+            archived.map = new LinkedHashMap<>();
+            Enumeration<?> keys = mapMessage.getMapNames();
+            while (keys.hasMoreElements()) {
+                String key = (String) keys.nextElement();
+                archived.map.put(key, mapMessage.getObject(key));
+            }
+        } else if (message instanceof ObjectMessage) {
+            archived.bodyType = BodyType.OBJECT;
+        } else if (message instanceof StreamMessage) {
+            archived.bodyType = BodyType.STREAM;
+        }
+        return archived;
+    }
+    
+    private static String describe(Destination destination) {
+        return destination != null ? destination.toString() : null;
+    }
+    
+    public String getMessageId() {
+        return messageId;
+    }
+    
+    public String getCorrelationId() {
+        return correlationId;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public boolean isPersistent() {
+        return persistent;
+    }
+    
+    public long getExpiration() {
+        return expiration;
+    }
+    
+    public boolean isRedelivered() {
+        return redelivered;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public String getReplyTo() {
+        return replyTo;
+    }
+    
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+    
+    public BodyType getBodyType() {
+        return bodyType;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public void setText(String text) {
+        this.text = text;
+    }
+    
+    public byte[] getBytes() {
+        return bytes;
+    }
+    
+    public void setBytes(byte[] bytes) {
+        this.bytes = bytes;
+    }
+    
+    public Map<String, Object> getMap() {
+        return map;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.activemq.artemis.jms.client.ActiveMQConnectionFactory;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ActiveMQ Artemis native client, speaking the core protocol ({@code tcp://host:61616}).
+ */
+public class ArtemisCoreConnectionFactoryProvider implements ConnectionFactoryProvider {
+    
+    @Override
+    public ConnectionFactory createConnectionFactory(String brokerURL, ServerConfiguration sslConfig) throws Exception {
+        String url = brokerURL;
+        if (sslConfig != null && sslConfig.isUseSsl()) {
+            url = withSslParameters(brokerURL, sslConfig);
+        }
+        if (sslConfig != null && sslConfig.getConnectTimeout() > 0) {
+            url += (url.contains("?") ? "&" : "?") + "connectTimeoutMillis=" + sslConfig.getConnectTimeout();
+        }
+        ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(url);
+        if (sslConfig != null && sslConfig.getSendTimeout() > 0) {
+            // Blocking calls, including durable sends, wait at most this long for the broker
+            factory.setCallTimeout(sslConfig.getSendTimeout());
+        }
+        return factory;
+    }
+    
+    /**
+     * The Artemis client reads its SSL settings from the URL, so the stores are passed as parameters.
+     */
+    private String withSslParameters(String brokerURL, ServerConfiguration sslConfig) {
+        StringBuilder url = new StringBuilder(brokerURL);
+        char separator = brokerURL.contains("?") ? '&' : '?';
+        
+        url.append(separator).append("sslEnabled=true");
+        if (sslConfig.isSkipCertificateValidation()) {
+            appendParameter(url, "trustAll", "true");
+        } else if (sslConfig.getTrustStorePath() != null && !sslConfig.getTrustStorePath().trim().isEmpty()) {
+            String trustStorePath = sslConfig.getTrustStorePath().trim();
+            appendParameter(url, "trustStorePath", trustStorePath);
+            if (SSLContextHelper.isPEMTrustStore(trustStorePath)) {
+                // PEM CA bundles are read by the pem-keystore provider bundled with the client
+                appendParameter(url, "trustStoreType", "PEMCA");
+            } else {
+                appendParameter(url, "trustStoreType", SSLContextHelper.detectKeyStoreType(trustStorePath));
+                appendParameter(url, "trustStorePassword", sslConfig.getTrustStorePassword());
+            }
+        }
+        if (sslConfig.getKeyStorePath() != null && !sslConfig.getKeyStorePath().trim().isEmpty()) {
+            String keyStorePath = sslConfig.getKeyStorePath().trim();
+            appendParameter(url, "keyStorePath", keyStorePath);
+            appendParameter(url, "keyStoreType", SSLContextHelper.detectKeyStoreType(keyStorePath));
+            appendParameter(url, "keyStorePassword", sslConfig.getKeyStorePassword());
+        }
+        return url.toString();
+    }
+    
+    private void appendParameter(StringBuilder url, String name, String value) {
+        if (value != null && !value.isEmpty()) {
+            url.append('&').append(name).append('=').append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+        }
+    }
+}
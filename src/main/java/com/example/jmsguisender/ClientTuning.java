@@ -0,0 +1,186 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * ActiveMQ (OpenWire) client tuning. Numeric settings of 0 keep the client default.
+ * <p>
+ * Connection factory settings ({@code useAsyncSend}, {@code producerWindowSize}, ...) are applied to the
+ * factory; socket settings are added to the transport URL. Connections are cached per {@link #cacheKey()},
+ * so different tunings against the same broker get their own connections.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClientTuning {
+    
+    @JsonProperty("useAsyncSend")
+    private boolean useAsyncSend;
+    
+    @JsonProperty("producerWindowSize")
+    private int producerWindowSize;
+    
+    @JsonProperty("useCompression")
+    private boolean useCompression;
+    
+    @JsonProperty("optimizeAcknowledge")
+    private boolean optimizeAcknowledge;
+    
+    @JsonProperty("alwaysSessionAsync")
+    private boolean alwaysSessionAsync;
+    
+    @JsonProperty("prefetch")
+    private int prefetch;
+    
+    @JsonProperty("socketBufferSize")
+    private int socketBufferSize;
+    
+    @JsonProperty("ioBufferSize")
+    private int ioBufferSize;
+    
+    @JsonProperty("tcpNoDelay")
+    private boolean tcpNoDelay;
+    
+    public ClientTuning() {
+        // ActiveMQ client defaults
+        this.useAsyncSend = false;
+        this.producerWindowSize = 0;
+        this.useCompression = false;
+        this.optimizeAcknowledge = false;
+        this.alwaysSessionAsync = true;
+        this.prefetch = 0;
+        this.socketBufferSize = 0;
+        this.ioBufferSize = 0;
+        this.tcpNoDelay = false;
+    }
+    
+    public ClientTuning(ClientTuning other) {
+        this.useAsyncSend = other.useAsyncSend;
+        this.producerWindowSize = other.producerWindowSize;
+        this.useCompression = other.useCompression;
+        this.optimizeAcknowledge = other.optimizeAcknowledge;
+        this.alwaysSessionAsync = other.alwaysSessionAsync;
+        this.prefetch = other.prefetch;
+        this.socketBufferSize = other.socketBufferSize;
+        this.ioBufferSize = other.ioBufferSize;
+        this.tcpNoDelay = other.tcpNoDelay;
+    }
+    
+    public boolean isUseAsyncSend() {
+        return useAsyncSend;
+    }
+    
+    public void setUseAsyncSend(boolean useAsyncSend) {
+        this.useAsyncSend = useAsyncSend;
+    }
+    
+    public int getProducerWindowSize() {
+        return producerWindowSize;
+    }
+    
+    public void setProducerWindowSize(int producerWindowSize) {
+        this.producerWindowSize = producerWindowSize;
+    }
+    
+    public boolean isUseCompression() {
+        return useCompression;
+    }
+    
+    public void setUseCompression(boolean useCompression) {
+        this.useCompression = useCompression;
+    }
+    
+    public boolean isOptimizeAcknowledge() {
+        return optimizeAcknowledge;
+    }
+    
+    public void setOptimizeAcknowledge(boolean optimizeAcknowledge) {
+        this.optimizeAcknowledge = optimizeAcknowledge;
+    }
+    
+    public boolean isAlwaysSessionAsync() {
+        return alwaysSessionAsync;
+    }
+    
+    public void setAlwaysSessionAsync(boolean alwaysSessionAsync) {
+        this.alwaysSessionAsync = alwaysSessionAsync;
+    }
+    
+    public int getPrefetch() {
+        return prefetch;
+    }
+    
+    public void setPrefetch(int prefetch) {
+        this.prefetch = prefetch;
+    }
+    
+    public int getSocketBufferSize() {
+        return socketBufferSize;
+    }
+    
+    public void setSocketBufferSize(int socketBufferSize) {
+        this.socketBufferSize = socketBufferSize;
+    }
+    
+    public int getIoBufferSize() {
+        return ioBufferSize;
+    }
+    
+    public void setIoBufferSize(int ioBufferSize) {
+        this.ioBufferSize = ioBufferSize;
+    }
+    
+    public boolean isTcpNoDelay() {
+        return tcpNoDelay;
+    }
+    
+    public void setTcpNoDelay(boolean tcpNoDelay) {
+        this.tcpNoDelay = tcpNoDelay;
+    }
+    
+    /**
+     * Transport URL options for the socket settings, e.g. {@code tcpNoDelay=true&socketBufferSize=131072},
+     * or an empty string when all are left at their defaults.
+     */
+    public String transportOptions() {
+        StringBuilder options = new StringBuilder();
+        if (tcpNoDelay) {
+            options.append("tcpNoDelay=true");
+        }
+        if (socketBufferSize > 0) {
+            options.append(options.length() > 0 ? "&" : "").append("socketBufferSize=").append(socketBufferSize);
+        }
+        if (ioBufferSize > 0) {
+            options.append(options.length() > 0 ? "&" : "").append("ioBufferSize=").append(ioBufferSize);
+        }
+        return options.toString();
+    }
+    
+    /**
+     * Identifies the tuning in the connection cache.
+     */
+    public String cacheKey() {
+        return "async:" + useAsyncSend + ",window:" + producerWindowSize + ",compress:" + useCompression +
+            ",optimizeAck:" + optimizeAcknowledge + ",sessionAsync:" + alwaysSessionAsync + ",prefetch:" + prefetch +
+            ",socketBuffer:" + socketBufferSize + ",ioBuffer:" + ioBufferSize + ",noDelay:" + tcpNoDelay;
+    }
+    
+    @Override
+    public String toString() {
+        return cacheKey();
+    }
+}
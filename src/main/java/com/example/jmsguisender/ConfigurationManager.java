@@ -56,15 +56,10 @@ public class ConfigurationManager {
                 String jsonContent = Files.readString(CONFIG_PATH);
                 ServerConfiguration config = objectMapper.readValue(jsonContent, ServerConfiguration.class);
                 
-                // Decode password if it exists
-                if (config.getPassword() != null && !config.getPassword().isEmpty()) {
-                    try {
-                        String decodedPassword = new String(Base64.getDecoder().decode(config.getPassword()));
-                        config.setPassword(decodedPassword);
-                    } catch (IllegalArgumentException e) {
-                        // Password might not be encoded, leave as is
-                    }
-                }
+                // Decode passwords if they exist
+                config.setPassword(decode(config.getPassword()));
+                config.setTrustStorePassword(decode(config.getTrustStorePassword()));
+                config.setKeyStorePassword(decode(config.getKeyStorePassword()));
                 
                 return config;
             }
@@ -78,22 +73,11 @@ public class ConfigurationManager {
     
     public void saveConfiguration(ServerConfiguration config) {
         try {
-            // Create a copy for saving with encoded password
-            ServerConfiguration configToSave = new ServerConfiguration(
-                config.getServerUrl(),
-                config.getUsername(),
-                config.getPassword(),
-                config.getLastDestination(),
-                config.isTopicSelected()
-            );
-            
-            // Encode password for storage (simple Base64 - not for high security)
-            if (configToSave.getPassword() != null && !configToSave.getPassword().isEmpty()) {
-                String encodedPassword = Base64.getEncoder().encodeToString(
-                    configToSave.getPassword().getBytes()
-                );
-                configToSave.setPassword(encodedPassword);
-            }
+            // Create a copy for saving with encoded passwords
+            ServerConfiguration configToSave = new ServerConfiguration(config);
+            configToSave.setPassword(encode(configToSave.getPassword()));
+            configToSave.setTrustStorePassword(encode(configToSave.getTrustStorePassword()));
+            configToSave.setKeyStorePassword(encode(configToSave.getKeyStorePassword()));
             
             String jsonContent = objectMapper.writeValueAsString(configToSave);
             Files.writeString(CONFIG_PATH, jsonContent);
@@ -103,6 +87,28 @@ public class ConfigurationManager {
         }
     }
     
+    /**
+     * Encodes a password for storage (simple Base64 - not for high security).
+     */
+    private static String encode(String password) {
+        if (password == null || password.isEmpty()) {
+            return password;
+        }
+        return Base64.getEncoder().encodeToString(password.getBytes());
+    }
+    
+    private static String decode(String password) {
+        if (password == null || password.isEmpty()) {
+            return password;
+        }
+        try {
+            return new String(Base64.getDecoder().decode(password));
+        } catch (IllegalArgumentException e) {
+            // Password might not be encoded, leave as is
+            return password;
+        }
+    }
+    
     public void clearConfiguration() {
         try {
             if (Files.exists(CONFIG_PATH)) {
@@ -120,4 +126,27 @@ public class ConfigurationManager {
     public String getConfigurationPath() {
         return CONFIG_PATH.toString();
     }
+    
+    public static Path getConfigurationDirectory() {
+        return Paths.get(CONFIG_DIR);
+    }
+    
+    public static Path getSpoolDirectory() {
+        return getConfigurationDirectory().resolve("spool");
+    }
+    
+    public static Path getRunsDirectory() {
+        return getConfigurationDirectory().resolve("runs");
+    }
+    
+    /**
+     * Resolves the journal directory of a configuration, defaulting to {@code journal} in the configuration directory.
+     */
+    public static Path resolveJournalDirectory(ServerConfiguration config) {
+        String directory = config.getJournalDirectory();
+        if (directory == null || directory.trim().isEmpty()) {
+            return getConfigurationDirectory().resolve("journal");
+        }
+        return Paths.get(directory.trim());
+    }
 }
\ No newline at end of file
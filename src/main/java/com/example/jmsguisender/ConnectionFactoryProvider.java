@@ -0,0 +1,31 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.ConnectionFactory;
+
+/**
+ * Creates the JMS connection factory of one client library, so that the same broker can be
+ * reached over different wire protocols.
+ */
+public interface ConnectionFactoryProvider {
+    
+    /**
+     * @param brokerURL  the broker URL, in the syntax of this client library
+     * @param sslConfig  the SSL settings, applied when {@link ServerConfiguration#isUseSsl()} is set; may be {@code null}
+     */
+    ConnectionFactory createConnectionFactory(String brokerURL, ServerConfiguration sslConfig) throws Exception;
+}
@@ -0,0 +1,716 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.jms.JMSException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Embedded HTTP server that lets scripts drive a long-lived sender, so that test orchestration does
+ * not pay JVM start-up and connection setup for every message or run.
+ * <p>
+ * Requests and responses are JSON:
+ * <ul>
+ *   <li>{@code POST /send}: send a message, or {@code count} messages in a row, waiting while the
+ *       queue holds more than {@code maxDepth}</li>
+ *   <li>{@code POST /runs}: start a load run along a rate profile; {@code GET /runs} and
+ *       {@code GET /runs/{id}} report progress and {@code POST /runs/{id}/stop} stops it</li>
+ *   <li>{@code GET /status}: uptime, running runs and the default broker</li>
+ *   <li>{@code GET /metrics}: messages sent and failed, and send latency, since start-up</li>
+ *   <li>{@code POST /stop}: stop every run, and the server too with {@code {"shutdown": true}}</li>
+ * </ul>
+ * Message fields not given in a request default to the configuration the server was started with.
+ * Finished runs, and sends of more than one message, are kept in the {@link RunStore} under
+ * their {@code tag}.
+ * Every request must carry the server's token as {@code Authorization: Bearer <token>}, and request
+ * bodies must be {@code application/json}, so that web pages open in a browser cannot make requests
+ * (they cannot set either header without a CORS preflight, which this server does not answer).
+ * Requests can only send to the default broker and the brokers allowed with
+ * {@link #setAllowedBrokerUrls(Collection)}, as the stored credentials are used for every broker.
+ * The token is the only protection, so the server should still stay bound to the loopback interface.
+ */
+public class ControlServer implements Closeable {
+    
+    public static final int DEFAULT_PORT = 8790;
+    
+    private static final long STOP_GRACE_SECONDS = 5;
+    private static final int MAX_COUNT = 1_000_000;
+    
+    private final JMSSender sender;
+    private final ServerConfiguration defaults;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SendExecutor runExecutor = new SendExecutor();
+    private final Map<Integer, Run> runs = new ConcurrentHashMap<>();
+    private final AtomicInteger nextRunId = new AtomicInteger(1);
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+    private final CountDownLatch closed = new CountDownLatch(1);
+    private final long startedAt = System.currentTimeMillis();
+    private volatile Consumer<String> listener = message -> { };
+    private volatile RunStore runStore = RunStore.local();
+    private volatile Set<String> allowedBrokerUrls = Set.of();
+    private volatile byte[] token = newToken().getBytes(StandardCharsets.US_ASCII);
+    private HttpServer server;
+    private ExecutorService handlerExecutor;
+    
+    public ControlServer(JMSSender sender, ServerConfiguration defaults) {
+        this.sender = sender;
+        this.defaults = defaults;
+    }
+    
+    /**
+     * Sets the callback receiving a line per request and run, from the handler threads.
+     */
+    public void setListener(Consumer<String> listener) {
+        this.listener = listener != null ? listener : message -> { };
+    }
+    
+    /**
+     * Sets the store finished runs and bulk sends are kept in, or {@code null} to keep none.
+     */
+    public void setRunStore(RunStore runStore) {
+        this.runStore = runStore;
+    }
+    
+    /**
+     * Sets the broker URLs requests may name in {@code url}, besides the default broker.
+     */
+    public void setAllowedBrokerUrls(Collection<String> urls) {
+        this.allowedBrokerUrls = Set.copyOf(urls);
+    }
+    
+    /**
+     * The token requests must send as {@code Authorization: Bearer <token>}; a random one per server
+     * unless set with {@link #setToken(String)}.
+     */
+    public String getToken() {
+        return new String(token, StandardCharsets.US_ASCII);
+    }
+    
+    public void setToken(String token) {
+        if (token == null || token.length() < 16) {
+            throw new IllegalArgumentException("The token must have at least 16 characters");
+        }
+        this.token = token.getBytes(StandardCharsets.US_ASCII);
+    }
+    
+    private static String newToken() {
+        byte[] random = new byte[24];
+        new SecureRandom().nextBytes(random);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(random);
+    }
+    
+    /**
+     * Starts serving; every request is handled on its own virtual thread.
+     */
+    public synchronized void start(InetSocketAddress address) throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Already started");
+        }
+        server = HttpServer.create(address, 0);
+        handlerExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("control-http-", 0).factory());
+        server.setExecutor(handlerExecutor);
+        server.createContext("/send", exchange -> handle(exchange, "POST", this::send));
+        server.createContext("/runs", this::handleRuns);
+        server.createContext("/status", exchange -> handle(exchange, "GET", body -> status()));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", body -> metrics()));
+        server.createContext("/stop", exchange -> handle(exchange, "POST", this::stop));
+        server.start();
+    }
+    
+    public synchronized InetSocketAddress getAddress() {
+        return server != null ? server.getAddress() : null;
+    }
+    
+    /**
+     * Blocks until the server is closed, e.g. by {@code POST /stop} with {@code shutdown}.
+     */
+    public void awaitClose() throws InterruptedException {
+        closed.await();
+    }
+    
+    /**
+     * Stops every run and the server. The sender is left open for its owner to close.
+     */
+    @Override
+    public synchronized void close() {
+        if (server == null) {
+            return;
+        }
+        runExecutor.cancelAll();
+        runExecutor.shutdown(STOP_GRACE_SECONDS, TimeUnit.SECONDS);
+        server.stop(0);
+        handlerExecutor.shutdownNow();
+        server = null;
+        closed.countDown();
+    }
+    
+    private Object send(byte[] body) throws Exception {
+        SendBody request = parse(body, SendBody.class);
+        int count = request.count != null ? request.count : 1;
+        if (count < 1 || count > MAX_COUNT) {
+            throw new IllegalArgumentException("count must be between 1 and " + MAX_COUNT);
+        }
+        SendRequest sendRequest = toSendRequest(request);
+        DepthMonitor monitor = startDepthMonitor(request, sendRequest, List.of(sendRequest.getDestination()));
+        long start = System.nanoTime();
+        BulkRecorder bulk = count > 1 ? new BulkRecorder(start) : null;
+        int sentNow = 0;
+        try {
+            for (; sentNow < count; sentNow++) {
+                if (monitor != null) {
+                    monitor.awaitBelowMaxDepth();
+                }
+                long begin = System.nanoTime();
+                sender.sendMessage(sendRequest);
+                long sendTime = System.nanoTime() - begin;
+                sendLatency.record(sendTime);
+                sent.increment();
+                if (bulk != null) {
+                    bulk.record(sendTime);
+                }
+            }
+        } catch (JMSException | RuntimeException e) {
+            // Connect failures surface as RuntimeExceptions
+            failed.increment();
+            throw new SendFailedException(sentNow, e);
+        } finally {
+            if (monitor != null) {
+                monitor.close();
+            }
+        }
+        listener.accept("Sent " + count + " message(s) to " + sendRequest.getDestination());
+        
+        long elapsed = System.nanoTime() - start;
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("sent", count);
+        response.put("destination", sendRequest.getDestination());
+        response.put("elapsedMillis", elapsed / 1_000_000.0);
+        if (bulk != null) {
+            String storedRun = storeRun("bulk", request.tag, sendRequest, Map.of("count", count),
+                bulk.result("bulk of " + count, elapsed));
+            if (storedRun != null) {
+                response.put("storedRun", storedRun);
+            }
+        }
+        return response;
+    }
+    
+    private void handleRuns(HttpExchange exchange) throws IOException {
+        String[] path = exchange.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+        // "", "runs"[, id[, "stop"]]
+        if (path.length == 2) {
+            if ("POST".equals(exchange.getRequestMethod())) {
+                handle(exchange, "POST", this::startRun);
+            } else {
+                handle(exchange, "GET", body -> runs.values().stream().map(Run::describe).toList());
+            }
+            return;
+        }
+        Run run = null;
+        try {
+            run = runs.get(Integer.parseInt(path[2]));
+        } catch (NumberFormatException e) {
+            // Unknown run
+        }
+        if (run == null || path.length > 4 || (path.length == 4 && !"stop".equals(path[3]))) {
+            respond(exchange, 404, error("Not found: " + exchange.getRequestURI().getPath()));
+            return;
+        }
+        Run found = run;
+        if (path.length == 4) {
+            handle(exchange, "POST", body -> {
+                found.stop();
+                return found.describe();
+            });
+        } else {
+            handle(exchange, "GET", body -> found.describe());
+        }
+    }
+    
+    private Object startRun(byte[] body) throws Exception {
+        RunBody request = parse(body, RunBody.class);
+        RateProfile profile = RateProfile.parse(request.profile != null ? request.profile : "constant:100");
+        int duration = request.duration != null ? request.duration : 60;
+        int concurrency = request.concurrency != null ? request.concurrency : 4;
+        SendRequest sendRequest = toSendRequest(request);
+        List<SendRequest> requests;
+        try {
+            requests = sender.resolveDestinations(sendRequest).stream().map(sendRequest::withDestination).toList();
+        } catch (RuntimeException e) {
+            // A connect failure, which is the broker's fault like a JMSException
+            throw new JMSException(e.getMessage(), null, e);
+        }
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("No destinations match '" + sendRequest.getDestination() + "'");
+        }
+        
+        Run run = new Run(nextRunId.getAndIncrement(), profile.describe(), duration, concurrency);
+        RateScheduler scheduler = new RateScheduler(profile, duration, concurrency, sequence -> {
+            long begin = System.nanoTime();
+            try {
+                sender.sendMessage(requests.get((int) (sequence % requests.size())));
+            } catch (Exception e) {
+                failed.increment();
+                throw e;
+            }
+            sendLatency.record(System.nanoTime() - begin);
+            sent.increment();
+        });
+        scheduler.setProgressListener(sample -> run.latest = sample);
+        DepthMonitor monitor = startDepthMonitor(request, sendRequest, requests.stream().map(SendRequest::getDestination).toList());
+        if (monitor != null) {
+            scheduler.setPauseCondition(monitor::isOverMaxDepth);
+        }
+        run.scheduler = scheduler;
+        runs.put(run.id, run);
+        runExecutor.submit("Run " + run.id, () -> {
+            try {
+                run.result = scheduler.run();
+            } finally {
+                if (monitor != null) {
+                    monitor.close();
+                }
+            }
+            listener.accept("Run " + run.id + " finished: " + run.result.summary());
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("profile", profile.describe());
+            parameters.put("duration", duration);
+            parameters.put("concurrency", concurrency);
+            parameters.put("destinations", requests.size());
+            run.storedRun = storeRun("load", request.tag, sendRequest, parameters, run.result);
+        }, e -> {
+            run.error = e.getMessage();
+            listener.accept("ERROR: Run " + run.id + " failed: " + e.getMessage());
+        }, scheduler::stop);
+        listener.accept("Run " + run.id + " started: " + run.profile + " for " + duration + "s, concurrency " +
+            concurrency + ", to " + requests.size() + " destination(s)");
+        return new Accepted(run.describe());
+    }
+    
+    /**
+     * Keeps a finished run in the run store, if there is one.
+     *
+     * @return the stored run's ID, or {@code null}
+     */
+    private String storeRun(String kind, String tag, SendRequest request, Map<String, Object> parameters,
+                            LoadRunResult result) {
+        RunStore store = runStore;
+        if (store == null) {
+            return null;
+        }
+        try {
+            String id = store.save(RunRecord.of(kind, tag, request, parameters, result));
+            listener.accept("Stored as run " + id);
+            return id;
+        } catch (IOException e) {
+            listener.accept("WARNING: Failed to store the run: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private Object status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("uptimeSeconds", (System.currentTimeMillis() - startedAt) / 1000);
+        status.put("brokerUrl", defaults.getServerUrl());
+        status.put("destination", defaults.getLastDestination());
+        status.put("runningRuns", runs.values().stream().filter(Run::isRunning).count());
+        status.put("runs", runs.size());
+        return status;
+    }
+    
+    private Object metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sent", sent.sum());
+        metrics.put("failed", failed.sum());
+        metrics.put("sendLatencyMillis", latencyMillis(sendLatency));
+        return metrics;
+    }
+    
+    private Object stop(byte[] body) throws IOException {
+        StopBody request = body.length > 0 ? parse(body, StopBody.class) : new StopBody();
+        int stopped = 0;
+        for (Run run : runs.values()) {
+            if (run.isRunning()) {
+                run.stop();
+                stopped++;
+            }
+        }
+        if (request.shutdown) {
+            listener.accept("Shutdown requested");
+            // After this response has been written
+            Thread.ofVirtual().start(this::close);
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("stoppedRuns", stopped);
+        response.put("shutdown", request.shutdown);
+        return response;
+    }
+    
+    /**
+     * Watches the queues of a request with {@code maxDepth}, so that its sends can wait while one is too deep.
+     *
+     * @return the started monitor, or {@code null} without {@code maxDepth}
+     */
+    private DepthMonitor startDepthMonitor(SendBody request, SendRequest sendRequest, List<String> destinations) {
+        if (request.maxDepth == null) {
+            return null;
+        }
+        if (request.maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be positive");
+        }
+        DepthMonitor monitor = new DepthMonitor(sender, sendRequest, destinations);
+        monitor.setMaxDepth(request.maxDepth);
+        monitor.setListener(listener);
+        monitor.start();
+        return monitor;
+    }
+    
+    private SendRequest toSendRequest(SendBody request) throws IOException {
+        ServerConfiguration config = new ServerConfiguration(defaults);
+        if (request.json != null) {
+            config.setJsonMode(JsonPayloadProcessor.Mode.parse(request.json));
+        }
+        if (request.generate != null) {
+            config.setGeneratePayloads(request.generate);
+        }
+        if (request.persistent != null) {
+            config.setPersistentDelivery(request.persistent);
+        }
+        String destination = request.destination != null ? request.destination : config.getLastDestination();
+        if (destination == null || destination.trim().isEmpty()) {
+            throw new IllegalArgumentException("destination is required (no default destination)");
+        }
+        if (request.payload == null) {
+            throw new IllegalArgumentException("payload is required");
+        }
+        boolean topic = request.topic != null ? request.topic : config.isTopicSelected();
+        SendRequest sendRequest = SendRequest.of(config, destination.trim(), topic, request.payload, request.headers);
+        if (request.url != null && !request.url.equals(config.getServerUrl())) {
+            if (!allowedBrokerUrls.contains(request.url)) {
+                throw new IllegalArgumentException("url must be the default broker or an allowed one: " + request.url);
+            }
+            sendRequest = sendRequest.withBrokerUrl(request.url);
+        }
+        JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(sendRequest);
+        return PayloadGenerator.attach(sendRequest.withPayload(json.orThrow()));
+    }
+    
+    private <T> T parse(byte[] body, Class<T> type) throws IOException {
+        if (body.length == 0) {
+            throw new IllegalArgumentException("A JSON request body is required");
+        }
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid request: " + e.getOriginalMessage());
+        }
+    }
+    
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(byte[] body) throws Exception;
+    }
+    
+    private void handle(HttpExchange exchange, String method, Handler handler) throws IOException {
+        try (exchange) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                respond(exchange, 405, error("Use " + method + " for " + exchange.getRequestURI().getPath()));
+                return;
+            }
+            if (!isAuthorized(exchange)) {
+                exchange.getResponseHeaders().set("WWW-Authenticate", "Bearer");
+                respond(exchange, 401, error("Missing or wrong token"));
+                return;
+            }
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (body.length > 0 && (contentType == null ||
+                !contentType.trim().toLowerCase(Locale.ROOT).matches("application/json\\s*(;.*)?"))) {
+                respond(exchange, 415, error("Request bodies must be sent as Content-Type: application/json"));
+                return;
+            }
+            try {
+                Object response = handler.handle(body);
+                if (response instanceof Accepted accepted) {
+                    respond(exchange, 202, accepted.body);
+                } else {
+                    respond(exchange, 200, response);
+                }
+            } catch (IllegalArgumentException e) {
+                respond(exchange, 400, error(e.getMessage()));
+            } catch (SendFailedException e) {
+                Map<String, Object> response = error(e.getMessage());
+                response.put("sent", e.sent);
+                respond(exchange, 502, response);
+            } catch (JMSException e) {
+                respond(exchange, 502, error(e.getMessage()));
+            } catch (Exception e) {
+                listener.accept("ERROR: " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e.getMessage());
+                respond(exchange, 500, error(e.getMessage()));
+            }
+        }
+    }
+    
+    private boolean isAuthorized(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        if (authorization == null || !authorization.regionMatches(true, 0, "Bearer ", 0, 7)) {
+            return false;
+        }
+        byte[] given = authorization.substring(7).trim().getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(given, token);
+    }
+    
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+    
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        return error;
+    }
+    
+    private static Map<String, Object> latencyMillis(LatencyHistogram histogram) {
+        Map<String, Object> latency = new LinkedHashMap<>();
+        latency.put("count", histogram.getCount());
+        latency.put("mean", histogram.getMean() / 1e6);
+        latency.put("p50", histogram.getValueAtPercentile(50) / 1e6);
+        latency.put("p90", histogram.getValueAtPercentile(90) / 1e6);
+        latency.put("p99", histogram.getValueAtPercentile(99) / 1e6);
+        latency.put("p99.9", histogram.getValueAtPercentile(99.9) / 1e6);
+        latency.put("max", histogram.getMax() / 1e6);
+        return latency;
+    }
+    
+    /**
+     * Response body to send with 202 Accepted.
+     */
+    private record Accepted(Object body) {
+    }
+    
+    private static class SendFailedException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        private final int sent;
+        
+        SendFailedException(int sent, Exception cause) {
+            super("Send failed after " + sent + " message(s): " + cause.getMessage(), cause);
+            this.sent = sent;
+        }
+    }
+    
+    /**
+     * A load run started over HTTP.
+     */
+    private static class Run {
+        private final int id;
+        private final String profile;
+        private final int duration;
+        private final int concurrency;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile RateScheduler scheduler;
+        private volatile LoadRunSample latest;
+        private volatile LoadRunResult result;
+        private volatile String storedRun;
+        private volatile String error;
+        
+        Run(int id, String profile, int duration, int concurrency) {
+            this.id = id;
+            this.profile = profile;
+            this.duration = duration;
+            this.concurrency = concurrency;
+        }
+        
+        boolean isRunning() {
+            return result == null && error == null;
+        }
+        
+        /**
+         * Ends the run early, keeping the result of the sends made so far.
+         */
+        void stop() {
+            scheduler.stop();
+        }
+        
+        Map<String, Object> describe() {
+            Map<String, Object> run = new LinkedHashMap<>();
+            run.put("id", id);
+            run.put("profile", profile);
+            run.put("durationSeconds", duration);
+            run.put("concurrency", concurrency);
+            run.put("startedAt", startedAt);
+            LoadRunResult finished = result;
+            if (error != null) {
+                run.put("status", "failed");
+                run.put("error", error);
+            } else if (finished == null) {
+                run.put("status", "running");
+                if (latest != null) {
+                    run.put("latest", latest);
+                }
+            } else {
+                run.put("status", finished.isStopped() ? "stopped" : "finished");
+                run.put("sent", finished.getSent());
+                run.put("failed", finished.getFailed());
+                run.put("throughput", finished.getThroughput());
+                run.put("latencyMillis", latencyMillis(finished.getLatency()));
+                run.put("serviceTimeMillis", latencyMillis(finished.getServiceTime()));
+                run.put("lastError", finished.getLastError());
+                run.put("samples", finished.getSamples());
+                if (storedRun != null) {
+                    run.put("storedRun", storedRun);
+                }
+            }
+            return run;
+        }
+    }
+    
+    /**
+     * Send times and per-second samples of a bulk send, so that it can be stored like a load run.
+     */
+    private static class BulkRecorder {
+        private final LatencyHistogram sendTimes = new LatencyHistogram();
+        private final LatencyHistogram windowTimes = new LatencyHistogram();
+        private final List<LoadRunSample> samples = new ArrayList<>();
+        private long nextSample;
+        private long sent;
+        private long sentInWindow;
+        
+        BulkRecorder(long start) {
+            this.nextSample = start + TimeUnit.SECONDS.toNanos(1);
+        }
+        
+        void record(long sendTime) {
+            sendTimes.record(sendTime);
+            windowTimes.record(sendTime);
+            sent++;
+            sentInWindow++;
+            long now = System.nanoTime();
+            while (now >= nextSample) {
+                samples.add(new LoadRunSample(samples.size() + 1, 0, sentInWindow, 0,
+                    windowTimes.snapshotAndReset().getValueAtPercentile(99) / 1e6));
+                sentInWindow = 0;
+                nextSample += TimeUnit.SECONDS.toNanos(1);
+            }
+        }
+        
+        LoadRunResult result(String description, long elapsedNanos) {
+            // Back to back sends: there is no schedule, so latency is the send time
+            return new LoadRunResult(description, elapsedNanos, sent, 0, sendTimes, sendTimes, samples, null, false);
+        }
+    }
+    
+    /**
+     * Body of {@code POST /send}.
+     */
+    static class SendBody {
+        @JsonProperty("url")
+        String url;
+        
+        @JsonProperty("destination")
+        String destination;
+        
+        @JsonProperty("topic")
+        Boolean topic;
+        
+        @JsonProperty("payload")
+        String payload;
+        
+        @JsonProperty("headers")
+        Map<String, Object> headers;
+        
+        @JsonProperty("persistent")
+        Boolean persistent;
+        
+        @JsonProperty("json")
+        String json;
+        
+        @JsonProperty("generate")
+        Boolean generate;
+        
+        @JsonProperty("count")
+        Integer count;
+        
+        @JsonProperty("maxDepth")
+        Long maxDepth;
+        
+        @JsonProperty("tag")
+        String tag;
+    }
+    
+    /**
+     * Body of {@code POST /runs}: a message as for {@code /send}, plus the rate profile.
+     */
+    static class RunBody extends SendBody {
+        @JsonProperty("profile")
+        String profile;
+        
+        @JsonProperty("duration")
+        Integer duration;
+        
+        @JsonProperty("concurrency")
+        Integer concurrency;
+    }
+    
+    /**
+     * Body of {@code POST /stop}.
+     */
+    static class StopBody {
+        @JsonProperty("shutdown")
+        boolean shutdown;
+    }
+}
@@ -0,0 +1,431 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.BytesMessage;
+import jakarta.jms.Connection;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.JMSException;
+import jakarta.jms.MapMessage;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TemporaryQueue;
+import jakarta.jms.TextMessage;
+import org.apache.activemq.artemis.api.jms.management.JMSManagementHelper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Polls the depth, enqueue and dequeue counts and consumer count of queues, and can hold back
+ * senders while a queue is deeper than a limit.
+ * <p>
+ * ActiveMQ Classic answers through its statistics plugin ({@code <statisticsBrokerPlugin/>} in
+ * {@code activemq.xml}), Artemis through management messages to {@code activemq.management}, which
+ * need a user with the management role. OpenWire connections use the plugin, Artemis core ones
+ * management messages; over AMQP management messages are tried first, then the plugin.
+ * <p>
+ * The limit is checked against the latest poll, so a sender can overshoot it by what it sends in one
+ * poll interval. After {@link #MAX_FAILED_POLLS} failed polls in a row the depth is unknown, and
+ * {@link #awaitBelowMaxDepth()} fails instead of waiting for a poll that may never succeed. Queues
+ * the broker gives no statistics for, e.g. without the statistics plugin, are reported once, as
+ * they do not hold back senders.
+ */
+public class DepthMonitor implements Closeable {
+    
+    public static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    public static final int MAX_FAILED_POLLS = 5;
+    
+    private static final String STATISTICS_PREFIX = "ActiveMQ.Statistics.Destination.";
+    private static final String MANAGEMENT_ADDRESS = "activemq.management";
+    private static final String RESOURCE_NAME_PROPERTY = "_AMQ_ResourceName";
+    private static final String ATTRIBUTE_PROPERTY = "_AMQ_Attribute";
+    private static final String SUCCEEDED_PROPERTY = "_AMQ_OperationSucceeded";
+    private static final long REPLY_TIMEOUT_MILLIS = 2000;
+    
+    private enum Source {
+        STATISTICS_PLUGIN, ARTEMIS_MANAGEMENT
+    }
+    
+    private final JMSSender jmsSender;
+    private final SendRequest connection;
+    private final List<String> destinations;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, DestinationStats> previous = new HashMap<>();
+    private final Set<String> withoutStats = new HashSet<>();
+    private long intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private volatile long maxDepth;
+    private volatile boolean overMaxDepth;
+    private volatile int failedPolls;
+    private volatile List<DestinationStats> latest = List.of();
+    private volatile Consumer<List<DestinationStats>> statsListener = stats -> { };
+    private volatile Consumer<String> listener = message -> { };
+    private ScheduledExecutorService pollExecutor;
+    private Source source;
+    private boolean fallBackToPlugin;
+    private Session session;
+    private MessageProducer producer;
+    private TemporaryQueue replyQueue;
+    private MessageConsumer replyConsumer;
+    private volatile String lastError;
+    
+    /**
+     * @param connection   the broker and credentials to ask, for queues; its destination and payload are not used
+     * @param destinations the queues to watch
+     */
+    public DepthMonitor(JMSSender jmsSender, SendRequest connection, List<String> destinations) {
+        if (connection.isTopic()) {
+            throw new IllegalArgumentException("Only queues have a depth");
+        }
+        if (destinations.isEmpty()) {
+            throw new IllegalArgumentException("No queues to monitor");
+        }
+        this.jmsSender = jmsSender;
+        this.connection = connection;
+        this.destinations = List.copyOf(destinations);
+        
+        Transport transport = (connection.getConfiguration() != null ? connection.getConfiguration().getTransport() : Transport.AUTO)
+            .resolve(connection.getBrokerUrl());
+        this.source = transport == Transport.OPENWIRE ? Source.STATISTICS_PLUGIN : Source.ARTEMIS_MANAGEMENT;
+        this.fallBackToPlugin = transport == Transport.AMQP;
+    }
+    
+    public List<String> getDestinations() {
+        return destinations;
+    }
+    
+    public void setInterval(long intervalMillis) {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Poll interval must be positive");
+        }
+        this.intervalMillis = intervalMillis;
+    }
+    
+    /**
+     * Depth above which {@link #isOverMaxDepth()} holds and {@link #awaitBelowMaxDepth()} blocks; 0 for none.
+     */
+    public void setMaxDepth(long maxDepth) {
+        this.maxDepth = Math.max(0, maxDepth);
+    }
+    
+    /**
+     * Sets the callback receiving the statistics of every poll, from the polling thread.
+     */
+    public void setStatsListener(Consumer<List<DestinationStats>> statsListener) {
+        this.statsListener = statsListener != null ? statsListener : stats -> { };
+    }
+    
+    /**
+     * Sets the callback receiving pauses, resumes and polling errors, from the polling thread.
+     */
+    public void setListener(Consumer<String> listener) {
+        this.listener = listener != null ? listener : message -> { };
+    }
+    
+    /**
+     * Polls once, so that senders start from a known depth, then keeps polling in the background.
+     */
+    public synchronized void start() {
+        if (pollExecutor != null) {
+            return;
+        }
+        pollQuietly();
+        pollExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "depth-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        pollExecutor.scheduleWithFixedDelay(this::pollQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * The statistics of the latest poll; queues the broker gave none for are left out.
+     */
+    public List<DestinationStats> getLatest() {
+        return latest;
+    }
+    
+    /**
+     * Whether a queue was deeper than the maximum depth at the latest poll.
+     */
+    public boolean isOverMaxDepth() {
+        return overMaxDepth;
+    }
+    
+    /**
+     * Blocks while a queue is deeper than the maximum depth.
+     *
+     * @throws JMSException if the depth is unknown, as the last {@link #MAX_FAILED_POLLS} polls failed
+     */
+    public void awaitBelowMaxDepth() throws InterruptedException, JMSException {
+        while (overMaxDepth && maxDepth > 0) {
+            if (failedPolls >= MAX_FAILED_POLLS) {
+                throw new JMSException("Queue depth unknown, " + failedPolls + " polls in a row failed. " + lastError);
+            }
+            Thread.sleep(Math.min(intervalMillis, 100));
+        }
+    }
+    
+    /**
+     * Asks the broker for the statistics of every queue now.
+     */
+    public synchronized List<DestinationStats> poll() throws JMSException {
+        List<DestinationStats> stats = new ArrayList<>(destinations.size());
+        try {
+            for (String destination : destinations) {
+                DestinationStats current = query(destination);
+                if (current != null) {
+                    stats.add(current);
+                    previous.put(destination, current);
+                    withoutStats.remove(destination);
+                } else if (withoutStats.add(destination)) {
+                    listener.accept("WARNING: No statistics for queue " + destination + " (does it exist, and is the " +
+                        "statistics plugin installed?); its depth does not hold back sends");
+                }
+            }
+        } catch (JMSException e) {
+            // The cached connection may have failed; start over on the next poll
+            closeSession();
+            throw e;
+        }
+        latest = List.copyOf(stats);
+        updateOverMaxDepth(stats);
+        statsListener.accept(latest);
+        return latest;
+    }
+    
+    private void pollQuietly() {
+        try {
+            poll();
+            lastError = null;
+            failedPolls = 0;
+        } catch (JMSException | RuntimeException e) {
+            String error = "Failed to read queue statistics: " + e.getMessage();
+            // Once per failure, not once per poll
+            if (!error.equals(lastError)) {
+                listener.accept("WARNING: " + error);
+            }
+            lastError = error;
+            failedPolls++;
+        }
+    }
+    
+    private void updateOverMaxDepth(List<DestinationStats> stats) {
+        long max = maxDepth;
+        DestinationStats deepest = stats.stream().max((a, b) -> Long.compare(a.getDepth(), b.getDepth())).orElse(null);
+        boolean over = max > 0 && deepest != null && deepest.getDepth() > max;
+        if (over && !overMaxDepth) {
+            listener.accept("Depth of " + deepest.getDestination() + " is " + deepest.getDepth() + ", above " + max + ": pausing sends");
+        } else if (!over && overMaxDepth) {
+            listener.accept("Queue depth is back to " + (deepest != null ? deepest.getDepth() : 0) + ": resuming sends");
+        }
+        overMaxDepth = over;
+    }
+    
+    private DestinationStats query(String destination) throws JMSException {
+        openSession();
+        long depth;
+        long enqueued;
+        long dequeued;
+        long consumers;
+        if (source == Source.ARTEMIS_MANAGEMENT) {
+            Long messageCount = attribute(destination, "messageCount");
+            if (messageCount == null && fallBackToPlugin) {
+                // No management address: not Artemis, so try the ActiveMQ Classic plugin from now on
+                source = Source.STATISTICS_PLUGIN;
+                listener.accept("No reply to management messages; using the ActiveMQ statistics plugin");
+                return query(destination);
+            }
+            if (messageCount == null) {
+                throw new JMSException("No reply from " + MANAGEMENT_ADDRESS + " for queue " + destination);
+            }
+            fallBackToPlugin = false;
+            depth = messageCount;
+            enqueued = orZero(attribute(destination, "messagesAdded"));
+            dequeued = orZero(attribute(destination, "messagesAcknowledged"));
+            consumers = orZero(attribute(destination, "consumerCount"));
+        } else {
+            Message reply = request(session.createQueue(STATISTICS_PREFIX + destination), session.createMessage(), destination);
+            if (!(reply instanceof MapMessage)) {
+                // The plugin does not answer for queues that do not exist (or is not installed)
+                return null;
+            }
+            MapMessage stats = (MapMessage) reply;
+            depth = stats.getLong("size");
+            enqueued = stats.getLong("enqueueCount");
+            dequeued = stats.getLong("dequeueCount");
+            consumers = stats.getLong("consumerCount");
+        }
+        
+        long now = System.currentTimeMillis();
+        DestinationStats last = previous.get(destination);
+        double seconds = last != null ? (now - last.getSampledAt()) / 1000.0 : 0;
+        double enqueueRate = seconds > 0 ? Math.max(0, enqueued - last.getEnqueueCount()) / seconds : 0;
+        double dequeueRate = seconds > 0 ? Math.max(0, dequeued - last.getDequeueCount()) / seconds : 0;
+        return new DestinationStats(destination, depth, enqueued, dequeued, consumers, enqueueRate, dequeueRate, now);
+    }
+    
+    /**
+     * Reads a queue attribute over Artemis management messages; {@code null} if there was no reply.
+     */
+    private Long attribute(String destination, String attribute) throws JMSException {
+        Message message = session.createMessage();
+        message.setStringProperty(RESOURCE_NAME_PROPERTY, "queue." + destination);
+        message.setStringProperty(ATTRIBUTE_PROPERTY, attribute);
+        Message reply = request(session.createQueue(MANAGEMENT_ADDRESS), message, destination + "/" + attribute);
+        if (reply == null) {
+            return null;
+        }
+        String result = resultOf(reply);
+        if (reply.propertyExists(SUCCEEDED_PROPERTY) && !reply.getBooleanProperty(SUCCEEDED_PROPERTY)) {
+            throw new JMSException("Reading " + attribute + " of " + destination + " failed: " + result);
+        }
+        try {
+            JsonNode node = objectMapper.readTree(result);
+            return (node.isArray() ? node.path(0) : node).asLong();
+        } catch (IOException e) {
+            throw new JMSException("Unexpected management reply for " + attribute + " of " + destination + ": " + result);
+        }
+    }
+    
+    /**
+     * The body of a management reply: a JSON array holding the result, or an error message.
+     */
+    private static String resultOf(Message reply) throws JMSException {
+        if (reply instanceof org.apache.activemq.artemis.jms.client.ActiveMQMessage) {
+            // Artemis core replies have no JMS body type; the helper reads the core message
+            Object result;
+            try {
+                result = JMSManagementHelper.getResult(reply);
+            } catch (Exception e) {
+                throw new JMSException("Unreadable management reply: " + e.getMessage());
+            }
+            return result instanceof String ? "[\"" + result + "\"]" : "[" + result + "]";
+        }
+        if (reply instanceof TextMessage) {
+            return ((TextMessage) reply).getText();
+        }
+        if (reply instanceof BytesMessage) {
+            BytesMessage bytes = (BytesMessage) reply;
+            byte[] body = new byte[(int) bytes.getBodyLength()];
+            bytes.readBytes(body);
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        return reply.getBody(String.class);
+    }
+    
+    /**
+     * Sends a request and waits for its reply, dropping late replies to earlier requests.
+     */
+    private Message request(jakarta.jms.Destination target, Message message, String correlationId) throws JMSException {
+        message.setJMSReplyTo(replyQueue);
+        message.setJMSCorrelationID(correlationId);
+        // Requests nobody answers must not pile up on the broker
+        producer.send(target, message, DeliveryMode.NON_PERSISTENT, Message.DEFAULT_PRIORITY, REPLY_TIMEOUT_MILLIS * 5);
+        long deadline = System.currentTimeMillis() + REPLY_TIMEOUT_MILLIS;
+        long remaining;
+        while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+            Message reply = replyConsumer.receive(remaining);
+            if (reply == null) {
+                return null;
+            }
+            if (reply.getJMSCorrelationID() == null || correlationId.equals(reply.getJMSCorrelationID())) {
+                return reply;
+            }
+        }
+        return null;
+    }
+    
+    private void openSession() throws JMSException {
+        if (session != null) {
+            return;
+        }
+        Connection jmsConnection = jmsSender.connect(connection.getBrokerUrl(), connection.getUsername(),
+            connection.getPassword(), connection.getConfiguration());
+        session = jmsConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        try {
+            producer = session.createProducer(null);
+            replyQueue = session.createTemporaryQueue();
+            replyConsumer = session.createConsumer(replyQueue);
+        } catch (JMSException e) {
+            closeSession();
+            throw e;
+        }
+    }
+    
+    private void closeSession() {
+        if (session == null) {
+            return;
+        }
+        try {
+            if (replyQueue != null) {
+                replyConsumer.close();
+                replyQueue.delete();
+            }
+        } catch (JMSException e) {
+            // Goes away with the session
+        }
+        try {
+            session.close();
+        } catch (JMSException e) {
+            // Already closed with its connection
+        }
+        session = null;
+        producer = null;
+        replyQueue = null;
+        replyConsumer = null;
+    }
+    
+    private static long orZero(Long value) {
+        return value != null ? value : 0;
+    }
+    
+    @Override
+    public void close() {
+        ScheduledExecutorService executor;
+        synchronized (this) {
+            executor = pollExecutor;
+            pollExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            try {
+                executor.awaitTermination(REPLY_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeSession();
+        }
+        overMaxDepth = false;
+    }
+}
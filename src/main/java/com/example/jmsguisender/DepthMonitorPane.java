@@ -0,0 +1,208 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Queue Depth tab: polls the depth, rates and consumers of queues, see {@link DepthMonitor}.
+ */
+public class DepthMonitorPane {
+    
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    
+    private final JMSSender jmsSender;
+    private final SendExecutor executor;
+    private final Supplier<SendRequest> requestSupplier;
+    private final Consumer<String> log;
+    
+    private TextField destinationsField;
+    private TextField intervalField;
+    private Button startButton;
+    private Button stopButton;
+    private Label statusLabel;
+    private TableView<DestinationStats> statsTable;
+    private volatile DepthMonitor monitor;
+    
+    /**
+     * @param executor        starts and stops the monitor
+     * @param requestSupplier captures the connection and destination from the Send tab, or returns
+     *                        {@code null} (after logging why) if it is incomplete; called on the FX thread
+     * @param log             appends a line to the log area; called on the FX thread
+     */
+    public DepthMonitorPane(JMSSender jmsSender, SendExecutor executor, Supplier<SendRequest> requestSupplier,
+                            Consumer<String> log) {
+        this.jmsSender = jmsSender;
+        this.executor = executor;
+        this.requestSupplier = requestSupplier;
+        this.log = log;
+    }
+    
+    public VBox create() {
+        Label title = new Label("Queue Depth Monitor:");
+        title.setStyle("-fx-font-weight: bold;");
+        
+        destinationsField = new TextField();
+        destinationsField.setPromptText("Queues or patterns, comma separated; the Send tab destination when empty");
+        intervalField = new TextField(String.valueOf(DepthMonitor.DEFAULT_INTERVAL_MILLIS));
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(5);
+        grid.add(new Label("Queues:"), 0, 0);
+        grid.add(destinationsField, 1, 0);
+        grid.add(new Label("Poll interval (ms):"), 0, 1);
+        grid.add(intervalField, 1, 1);
+        
+        ColumnConstraints col1 = new ColumnConstraints();
+        col1.setMinWidth(160);
+        ColumnConstraints col2 = new ColumnConstraints();
+        col2.setPrefWidth(420);
+        grid.getColumnConstraints().addAll(col1, col2);
+        
+        startButton = new Button("Start Monitoring");
+        startButton.setOnAction(e -> start());
+        stopButton = new Button("Stop");
+        stopButton.setDisable(true);
+        stopButton.setOnAction(e -> stop());
+        
+        HBox buttonBox = new HBox(10);
+        buttonBox.setAlignment(Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(startButton, stopButton);
+        
+        statusLabel = new Label("Idle");
+        
+        statsTable = new TableView<>();
+        statsTable.setPlaceholder(new Label("No statistics yet"));
+        statsTable.getColumns().add(textColumn("Queue", 220, DestinationStats::getDestination));
+        statsTable.getColumns().add(numberColumn("Depth", DestinationStats::getDepth));
+        statsTable.getColumns().add(numberColumn("In (msg/s)", stats -> Math.round(stats.getEnqueueRate())));
+        statsTable.getColumns().add(numberColumn("Out (msg/s)", stats -> Math.round(stats.getDequeueRate())));
+        statsTable.getColumns().add(numberColumn("Consumers", DestinationStats::getConsumerCount));
+        statsTable.getColumns().add(numberColumn("Enqueued", DestinationStats::getEnqueueCount));
+        statsTable.getColumns().add(numberColumn("Dequeued", DestinationStats::getDequeueCount));
+        
+        Label hint = new Label("Uses the ActiveMQ statistics plugin, or Artemis management messages (the user needs the manage role).");
+        
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+        root.getChildren().addAll(title, hint, grid, buttonBox, statusLabel, statsTable);
+        VBox.setVgrow(statsTable, Priority.ALWAYS);
+        return root;
+    }
+    
+    private static TableColumn<DestinationStats, String> textColumn(String name, double width,
+                                                                    Function<DestinationStats, String> value) {
+        TableColumn<DestinationStats, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(value.apply(cellData.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+    
+    private static TableColumn<DestinationStats, Long> numberColumn(String name, Function<DestinationStats, Long> value) {
+        TableColumn<DestinationStats, Long> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+        column.setPrefWidth(100);
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        return column;
+    }
+    
+    private void start() {
+        long interval;
+        try {
+            interval = Long.parseLong(intervalField.getText().trim());
+        } catch (NumberFormatException e) {
+            log.accept("ERROR: Invalid poll interval: " + intervalField.getText());
+            return;
+        }
+        if (interval <= 0) {
+            log.accept("ERROR: Poll interval must be positive");
+            return;
+        }
+        
+        SendRequest request = requestSupplier.get();
+        if (request == null) {
+            return;
+        }
+        String destinations = destinationsField.getText().trim();
+        SendRequest queues = destinations.isEmpty() ? request : request.withDestination(destinations);
+        if (queues.isTopic()) {
+            log.accept("ERROR: Queue depth can only be monitored for queues");
+            return;
+        }
+        
+        startButton.setDisable(true);
+        stopButton.setDisable(false);
+        statusLabel.setText("Starting...");
+        executor.submit("Queue depth monitor", () -> {
+            List<String> names = jmsSender.resolveDestinations(queues);
+            if (names.isEmpty()) {
+                throw new IllegalArgumentException("No queues match '" + queues.getDestination() + "'");
+            }
+            DepthMonitor started = new DepthMonitor(jmsSender, queues, names);
+            started.setInterval(interval);
+            started.setStatsListener(stats -> Platform.runLater(() -> {
+                statsTable.getItems().setAll(stats);
+                statusLabel.setText("Polled " + stats.size() + " of " + names.size() + " queue(s) at " +
+                    LocalTime.now().format(TIME_FORMAT));
+            }));
+            started.setListener(message -> Platform.runLater(() -> log.accept(message)));
+            monitor = started;
+            started.start();
+            Platform.runLater(() -> log.accept("Monitoring the depth of " + String.join(", ", names)));
+        }, e -> Platform.runLater(() -> {
+            log.accept("ERROR: Failed to start the queue depth monitor: " + e.getMessage());
+            finished();
+        }));
+    }
+    
+    private void stop() {
+        DepthMonitor running = monitor;
+        monitor = null;
+        finished();
+        if (running != null) {
+            // Waits for a poll in progress, so not on the FX thread
+            executor.submit("Stop queue depth monitor", running::close, null);
+        }
+    }
+    
+    private void finished() {
+        startButton.setDisable(false);
+        stopButton.setDisable(true);
+        statusLabel.setText("Idle");
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parsing of the destination field: a single name, a list separated by commas, semicolons or
+ * new lines, and wildcard patterns.
+ * <p>
+ * Wildcards follow the ActiveMQ conventions on dot separated names: {@code *} matches one
+ * segment (or part of one, e.g. {@code orders.eu*}) and {@code >} matches all remaining segments.
+ */
+public final class DestinationPattern {
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[,;\\n]");
+    
+    private DestinationPattern() {
+    }
+    
+    public static List<String> split(String field) {
+        Set<String> names = new LinkedHashSet<>();
+        if (field != null) {
+            for (String name : SEPARATORS.split(field)) {
+                if (!name.trim().isEmpty()) {
+                    names.add(name.trim());
+                }
+            }
+        }
+        return new ArrayList<>(names);
+    }
+    
+    public static boolean isWildcard(String name) {
+        return name.contains("*") || name.contains(">");
+    }
+    
+    /**
+     * Whether the field names more than one destination, directly or through a wildcard.
+     */
+    public static boolean isMultiple(String field) {
+        List<String> names = split(field);
+        return names.size() > 1 || (names.size() == 1 && isWildcard(names.get(0)));
+    }
+    
+    public static boolean matches(String pattern, String name) {
+        return toRegex(pattern).matcher(name).matches();
+    }
+    
+    /**
+     * Expands every wildcard of the list against the known destination names, keeping plain names as they are.
+     */
+    public static List<String> expand(List<String> patterns, Collection<String> knownNames) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String pattern : patterns) {
+            if (!isWildcard(pattern)) {
+                result.add(pattern);
+                continue;
+            }
+            Pattern regex = toRegex(pattern);
+            knownNames.stream()
+                .filter(name -> regex.matcher(name).matches())
+                .sorted()
+                .forEach(result::add);
+        }
+        return new ArrayList<>(result);
+    }
+    
+    private static Pattern toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        String[] segments = pattern.split("\\.", -1);
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (segment.equals(">")) {
+                regex.append(i == 0 ? ".+" : "(\\..+)?");
+                break;
+            }
+            if (i > 0) {
+                regex.append("\\.");
+            }
+            for (String literal : segment.split("\\*", -1)) {
+                regex.append(Pattern.quote(literal)).append("[^.]*");
+            }
+            // Drop the wildcard appended after the last literal
+            regex.setLength(regex.length() - "[^.]*".length());
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+/**
+ * Statistics of one destination at one poll of a {@link DepthMonitor}.
+ */
+public class DestinationStats {
+    
+    private final String destination;
+    private final long depth;
+    private final long enqueueCount;
+    private final long dequeueCount;
+    private final long consumerCount;
+    private final double enqueueRate;
+    private final double dequeueRate;
+    private final long sampledAt;
+    
+    /**
+     * @param enqueueRate messages per second added since the previous poll, 0 for the first
+     * @param dequeueRate messages per second consumed since the previous poll, 0 for the first
+     */
+    public DestinationStats(String destination, long depth, long enqueueCount, long dequeueCount, long consumerCount,
+                            double enqueueRate, double dequeueRate, long sampledAt) {
+        this.destination = destination;
+        this.depth = depth;
+        this.enqueueCount = enqueueCount;
+        this.dequeueCount = dequeueCount;
+        this.consumerCount = consumerCount;
+        this.enqueueRate = enqueueRate;
+        this.dequeueRate = dequeueRate;
+        this.sampledAt = sampledAt;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    /**
+     * Messages waiting on the destination.
+     */
+    public long getDepth() {
+        return depth;
+    }
+    
+    /**
+     * Messages added since the broker started, or the destination was created.
+     */
+    public long getEnqueueCount() {
+        return enqueueCount;
+    }
+    
+    /**
+     * Messages acknowledged since the broker started, or the destination was created.
+     */
+    public long getDequeueCount() {
+        return dequeueCount;
+    }
+    
+    public long getConsumerCount() {
+        return consumerCount;
+    }
+    
+    public double getEnqueueRate() {
+        return enqueueRate;
+    }
+    
+    public double getDequeueRate() {
+        return dequeueRate;
+    }
+    
+    public long getSampledAt() {
+        return sampledAt;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s: depth %d, in %.0f msg/s, out %.0f msg/s, %d consumer(s)",
+            destination, depth, enqueueRate, dequeueRate, consumerCount);
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Local disk queue for messages whose send failed, with automatic retries.
+ * <p>
+ * Every spooled message is one JSON file named after its generated message ID
+ * (the {@link JMSSender#MESSAGE_ID_PROPERTY} property). Retries reuse that ID,
+ * so the broker's duplicate detection or the consumer can drop a message that
+ * was delivered but not acknowledged before a crash. The file is only deleted
+ * once a resend succeeds. Retries back off exponentially; after
+ * {@link #MAX_AUTOMATIC_ATTEMPTS} failures a message is parked until it is
+ * resent explicitly with {@link #resendAll()}.
+ * <p>
+ * Due retries are found in an in-memory schedule, so a retry pass only reads the files it resends.
+ * A pass ends at the first failure to reach the broker, and the next one waits for that message's
+ * backoff instead of trying every other message against the same unreachable broker.
+ * <p>
+ * Every message keeps the send settings it failed with, so a retry uses the
+ * same transport, SSL stores and delivery options even after the settings
+ * changed. Passwords are never written to the spool: resends take them from
+ * the configuration supplier, and only when it is still for the same broker
+ * URL and user name (and the same store, for the store passwords). A failure
+ * that a retry cannot fix, such as an invalid destination, parks the message
+ * at once.
+ */
+public class FailedMessageSpool implements Closeable {
+    
+    public static final int MAX_AUTOMATIC_ATTEMPTS = 10;
+    
+    private static final long INITIAL_BACKOFF_MILLIS = 1_000;
+    private static final long MAX_BACKOFF_MILLIS = 5 * 60_000;
+    private static final long RETRY_SCAN_INTERVAL_MILLIS = 1_000;
+    private static final String FILE_SUFFIX = ".json";
+    
+    private final Path directory;
+    private final JMSSender sender;
+    private final Supplier<ServerConfiguration> configuration;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Object resendLock = new Object();
+    /** Next automatic attempt of every message that is still retried, ordered by time. */
+    private final ConcurrentSkipListSet<Due> schedule = new ConcurrentSkipListSet<>();
+    private final Map<String, Due> scheduled = new ConcurrentHashMap<>();
+    private volatile boolean scheduleLoaded;
+    private long pausedUntil;
+    private volatile Consumer<String> listener = message -> { };
+    private ScheduledExecutorService retryExecutor;
+    
+    public FailedMessageSpool(Path directory, JMSSender sender, Supplier<ServerConfiguration> configuration) throws IOException {
+        this.directory = directory;
+        this.sender = sender;
+        this.configuration = configuration;
+        Files.createDirectories(directory);
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Sets the callback receiving retry progress messages. It is called from background threads.
+     */
+    public void setListener(Consumer<String> listener) {
+        this.listener = listener != null ? listener : message -> { };
+    }
+    
+    /**
+     * Starts retrying spooled messages in the background.
+     */
+    public synchronized void start() {
+        if (retryExecutor != null) {
+            return;
+        }
+        retryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "failed-message-spool");
+            thread.setDaemon(true);
+            return thread;
+        });
+        retryExecutor.scheduleWithFixedDelay(this::retryDue, RETRY_SCAN_INTERVAL_MILLIS,
+            RETRY_SCAN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Stores a message whose send failed, scheduling its first retry.
+     *
+     * @param config the settings the send used, or {@code null}; its passwords are not stored
+     */
+    public void spool(String messageId, String brokerURL, String username, String destinationName, boolean isTopic,
+                      String messageText, Map<String, Object> customHeaders, ServerConfiguration config,
+                      Exception error) throws IOException {
+        SpooledMessage message = new SpooledMessage(messageId, brokerURL, username, destinationName, isTopic,
+            messageText, customHeaders);
+        if (config != null) {
+            ServerConfiguration settings = new ServerConfiguration(config);
+            settings.setPassword(null);
+            settings.setTrustStorePassword(null);
+            settings.setKeyStorePassword(null);
+            message.setConfiguration(settings);
+        }
+        long now = System.currentTimeMillis();
+        message.setFirstFailedAt(now);
+        message.setAttempts(1);
+        message.setNextAttemptAt(now + backoff(1));
+        message.setLastError(describe(error));
+        write(message);
+        reschedule(message);
+    }
+    
+    public int size() {
+        try (Stream<Path> files = spoolFiles()) {
+            return (int) files.count();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+    
+    public List<SpooledMessage> list() throws IOException {
+        List<SpooledMessage> messages = new ArrayList<>();
+        try (Stream<Path> files = spoolFiles()) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                SpooledMessage message = read(file);
+                if (message != null) {
+                    messages.add(message);
+                }
+            }
+        }
+        messages.sort(Comparator.comparingLong(SpooledMessage::getFirstFailedAt));
+        return messages;
+    }
+    
+    /**
+     * Resends every spooled message now, including parked ones.
+     *
+     * @return the number of messages resent successfully
+     */
+    public int resendAll() throws IOException {
+        synchronized (resendLock) {
+            int resent = 0;
+            for (SpooledMessage message : list()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                Exception error = resend(message);
+                if (error == null) {
+                    resent++;
+                } else if (JMSSender.isConnectionFailure(error)) {
+                    listener.accept("WARNING: Stopped resending, the broker is unreachable: " + message.getLastError());
+                    break;
+                }
+            }
+            return resent;
+        }
+    }
+    
+    private void retryDue() {
+        synchronized (resendLock) {
+            try {
+                if (!scheduleLoaded) {
+                    // Messages spooled by an earlier run
+                    list().forEach(this::reschedule);
+                    scheduleLoaded = true;
+                }
+                long now = System.currentTimeMillis();
+                if (now < pausedUntil) {
+                    return;
+                }
+                for (Due due : schedule) {
+                    if (due.at() > now || Thread.currentThread().isInterrupted()) {
+                        break;
+                    }
+                    SpooledMessage message = read(fileFor(due.messageId()));
+                    if (message == null) {
+                        unschedule(due.messageId());
+                        continue;
+                    }
+                    Exception error = resend(message);
+                    if (error != null && JMSSender.isConnectionFailure(error)) {
+                        pausedUntil = message.getNextAttemptAt();
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                listener.accept("WARNING: Failed to scan spool " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * @return {@code null} if the message was resent, otherwise the failure
+     */
+    private Exception resend(SpooledMessage message) throws IOException {
+        ServerConfiguration current = configuration.get();
+        ServerConfiguration config = settingsFor(message, current);
+        try {
+            sender.resendMessage(message.getBrokerUrl(), message.getUsername(), passwordFor(message, current), message.getDestination(),
+                message.getPayload(), message.isTopic(), config, message.getCustomHeaders(), message.getMessageId());
+            Files.deleteIfExists(fileFor(message.getMessageId()));
+            unschedule(message.getMessageId());
+            listener.accept("Resent spooled message " + message.getMessageId() + " to " + message.getDestination() +
+                " after " + message.getAttempts() + " failed attempt(s)");
+            return null;
+        } catch (Exception e) {
+            // Interrupted by close(): not the message's fault
+            boolean parked = !Thread.currentThread().isInterrupted() && !JMSSender.isRetryable(e);
+            int attempts = parked ? Math.max(message.getAttempts() + 1, MAX_AUTOMATIC_ATTEMPTS) : message.getAttempts() + 1;
+            message.setAttempts(attempts);
+            message.setNextAttemptAt(System.currentTimeMillis() + backoff(attempts));
+            message.setLastError(describe(e));
+            write(message);
+            reschedule(message);
+            if (parked) {
+                listener.accept("WARNING: Parked message " + message.getMessageId() +
+                    ", a retry cannot fix the failure: " + message.getLastError());
+            } else if (attempts == MAX_AUTOMATIC_ATTEMPTS) {
+                listener.accept("WARNING: Giving up automatic retries of message " + message.getMessageId() +
+                    " after " + attempts + " attempts: " + message.getLastError());
+            }
+            return e;
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        if (retryExecutor != null) {
+            retryExecutor.shutdownNow();
+            retryExecutor = null;
+        }
+    }
+    
+    private void reschedule(SpooledMessage message) {
+        unschedule(message.getMessageId());
+        if (message.getAttempts() < MAX_AUTOMATIC_ATTEMPTS) {
+            Due due = new Due(message.getNextAttemptAt(), message.getMessageId());
+            scheduled.put(due.messageId(), due);
+            schedule.add(due);
+        }
+    }
+    
+    private void unschedule(String messageId) {
+        Due due = scheduled.remove(messageId);
+        if (due != null) {
+            schedule.remove(due);
+        }
+    }
+    
+    /**
+     * The settings a message was spooled with, plus the store passwords of the current
+     * configuration where it uses the same stores. Messages spooled without settings by an
+     * earlier version use the current configuration, without its store passwords unless it is for
+     * the same broker.
+     */
+    static ServerConfiguration settingsFor(SpooledMessage message, ServerConfiguration current) {
+        ServerConfiguration saved = message.getConfiguration();
+        if (saved == null) {
+            if (current == null) {
+                return null;
+            }
+            ServerConfiguration settings = new ServerConfiguration(current);
+            settings.setPassword(null);
+            if (!Objects.equals(current.getServerUrl(), message.getBrokerUrl())) {
+                settings.setTrustStorePassword(null);
+                settings.setKeyStorePassword(null);
+            }
+            return settings;
+        }
+        ServerConfiguration settings = new ServerConfiguration(saved);
+        settings.setPassword(null);
+        settings.setTrustStorePassword(current != null && Objects.equals(current.getTrustStorePath(), saved.getTrustStorePath())
+            ? current.getTrustStorePassword() : null);
+        settings.setKeyStorePassword(current != null && Objects.equals(current.getKeyStorePath(), saved.getKeyStorePath())
+            ? current.getKeyStorePassword() : null);
+        return settings;
+    }
+    
+    /**
+     * The password of the current configuration if it is for the message's broker URL and user name.
+     */
+    static String passwordFor(SpooledMessage message, ServerConfiguration current) {
+        boolean sameLogin = current != null && Objects.equals(current.getServerUrl(), message.getBrokerUrl()) &&
+            Objects.equals(Objects.toString(current.getUsername(), ""), Objects.toString(message.getUsername(), ""));
+        return sameLogin ? current.getPassword() : null;
+    }
+    
+    static long backoff(int attempts) {
+        long backoff = INITIAL_BACKOFF_MILLIS << Math.min(attempts - 1, 20);
+        return Math.min(backoff, MAX_BACKOFF_MILLIS);
+    }
+    
+    private static String describe(Exception error) {
+        if (error == null) {
+            return null;
+        }
+        Throwable cause = error.getCause() != null ? error.getCause() : error;
+        return error.getMessage() + (cause != error ? " (" + cause.getMessage() + ")" : "");
+    }
+    
+    private Stream<Path> spoolFiles() throws IOException {
+        return Files.list(directory).filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX));
+    }
+    
+    private Path fileFor(String messageId) {
+        return directory.resolve(messageId.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_SUFFIX);
+    }
+    
+    private SpooledMessage read(Path file) {
+        try {
+            return objectMapper.readValue(file.toFile(), SpooledMessage.class);
+        } catch (IOException e) {
+            // Deleted by a concurrent resend, or unreadable
+            return null;
+        }
+    }
+    
+    private void write(SpooledMessage message) throws IOException {
+        Path target = fileFor(message.getMessageId());
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), message);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * A scheduled automatic attempt.
+     */
+    private record Due(long at, String messageId) implements Comparable<Due> {
+        @Override
+        public int compareTo(Due other) {
+            int byTime = Long.compare(at, other.at);
+            return byTime != 0 ? byTime : messageId.compareTo(other.messageId);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+/**
+ * Outcome of sending one message of a fan-out to a single destination.
+ */
+public class FanOutResult {
+    
+    private final String destination;
+    private final boolean success;
+    private final long latencyNanos;
+    private final String error;
+    
+    public FanOutResult(String destination, boolean success, long latencyNanos, String error) {
+        this.destination = destination;
+        this.success = success;
+        this.latencyNanos = latencyNanos;
+        this.error = error;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%-7s %s (%.2f ms)%s", success ? "OK" : "FAILED", destination, latencyNanos / 1e6,
+            error != null ? ": " + error : "");
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * History tab: searches the messages recorded in the send journal, see {@link SendHistory},
+ * and resends the selected ones.
+ */
+public class HistoryPane {
+    
+    private static final DateTimeFormatter TIME_FORMAT =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    
+    private final JMSSender jmsSender;
+    private final SendExecutor executor;
+    private final Supplier<Path> journalDirectory;
+    private final Supplier<SendRequest> requestSupplier;
+    private final Consumer<String> log;
+    
+    private TextField destinationField;
+    private TextField sinceField;
+    private TextField untilField;
+    private TextField headersField;
+    private TextField limitField;
+    private Button searchButton;
+    private Button resendButton;
+    private Label statusLabel;
+    private TableView<JournalRecord> resultsTable;
+    private TextArea payloadArea;
+    private SendHistory history;
+    
+    /**
+     * @param journalDirectory the directory of the send journal; called on the FX thread
+     * @param requestSupplier  captures the connection from the Send tab for resends, or returns
+     *                         {@code null} (after logging why) if it is incomplete; called on the FX thread
+     * @param log              appends a line to the log area; called on the FX thread
+     */
+    public HistoryPane(JMSSender jmsSender, SendExecutor executor, Supplier<Path> journalDirectory,
+                       Supplier<SendRequest> requestSupplier, Consumer<String> log) {
+        this.jmsSender = jmsSender;
+        this.executor = executor;
+        this.journalDirectory = journalDirectory;
+        this.requestSupplier = requestSupplier;
+        this.log = log;
+    }
+    
+    public VBox create() {
+        Label title = new Label("Sent Message History:");
+        title.setStyle("-fx-font-weight: bold;");
+        
+        destinationField = new TextField();
+        destinationField.setPromptText("Destinations or patterns, comma separated; any when empty");
+        sinceField = new TextField();
+        sinceField.setPromptText("e.g. yesterday, 2h, 2025-06-01 or 2025-06-01T10:00");
+        untilField = new TextField();
+        untilField.setPromptText("e.g. today; now when empty");
+        headersField = new TextField();
+        headersField.setPromptText("name=value, comma separated");
+        limitField = new TextField(String.valueOf(SendHistory.DEFAULT_LIMIT));
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(5);
+        grid.add(new Label("Destination:"), 0, 0);
+        grid.add(destinationField, 1, 0);
+        grid.add(new Label("Since:"), 0, 1);
+        grid.add(sinceField, 1, 1);
+        grid.add(new Label("Until:"), 0, 2);
+        grid.add(untilField, 1, 2);
+        grid.add(new Label("Headers:"), 0, 3);
+        grid.add(headersField, 1, 3);
+        grid.add(new Label("Limit:"), 0, 4);
+        grid.add(limitField, 1, 4);
+        
+        ColumnConstraints col1 = new ColumnConstraints();
+        col1.setMinWidth(160);
+        ColumnConstraints col2 = new ColumnConstraints();
+        col2.setPrefWidth(420);
+        grid.getColumnConstraints().addAll(col1, col2);
+        
+        searchButton = new Button("Search");
+        searchButton.setDefaultButton(true);
+        searchButton.setOnAction(e -> search());
+        resendButton = new Button("Resend Selected");
+        resendButton.setDisable(true);
+        resendButton.setOnAction(e -> resendSelected());
+        
+        HBox buttonBox = new HBox(10);
+        buttonBox.setAlignment(Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(searchButton, resendButton);
+        
+        statusLabel = new Label("Records sent messages while \"Record sent messages in journal\" is ticked; " +
+            "resending needs \"Include full payload\".");
+        
+        resultsTable = new TableView<>();
+        resultsTable.setPlaceholder(new Label("No messages found"));
+        resultsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        resultsTable.getColumns().add(textColumn("Sent", 170, record -> TIME_FORMAT.format(Instant.ofEpochMilli(record.getTimestamp()))));
+        resultsTable.getColumns().add(textColumn("Destination", 200,
+            record -> (record.isTopic() ? "topic://" : "queue://") + record.getDestination()));
+        resultsTable.getColumns().add(textColumn("Message ID", 220, JournalRecord::getMessageId));
+        TableColumn<JournalRecord, Integer> sizeColumn = new TableColumn<>("Bytes");
+        sizeColumn.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(cellData.getValue().getPayloadSize()));
+        sizeColumn.setStyle("-fx-alignment: CENTER-RIGHT;");
+        resultsTable.getColumns().add(sizeColumn);
+        resultsTable.getColumns().add(textColumn("Headers", 300,
+            record -> JMSSender.replayableProperties(record.getProperties()).toString()));
+        resultsTable.getSelectionModel().selectedItemProperty().addListener((observable, previous, record) -> {
+            resendButton.setDisable(record == null);
+            payloadArea.setText(record == null ? "" : record.hasPayload() ? record.getPayload()
+                : "(journaled without payload, sha256=" + record.getPayloadHashHex() + ")");
+        });
+        
+        payloadArea = new TextArea();
+        payloadArea.setEditable(false);
+        payloadArea.setPrefRowCount(6);
+        
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+        root.getChildren().addAll(title, grid, buttonBox, statusLabel, resultsTable, new Label("Payload:"), payloadArea);
+        VBox.setVgrow(resultsTable, Priority.ALWAYS);
+        return root;
+    }
+    
+    private static TableColumn<JournalRecord, String> textColumn(String name, double width,
+                                                                 Function<JournalRecord, String> value) {
+        TableColumn<JournalRecord, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(value.apply(cellData.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+    
+    private void search() {
+        long now = System.currentTimeMillis();
+        String destination = destinationField.getText().trim();
+        long from;
+        long to;
+        Map<String, String> headers;
+        int limit;
+        try {
+            from = sinceField.getText().isBlank() ? Long.MIN_VALUE
+                : SendHistory.parseTime(sinceField.getText(), now, ZoneId.systemDefault());
+            to = untilField.getText().isBlank() ? Long.MAX_VALUE
+                : SendHistory.parseTime(untilField.getText(), now, ZoneId.systemDefault());
+            headers = SendHistory.parseProperties(headersField.getText());
+            limit = Integer.parseInt(limitField.getText().trim());
+        } catch (NumberFormatException e) {
+            log.accept("ERROR: Invalid limit: " + limitField.getText());
+            return;
+        } catch (IllegalArgumentException e) {
+            log.accept("ERROR: " + e.getMessage());
+            return;
+        }
+        
+        Path directory = journalDirectory.get();
+        if (history == null || !history.getDirectory().equals(directory)) {
+            history = new SendHistory(directory);
+        }
+        SendHistory searched = history;
+        
+        searchButton.setDisable(true);
+        statusLabel.setText("Searching...");
+        executor.submit("History search", () -> {
+            long indexStart = System.nanoTime();
+            int added = searched.refresh();
+            long indexNanos = System.nanoTime() - indexStart;
+            SendHistory.Result result = searched.search(destination, from, to, headers, limit);
+            Platform.runLater(() -> {
+                resultsTable.getItems().setAll(result.getRecords());
+                statusLabel.setText(String.format(Locale.ROOT, "%,d of %,d match(es) in %.1f ms; %,d record(s) indexed, %,d new in %.1f ms",
+                    result.getRecords().size(), result.getMatches(), result.getElapsedNanos() / 1e6,
+                    searched.size(), added, indexNanos / 1e6));
+                searchButton.setDisable(false);
+            });
+        }, e -> Platform.runLater(() -> {
+            log.accept("ERROR: History search failed: " + e.getMessage());
+            statusLabel.setText("Search failed");
+            searchButton.setDisable(false);
+        }));
+    }
+    
+    private void resendSelected() {
+        List<JournalRecord> selected = new ArrayList<>(resultsTable.getSelectionModel().getSelectedItems());
+        if (selected.isEmpty()) {
+            return;
+        }
+        SendRequest request = requestSupplier.get();
+        if (request == null) {
+            return;
+        }
+        // Resend oldest first, in the order they were originally sent
+        selected.sort((a, b) -> Long.compare(a.getTimestamp(), b.getTimestamp()));
+        
+        resendButton.setDisable(true);
+        executor.submit("Resend from history", () -> {
+            int sent = 0;
+            int skipped = 0;
+            for (JournalRecord record : selected) {
+                if (!record.hasPayload()) {
+                    skipped++;
+                    continue;
+                }
+                jmsSender.sendMessage(request.getBrokerUrl(), request.getUsername(), request.getPassword(),
+                    record.getDestination(), record.getPayload(), record.isTopic(), request.getConfiguration(),
+                    JMSSender.replayableProperties(record.getProperties()));
+                sent++;
+            }
+            String summary = "SUCCESS: Resent " + sent + " message(s) from history" +
+                (skipped > 0 ? ", skipped " + skipped + " journaled without payload" : "");
+            Platform.runLater(() -> {
+                log.accept(summary);
+                resendButton.setDisable(resultsTable.getSelectionModel().isEmpty());
+            });
+        }, e -> Platform.runLater(() -> {
+            log.accept("ERROR: Resend from history failed: " + e.getMessage());
+            resendButton.setDisable(resultsTable.getSelectionModel().isEmpty());
+        }));
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.example.jmsguisender;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -27,13 +28,24 @@ import javafx.scene.control.cell.TextFieldTableCell;
 import javafx.scene.layout.*;
 import javafx.stage.FileChooser;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public class JMSGuiController {
 
+    /** Sessions created ahead of the first send by the connection warm-up. */
+    private static final int WARM_UP_SESSIONS = 4;
+
+    /** How long closing the window waits for sends in flight before cancelling them. */
+    private static final long SHUTDOWN_GRACE_SECONDS = 5;
+
     private TextField serverAddressField;
     private TextField usernameField;
     private PasswordField passwordField;
@@ -49,19 +61,60 @@ public class JMSGuiController {
     private Button browseTrustStoreButton;
     private Button browseKeyStoreButton;
     private TextArea payloadArea;
+    private ComboBox<JsonPayloadProcessor.Mode> jsonModeComboBox;
+    private Label payloadStatusLabel;
+    private CheckBox generatePayloadsCheckBox;
+    private long payloadCheck;
     private TableView<HeaderEntry> headersTable;
     private ObservableList<HeaderEntry> headersList;
     private Button addHeaderButton;
     private Button removeHeaderButton;
+    private CheckBox journalCheckBox;
+    private CheckBox journalPayloadCheckBox;
+    private CheckBox spoolCheckBox;
+    private ComboBox<Transport> transportComboBox;
+    private CheckBox persistentCheckBox;
+    private TextField priorityField;
+    private TextField timeToLiveField;
+    private TextField deliveryDelayField;
+    private CheckBox disableMessageIdCheckBox;
+    private CheckBox disableTimestampCheckBox;
+    private CheckBox asyncSendCheckBox;
+    private CheckBox compressionCheckBox;
+    private CheckBox optimizeAcknowledgeCheckBox;
+    private CheckBox sessionAsyncCheckBox;
+    private CheckBox tcpNoDelayCheckBox;
+    private TextField producerWindowField;
+    private TextField prefetchField;
+    private TextField socketBufferField;
+    private TextField ioBufferField;
+    private CheckBox shapingCheckBox;
+    private TextField latencyField;
+    private TextField jitterField;
+    private TextField bandwidthField;
+    private TextField dropIntervalField;
+    private TextField connectTimeoutField;
+    private TextField sendTimeoutField;
+    private Button resendFailedButton;
+    private Button cancelButton;
     private Button sendButton;
     private Button saveConfigButton;
     private TextArea logArea;
     private JMSSender jmsSender;
+    private SendExecutor sendExecutor;
+    private SendExecutor backgroundExecutor;
     private ConfigurationManager configManager;
     private ServerConfiguration currentConfig;
+    private Label connectionStatusLabel;
+    private String warmedUpConnection;
+    private SendJournal journal;
+    private FailedMessageSpool failedMessageSpool;
 
     public void show(Stage primaryStage) {
         jmsSender = new JMSSender();
+        // Interactive sends, which the Cancel button stops, and connection warm-ups and load runs
+        sendExecutor = new SendExecutor();
+        backgroundExecutor = new SendExecutor();
         configManager = new ConfigurationManager();
         
         primaryStage.setTitle("JMS Message Sender");
@@ -72,11 +125,34 @@ public class JMSGuiController {
 
         // Load saved configuration
         loadConfiguration();
+        openFailedMessageSpool();
+        jmsSender.setConnectionLostListener(error -> Platform.runLater(() -> {
+            warmedUpConnection = null;
+            setConnectionStatus("Disconnected", "#c62828");
+            logMessage("WARNING: Connection lost: " + error);
+        }));
+        jmsSender.setWarningListener(warning -> Platform.runLater(() -> logMessage("WARNING: " + warning)));
+        warmUpConnection();
 
         primaryStage.setOnCloseRequest(e -> {
             saveCurrentConfiguration();
-            jmsSender.close();
-            Platform.exit();
+            // Stop load runs and warm-ups, let sends in flight finish, then close the connections
+            backgroundExecutor.cancelAll();
+            if (failedMessageSpool != null) {
+                failedMessageSpool.close();
+            }
+            // Waiting for the sends can take seconds: close the window now and exit when they are done
+            Platform.setImplicitExit(false);
+            primaryStage.hide();
+            Thread.ofPlatform().name("shutdown").start(() -> {
+                sendExecutor.shutdown(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                backgroundExecutor.shutdown(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+                jmsSender.close();
+                Platform.runLater(() -> {
+                    closeJournal();
+                    Platform.exit();
+                });
+            });
         });
     }
 
@@ -98,6 +174,35 @@ public class JMSGuiController {
         passwordField = new PasswordField();
         passwordField.setPromptText("Password (optional)");
         
+        transportComboBox = new ComboBox<>();
+        transportComboBox.getItems().addAll(Transport.values());
+        transportComboBox.setValue(Transport.AUTO);
+        transportComboBox.setOnAction(e -> {
+            currentConfig.setTransport(transportComboBox.getValue());
+            warmUpConnection();
+        });
+
+        // Connect again when the server settings change
+        for (TextField field : List.of(serverAddressField, usernameField, passwordField)) {
+            field.focusedProperty().addListener((observable, wasFocused, focused) -> {
+                if (!focused) {
+                    warmUpConnection();
+                }
+            });
+            field.setOnAction(e -> warmUpConnection());
+        }
+
+        connectTimeoutField = new TextField();
+        connectTimeoutField.setPrefColumnCount(6);
+        sendTimeoutField = new TextField();
+        sendTimeoutField.setPrefColumnCount(6);
+        HBox timeoutsBox = new HBox(8, new Label("Connect:"), connectTimeoutField, new Label("Send:"), sendTimeoutField,
+            new Label("0 waits forever"));
+        timeoutsBox.setAlignment(Pos.CENTER_LEFT);
+
+        connectionStatusLabel = new Label();
+        setConnectionStatus("Not connected", "gray");
+        
         GridPane serverGrid = new GridPane();
         serverGrid.setHgap(10);
         serverGrid.setVgap(5);
@@ -107,6 +212,12 @@ public class JMSGuiController {
         serverGrid.add(usernameField, 1, 1);
         serverGrid.add(new Label("Password:"), 0, 2);
         serverGrid.add(passwordField, 1, 2);
+        serverGrid.add(new Label("Protocol:"), 0, 3);
+        serverGrid.add(transportComboBox, 1, 3);
+        serverGrid.add(new Label("Timeouts (ms):"), 0, 4);
+        serverGrid.add(timeoutsBox, 1, 4);
+        serverGrid.add(new Label("Status:"), 0, 5);
+        serverGrid.add(connectionStatusLabel, 1, 5);
         
         ColumnConstraints col1 = new ColumnConstraints();
         col1.setMinWidth(80);
@@ -181,7 +292,7 @@ public class JMSGuiController {
         // Destination Section
         Label destLabel = new Label("Destination:");
         destinationNameField = new TextField();
-        destinationNameField.setPromptText("queue.test or topic.test");
+        destinationNameField.setPromptText("queue.test, several names separated by commas, or a pattern such as queue.*");
 
         ToggleGroup destTypeGroup = new ToggleGroup();
         topicRadio = new RadioButton("Topic");
@@ -203,8 +314,28 @@ public class JMSGuiController {
         payloadArea.setPrefRowCount(10);
         payloadArea.setWrapText(true);
 
+        jsonModeComboBox = new ComboBox<>();
+        jsonModeComboBox.getItems().addAll(JsonPayloadProcessor.Mode.values());
+        jsonModeComboBox.setValue(JsonPayloadProcessor.Mode.VALIDATE);
+        jsonModeComboBox.setOnAction(e -> checkPayload());
+        payloadStatusLabel = new Label();
+
+        // Check the payload in the background once typing pauses
+        PauseTransition payloadCheckDelay = new PauseTransition(Duration.millis(300));
+        payloadCheckDelay.setOnFinished(e -> checkPayload());
+        payloadArea.textProperty().addListener((observable, oldText, newText) -> payloadCheckDelay.playFromStart());
+
+        HBox payloadHeader = new HBox(10, payloadLabel, jsonModeComboBox, payloadStatusLabel);
+        payloadHeader.setAlignment(Pos.CENTER_LEFT);
+
+        generatePayloadsCheckBox = new CheckBox("Generate varied payloads, using the payload as a JSON Schema or sample");
+        Button previewPayloadButton = new Button("Preview");
+        previewPayloadButton.setOnAction(e -> previewGeneratedPayload());
+        HBox generateBox = new HBox(10, generatePayloadsCheckBox, previewPayloadButton);
+        generateBox.setAlignment(Pos.CENTER_LEFT);
+
         VBox payloadSection = new VBox(5);
-        payloadSection.getChildren().addAll(payloadLabel, payloadArea);
+        payloadSection.getChildren().addAll(payloadHeader, payloadArea, generateBox);
         VBox.setVgrow(payloadArea, Priority.ALWAYS);
 
         // Headers Section
@@ -278,6 +409,120 @@ public class JMSGuiController {
         VBox headersSection = new VBox(5);
         headersSection.getChildren().addAll(headersLabel, headersTable, headerButtonBox);
 
+        // Journal options
+        journalCheckBox = new CheckBox("Record sent messages in journal");
+        journalCheckBox.setOnAction(e -> journalPayloadCheckBox.setDisable(!journalCheckBox.isSelected()));
+        journalPayloadCheckBox = new CheckBox("Include full payload");
+        journalPayloadCheckBox.setDisable(true);
+
+        spoolCheckBox = new CheckBox("Spool failed sends and retry");
+        spoolCheckBox.setOnAction(e -> applySpoolSettings());
+
+        HBox optionsBox = new HBox(10);
+        optionsBox.getChildren().addAll(journalCheckBox, journalPayloadCheckBox, spoolCheckBox);
+
+        // Delivery options
+        persistentCheckBox = new CheckBox("Persistent");
+        persistentCheckBox.setSelected(true);
+        priorityField = new TextField("4");
+        priorityField.setPrefColumnCount(2);
+        timeToLiveField = new TextField("0");
+        timeToLiveField.setPrefColumnCount(6);
+        timeToLiveField.setTooltip(new Tooltip("Message expiry in milliseconds, 0 for none"));
+        deliveryDelayField = new TextField("0");
+        deliveryDelayField.setPrefColumnCount(6);
+        deliveryDelayField.setTooltip(new Tooltip("Delivery delay in milliseconds; ActiveMQ Classic needs scheduler support enabled"));
+        disableMessageIdCheckBox = new CheckBox("Disable message ID");
+        disableTimestampCheckBox = new CheckBox("Disable timestamp");
+
+        HBox deliveryBox = new HBox(10);
+        deliveryBox.setAlignment(Pos.CENTER_LEFT);
+        deliveryBox.getChildren().addAll(persistentCheckBox,
+            new Label("Priority:"), priorityField,
+            new Label("TTL (ms):"), timeToLiveField,
+            new Label("Delay (ms):"), deliveryDelayField,
+            disableMessageIdCheckBox, disableTimestampCheckBox);
+
+        // Client tuning, OpenWire only
+        asyncSendCheckBox = new CheckBox("Async send");
+        asyncSendCheckBox.setOnAction(e -> {
+            if (asyncSendCheckBox.isSelected() && !sendTimeoutField.getText().trim().matches("0*")) {
+                logMessage("WARNING: A send timeout makes OpenWire sends synchronous; set it to 0 for async send");
+            }
+        });
+        compressionCheckBox = new CheckBox("Compression");
+        optimizeAcknowledgeCheckBox = new CheckBox("Optimize acknowledge");
+        sessionAsyncCheckBox = new CheckBox("Always session async");
+        sessionAsyncCheckBox.setSelected(true);
+        tcpNoDelayCheckBox = new CheckBox("TCP_NODELAY");
+        producerWindowField = new TextField("0");
+        prefetchField = new TextField("0");
+        socketBufferField = new TextField("0");
+        ioBufferField = new TextField("0");
+
+        HBox tuningFlagsBox = new HBox(10);
+        tuningFlagsBox.getChildren().addAll(asyncSendCheckBox, compressionCheckBox, optimizeAcknowledgeCheckBox,
+            sessionAsyncCheckBox, tcpNoDelayCheckBox);
+
+        GridPane tuningGrid = new GridPane();
+        tuningGrid.setHgap(10);
+        tuningGrid.setVgap(5);
+        tuningGrid.add(new Label("Producer window (bytes):"), 0, 0);
+        tuningGrid.add(producerWindowField, 1, 0);
+        tuningGrid.add(new Label("Prefetch:"), 2, 0);
+        tuningGrid.add(prefetchField, 3, 0);
+        tuningGrid.add(new Label("Socket buffer (bytes):"), 0, 1);
+        tuningGrid.add(socketBufferField, 1, 1);
+        tuningGrid.add(new Label("I/O buffer (bytes):"), 2, 1);
+        tuningGrid.add(ioBufferField, 3, 1);
+
+        VBox tuningContent = new VBox(8);
+        tuningContent.getChildren().addAll(tuningFlagsBox, tuningGrid, new Label("0 keeps the client default."));
+        TitledPane tuningPane = new TitledPane("Client Tuning (OpenWire)", tuningContent);
+        tuningPane.setExpanded(false);
+
+        // Network shaping through a local proxy
+        shapingCheckBox = new CheckBox("Send through a local proxy simulating this network");
+        latencyField = new TextField("0");
+        jitterField = new TextField("0");
+        bandwidthField = new TextField("0");
+        dropIntervalField = new TextField("0");
+        Button dropConnectionsButton = new Button("Drop Connections Now");
+        dropConnectionsButton.setOnAction(e -> {
+            int proxies = jmsSender.dropShapedConnections();
+            logMessage(proxies > 0
+                ? "Dropping the connections of " + proxies + " shaping prox" + (proxies == 1 ? "y" : "ies")
+                : "WARNING: No shaped connections to drop");
+        });
+        Button shapingStatsButton = new Button("Show Traffic");
+        shapingStatsButton.setOnAction(e -> {
+            List<String> proxies = jmsSender.describeShapingProxies();
+            if (proxies.isEmpty()) {
+                logMessage("No shaped connections yet");
+            }
+            proxies.forEach(this::logMessage);
+        });
+
+        GridPane shapingGrid = new GridPane();
+        shapingGrid.setHgap(10);
+        shapingGrid.setVgap(5);
+        shapingGrid.add(new Label("Latency (ms, each way):"), 0, 0);
+        shapingGrid.add(latencyField, 1, 0);
+        shapingGrid.add(new Label("Jitter (± ms):"), 2, 0);
+        shapingGrid.add(jitterField, 3, 0);
+        shapingGrid.add(new Label("Bandwidth (kbit/s):"), 0, 1);
+        shapingGrid.add(bandwidthField, 1, 1);
+        shapingGrid.add(new Label("Drop every (s, on average):"), 2, 1);
+        shapingGrid.add(dropIntervalField, 3, 1);
+
+        HBox shapingButtons = new HBox(10);
+        shapingButtons.getChildren().addAll(dropConnectionsButton, shapingStatsButton);
+
+        VBox shapingContent = new VBox(8);
+        shapingContent.getChildren().addAll(shapingCheckBox, shapingGrid, new Label("0 turns a setting off."), shapingButtons);
+        TitledPane shapingPane = new TitledPane("Network Shaping", shapingContent);
+        shapingPane.setExpanded(false);
+
         // Action Buttons
         sendButton = new Button("Send Message");
         sendButton.setPrefWidth(120);
@@ -287,9 +532,24 @@ public class JMSGuiController {
         saveConfigButton.setPrefWidth(100);
         saveConfigButton.setOnAction(e -> saveCurrentConfiguration());
 
+        resendFailedButton = new Button("Resend Failed");
+        resendFailedButton.setPrefWidth(140);
+        resendFailedButton.setOnAction(e -> resendFailedMessages());
+
+        cancelButton = new Button("Cancel");
+        cancelButton.setPrefWidth(100);
+        cancelButton.setDisable(true);
+        cancelButton.setOnAction(e -> {
+            int cancelled = sendExecutor.cancelAll();
+            if (cancelled > 0) {
+                logMessage("Cancelling " + cancelled + " running send(s)...");
+            }
+        });
+        sendExecutor.setRunningCountListener(count -> Platform.runLater(() -> cancelButton.setDisable(count == 0)));
+
         HBox buttonBox = new HBox(10);
         buttonBox.setAlignment(Pos.CENTER);
-        buttonBox.getChildren().addAll(sendButton, saveConfigButton);
+        buttonBox.getChildren().addAll(sendButton, cancelButton, saveConfigButton, resendFailedButton);
 
         // Log Area
         Label logLabel = new Label("Log:");
@@ -302,8 +562,10 @@ public class JMSGuiController {
         VBox logSection = new VBox(5);
         logSection.getChildren().addAll(logLabel, logArea);
 
-        // Add all sections to root
-        root.getChildren().addAll(
+        // Send tab
+        VBox sendContent = new VBox(10);
+        sendContent.setPadding(new Insets(10));
+        sendContent.getChildren().addAll(
             serverSection,
             new Separator(),
             sslSection,
@@ -313,17 +575,272 @@ public class JMSGuiController {
             payloadSection,
             new Separator(),
             headersSection,
-            buttonBox,
+            deliveryBox,
+            tuningPane,
+            shapingPane,
+            optionsBox,
+            buttonBox
+        );
+        VBox.setVgrow(payloadSection, Priority.ALWAYS);
+
+        ScrollPane sendScroll = new ScrollPane(sendContent);
+        sendScroll.setFitToWidth(true);
+        sendScroll.setFitToHeight(true);
+
+        Tab sendTab = new Tab("Send", sendScroll);
+        sendTab.setClosable(false);
+
+        // Load test tab
+        LoadTestPane loadTestPane = new LoadTestPane(jmsSender, backgroundExecutor, this::prepareSendRequest, this::logMessage);
+        Tab loadTestTab = new Tab("Load Test", new ScrollPane(loadTestPane.create()));
+        loadTestTab.setClosable(false);
+
+        // Sweep tab
+        SweepPane sweepPane = new SweepPane(jmsSender, backgroundExecutor, this::prepareSendRequest, this::logMessage);
+        Tab sweepTab = new Tab("Sweep", sweepPane.create());
+        sweepTab.setClosable(false);
+
+        // Queue depth tab
+        DepthMonitorPane depthMonitorPane = new DepthMonitorPane(jmsSender, backgroundExecutor, () -> prepareSendRequest(false), this::logMessage);
+        Tab depthTab = new Tab("Queue Depth", depthMonitorPane.create());
+        depthTab.setClosable(false);
+
+        // History tab
+        HistoryPane historyPane = new HistoryPane(jmsSender, backgroundExecutor,
+            () -> ConfigurationManager.resolveJournalDirectory(currentConfig), () -> prepareSendRequest(false), this::logMessage);
+        Tab historyTab = new Tab("History", historyPane.create());
+        historyTab.setClosable(false);
+
+        // Runs tab
+        RunsPane runsPane = new RunsPane(RunStore.local(), backgroundExecutor, this::logMessage);
+        Tab runsTab = new Tab("Runs", runsPane.create());
+        runsTab.setClosable(false);
+        runsTab.setOnSelectionChanged(e -> {
+            if (runsTab.isSelected()) {
+                runsPane.refresh();
+            }
+        });
+
+        TabPane tabPane = new TabPane(sendTab, loadTestTab, sweepTab, depthTab, historyTab, runsTab);
+
+        // Add all sections to root
+        root.getChildren().addAll(
+            tabPane,
             new Separator(),
             logSection
         );
 
-        VBox.setVgrow(payloadSection, Priority.ALWAYS);
+        VBox.setVgrow(tabPane, Priority.ALWAYS);
 
         return new Scene(root, 1024, 768);
     }
 
     private void sendMessage() {
+        SendRequest request = prepareSendRequest();
+        if (request == null) {
+            return;
+        }
+
+        if (DestinationPattern.isMultiple(request.getDestination())) {
+            sendFanOut(request);
+            return;
+        }
+
+        sendButton.setDisable(true);
+        logMessage("Sending message to " + (request.isTopic() ? "topic" : "queue") + " '" + request.getDestination() + "' on server " + request.getBrokerUrl());
+
+        // Run in the background to avoid blocking the UI
+        sendExecutor.submit("Send to " + request.getDestination(), () -> {
+            SendRequest processed = processPayload(request);
+            if (processed == null) {
+                Platform.runLater(() -> sendButton.setDisable(false));
+                return;
+            }
+            jmsSender.sendMessage(processed);
+            Platform.runLater(() -> {
+                Map<String, Object> customHeaders = request.getCustomHeaders();
+                String headerInfo = customHeaders.isEmpty() ? "" : " with " + customHeaders.size() + " custom headers";
+                logMessage("SUCCESS: Message sent successfully" + headerInfo);
+                sendButton.setDisable(false);
+                // Refresh the status if an earlier warm-up failed
+                warmUpConnection();
+            });
+        }, e -> {
+            boolean spooled = jmsSender.getFailedMessageSpool() != null;
+            Platform.runLater(() -> {
+                logMessage(describeFailure(e) + (spooled ? " (spooled for retry)" : ""));
+                sendButton.setDisable(false);
+                updateResendFailedButton();
+            });
+        });
+    }
+
+    /**
+     * Validates, minifies or canonicalises the payload as configured, on the calling background
+     * thread, logging the size saving. Returns {@code null}, after logging where the JSON is
+     * invalid, if it is.
+     */
+    private SendRequest processPayload(SendRequest request) {
+        JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(request);
+        if (!json.isValid() || json.isRewritten()) {
+            Platform.runLater(() -> logMessage((json.isValid() ? "" : "ERROR: ") + json.describe()));
+        }
+        if (!json.isValid()) {
+            return null;
+        }
+        try {
+            return PayloadGenerator.attach(request.withPayload(json.getPayload()));
+        } catch (IllegalArgumentException e) {
+            Platform.runLater(() -> logMessage("ERROR: " + e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Logs a payload generated from the payload area, to check a schema or sample before a load test.
+     */
+    private void previewGeneratedPayload() {
+        String template = payloadArea.getText().trim();
+        if (template.isEmpty()) {
+            logMessage("ERROR: Enter a JSON Schema or sample document as the payload first");
+            return;
+        }
+        backgroundExecutor.submit("Preview generated payload", () -> {
+            PayloadGenerator generator = PayloadGenerator.compile(template);
+            String payload = generator.next();
+            Platform.runLater(() -> logMessage("Generated from " + (generator.isSchema() ? "JSON Schema" : "sample") +
+                ": " + payload));
+        }, e -> Platform.runLater(() -> logMessage("ERROR: " + e.getMessage())));
+    }
+
+    /**
+     * Shows whether the payload is valid JSON, and what minifying saves, next to the payload label.
+     */
+    private void checkPayload() {
+        String payload = payloadArea.getText().trim();
+        JsonPayloadProcessor.Mode mode = jsonModeComboBox.getValue();
+        long check = ++payloadCheck;
+        if (payload.isEmpty() || mode == JsonPayloadProcessor.Mode.OFF) {
+            payloadStatusLabel.setText("");
+            return;
+        }
+        backgroundExecutor.submit("Check JSON payload", () -> {
+            JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(payload, mode);
+            Platform.runLater(() -> {
+                // Skip results overtaken by later edits
+                if (check == payloadCheck) {
+                    payloadStatusLabel.setText(json.describe());
+                    payloadStatusLabel.setStyle("-fx-text-fill: " + (json.isValid() ? "#2e7d32" : "#c62828") + ";");
+                }
+            });
+        }, null);
+    }
+
+    /**
+     * Log line for a failed background task; cancelled tasks are warnings, not errors.
+     */
+    private String describeFailure(Exception e) {
+        return (e instanceof InterruptedException ? "WARNING: " : "ERROR: ") + e.getMessage();
+    }
+
+    private void sendFanOut(SendRequest request) {
+        sendButton.setDisable(true);
+        logMessage("Resolving destinations '" + request.getDestination() + "' on server " + request.getBrokerUrl());
+
+        sendExecutor.submit("Fan-out to " + request.getDestination(), () -> {
+            SendRequest processed = processPayload(request);
+            if (processed == null) {
+                Platform.runLater(() -> sendButton.setDisable(false));
+                return;
+            }
+            List<String> destinations = jmsSender.resolveDestinations(processed);
+            if (destinations.isEmpty()) {
+                Platform.runLater(() -> {
+                    logMessage("ERROR: No " + (request.isTopic() ? "topics" : "queues") + " match '" + request.getDestination() + "'");
+                    sendButton.setDisable(false);
+                });
+                return;
+            }
+            Platform.runLater(() -> logMessage("Sending message to " + destinations.size() + " " + (request.isTopic() ? "topics" : "queues")));
+
+            long start = System.nanoTime();
+            List<FanOutResult> results = jmsSender.sendToAll(processed, destinations);
+            long elapsed = System.nanoTime() - start;
+            long succeeded = results.stream().filter(FanOutResult::isSuccess).count();
+            Platform.runLater(() -> {
+                for (FanOutResult result : results) {
+                    logMessage("  " + result);
+                }
+                String summary = String.format("Fan-out sent to %d of %d destinations in %.1f ms", succeeded, results.size(), elapsed / 1e6);
+                logMessage((succeeded == results.size() ? "SUCCESS: " : "WARNING: ") + summary);
+                sendButton.setDisable(false);
+                updateResendFailedButton();
+            });
+        }, e -> Platform.runLater(() -> {
+            logMessage(describeFailure(e));
+            sendButton.setDisable(false);
+        }));
+    }
+
+    /**
+     * Connects to the server in the background, with a few sessions ready, so that the first send
+     * has steady-state latency. Does nothing if that connection is already up.
+     */
+    private void warmUpConnection() {
+        String serverAddress = serverAddressField.getText().trim();
+        if (serverAddress.isEmpty() || currentConfig == null) {
+            return;
+        }
+        ServerConfiguration config = new ServerConfiguration(currentConfig);
+        if (!applyTimeouts(config) || !applyClientTuning(config) || !applyNetworkShaping(config)) {
+            return;
+        }
+        String username = usernameField.getText().trim();
+        String password = passwordField.getText();
+
+        String connection = config.getTransport() + "|" + serverAddress + "|" + username + "|" + password.hashCode() + "|" +
+            config.getConnectTimeout() + "/" + config.getSendTimeout() + "|" + config.getClientTuning().cacheKey() + "|" +
+            config.getNetworkShaping().cacheKey();
+        if (connection.equals(warmedUpConnection)) {
+            return;
+        }
+        warmedUpConnection = connection;
+        setConnectionStatus("Connecting to " + serverAddress + "...", "#ef6c00");
+
+        backgroundExecutor.submit("Connect to " + serverAddress, () -> {
+            long elapsed = jmsSender.warmUp(serverAddress, username, password, config, WARM_UP_SESSIONS);
+            Platform.runLater(() -> {
+                if (connection.equals(warmedUpConnection)) {
+                    setConnectionStatus(String.format("Connected to %s (%.0f ms)", serverAddress, elapsed / 1e6), "#2e7d32");
+                }
+            });
+        }, e -> Platform.runLater(() -> {
+            if (connection.equals(warmedUpConnection)) {
+                // Try again on the next change or send
+                warmedUpConnection = null;
+                setConnectionStatus("Not connected: " + e.getMessage(), "#c62828");
+            }
+        }));
+    }
+
+    private void setConnectionStatus(String status, String color) {
+        connectionStatusLabel.setText("\u25CF " + status);
+        connectionStatusLabel.setStyle("-fx-text-fill: " + color + ";");
+    }
+
+    /**
+     * Validates the Send tab and captures it as a request, applying the journal settings on the way.
+     * Returns {@code null}, after logging the reason, if a required field is missing.
+     */
+    private SendRequest prepareSendRequest() {
+        return prepareSendRequest(true);
+    }
+
+    /**
+     * @param payloadRequired whether an empty payload is an error; without one the request only
+     *                        carries the connection and destination
+     */
+    private SendRequest prepareSendRequest(boolean payloadRequired) {
         String serverAddress = serverAddressField.getText().trim();
         String destinationName = destinationNameField.getText().trim();
         String payload = payloadArea.getText().trim();
@@ -331,61 +848,167 @@ public class JMSGuiController {
 
         if (serverAddress.isEmpty()) {
             logMessage("ERROR: Server address is required");
-            return;
+            return null;
         }
 
         if (destinationName.isEmpty()) {
             logMessage("ERROR: Destination name is required");
-            return;
+            return null;
         }
 
-        if (payload.isEmpty()) {
+        if (payload.isEmpty() && payloadRequired) {
             logMessage("ERROR: Message payload is required");
-            return;
+            return null;
         }
 
-        sendButton.setDisable(true);
-        logMessage("Sending message to " + (isTopic ? "topic" : "queue") + " '" + destinationName + "' on server " + serverAddress);
+        // Snapshot, so that a running load test keeps the options it was started with
+        ServerConfiguration config = new ServerConfiguration(currentConfig);
+        if (!applyTimeouts(config) || !applyDeliveryOptions(config) || !applyClientTuning(config) ||
+            !applyNetworkShaping(config)) {
+            return null;
+        }
+        config.setJsonMode(jsonModeComboBox.getValue());
+        config.setGeneratePayloads(generatePayloadsCheckBox.isSelected());
 
-        // Run in background thread to avoid blocking UI
-        Thread sendThread = new Thread(() -> {
-            try {
-                String username = usernameField.getText().trim();
-                String password = passwordField.getText();
-                
-                // Collect custom headers
-                Map<String, Object> customHeaders = new HashMap<>();
-                for (HeaderEntry header : headersList) {
-                    String key = header.getKey();
-                    String value = header.getValue();
-                    String type = header.getType();
-                    
-                    if (key != null && !key.trim().isEmpty() && value != null && !value.trim().isEmpty()) {
-                        try {
-                            Object convertedValue = convertHeaderValue(value.trim(), type);
-                            customHeaders.put(key.trim(), convertedValue);
-                        } catch (Exception e) {
-                            Platform.runLater(() -> logMessage("WARNING: Failed to convert header '" + key + "' with value '" + value + "' to type " + type + ": " + e.getMessage()));
-                        }
-                    }
+        applyJournalSettings();
+
+        String username = usernameField.getText().trim();
+        String password = passwordField.getText();
+        return new SendRequest(serverAddress, username, password, destinationName, isTopic, payload,
+            collectCustomHeaders(), config);
+    }
+
+    /**
+     * Copies the connect and send timeouts into the configuration. Returns {@code false}, after
+     * logging the reason, if a value is invalid.
+     */
+    private boolean applyTimeouts(ServerConfiguration config) {
+        long connectTimeout;
+        long sendTimeout;
+        try {
+            connectTimeout = Long.parseLong(connectTimeoutField.getText().trim());
+            sendTimeout = Long.parseLong(sendTimeoutField.getText().trim());
+        } catch (NumberFormatException e) {
+            logMessage("ERROR: Timeouts must be numbers");
+            return false;
+        }
+        if (connectTimeout < 0 || sendTimeout < 0) {
+            logMessage("ERROR: Timeouts cannot be negative");
+            return false;
+        }
+
+        config.setConnectTimeout(connectTimeout);
+        config.setSendTimeout(sendTimeout);
+        return true;
+    }
+
+    /**
+     * Copies the delivery options into the configuration. Returns {@code false}, after logging the
+     * reason, if a value is invalid.
+     */
+    private boolean applyDeliveryOptions(ServerConfiguration config) {
+        int priority;
+        long timeToLive;
+        long deliveryDelay;
+        try {
+            priority = Integer.parseInt(priorityField.getText().trim());
+            timeToLive = Long.parseLong(timeToLiveField.getText().trim());
+            deliveryDelay = Long.parseLong(deliveryDelayField.getText().trim());
+        } catch (NumberFormatException e) {
+            logMessage("ERROR: Priority, TTL and delay must be numbers");
+            return false;
+        }
+        if (priority < 0 || priority > 9) {
+            logMessage("ERROR: Priority must be between 0 and 9");
+            return false;
+        }
+        if (timeToLive < 0 || deliveryDelay < 0) {
+            logMessage("ERROR: TTL and delay cannot be negative");
+            return false;
+        }
+
+        config.setPersistentDelivery(persistentCheckBox.isSelected());
+        config.setPriority(priority);
+        config.setTimeToLive(timeToLive);
+        config.setDeliveryDelay(deliveryDelay);
+        config.setDisableMessageId(disableMessageIdCheckBox.isSelected());
+        config.setDisableMessageTimestamp(disableTimestampCheckBox.isSelected());
+        return true;
+    }
+
+    /**
+     * Copies the client tuning into the configuration. Returns {@code false}, after logging the
+     * reason, if a size is invalid.
+     */
+    private boolean applyClientTuning(ServerConfiguration config) {
+        ClientTuning tuning = new ClientTuning();
+        try {
+            tuning.setProducerWindowSize(Integer.parseInt(producerWindowField.getText().trim()));
+            tuning.setPrefetch(Integer.parseInt(prefetchField.getText().trim()));
+            tuning.setSocketBufferSize(Integer.parseInt(socketBufferField.getText().trim()));
+            tuning.setIoBufferSize(Integer.parseInt(ioBufferField.getText().trim()));
+        } catch (NumberFormatException e) {
+            logMessage("ERROR: Client tuning sizes must be numbers");
+            return false;
+        }
+        if (tuning.getProducerWindowSize() < 0 || tuning.getPrefetch() < 0 ||
+            tuning.getSocketBufferSize() < 0 || tuning.getIoBufferSize() < 0) {
+            logMessage("ERROR: Client tuning sizes cannot be negative");
+            return false;
+        }
+
+        tuning.setUseAsyncSend(asyncSendCheckBox.isSelected());
+        tuning.setUseCompression(compressionCheckBox.isSelected());
+        tuning.setOptimizeAcknowledge(optimizeAcknowledgeCheckBox.isSelected());
+        tuning.setAlwaysSessionAsync(sessionAsyncCheckBox.isSelected());
+        tuning.setTcpNoDelay(tcpNoDelayCheckBox.isSelected());
+        config.setClientTuning(tuning);
+        return true;
+    }
+
+    /**
+     * Copies the network shaping settings into the configuration. Returns {@code false}, after
+     * logging the reason, if a value is invalid.
+     */
+    private boolean applyNetworkShaping(ServerConfiguration config) {
+        NetworkShaping shaping = new NetworkShaping();
+        try {
+            shaping.setLatencyMillis(Integer.parseInt(latencyField.getText().trim()));
+            shaping.setJitterMillis(Integer.parseInt(jitterField.getText().trim()));
+            shaping.setBandwidthKbps(Integer.parseInt(bandwidthField.getText().trim()));
+            shaping.setDropIntervalSeconds(Integer.parseInt(dropIntervalField.getText().trim()));
+        } catch (NumberFormatException e) {
+            logMessage("ERROR: Network shaping settings must be numbers");
+            return false;
+        }
+        if (shaping.getLatencyMillis() < 0 || shaping.getJitterMillis() < 0 ||
+            shaping.getBandwidthKbps() < 0 || shaping.getDropIntervalSeconds() < 0) {
+            logMessage("ERROR: Network shaping settings cannot be negative");
+            return false;
+        }
+
+        shaping.setEnabled(shapingCheckBox.isSelected());
+        config.setNetworkShaping(shaping);
+        return true;
+    }
+
+    private Map<String, Object> collectCustomHeaders() {
+        Map<String, Object> customHeaders = new HashMap<>();
+        for (HeaderEntry header : headersList) {
+            String key = header.getKey();
+            String value = header.getValue();
+            String type = header.getType();
+
+            if (key != null && !key.trim().isEmpty() && value != null && !value.trim().isEmpty()) {
+                try {
+                    Object convertedValue = convertHeaderValue(value.trim(), type);
+                    customHeaders.put(key.trim(), convertedValue);
+                } catch (Exception e) {
+                    logMessage("WARNING: Failed to convert header '" + key + "' with value '" + value + "' to type " + type + ": " + e.getMessage());
                 }
-                
-                jmsSender.sendMessage(serverAddress, username, password, destinationName, payload, isTopic, currentConfig, customHeaders);
-                Platform.runLater(() -> {
-                    String headerInfo = customHeaders.isEmpty() ? "" : " with " + customHeaders.size() + " custom headers";
-                    logMessage("SUCCESS: Message sent successfully" + headerInfo);
-                    sendButton.setDisable(false);
-                });
-            } catch (Exception e) {
-                Platform.runLater(() -> {
-                    logMessage("ERROR: " + e.getMessage());
-                    sendButton.setDisable(false);
-                });
             }
-        });
-
-        sendThread.setDaemon(true);
-        sendThread.start();
+        }
+        return customHeaders;
     }
 
     private void logMessage(String message) {
@@ -410,6 +1033,11 @@ public class JMSGuiController {
                 queueRadio.setSelected(true);
             }
             
+            jsonModeComboBox.setValue(currentConfig.getJsonMode());
+            generatePayloadsCheckBox.setSelected(currentConfig.isGeneratePayloads());
+            connectTimeoutField.setText(String.valueOf(currentConfig.getConnectTimeout()));
+            sendTimeoutField.setText(String.valueOf(currentConfig.getSendTimeout()));
+            
             // Load SSL configuration
             useSslCheckBox.setSelected(currentConfig.isUseSsl());
             trustStorePathField.setText(currentConfig.getTrustStorePath());
@@ -418,6 +1046,39 @@ public class JMSGuiController {
             keyStorePasswordField.setText(currentConfig.getKeyStorePassword());
             skipCertValidationCheckBox.setSelected(currentConfig.isSkipCertificateValidation());
             
+            journalCheckBox.setSelected(currentConfig.isJournalEnabled());
+            journalPayloadCheckBox.setSelected(currentConfig.isJournalIncludePayload());
+            journalPayloadCheckBox.setDisable(!currentConfig.isJournalEnabled());
+            spoolCheckBox.setSelected(currentConfig.isSpoolFailedMessages());
+            
+            persistentCheckBox.setSelected(currentConfig.isPersistentDelivery());
+            priorityField.setText(String.valueOf(currentConfig.getPriority()));
+            timeToLiveField.setText(String.valueOf(currentConfig.getTimeToLive()));
+            deliveryDelayField.setText(String.valueOf(currentConfig.getDeliveryDelay()));
+            disableMessageIdCheckBox.setSelected(currentConfig.isDisableMessageId());
+            disableTimestampCheckBox.setSelected(currentConfig.isDisableMessageTimestamp());
+            
+            ClientTuning tuning = currentConfig.getClientTuning();
+            asyncSendCheckBox.setSelected(tuning.isUseAsyncSend());
+            compressionCheckBox.setSelected(tuning.isUseCompression());
+            optimizeAcknowledgeCheckBox.setSelected(tuning.isOptimizeAcknowledge());
+            sessionAsyncCheckBox.setSelected(tuning.isAlwaysSessionAsync());
+            tcpNoDelayCheckBox.setSelected(tuning.isTcpNoDelay());
+            producerWindowField.setText(String.valueOf(tuning.getProducerWindowSize()));
+            prefetchField.setText(String.valueOf(tuning.getPrefetch()));
+            socketBufferField.setText(String.valueOf(tuning.getSocketBufferSize()));
+            ioBufferField.setText(String.valueOf(tuning.getIoBufferSize()));
+            
+            NetworkShaping shaping = currentConfig.getNetworkShaping();
+            shapingCheckBox.setSelected(shaping.isEnabled());
+            latencyField.setText(String.valueOf(shaping.getLatencyMillis()));
+            jitterField.setText(String.valueOf(shaping.getJitterMillis()));
+            bandwidthField.setText(String.valueOf(shaping.getBandwidthKbps()));
+            dropIntervalField.setText(String.valueOf(shaping.getDropIntervalSeconds()));
+            
+            // Last, as changing the transport warms up a connection with the fields above
+            transportComboBox.setValue(currentConfig.getTransport());
+            
             // Enable/disable SSL fields based on checkbox
             toggleSslFields();
             
@@ -441,6 +1102,10 @@ public class JMSGuiController {
             currentConfig.setLastDestination(destinationNameField.getText().trim());
             currentConfig.setTopicSelected(topicRadio.isSelected());
             
+            currentConfig.setTransport(transportComboBox.getValue());
+            currentConfig.setJsonMode(jsonModeComboBox.getValue());
+            currentConfig.setGeneratePayloads(generatePayloadsCheckBox.isSelected());
+            
             // Save SSL configuration
             currentConfig.setUseSsl(useSslCheckBox.isSelected());
             currentConfig.setTrustStorePath(trustStorePathField.getText().trim());
@@ -449,6 +1114,15 @@ public class JMSGuiController {
             currentConfig.setKeyStorePassword(keyStorePasswordField.getText());
             currentConfig.setSkipCertificateValidation(skipCertValidationCheckBox.isSelected());
             
+            currentConfig.setJournalEnabled(journalCheckBox.isSelected());
+            currentConfig.setJournalIncludePayload(journalPayloadCheckBox.isSelected());
+            currentConfig.setSpoolFailedMessages(spoolCheckBox.isSelected());
+            
+            if (!applyTimeouts(currentConfig) || !applyDeliveryOptions(currentConfig) || !applyClientTuning(currentConfig) ||
+                !applyNetworkShaping(currentConfig)) {
+                return;
+            }
+            
             configManager.saveConfiguration(currentConfig);
             logMessage("Configuration saved successfully");
             
@@ -457,6 +1131,84 @@ public class JMSGuiController {
         }
     }
     
+    private void applyJournalSettings() {
+        boolean enabled = journalCheckBox.isSelected();
+        boolean includePayload = journalPayloadCheckBox.isSelected();
+        
+        if (journal != null && (!enabled || journal.isIncludePayload() != includePayload)) {
+            closeJournal();
+        }
+        if (enabled && journal == null) {
+            Path directory = ConfigurationManager.resolveJournalDirectory(currentConfig);
+            try {
+                journal = SendJournal.open(directory, includePayload);
+                journal.setWarningListener(warning -> Platform.runLater(() -> logMessage("WARNING: " + warning)));
+                journal.setMaxSize(currentConfig.getJournalMaxSizeMb() * 1024 * 1024);
+                jmsSender.setJournal(journal);
+                logMessage("Recording sent messages in journal: " + directory);
+            } catch (IOException e) {
+                logMessage("ERROR: Failed to open journal in " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        jmsSender.setJournal(null);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logMessage("WARNING: Failed to close journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+    
+    private void openFailedMessageSpool() {
+        try {
+            failedMessageSpool = new FailedMessageSpool(ConfigurationManager.getSpoolDirectory(), jmsSender, () -> currentConfig);
+            failedMessageSpool.setListener(message -> Platform.runLater(() -> {
+                logMessage(message);
+                updateResendFailedButton();
+            }));
+            failedMessageSpool.start();
+        } catch (IOException e) {
+            logMessage("ERROR: Failed to open failed-message spool: " + e.getMessage());
+        }
+        applySpoolSettings();
+    }
+    
+    private void applySpoolSettings() {
+        boolean enabled = spoolCheckBox.isSelected() && failedMessageSpool != null;
+        jmsSender.setFailedMessageSpool(enabled ? failedMessageSpool : null);
+        updateResendFailedButton();
+    }
+    
+    private void updateResendFailedButton() {
+        int pending = failedMessageSpool != null ? failedMessageSpool.size() : 0;
+        resendFailedButton.setText("Resend Failed (" + pending + ")");
+        resendFailedButton.setDisable(pending == 0);
+    }
+    
+    private void resendFailedMessages() {
+        resendFailedButton.setDisable(true);
+        logMessage("Resending " + failedMessageSpool.size() + " spooled message(s)");
+        
+        sendExecutor.submit("Resend spooled messages", () -> {
+            int resent = failedMessageSpool.resendAll();
+            Platform.runLater(() -> {
+                int remaining = failedMessageSpool.size();
+                logMessage((remaining == 0 ? "SUCCESS: " : "WARNING: ") + "Resent " + resent + " spooled message(s)" +
+                    (remaining > 0 ? ", " + remaining + " still failing" : ""));
+                updateResendFailedButton();
+            });
+        }, e -> Platform.runLater(() -> {
+            logMessage(describeFailure(e).replaceFirst(": ", ": Failed to resend spooled messages: "));
+            updateResendFailedButton();
+        }));
+    }
+    
     private void toggleSslFields() {
         boolean enableSsl = useSslCheckBox.isSelected();
         
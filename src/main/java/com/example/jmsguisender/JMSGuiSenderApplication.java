@@ -27,6 +27,9 @@ public class JMSGuiSenderApplication extends Application {
     }
 
     public static void main(String[] args) {
+        if (args.length > 0 && JMSSenderCli.isCommand(args[0])) {
+            System.exit(new JMSSenderCli(System.out, System.err).run(args));
+        }
         launch(args);
     }
 }
\ No newline at end of file
@@ -16,26 +16,238 @@
 package com.example.jmsguisender;
 
 import jakarta.jms.*;
-import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.ActiveMQConnection;
+import org.apache.activemq.ConnectionFailedException;
+import org.apache.activemq.advisory.DestinationSource;
+import org.apache.activemq.artemis.api.core.ActiveMQNotConnectedException;
+import org.apache.activemq.transport.RequestTimedOutIOException;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.Map;
 
 public class JMSSender {
     
+    /** Property holding the ID generated for every message, kept across resends. */
+    public static final String MESSAGE_ID_PROPERTY = "JMSGuiSenderMessageId";
+    
+    /** ActiveMQ Artemis duplicate detection property, set to the generated message ID. */
+    public static final String DUPLICATE_ID_PROPERTY = "_AMQ_DUPL_ID";
+    
+    /** ActiveMQ Classic scheduled delivery property, in milliseconds. */
+    private static final String SCHEDULED_DELAY_PROPERTY = "AMQ_SCHEDULED_DELAY";
+    
+    private static final int MAX_IDLE_SESSIONS = 32;
+    private static final int FAN_OUT_PARALLELISM = 16;
+    private static final long DESTINATION_DISCOVERY_TIMEOUT_MILLIS = 3000;
+    private static final long DESTINATION_DISCOVERY_SETTLE_MILLIS = 250;
+    
     private final Map<String, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<Connection, BlockingDeque<PooledSession>> sessionPools = new ConcurrentHashMap<>();
+    private final Map<String, ShapingProxy> shapingProxies = new ConcurrentHashMap<>();
+    /** The shaping proxies every cached connection goes through, by connection key; guarded by shapingProxies. */
+    private final Map<String, Set<String>> connectionProxies = new HashMap<>();
+    private volatile SendJournal journal;
+    private volatile FailedMessageSpool failedMessageSpool;
+    private volatile Consumer<String> connectionLostListener;
+    private volatile Consumer<String> warningListener = warning -> { };
+    private volatile boolean journalFailing;
+    
+    /**
+     * Sets the journal every successfully sent message is recorded in, or {@code null} to stop journaling.
+     * The caller stays responsible for closing the journal.
+     */
+    public void setJournal(SendJournal journal) {
+        this.journal = journal;
+    }
+    
+    public SendJournal getJournal() {
+        return journal;
+    }
+    
+    /**
+     * The properties of a recorded message that can be set again when resending it.
+     */
+    public static Map<String, Object> replayableProperties(Map<String, Object> recorded) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> property : recorded.entrySet()) {
+            // Properties set by the JMS provider cannot be set by clients, and replays get fresh IDs
+            String name = property.getKey();
+            if (!name.startsWith("JMSX") && !name.startsWith("JMS_") &&
+                !name.equals(MESSAGE_ID_PROPERTY) && !name.equals(DUPLICATE_ID_PROPERTY)) {
+                properties.put(property.getKey(), property.getValue());
+            }
+        }
+        return properties;
+    }
+    
+    /**
+     * Sets the spool failed sends are stored in for later retries, or {@code null} to let them fail only.
+     */
+    public void setFailedMessageSpool(FailedMessageSpool failedMessageSpool) {
+        this.failedMessageSpool = failedMessageSpool;
+    }
+    
+    public FailedMessageSpool getFailedMessageSpool() {
+        return failedMessageSpool;
+    }
+    
+    /**
+     * Called, from a provider thread, with the broker URL and the error when a cached connection
+     * fails outside of a send. The connection is dropped and the next send reconnects.
+     */
+    public void setConnectionLostListener(Consumer<String> connectionLostListener) {
+        this.connectionLostListener = connectionLostListener;
+    }
+    
+    /**
+     * Sets the callback receiving warnings about work around a successful send, such as recording it
+     * in the journal. It is called from the sending threads.
+     */
+    public void setWarningListener(Consumer<String> warningListener) {
+        this.warningListener = warningListener != null ? warningListener : warning -> { };
+    }
+    
+    /**
+     * Connects and fills the session pool ahead of the first send, so that it does not pay for
+     * the TCP connect, TLS handshake and authentication. Nothing is sent.
+     *
+     * @param sessions number of sessions (with their producers) to create
+     * @return the time taken, in nanoseconds
+     */
+    public long warmUp(String brokerURL, String username, String password, ServerConfiguration sslConfig, int sessions) throws JMSException {
+        long start = System.nanoTime();
+        Connection connection = connect(brokerURL, username, password, sslConfig);
+        
+        List<PooledSession> borrowed = new ArrayList<>();
+        try {
+            for (int i = 0; i < sessions; i++) {
+                borrowed.add(borrowSession(connection, brokerURL));
+            }
+            // Load the message classes the first send needs
+            if (!borrowed.isEmpty()) {
+                TextMessage message = borrowed.get(0).session.createTextMessage("");
+                message.setStringProperty(MESSAGE_ID_PROPERTY, "");
+            }
+        } catch (JMSException e) {
+            evictConnection(connection);
+            throw e;
+        } finally {
+            for (PooledSession pooled : borrowed) {
+                releaseSession(connection, pooled);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+    
+    /**
+     * The started, pooled connection for these settings, for work that needs its own session such as
+     * consuming. Callers close their sessions but not the connection.
+     */
+    public Connection connect(String brokerURL, String username, String password, ServerConfiguration sslConfig) throws JMSException {
+        try {
+            return getConnection(brokerURL, username, password, sslConfig);
+        } catch (RuntimeException e) {
+            JMSException jmsException = new JMSException(e.getMessage() +
+                (e.getCause() != null && e.getCause().getMessage() != null ? ": " + e.getCause().getMessage() : ""));
+            jmsException.initCause(e);
+            throw jmsException;
+        }
+    }
     
     public void sendMessage(String brokerURL, String username, String password, String destinationName, String messageText, boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders) throws JMSException {
+        sendMessage(brokerURL, username, password, destinationName, messageText, isTopic, sslConfig, customHeaders, UUID.randomUUID().toString());
+    }
+    
+    public void sendMessage(SendRequest request) throws JMSException {
+        sendMessage(request.getBrokerUrl(), request.getUsername(), request.getPassword(), request.getDestination(),
+            request.nextPayload(), request.isTopic(), request.getConfiguration(), request.getCustomHeaders());
+    }
+    
+    /**
+     * Sends a message with the given generated ID. If the send fails and a spool is set, the message
+     * is spooled for retry before the exception is rethrown, unless the send was cancelled or the
+     * message itself is invalid, which a resend would not change.
+     */
+    public void sendMessage(String brokerURL, String username, String password, String destinationName, String messageText, boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders, String messageId) throws JMSException {
+        try {
+            send(brokerURL, username, password, destinationName, messageText, isTopic, sslConfig, customHeaders, messageId);
+        } catch (JMSException | RuntimeException e) {
+            FailedMessageSpool spool = failedMessageSpool;
+            if (spool != null && isRetryable(e)) {
+                try {
+                    spool.spool(messageId, brokerURL, username, destinationName, isTopic, messageText, customHeaders, sslConfig, e);
+                } catch (IOException spoolError) {
+                    e.addSuppressed(spoolError);
+                }
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Sends a previously failed message again under its original ID, without spooling it on failure.
+     */
+    public void resendMessage(String brokerURL, String username, String password, String destinationName, String messageText, boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders, String messageId) throws JMSException {
+        send(brokerURL, username, password, destinationName, messageText, isTopic, sslConfig, customHeaders, messageId);
+    }
+    
+    private void send(String brokerURL, String username, String password, String destinationName, String messageText, boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders, String messageId) throws JMSException {
+        JmsEvents.SendEvent event = new JmsEvents.SendEvent();
+        event.begin();
+        String error = null;
+        try {
+            doSend(brokerURL, username, password, destinationName, messageText, isTopic, sslConfig, customHeaders, messageId);
+        } catch (JMSException | RuntimeException e) {
+            error = e.getMessage();
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.brokerUrl = brokerURL;
+                event.destination = destinationName;
+                event.topic = isTopic;
+                event.payloadSize = messageText != null ? JsonPayloadProcessor.utf8Length(messageText) : 0;
+                event.headers = customHeaders != null ? customHeaders.size() : 0;
+                event.persistent = sslConfig == null || sslConfig.isPersistentDelivery();
+                event.succeeded = error == null;
+                event.error = error;
+                event.commit();
+            }
+        }
+    }
+    
+    private void doSend(String brokerURL, String username, String password, String destinationName, String messageText, boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders, String messageId) throws JMSException {
         Connection connection = null;
-        Session session = null;
-        MessageProducer producer = null;
+        PooledSession pooled = null;
         
         try {
             // Get or create connection
             connection = getConnection(brokerURL, username, password, sslConfig);
             
-            // Create session
-            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            // Borrow a session, with its anonymous producer
+            pooled = borrowSession(connection, brokerURL);
+            Session session = pooled.session;
             
             // Create destination
             Destination destination;
@@ -45,10 +257,6 @@ public class JMSSender {
                 destination = session.createQueue(destinationName);
             }
             
-            // Create producer
-            producer = session.createProducer(destination);
-            producer.setDeliveryMode(DeliveryMode.PERSISTENT);
-            
             // Create and send message
             TextMessage message = session.createTextMessage(messageText);
             
@@ -56,6 +264,8 @@ public class JMSSender {
             message.setStringProperty("contentType", "application/json");
             message.setLongProperty("timestamp", System.currentTimeMillis());
             message.setStringProperty("sender", "JMS-GUI-Sender");
+            message.setStringProperty(MESSAGE_ID_PROPERTY, messageId);
+            message.setStringProperty(DUPLICATE_ID_PROPERTY, messageId);
             
             // Add custom headers if provided
             if (customHeaders != null && !customHeaders.isEmpty()) {
@@ -82,46 +292,312 @@ public class JMSSender {
                 }
             }
             
-            producer.send(message);
+            // Delivery options; the pooled producer is shared by all configurations, so they are set on every send
+            boolean persistent = sslConfig == null || sslConfig.isPersistentDelivery();
+            int priority = sslConfig != null ? sslConfig.getPriority() : Message.DEFAULT_PRIORITY;
+            long timeToLive = sslConfig != null ? sslConfig.getTimeToLive() : Message.DEFAULT_TIME_TO_LIVE;
+            pooled.producer.setDisableMessageID(sslConfig != null && sslConfig.isDisableMessageId());
+            pooled.producer.setDisableMessageTimestamp(sslConfig != null && sslConfig.isDisableMessageTimestamp());
+            setDeliveryDelay(connection, pooled.producer, message, sslConfig != null ? sslConfig.getDeliveryDelay() : 0);
+            
+            pooled.producer.send(destination, message, persistent ? DeliveryMode.PERSISTENT : DeliveryMode.NON_PERSISTENT, priority, timeToLive);
+            
+            // Keep the session for the next send
+            releaseSession(connection, pooled);
+            pooled = null;
             
+            SendJournal currentJournal = journal;
+            if (currentJournal != null) {
+                recordInJournal(currentJournal, message, destinationName, isTopic, messageText);
+            }
+            
+        } catch (JMSException e) {
+            // Drop a broken connection so that the next send reconnects; other failures concern this
+            // message only, and the connection stays shared by the other senders
+            if (connection != null && isConnectionFailure(e)) {
+                evictConnection(connection);
+            }
+            throw e;
         } finally {
-            // Clean up resources (but keep connection open for reuse)
-            if (producer != null) {
-                try {
-                    producer.close();
-                } catch (JMSException e) {
-                    // Log but don't fail
-                }
+            // A session that failed mid-send is not reused
+            if (pooled != null) {
+                pooled.close();
             }
-            if (session != null) {
+        }
+    }
+    
+    /**
+     * Sends the message to every destination in parallel, each send on its own pooled session.
+     *
+     * @return one result per destination, in the given order
+     */
+    public List<FanOutResult> sendToAll(SendRequest request, List<String> destinations) {
+        List<FanOutResult> results = new ArrayList<>(destinations.size());
+        if (destinations.isEmpty()) {
+            return results;
+        }
+        
+        // One virtual thread per destination, at most FAN_OUT_PARALLELISM sending at once
+        ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jms-fan-out-", 0).factory());
+        Semaphore permits = new Semaphore(FAN_OUT_PARALLELISM);
+        try {
+            List<Future<FanOutResult>> futures = new ArrayList<>(destinations.size());
+            for (String destination : destinations) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    long start = System.nanoTime();
+                    try {
+                        sendMessage(request.withDestination(destination));
+                        return new FanOutResult(destination, true, System.nanoTime() - start, null);
+                    } catch (JMSException | RuntimeException e) {
+                        return new FanOutResult(destination, false, System.nanoTime() - start, e.getMessage());
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
                 try {
-                    session.close();
-                } catch (JMSException e) {
-                    // Log but don't fail
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new FanOutResult(destinations.get(i), false, 0, e.getCause().getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    results.add(new FanOutResult(destinations.get(i), false, 0, "Interrupted"));
                 }
             }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+    
+    /**
+     * Resolves the destination field of a request into destination names: list entries are kept
+     * as they are and wildcard patterns are expanded against the destinations known to the broker.
+     */
+    public List<String> resolveDestinations(SendRequest request) throws JMSException {
+        List<String> patterns = DestinationPattern.split(request.getDestination());
+        if (patterns.stream().noneMatch(DestinationPattern::isWildcard)) {
+            return patterns;
+        }
+        Set<String> known = listDestinations(request.getBrokerUrl(), request.getUsername(), request.getPassword(),
+            request.getConfiguration(), request.isTopic());
+        return DestinationPattern.expand(patterns, known);
+    }
+    
+    /**
+     * Lists the queues (or topics) the broker has advertised, using ActiveMQ destination advisories.
+     */
+    public Set<String> listDestinations(String brokerURL, String username, String password, ServerConfiguration sslConfig, boolean topics) throws JMSException {
+        Connection connection = getConnection(brokerURL, username, password, sslConfig);
+        if (!(connection instanceof ActiveMQConnection)) {
+            throw new JMSException("Wildcard destinations need an ActiveMQ (OpenWire) connection");
+        }
+        DestinationSource source = ((ActiveMQConnection) connection).getDestinationSource();
+        
+        // Advisories arrive asynchronously; wait until the list stops growing
+        Set<String> names = new TreeSet<>();
+        long deadline = System.currentTimeMillis() + DESTINATION_DISCOVERY_TIMEOUT_MILLIS;
+        int lastSize = -1;
+        while (System.currentTimeMillis() < deadline) {
+            names.clear();
+            if (topics) {
+                source.getTopics().forEach(topic -> names.add(topic.getPhysicalName()));
+            } else {
+                source.getQueues().forEach(queue -> names.add(queue.getPhysicalName()));
+            }
+            if (names.size() == lastSize) {
+                break;
+            }
+            lastSize = names.size();
+            try {
+                Thread.sleep(DESTINATION_DISCOVERY_SETTLE_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return names;
+    }
+    
+    private PooledSession borrowSession(Connection connection, String brokerURL) throws JMSException {
+        BlockingDeque<PooledSession> pool = sessionPools.computeIfAbsent(connection, key -> new LinkedBlockingDeque<>(MAX_IDLE_SESSIONS));
+        PooledSession pooled = pool.pollFirst();
+        if (pooled != null) {
+            return pooled;
+        }
+        JmsEvents.SessionEvent event = new JmsEvents.SessionEvent();
+        event.begin();
+        try {
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            try {
+                pooled = new PooledSession(session, session.createProducer(null));
+            } catch (JMSException e) {
+                session.close();
+                throw e;
+            }
+            return pooled;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.brokerUrl = brokerURL;
+                event.succeeded = pooled != null;
+                event.commit();
+            }
+        }
+    }
+    
+    private void releaseSession(Connection connection, PooledSession pooled) {
+        BlockingDeque<PooledSession> pool = sessionPools.get(connection);
+        if (pool == null || !pool.offerFirst(pooled)) {
+            pooled.close();
+        }
+    }
+    
+    private void recordInJournal(SendJournal currentJournal, Message message, String destinationName, boolean isTopic, String messageText) {
+        try {
+            Map<String, Object> properties = new LinkedHashMap<>();
+            Enumeration<?> names = message.getPropertyNames();
+            while (names.hasMoreElements()) {
+                String name = (String) names.nextElement();
+                properties.put(name, message.getObjectProperty(name));
+            }
+            long timestamp = message.getJMSTimestamp() != 0 ? message.getJMSTimestamp() : System.currentTimeMillis();
+            currentJournal.append(timestamp, message.getJMSMessageID(), destinationName, isTopic, properties, messageText);
+            journalFailing = false;
+        } catch (IOException | JMSException e) {
+            // The message has been sent, so a journal failure must not fail the send; warn once until it recovers
+            if (!journalFailing) {
+                journalFailing = true;
+                warningListener.accept("Failed to record sent message in journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * The ActiveMQ (OpenWire) client does not implement JMS 2.0 delivery delay; ActiveMQ Classic
+     * schedules the message from the {@code AMQ_SCHEDULED_DELAY} property instead, when the
+     * broker has scheduler support enabled.
+     */
+    private void setDeliveryDelay(Connection connection, MessageProducer producer, Message message, long deliveryDelay) throws JMSException {
+        if (connection instanceof ActiveMQConnection) {
+            if (deliveryDelay > 0) {
+                message.setLongProperty(SCHEDULED_DELAY_PROPERTY, deliveryDelay);
+            }
+        } else {
+            producer.setDeliveryDelay(deliveryDelay);
+        }
+    }
+    
+    /**
+     * Whether a send failed because its connection is closed or its transport failed, rather than
+     * because of the message, its destination or a send timeout.
+     */
+    public static boolean isConnectionFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = next(cause)) {
+            if (cause instanceof ConnectFailedException || cause instanceof ConnectionFailedException ||
+                cause instanceof ActiveMQNotConnectedException || cause instanceof jakarta.jms.IllegalStateException) {
+                return true;
+            }
+            if (cause instanceof InterruptedIOException || cause instanceof RequestTimedOutIOException) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Whether sending the message again later may succeed: not after a cancellation, nor when the
+     * message or its destination is invalid.
+     */
+    static boolean isRetryable(Throwable error) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        for (Throwable cause = error; cause != null; cause = next(cause)) {
+            if (cause instanceof InterruptedException || cause instanceof InterruptedIOException ||
+                cause instanceof IllegalArgumentException || cause instanceof MessageFormatException ||
+                cause instanceof InvalidDestinationException) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static Throwable next(Throwable cause) {
+        Throwable next = cause.getCause();
+        if (next == null && cause instanceof JMSException jmsException) {
+            next = jmsException.getLinkedException();
+        }
+        return next != cause ? next : null;
+    }
+    
+    private void evictConnection(Connection connection) {
+        sessionPools.remove(connection);
+        List<String> keys = new ArrayList<>();
+        connections.forEach((key, cached) -> {
+            if (cached == connection && connections.remove(key, cached)) {
+                keys.add(key);
+            }
+        });
+        if (!keys.isEmpty()) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                // Already broken
+            }
+            releaseProxies(keys);
+        }
+    }
+    
+    /**
+     * Forgets the proxies of connections that are gone, and closes the proxies no connection uses any more.
+     */
+    private void releaseProxies(Collection<String> connectionKeys) {
+        synchronized (shapingProxies) {
+            connectionKeys.forEach(connectionProxies::remove);
+            Set<String> inUse = new HashSet<>();
+            connectionProxies.values().forEach(inUse::addAll);
+            shapingProxies.entrySet().removeIf(proxy -> {
+                if (inUse.contains(proxy.getKey())) {
+                    return false;
+                }
+                proxy.getValue().close();
+                return true;
+            });
         }
     }
     
     private Connection getConnection(String brokerURL, String username, String password, ServerConfiguration sslConfig) throws JMSException {
-        String connectionKey = brokerURL + "|" + (username != null ? username : "") + "|ssl:" + (sslConfig != null && sslConfig.isUseSsl());
+        Transport transport = (sslConfig != null ? sslConfig.getTransport() : Transport.AUTO).resolve(brokerURL);
+        String settingsKey = transport.name() + "|" + brokerURL + "|" + (username != null ? username : "") + "|ssl:" + (sslConfig != null && sslConfig.isUseSsl()) +
+            (sslConfig != null ? "|timeouts:" + sslConfig.getConnectTimeout() + "/" + sslConfig.getSendTimeout() : "") +
+            (transport == Transport.OPENWIRE && sslConfig != null ? "|" + sslConfig.getClientTuning().cacheKey() : "");
+        String connectionKey = settingsKey + (sslConfig != null ? "|net:" + sslConfig.getNetworkShaping().cacheKey() : "");
+        boolean[] connected = new boolean[1];
         
-        return connections.computeIfAbsent(connectionKey, key -> {
+        Connection cached = connections.computeIfAbsent(connectionKey, key -> {
+            JmsEvents.ConnectEvent event = new JmsEvents.ConnectEvent();
+            event.begin();
             try {
-                ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(brokerURL);
-                
-                // Configure SSL if enabled
-                if (sslConfig != null && sslConfig.isUseSsl()) {
-                    try {
-                        javax.net.ssl.SSLContext sslContext = SSLContextHelper.createSSLContext(sslConfig);
-                        if (sslContext != null) {
-                            // For ActiveMQ Classic, we need to set trust store system properties
-                            // as it doesn't have direct SSL context configuration in the same way as Artemis
-                            configureSystemSSLProperties(sslConfig);
-                        }
-                    } catch (Exception e) {
-                        throw new RuntimeException("Failed to configure SSL: " + e.getMessage(), e);
+                ConnectionFactory factory;
+                long factoryStart = System.nanoTime();
+                try {
+                    String url;
+                    synchronized (shapingProxies) {
+                        Set<String> proxies = new HashSet<>();
+                        url = shapedUrl(brokerURL, sslConfig, proxies);
+                        connectionProxies.put(key, proxies);
                     }
+                    factory = transport.getProvider(brokerURL).createConnectionFactory(url, sslConfig);
+                } catch (Exception e) {
+                    throw new ConnectFailedException("Failed to configure " + transport + " connection: " + e.getMessage(), e);
+                } finally {
+                    event.factorySetup = System.nanoTime() - factoryStart;
                 }
                 
                 Connection conn;
@@ -133,63 +609,142 @@ public class JMSSender {
                     conn = factory.createConnection();
                 }
                 
+                Connection created = conn;
+                conn.setExceptionListener(e -> {
+                    evictConnection(created);
+                    Consumer<String> listener = connectionLostListener;
+                    if (listener != null) {
+                        listener.accept(brokerURL + ": " + e.getMessage());
+                    }
+                });
                 conn.start();
+                event.succeeded = true;
+                connected[0] = true;
                 return conn;
             } catch (JMSException e) {
-                throw new RuntimeException("Failed to create connection to " + brokerURL + 
+                event.error = e.getMessage();
+                releaseProxies(List.of(key));
+                throw new ConnectFailedException("Failed to create connection to " + brokerURL + 
                     (username != null && !username.trim().isEmpty() ? " with user " + username : ""), e);
+            } catch (RuntimeException e) {
+                event.error = e.getMessage();
+                releaseProxies(List.of(key));
+                throw e;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.brokerUrl = brokerURL;
+                    event.transport = transport.toString();
+                    event.ssl = sslConfig != null && sslConfig.isUseSsl();
+                    event.commit();
+                }
             }
         });
+        if (connected[0]) {
+            // The same connection under other network shaping is replaced, which frees its proxies
+            connections.forEach((key, connection) -> {
+                if (!key.equals(connectionKey) && key.startsWith(settingsKey) &&
+                    (key.length() == settingsKey.length() || key.startsWith("|net:", settingsKey.length()))) {
+                    evictConnection(connection);
+                }
+            });
+        }
+        return cached;
     }
     
-    private void configureSystemSSLProperties(ServerConfiguration sslConfig) {
-        if (sslConfig.getTrustStorePath() != null && !sslConfig.getTrustStorePath().trim().isEmpty()) {
-            System.setProperty("javax.net.ssl.trustStore", sslConfig.getTrustStorePath());
-            if (sslConfig.getTrustStorePassword() != null && !sslConfig.getTrustStorePassword().trim().isEmpty()) {
-                System.setProperty("javax.net.ssl.trustStorePassword", sslConfig.getTrustStorePassword());
+    public void close() {
+        for (Connection connection : connections.values()) {
+            try {
+                connection.close();
+            } catch (JMSException e) {
+                // Log but continue closing others
             }
-            
-            // Detect truststore type
-            String trustStoreType = detectKeyStoreType(sslConfig.getTrustStorePath());
-            System.setProperty("javax.net.ssl.trustStoreType", trustStoreType);
         }
-        
-        if (sslConfig.getKeyStorePath() != null && !sslConfig.getKeyStorePath().trim().isEmpty()) {
-            System.setProperty("javax.net.ssl.keyStore", sslConfig.getKeyStorePath());
-            if (sslConfig.getKeyStorePassword() != null && !sslConfig.getKeyStorePassword().trim().isEmpty()) {
-                System.setProperty("javax.net.ssl.keyStorePassword", sslConfig.getKeyStorePassword());
-            }
-            
-            // Detect keystore type
-            String keyStoreType = detectKeyStoreType(sslConfig.getKeyStorePath());
-            System.setProperty("javax.net.ssl.keyStoreType", keyStoreType);
+        connections.clear();
+        sessionPools.clear();
+        synchronized (shapingProxies) {
+            connectionProxies.clear();
+            shapingProxies.values().forEach(ShapingProxy::close);
+            shapingProxies.clear();
         }
-        
-        if (sslConfig.isSkipCertificateValidation()) {
-            System.setProperty("com.sun.net.ssl.checkRevocation", "false");
-            System.setProperty("sun.security.ssl.allowUnsafeRenegotiation", "true");
+    }
+    
+    /**
+     * Resets every connection made through a shaping proxy, as a network failure would.
+     *
+     * @return the number of proxies whose connections were dropped
+     */
+    public int dropShapedConnections() {
+        shapingProxies.values().forEach(ShapingProxy::dropConnections);
+        return shapingProxies.size();
+    }
+    
+    /**
+     * Traffic through the shaping proxies, one line per proxy.
+     */
+    public List<String> describeShapingProxies() {
+        return shapingProxies.values().stream().map(ShapingProxy::describe).toList();
+    }
+    
+    /**
+     * The broker URL with every broker address routed through a shaping proxy, if the configuration
+     * enables network shaping. Proxies are shared by connections with the same broker and shaping.
+     *
+     * @param used receives the keys of the proxies the URL goes through
+     * @throws IllegalArgumentException for TLS connections, whose host name check would fail against the proxy
+     */
+    private String shapedUrl(String brokerURL, ServerConfiguration config, Set<String> used) {
+        NetworkShaping shaping = config != null ? config.getNetworkShaping() : null;
+        if (shaping == null || !shaping.isEnabled()) {
+            return brokerURL;
+        }
+        if (config.isUseSsl() || ShapingProxy.usesTls(brokerURL)) {
+            throw new IllegalArgumentException("Network shaping does not support TLS connections: the broker " +
+                "certificate would be checked against the local proxy address. Turn shaping off, or shape a " +
+                "plain TCP listener of the broker");
         }
+        return ShapingProxy.routeThrough(brokerURL, target -> {
+            String key = target.getHostString() + ":" + target.getPort() + "|" + shaping.cacheKey();
+            used.add(key);
+            return shapingProxies.computeIfAbsent(key, proxyKey -> {
+                try {
+                    return new ShapingProxy(target, shaping);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to start network shaping proxy for " + proxyKey, e);
+                }
+            }).getAddress();
+        });
     }
     
-    private String detectKeyStoreType(String path) {
-        String lowerPath = path.toLowerCase();
-        if (lowerPath.endsWith(".p12") || lowerPath.endsWith(".pfx")) {
-            return "PKCS12";
-        } else if (lowerPath.endsWith(".jks")) {
-            return "JKS";
-        } else {
-            return "JKS"; // Default
+    /**
+     * Thrown when no connection to the broker could be made.
+     */
+    public static class ConnectFailedException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        
+        ConnectFailedException(String message, Throwable cause) {
+            super(message, cause);
         }
     }
     
-    public void close() {
-        for (Connection connection : connections.values()) {
+    /**
+     * A session with one anonymous producer, which can send to any destination.
+     */
+    private static class PooledSession {
+        private final Session session;
+        private final MessageProducer producer;
+        
+        PooledSession(Session session, MessageProducer producer) {
+            this.session = session;
+            this.producer = producer;
+        }
+        
+        void close() {
             try {
-                connection.close();
+                session.close();
             } catch (JMSException e) {
-                // Log but continue closing others
+                // Closing a broken session
             }
         }
-        connections.clear();
     }
 }
\ No newline at end of file
@@ -0,0 +1,1055 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command line entry point for the headless operations of the application.
+ * <p>
+ * Connection settings default to the saved GUI configuration and can be
+ * overridden with {@code --url}, {@code --user} and {@code --password}.
+ */
+public class JMSSenderCli {
+    
+    private static final Set<String> COMMANDS = Set.of("replay", "history", "resend-failed", "load", "runs", "sweep", "serve", "coordinate", "worker", "proxy", "export", "import", "move", "depth", "help");
+    
+    private final PrintStream out;
+    private final PrintStream err;
+    
+    public JMSSenderCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+    
+    public static void main(String[] args) {
+        System.exit(new JMSSenderCli(System.out, System.err).run(args));
+    }
+    
+    public static boolean isCommand(String arg) {
+        return COMMANDS.contains(arg);
+    }
+    
+    public int run(String[] args) {
+        Options options = Options.parse(args);
+        try {
+            switch (options.command()) {
+                case "replay":
+                    return replay(options);
+                case "history":
+                    return history(options);
+                case "resend-failed":
+                    return resendFailed(options);
+                case "load":
+                    return load(options);
+                case "runs":
+                    return runs(options);
+                case "sweep":
+                    return sweep(options);
+                case "serve":
+                    return serve(options);
+                case "coordinate":
+                    return coordinate(options);
+                case "worker":
+                    return worker(options);
+                case "proxy":
+                    return proxy(options);
+                case "export":
+                    return export(options);
+                case "import":
+                    return importArchive(options);
+                case "move":
+                    return move(options);
+                case "depth":
+                    return depth(options);
+                default:
+                    printUsage();
+                    return 0;
+            }
+        } catch (IllegalArgumentException e) {
+            err.println("ERROR: " + e.getMessage());
+            printUsage();
+            return 2;
+        } catch (Exception e) {
+            err.println("ERROR: " + e.getMessage());
+            return 1;
+        }
+    }
+    
+    private void printUsage() {
+        out.println("Usage: java -cp jms-gui-sender.jar com.example.jmsguisender.JMSSenderCli <command> [options]");
+        out.println();
+        out.println("Commands:");
+        out.println("  replay [--journal DIR] [--send] [--destination NAME] [--queue|--topic]");
+        out.println("         List the messages recorded in the send journal, or resend those");
+        out.println("         journaled with their payload when --send is given.");
+        out.println("  history [--journal DIR] [--destination NAMES] [--since TIME] [--until TIME]");
+        out.println("         [--header NAME=VALUE,...] [--limit N] [--send [--to NAME]]");
+        out.println("         Search the send journal, newest first. TIME is an ISO date or time, today,");
+        out.println("         yesterday or a duration ago such as 2h or 7d. --send resends the matches.");
+        out.println("  resend-failed [--spool DIR]");
+        out.println("         Resend every message in the failed-message spool.");
+        out.println("  load [--profile SPEC] [--duration SECONDS] [--concurrency N]");
+        out.println("         Send along a rate profile: constant:RATE, ramp:FROM:TO:SECONDS,");
+        out.println("         burst:BASE:BURST:PERIOD:LENGTH or sine:MEAN:AMPLITUDE:PERIOD.");
+        out.println("         [--brokers \"URL URL ...\"] [--distribution round-robin|broadcast]");
+        out.println("         Spread the load over several brokers, or give each the full profile,");
+        out.println("         and compare them per node.");
+        out.println("         [--compare-delivery]");
+        out.println("         Run the profile persistent, then non-persistent, and compare them.");
+        out.println("         [--adaptive P99_MILLIS] [--min-concurrency 1] [--max-concurrency 256] [--window MILLIS]");
+        out.println("         Send as fast as possible, adding senders while the p99 send time stays under");
+        out.println("         the target and cutting them on errors or slow windows; reports the sustainable rate.");
+        out.println("         [--max-depth N] [--depth-interval MILLIS]");
+        out.println("         Pause while a queue holds more than N messages, polling its statistics.");
+        out.println("         [--jfr [FILE]]");
+        out.println("         Record a Java Flight Recorder file during the run, by default in");
+        out.println("         ~/.jms-gui-sender/recordings.");
+        out.println("         [--tag TEXT] [--no-store]");
+        out.println("         Finished runs are stored in ~/.jms-gui-sender/runs, tagged e.g. with the broker version.");
+        out.println("  runs [--tag TEXT] | runs show ID | runs compare BASELINE_ID CANDIDATE_ID [--alpha 0.05]");
+        out.println("         List the stored runs, show one, or compare two with Welch's t-test on their");
+        out.println("         per-second throughput and p99; exits with 1 on a significant regression.");
+        out.println("  sweep [--sizes 100,1k,10k,100k,1m,10m] [--headers 0,10,50,200] [--cell-seconds N]");
+        out.println("        [--concurrency N] [--csv FILE] [--html FILE] [--tag TEXT] [--no-store]");
+        out.println("         Measure throughput and latency for every payload size and custom header");
+        out.println("         count. Generates its own payloads; --payload is not needed. Every cell is");
+        out.println("         stored as a run, so cells of two sweeps can be compared with runs compare.");
+        out.println("  serve [--port 8790] [--bind 127.0.0.1] [--token TOKEN] [--allow-urls \"URL URL ...\"]");
+        out.println("         Keep running and accept JSON requests over HTTP: POST /send, POST /runs,");
+        out.println("         GET /runs[/ID], POST /runs/ID/stop, GET /status, GET /metrics, POST /stop.");
+        out.println("         Requests need \"Authorization: Bearer TOKEN\" (random unless --token is given)");
+        out.println("         and JSON bodies \"Content-Type: application/json\". Connection and message");
+        out.println("         options become the request defaults; \"url\" may only name --allow-urls brokers.");
+        out.println("         Runs and bulk sends are stored in ~/.jms-gui-sender/runs unless --no-store is given.");
+        out.println("  coordinate --workers N [--port 8791] [--bind 0.0.0.0] [--accept-timeout SECONDS]");
+        out.println("         [--profile SPEC] [--duration SECONDS] [--concurrency N]");
+        out.println("         Run a load test over N worker processes: split the rate and destinations");
+        out.println("         between them, start them together and merge their results.");
+        out.println("  worker --coordinator HOST:PORT [--name NAME] [--allow-urls \"URL URL ...\"]");
+        out.println("         Take part in a coordinated load test. Credentials and SSL settings are the");
+        out.println("         worker's own; --url overrides the broker given by the coordinator, which");
+        out.println("         must otherwise be the configured broker or one of --allow-urls.");
+        out.println("  proxy --target HOST:PORT [--port N] [--bind 127.0.0.1]");
+        out.println("         Forward to a broker with the network shaping options, e.g. for consumers.");
+        out.println("  export --destination QUEUE --archive FILE [--drain] [--selector EXPR] [--batch 500]");
+        out.println("         [--max N] [--format ndjson|binary]");
+        out.println("         Write the messages of a queue to a gzip archive, browsing or (--drain)");
+        out.println("         consuming them. Checkpoints every batch; run it again to resume or append.");
+        out.println("  import --archive FILE [--destination NAME] [--topic]");
+        out.println("         Send the text messages of an export archive, by default to their original queue.");
+        out.println("  move --from QUEUE --to NAME [--to-topic] [--copy] [--consumers 4] [--batch 100]");
+        out.println("       [--selector EXPR] [--max N] [--set-header NAME=VALUE,...] [--remove-header NAME,...]");
+        out.println("       [--target-url URL] [--target-user USERNAME] [--target-password PASSWORD]");
+        out.println("         Move messages in transacted batches with parallel consumers, or browse and");
+        out.println("         copy them with --copy, to another destination on the same or another broker.");
+        out.println("  depth --destination QUEUE[,QUEUE...] [--interval MILLIS] [--count N]");
+        out.println("         Print the depth, enqueue and dequeue rates and consumer count of queues, from");
+        out.println("         the ActiveMQ statistics plugin or Artemis management messages.");
+        out.println();
+        out.println("Connection options (default to the saved configuration):");
+        out.println("  --url URL  --user USERNAME  --password PASSWORD");
+        out.println("  --transport auto|openwire|amqp|artemis-core");
+        out.println("  --connect-timeout MILLIS  --send-timeout MILLIS  (0 waits forever)");
+        out.println();
+        out.println("Message options (default to the saved destination):");
+        out.println("  --destination NAME  --topic  --payload TEXT | --payload-file FILE");
+        out.println("  --json off|validate|minify|canonical  (default: saved setting, validate)");
+        out.println("  --generate  (use the payload as a JSON Schema or sample and vary it per message)");
+        out.println();
+        out.println("Delivery options (default to the saved configuration):");
+        out.println("  --non-persistent  --priority 0-9  --ttl MILLIS  --delivery-delay MILLIS");
+        out.println("  --disable-message-id  --disable-timestamp");
+        out.println();
+        out.println("OpenWire client tuning (default to the saved configuration, 0 keeps the client default):");
+        out.println("  --async-send  --compression  --optimize-ack  --session-async true|false  --tcp-no-delay");
+        out.println("  --producer-window BYTES  --prefetch N  --socket-buffer BYTES  --io-buffer BYTES");
+        out.println();
+        out.println("Network shaping through a local proxy (any of these turns it on, --shape false turns it off):");
+        out.println("  --latency MILLIS  --jitter MILLIS  --bandwidth KBIT_PER_SECOND  --drop-interval SECONDS");
+    }
+    
+    private int replay(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        Path journalDirectory = options.has("journal")
+            ? Paths.get(options.get("journal"))
+            : ConfigurationManager.resolveJournalDirectory(config);
+        boolean send = options.flag("send");
+        
+        if (SendJournal.listSegments(journalDirectory).isEmpty()) {
+            err.println("No journal found in " + journalDirectory);
+            return 1;
+        }
+        
+        List<JournalRecord> records = new ArrayList<>();
+        SendJournal.read(journalDirectory, record -> {
+            out.println(formatRecord(record));
+            if (send) {
+                records.add(record);
+            }
+        });
+        
+        if (!send) {
+            return 0;
+        }
+        
+        JMSSender sender = new JMSSender();
+        int sent = 0;
+        int skipped = 0;
+        try {
+            for (JournalRecord record : records) {
+                if (!record.hasPayload()) {
+                    skipped++;
+                    continue;
+                }
+                String destination = options.get("destination", record.getDestination());
+                boolean isTopic = options.flag("topic") || (!options.flag("queue") && record.isTopic());
+                sender.sendMessage(config.getServerUrl(), config.getUsername(), config.getPassword(),
+                    destination, record.getPayload(), isTopic, config, JMSSender.replayableProperties(record.getProperties()));
+                sent++;
+            }
+        } finally {
+            sender.close();
+        }
+        
+        out.println("Resent " + sent + " message(s)" + (skipped > 0 ? ", skipped " + skipped + " journaled without payload" : ""));
+        return 0;
+    }
+    
+    private int history(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        Path journalDirectory = options.has("journal")
+            ? Paths.get(options.get("journal"))
+            : ConfigurationManager.resolveJournalDirectory(config);
+        long now = System.currentTimeMillis();
+        long from = options.has("since") ? SendHistory.parseTime(options.get("since"), now, ZoneId.systemDefault()) : Long.MIN_VALUE;
+        long to = options.has("until") ? SendHistory.parseTime(options.get("until"), now, ZoneId.systemDefault()) : Long.MAX_VALUE;
+        Map<String, String> headers = SendHistory.parseProperties(options.get("header"));
+        int limit = options.getInt("limit", SendHistory.DEFAULT_LIMIT);
+        
+        if (SendJournal.listSegments(journalDirectory).isEmpty()) {
+            err.println("No journal found in " + journalDirectory);
+            return 1;
+        }
+        
+        SendHistory history = new SendHistory(journalDirectory);
+        long indexStart = System.nanoTime();
+        history.refresh();
+        long indexMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - indexStart);
+        SendHistory.Result result = history.search(options.get("destination"), from, to, headers, limit);
+        for (JournalRecord record : result.getRecords()) {
+            out.println(formatRecord(record));
+        }
+        out.printf(Locale.ROOT, "%d of %d match(es) in %.1f ms, %d record(s) indexed in %d ms%n", result.getRecords().size(),
+            result.getMatches(), result.getElapsedNanos() / 1e6, history.size(), indexMillis);
+        
+        if (!options.flag("send")) {
+            return 0;
+        }
+        
+        // Resend oldest first, in the order they were originally sent
+        List<JournalRecord> records = new ArrayList<>(result.getRecords());
+        Collections.reverse(records);
+        JMSSender sender = new JMSSender();
+        int sent = 0;
+        int skipped = 0;
+        try {
+            for (JournalRecord record : records) {
+                if (!record.hasPayload()) {
+                    skipped++;
+                    continue;
+                }
+                sender.sendMessage(config.getServerUrl(), config.getUsername(), config.getPassword(),
+                    options.get("to", record.getDestination()), record.getPayload(), record.isTopic(), config,
+                    JMSSender.replayableProperties(record.getProperties()));
+                sent++;
+            }
+        } finally {
+            sender.close();
+        }
+        
+        out.println("Resent " + sent + " message(s)" + (skipped > 0 ? ", skipped " + skipped + " journaled without payload" : ""));
+        return 0;
+    }
+    
+    private int resendFailed(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        Path spoolDirectory = options.has("spool")
+            ? Paths.get(options.get("spool"))
+            : ConfigurationManager.getSpoolDirectory();
+        
+        JMSSender sender = new JMSSender();
+        try {
+            FailedMessageSpool spool = new FailedMessageSpool(spoolDirectory, sender, () -> config);
+            spool.setListener(out::println);
+            int pending = spool.size();
+            int resent = spool.resendAll();
+            out.println("Resent " + resent + " of " + pending + " spooled message(s)");
+            return resent == pending ? 0 : 1;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private int load(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        SendRequest request = buildRequest(options, config);
+        JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(request);
+        request = PayloadGenerator.attach(request.withPayload(json.orThrow()));
+        if (json.isRewritten()) {
+            out.println(json.describe());
+        }
+        if (request.getPayloadGenerator() != null) {
+            out.println("Generating a payload per message from the " +
+                (request.getPayloadGenerator().isSchema() ? "JSON Schema" : "sample document"));
+        }
+        RateProfile profile = RateProfile.parse(options.get("profile", "constant:100"));
+        int duration = options.getInt("duration", 60);
+        int concurrency = options.getInt("concurrency", 4);
+        
+        RunRecording recording = options.has("jfr") ? RunRecording.start("load-test") : null;
+        JMSSender sender = new JMSSender();
+        DepthMonitor monitor = null;
+        try {
+            List<SendRequest> requests = sender.resolveDestinations(request).stream().map(request::withDestination).toList();
+            if (requests.isEmpty()) {
+                throw new IllegalArgumentException("No destinations match '" + request.getDestination() + "'");
+            }
+            List<String> brokers = MultiBrokerRun.parseBrokerUrls(options.get("brokers"));
+            if (options.has("max-depth")) {
+                if (!brokers.isEmpty()) {
+                    throw new IllegalArgumentException("--max-depth watches one broker and cannot be combined with --brokers");
+                }
+                monitor = startDepthMonitor(options, sender, request, requests);
+            }
+            if (options.has("adaptive")) {
+                return loadAdaptive(options, sender, request, requests, duration);
+            }
+            if (options.flag("compare-delivery")) {
+                return compareDelivery(options, request, requests, profile, duration, concurrency, sender, monitor);
+            }
+            if (!brokers.isEmpty()) {
+                return loadMultiBroker(options, sender, requests, brokers, profile, duration, concurrency);
+            }
+            RateScheduler scheduler = new RateScheduler(profile, duration, concurrency,
+                sequence -> sender.sendMessage(requests.get((int) (sequence % requests.size()))));
+            scheduler.setProgressListener(sample -> out.println(sample));
+            if (monitor != null) {
+                scheduler.setPauseCondition(monitor::isOverMaxDepth);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(scheduler::stop));
+            
+            out.println("Load test: " + profile.describe() + " for " + duration + "s, concurrency " + concurrency +
+                ", to " + requests.size() + " " + (request.isTopic() ? "topic(s)" : "queue(s)"));
+            LoadRunResult result = scheduler.run();
+            out.println(result.summary());
+            if (result.getLastError() != null) {
+                err.println("Last send error: " + result.getLastError());
+            }
+            storeRun(options, "load", request, loadParameters(profile, duration, concurrency, requests.size()), result);
+            return result.getFailed() == 0 ? 0 : 1;
+        } finally {
+            if (monitor != null) {
+                monitor.close();
+            }
+            sender.close();
+            if (recording != null) {
+                // A bare --jfr is stored as "true"
+                String file = options.get("jfr");
+                Path path = recording.stop("true".equals(file) ? RunRecording.defaultFile("load-test") : Paths.get(file));
+                out.println("JFR recording written to " + path);
+            }
+        }
+    }
+    
+    private int compareDelivery(Options options, SendRequest request, List<SendRequest> requests, RateProfile profile,
+                                int duration, int concurrency, JMSSender sender, DepthMonitor monitor) throws InterruptedException {
+        LoadRunComparison comparison = new LoadRunComparison();
+        for (boolean persistent : new boolean[] {true, false}) {
+            String label = persistent ? "persistent" : "non-persistent";
+            ServerConfiguration modeConfig = new ServerConfiguration(request.getConfiguration());
+            modeConfig.setPersistentDelivery(persistent);
+            List<SendRequest> modeRequests = requests.stream().map(modeRequest -> modeRequest.withConfiguration(modeConfig)).toList();
+            
+            RateScheduler scheduler = new RateScheduler(profile, duration, concurrency,
+                sequence -> sender.sendMessage(modeRequests.get((int) (sequence % modeRequests.size()))));
+            scheduler.setProgressListener(sample -> out.println(label + " " + sample));
+            if (monitor != null) {
+                scheduler.setPauseCondition(monitor::isOverMaxDepth);
+            }
+            out.println("Load test (" + label + "): " + profile.describe() + " for " + duration + "s, concurrency " + concurrency);
+            LoadRunResult result = scheduler.run();
+            comparison.add(label, result);
+            storeRun(options, "load", request.withConfiguration(modeConfig),
+                loadParameters(profile, duration, concurrency, requests.size()), result);
+        }
+        out.print(comparison.report());
+        return comparison.getResults().values().stream().allMatch(result -> result.getFailed() == 0) ? 0 : 1;
+    }
+    
+    private int loadAdaptive(Options options, JMSSender sender, SendRequest request, List<SendRequest> requests, int duration)
+            throws InterruptedException {
+        double targetP99 = Double.parseDouble(options.get("adaptive"));
+        int minConcurrency = options.getInt("min-concurrency", 1);
+        int maxConcurrency = options.getInt("max-concurrency", AdaptiveConcurrency.DEFAULT_MAX_CONCURRENCY);
+        long window = options.getLong("window", AdaptiveConcurrency.DEFAULT_WINDOW_MILLIS);
+        AdaptiveConcurrency run = new AdaptiveConcurrency(
+            sequence -> sender.sendMessage(requests.get((int) (sequence % requests.size()))), targetP99, duration);
+        run.setConcurrencyLimits(minConcurrency, maxConcurrency);
+        run.setWindow(window);
+        run.setProgressListener(out::println);
+        Runtime.getRuntime().addShutdownHook(new Thread(run::stop));
+        
+        out.println("Adaptive load test: p99 target " + targetP99 + " ms for " + duration + "s to " + requests.size() + " destination(s)");
+        LoadRunResult result = run.run();
+        out.println(result.summary());
+        out.print(run.report());
+        if (result.getLastError() != null) {
+            err.println("Last send error: " + result.getLastError());
+        }
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("targetP99Millis", targetP99);
+        parameters.put("minConcurrency", minConcurrency);
+        parameters.put("maxConcurrency", maxConcurrency);
+        parameters.put("windowMillis", window);
+        parameters.put("duration", duration);
+        parameters.put("destinations", requests.size());
+        storeRun(options, "adaptive", request, parameters, result);
+        return 0;
+    }
+    
+    private static Map<String, Object> loadParameters(RateProfile profile, int duration, int concurrency, int destinations) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("profile", profile.describe());
+        parameters.put("duration", duration);
+        parameters.put("concurrency", concurrency);
+        parameters.put("destinations", destinations);
+        return parameters;
+    }
+    
+    /**
+     * Keeps a finished run in the local run store for later comparison, unless {@code --no-store} is given.
+     */
+    private void storeRun(Options options, String kind, SendRequest request, Map<String, Object> parameters,
+                          LoadRunResult result) {
+        if (options.flag("no-store")) {
+            return;
+        }
+        try {
+            RunStore store = RunStore.local();
+            String id = store.save(RunRecord.of(kind, options.get("tag"), request, parameters, result));
+            out.println("Run stored as " + id + " in " + store.getDirectory());
+        } catch (IOException e) {
+            err.println("WARNING: Failed to store the run: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Watches the queues of a load run so that it can pause while one is deeper than {@code --max-depth}.
+     */
+    private DepthMonitor startDepthMonitor(Options options, JMSSender sender, SendRequest request, List<SendRequest> requests) {
+        DepthMonitor monitor = new DepthMonitor(sender, request, requests.stream().map(SendRequest::getDestination).toList());
+        monitor.setMaxDepth(options.getLong("max-depth", 0));
+        monitor.setInterval(options.getLong("depth-interval", DepthMonitor.DEFAULT_INTERVAL_MILLIS));
+        monitor.setListener(out::println);
+        monitor.start();
+        return monitor;
+    }
+    
+    private int loadMultiBroker(Options options, JMSSender sender, List<SendRequest> requests, List<String> brokers,
+                                RateProfile profile, int duration, int concurrency) throws InterruptedException {
+        MultiBrokerRun.Distribution distribution =
+            MultiBrokerRun.Distribution.valueOf(options.get("distribution", "round-robin").toUpperCase().replace('-', '_'));
+        MultiBrokerRun run = new MultiBrokerRun(sender, requests, brokers, distribution, profile, duration, concurrency);
+        run.setProgressListener(out::println);
+        Runtime.getRuntime().addShutdownHook(new Thread(run::stop));
+        
+        out.println("Load test: " + profile.describe() + " for " + duration + "s, concurrency " + concurrency +
+            ", " + distribution + " over " + brokers.size() + " broker(s)");
+        run.run();
+        out.print(run.report());
+        return run.getTotalFailed() == 0 ? 0 : 1;
+    }
+    
+    private int runs(Options options) throws Exception {
+        RunStore store = RunStore.local();
+        List<String> arguments = options.positional();
+        String action = arguments.isEmpty() ? "list" : arguments.get(0);
+        switch (action) {
+            case "list":
+                String tag = options.get("tag");
+                List<RunRecord> records = store.list().stream()
+                    .filter(record -> tag == null || tag.equals(record.getTag()))
+                    .toList();
+                for (RunRecord record : records) {
+                    out.println(record);
+                }
+                out.println(records.size() + " run(s) in " + store.getDirectory());
+                return 0;
+            case "show":
+                if (arguments.size() != 2) {
+                    throw new IllegalArgumentException("runs show expects a run ID");
+                }
+                RunRecord record = store.load(arguments.get(1));
+                out.println(record);
+                out.println("  started:    " + Instant.ofEpochMilli(record.getStartedAt()));
+                out.println("  broker:     " + record.getBrokerUrl() + "  destination: " + record.getDestination());
+                out.println("  parameters: " + record.getParameters());
+                out.println("  latency:    " + record.getLatencyMillis());
+                out.println("  service:    " + record.getServiceTimeMillis());
+                for (LoadRunSample sample : record.getSamples()) {
+                    out.println("  " + sample);
+                }
+                return 0;
+            case "compare":
+                if (arguments.size() != 3) {
+                    throw new IllegalArgumentException("runs compare expects a baseline and a candidate run ID");
+                }
+                double alpha = options.has("alpha") ? Double.parseDouble(options.get("alpha")) : RunRegression.DEFAULT_ALPHA;
+                RunRegression regression = RunRegression.compare(store.load(arguments.get(1)), store.load(arguments.get(2)), alpha);
+                out.print(regression.report());
+                return regression.hasRegression() ? 1 : 0;
+            default:
+                throw new IllegalArgumentException("Unknown runs action '" + action + "', expected list, show or compare");
+        }
+    }
+    
+    private int sweep(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        SendRequest request = buildRequest(options, config, false);
+        List<Integer> sizes = options.has("sizes") ? SizeSweep.parseSizes(options.get("sizes")) : SizeSweep.DEFAULT_SIZES;
+        List<Integer> headerCounts = options.has("headers")
+            ? SizeSweep.parseCounts(options.get("headers"))
+            : SizeSweep.DEFAULT_HEADER_COUNTS;
+        int cellSeconds = options.getInt("cell-seconds", 5);
+        int concurrency = options.getInt("concurrency", 4);
+        
+        JMSSender sender = new JMSSender();
+        try {
+            SizeSweep sweep = new SizeSweep(sender, request, sizes, headerCounts, cellSeconds, concurrency);
+            sweep.setProgressListener(out::println);
+            Runtime.getRuntime().addShutdownHook(new Thread(sweep::stop));
+            
+            out.println("Sweep: " + sizes.size() + " payload size(s) x " + headerCounts.size() + " header count(s), " +
+                cellSeconds + "s per cell, concurrency " + concurrency + ", to " + request.getDestination());
+            List<SizeSweep.Cell> cells = sweep.run();
+            out.print(sweep.report());
+            if (!options.flag("no-store") && !cells.isEmpty()) {
+                try {
+                    RunStore store = RunStore.local();
+                    List<String> ids = sweep.store(store, options.get("tag"));
+                    out.println("Cells stored as runs " + ids.get(0) + " to " + ids.get(ids.size() - 1) + " in " +
+                        store.getDirectory());
+                } catch (IOException e) {
+                    err.println("WARNING: Failed to store the sweep: " + e.getMessage());
+                }
+            }
+            if (options.has("csv")) {
+                Files.writeString(Paths.get(options.get("csv")), sweep.toCsv());
+                out.println("CSV written to " + options.get("csv"));
+            }
+            if (options.has("html")) {
+                Files.writeString(Paths.get(options.get("html")), sweep.toHtml());
+                out.println("HTML written to " + options.get("html"));
+            }
+            return cells.stream().allMatch(cell -> cell.getFailed() == 0) ? 0 : 1;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private int serve(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        if (options.has("destination")) {
+            config.setLastDestination(options.get("destination"));
+        }
+        if (options.has("topic")) {
+            config.setTopicSelected(options.flag("topic"));
+        }
+        InetSocketAddress address = new InetSocketAddress(options.get("bind", "127.0.0.1"),
+            options.getInt("port", ControlServer.DEFAULT_PORT));
+        
+        JMSSender sender = new JMSSender();
+        ControlServer server = new ControlServer(sender, config);
+        try {
+            server.setListener(out::println);
+            if (options.flag("no-store")) {
+                server.setRunStore(null);
+            }
+            if (options.has("token")) {
+                server.setToken(options.get("token"));
+            }
+            server.setAllowedBrokerUrls(MultiBrokerRun.parseBrokerUrls(options.get("allow-urls")));
+            server.start(address);
+            Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+            out.println("Listening on http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() +
+                " (default broker " + config.getServerUrl() + ")");
+            out.println("Token: " + server.getToken());
+            server.awaitClose();
+            return 0;
+        } finally {
+            server.close();
+            sender.close();
+        }
+    }
+    
+    private int coordinate(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        SendRequest request = buildRequest(options, config);
+        JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(request);
+        request = request.withPayload(json.orThrow());
+        if (json.isRewritten()) {
+            out.println(json.describe());
+        }
+        if (config.isGeneratePayloads()) {
+            // Fail here rather than on every worker
+            PayloadGenerator.compile(request.getPayload());
+        }
+        if (!options.has("workers")) {
+            throw new IllegalArgumentException("--workers is required");
+        }
+        
+        List<String> destinations;
+        JMSSender sender = new JMSSender();
+        try {
+            destinations = sender.resolveDestinations(request);
+        } finally {
+            sender.close();
+        }
+        LoadCoordinator coordinator = new LoadCoordinator(request, destinations, options.get("profile", "constant:100"),
+            options.getInt("duration", 60), options.getInt("concurrency", 4), options.getInt("workers", 1));
+        coordinator.setProgressListener(out::println);
+        InetSocketAddress address = coordinator.bind(new InetSocketAddress(options.get("bind", "0.0.0.0"),
+            options.getInt("port", LoadCoordinator.DEFAULT_PORT)));
+        Runtime.getRuntime().addShutdownHook(new Thread(coordinator::stop));
+        
+        out.println("Waiting for " + options.get("workers") + " worker(s) on port " + address.getPort());
+        LoadRunResult result = coordinator.run(options.getInt("accept-timeout", 300));
+        out.print(coordinator.report());
+        out.println(result.summary());
+        if (result.getLastError() != null) {
+            err.println("Last send error: " + result.getLastError());
+        }
+        Map<String, Object> parameters = loadParameters(RateProfile.parse(options.get("profile", "constant:100")),
+            options.getInt("duration", 60), options.getInt("concurrency", 4), destinations.size());
+        parameters.put("workers", options.getInt("workers", 1));
+        storeRun(options, "distributed", request, parameters, result);
+        return result.getFailed() == 0 && !result.isStopped() ? 0 : 1;
+    }
+    
+    private int worker(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        String coordinator = options.get("coordinator");
+        InetSocketAddress address = parseAddress(coordinator, "coordinator");
+        String name = options.get("name", InetAddress.getLocalHost().getHostName() + "-" + ProcessHandle.current().pid());
+        
+        JMSSender sender = new JMSSender();
+        try {
+            LoadWorker worker = new LoadWorker(sender, config, name);
+            if (options.has("url")) {
+                worker.setBrokerUrl(config.getServerUrl());
+            }
+            worker.setAllowedBrokerUrls(MultiBrokerRun.parseBrokerUrls(options.get("allow-urls")));
+            worker.setProgressListener(out::println);
+            out.println("Worker " + name + " joining " + coordinator);
+            LoadRunResult result = worker.run(address);
+            return result.getFailed() == 0 ? 0 : 1;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private int proxy(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        NetworkShaping shaping = config.getNetworkShaping();
+        shaping.setEnabled(true);
+        InetSocketAddress target = parseAddress(options.get("target"), "target");
+        InetSocketAddress listen = new InetSocketAddress(options.get("bind", "127.0.0.1"), options.getInt("port", 0));
+        
+        ShapingProxy proxy = new ShapingProxy(listen, target, shaping);
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            out.println(proxy.describe());
+            proxy.close();
+            stopped.countDown();
+        }));
+        out.println("Forwarding " + proxy.getAddress().getHostString() + ":" + proxy.getAddress().getPort() + " to " +
+            target.getHostString() + ":" + target.getPort() + " with " + shaping + "; Ctrl+C to stop");
+        stopped.await();
+        return 0;
+    }
+    
+    /**
+     * Parses {@code HOST:PORT}.
+     */
+    private static InetSocketAddress parseAddress(String value, String option) {
+        int colon = value != null ? value.lastIndexOf(':') : -1;
+        if (colon <= 0) {
+            throw new IllegalArgumentException("--" + option + " HOST:PORT is required");
+        }
+        try {
+            return new InetSocketAddress(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid port in --" + option + " " + value);
+        }
+    }
+    
+    private int export(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        if (!options.has("destination") || !options.has("archive")) {
+            throw new IllegalArgumentException("--destination and --archive are required");
+        }
+        Path archive = Paths.get(options.get("archive"));
+        QueueArchive.Format format = options.has("format")
+            ? QueueArchive.Format.valueOf(options.get("format").toUpperCase(Locale.ROOT))
+            : QueueArchive.Format.forFile(archive);
+        SendRequest source = SendRequest.of(config, options.get("destination").trim(), false, "", Map.of());
+        
+        JMSSender sender = new JMSSender();
+        try {
+            QueueExport export = new QueueExport(sender, source, archive,
+                options.flag("drain") ? QueueExport.Mode.DRAIN : QueueExport.Mode.BROWSE, format);
+            export.setBatchSize(options.getInt("batch", QueueExport.DEFAULT_BATCH_SIZE));
+            export.setMaxMessages(options.getLong("max", 0));
+            export.setSelector(options.get("selector"));
+            export.setProgressListener(out::println);
+            Runtime.getRuntime().addShutdownHook(new Thread(export::stop));
+            export.run();
+            return 0;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private int importArchive(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        if (!options.has("archive")) {
+            throw new IllegalArgumentException("--archive is required");
+        }
+        Path archive = Paths.get(options.get("archive"));
+        boolean isTopic = options.flag("topic");
+        
+        JMSSender sender = new JMSSender();
+        int sent = 0;
+        int skipped = 0;
+        try (QueueArchive.Reader reader = new QueueArchive.Reader(archive)) {
+            ArchivedMessage message;
+            while ((message = reader.next()) != null) {
+                if (message.getBodyType() != ArchivedMessage.BodyType.TEXT) {
+                    skipped++;
+                    continue;
+                }
+                String destination = options.get("destination", originalQueue(message));
+                if (destination == null) {
+                    throw new IllegalArgumentException("--destination is required: the archive does not name a queue");
+                }
+                sender.sendMessage(config.getServerUrl(), config.getUsername(), config.getPassword(),
+                    destination, message.getText(), isTopic, config, JMSSender.replayableProperties(message.getProperties()));
+                sent++;
+            }
+        } finally {
+            sender.close();
+        }
+        
+        out.println("Sent " + sent + " message(s)" + (skipped > 0 ? ", skipped " + skipped + " without a text body" : ""));
+        return 0;
+    }
+    
+    private int move(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        if (!options.has("from") || !options.has("to")) {
+            throw new IllegalArgumentException("--from and --to are required");
+        }
+        SendRequest source = SendRequest.of(config, options.get("from").trim(), false, "", Map.of());
+        SendRequest target = new SendRequest(options.get("target-url", config.getServerUrl()),
+            options.get("target-user", config.getUsername()), options.get("target-password", config.getPassword()),
+            options.get("to").trim(), options.flag("to-topic"), "", Map.of(), config);
+        
+        Map<String, Object> setHeaders = new LinkedHashMap<>();
+        for (String header : splitList(options.get("set-header"))) {
+            int equals = header.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("--set-header expects NAME=VALUE, got: " + header);
+            }
+            setHeaders.put(header.substring(0, equals).trim(), header.substring(equals + 1).trim());
+        }
+        
+        JMSSender sender = new JMSSender();
+        try {
+            QueueMover mover = new QueueMover(sender, source, target,
+                options.flag("copy") ? QueueMover.Mode.COPY : QueueMover.Mode.MOVE);
+            mover.setConsumers(options.getInt("consumers", QueueMover.DEFAULT_CONSUMERS));
+            mover.setBatchSize(options.getInt("batch", QueueMover.DEFAULT_BATCH_SIZE));
+            mover.setMaxMessages(options.getLong("max", 0));
+            mover.setSelector(options.get("selector"));
+            mover.setHeaderRewrite(setHeaders, Set.copyOf(splitList(options.get("remove-header"))));
+            mover.setProgressListener(out::println);
+            Runtime.getRuntime().addShutdownHook(new Thread(mover::stop));
+            mover.run();
+            return 0;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private int depth(Options options) throws Exception {
+        ServerConfiguration config = loadConfiguration(options);
+        SendRequest request = buildRequest(options, config, false);
+        JMSSender sender = new JMSSender();
+        try (DepthMonitor monitor = new DepthMonitor(sender, request, sender.resolveDestinations(request))) {
+            long interval = options.getLong("interval", DepthMonitor.DEFAULT_INTERVAL_MILLIS);
+            long count = options.getLong("count", Long.MAX_VALUE);
+            for (long poll = 0; poll < count; poll++) {
+                if (poll > 0) {
+                    Thread.sleep(interval);
+                }
+                List<DestinationStats> stats = monitor.poll();
+                if (stats.isEmpty()) {
+                    err.println("No statistics: the queues do not exist, or the broker has neither the statistics plugin nor a management address");
+                }
+                for (DestinationStats destination : stats) {
+                    out.println(Instant.ofEpochMilli(destination.getSampledAt()) + "  " + destination);
+                }
+            }
+            return 0;
+        } finally {
+            sender.close();
+        }
+    }
+    
+    private static List<String> splitList(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.isBlank()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+        return items;
+    }
+    
+    private static String originalQueue(ArchivedMessage message) {
+        String destination = message.getDestination();
+        return destination != null && destination.startsWith("queue://") ? destination.substring("queue://".length()) : null;
+    }
+    
+    static SendRequest buildRequest(Options options, ServerConfiguration config) throws IOException {
+        return buildRequest(options, config, true);
+    }
+    
+    /**
+     * @param payloadRequired whether {@code --payload} or {@code --payload-file} must be given;
+     *                        the payload is empty otherwise
+     */
+    static SendRequest buildRequest(Options options, ServerConfiguration config, boolean payloadRequired) throws IOException {
+        String destination = options.get("destination", config.getLastDestination());
+        if (destination == null || destination.trim().isEmpty()) {
+            throw new IllegalArgumentException("--destination is required (no saved destination)");
+        }
+        boolean isTopic = options.has("topic") ? options.flag("topic") : config.isTopicSelected();
+        
+        String payload;
+        if (options.has("payload-file")) {
+            payload = Files.readString(Paths.get(options.get("payload-file")));
+        } else if (options.has("payload")) {
+            payload = options.get("payload");
+        } else if (payloadRequired) {
+            throw new IllegalArgumentException("--payload or --payload-file is required");
+        } else {
+            payload = "";
+        }
+        return SendRequest.of(config, destination.trim(), isTopic, payload, Map.of());
+    }
+    
+    private static String formatRecord(JournalRecord record) {
+        return Instant.ofEpochMilli(record.getTimestamp()) + "  " +
+            record.getMessageId() + "  " +
+            (record.isTopic() ? "topic://" : "queue://") + record.getDestination() + "  " +
+            record.getPayloadSize() + " bytes  sha256=" + record.getPayloadHashHex() + "  " +
+            record.getProperties();
+    }
+    
+    static ServerConfiguration loadConfiguration(Options options) {
+        ServerConfiguration config = new ConfigurationManager().loadConfiguration();
+        if (options.has("url")) {
+            config.setServerUrl(options.get("url"));
+        }
+        if (options.has("user")) {
+            config.setUsername(options.get("user"));
+        }
+        if (options.has("password")) {
+            config.setPassword(options.get("password"));
+        }
+        if (options.has("transport")) {
+            config.setTransport(Transport.parse(options.get("transport")));
+        }
+        config.setConnectTimeout(options.getLong("connect-timeout", config.getConnectTimeout()));
+        config.setSendTimeout(options.getLong("send-timeout", config.getSendTimeout()));
+        if (options.has("generate")) {
+            config.setGeneratePayloads(options.flag("generate"));
+        }
+        if (options.has("json")) {
+            config.setJsonMode(JsonPayloadProcessor.Mode.parse(options.get("json")));
+        }
+        if (options.has("non-persistent")) {
+            config.setPersistentDelivery(!options.flag("non-persistent"));
+        }
+        config.setPriority(options.getInt("priority", config.getPriority()));
+        config.setTimeToLive(options.getLong("ttl", config.getTimeToLive()));
+        config.setDeliveryDelay(options.getLong("delivery-delay", config.getDeliveryDelay()));
+        if (options.has("disable-message-id")) {
+            config.setDisableMessageId(options.flag("disable-message-id"));
+        }
+        if (options.has("disable-timestamp")) {
+            config.setDisableMessageTimestamp(options.flag("disable-timestamp"));
+        }
+        
+        ClientTuning tuning = config.getClientTuning();
+        if (options.has("async-send")) {
+            tuning.setUseAsyncSend(options.flag("async-send"));
+        }
+        if (options.has("compression")) {
+            tuning.setUseCompression(options.flag("compression"));
+        }
+        if (options.has("optimize-ack")) {
+            tuning.setOptimizeAcknowledge(options.flag("optimize-ack"));
+        }
+        if (options.has("session-async")) {
+            tuning.setAlwaysSessionAsync(options.flag("session-async"));
+        }
+        if (options.has("tcp-no-delay")) {
+            tuning.setTcpNoDelay(options.flag("tcp-no-delay"));
+        }
+        tuning.setProducerWindowSize(options.getInt("producer-window", tuning.getProducerWindowSize()));
+        tuning.setPrefetch(options.getInt("prefetch", tuning.getPrefetch()));
+        tuning.setSocketBufferSize(options.getInt("socket-buffer", tuning.getSocketBufferSize()));
+        tuning.setIoBufferSize(options.getInt("io-buffer", tuning.getIoBufferSize()));
+        
+        NetworkShaping shaping = config.getNetworkShaping();
+        if (options.has("latency") || options.has("jitter") || options.has("bandwidth") || options.has("drop-interval")) {
+            shaping.setEnabled(true);
+        }
+        if (options.has("shape")) {
+            shaping.setEnabled(options.flag("shape"));
+        }
+        shaping.setLatencyMillis(options.getInt("latency", shaping.getLatencyMillis()));
+        shaping.setJitterMillis(options.getInt("jitter", shaping.getJitterMillis()));
+        shaping.setBandwidthKbps(options.getInt("bandwidth", shaping.getBandwidthKbps()));
+        shaping.setDropIntervalSeconds(options.getInt("drop-interval", shaping.getDropIntervalSeconds()));
+        return config;
+    }
+    
+    /**
+     * Parsed command line: the command, {@code --name value} options and bare {@code --flag}s.
+     */
+    static class Options {
+        private final String command;
+        private final Map<String, String> values = new HashMap<>();
+        private final List<String> positional = new ArrayList<>();
+        
+        private Options(String command) {
+            this.command = command;
+        }
+        
+        static Options parse(String[] args) {
+            Options options = new Options(args.length > 0 ? args[0] : "help");
+            for (int i = 1; i < args.length; i++) {
+                String arg = args[i];
+                if (arg.startsWith("--")) {
+                    String name = arg.substring(2);
+                    int equals = name.indexOf('=');
+                    if (equals >= 0) {
+                        options.values.put(name.substring(0, equals), name.substring(equals + 1));
+                    } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                        options.values.put(name, args[++i]);
+                    } else {
+                        options.values.put(name, "true");
+                    }
+                } else {
+                    options.positional.add(arg);
+                }
+            }
+            return options;
+        }
+        
+        String command() {
+            return command;
+        }
+        
+        boolean has(String name) {
+            return values.containsKey(name);
+        }
+        
+        String get(String name) {
+            return values.get(name);
+        }
+        
+        String get(String name, String defaultValue) {
+            return values.getOrDefault(name, defaultValue);
+        }
+        
+        boolean flag(String name) {
+            return Boolean.parseBoolean(values.get(name));
+        }
+        
+        int getInt(String name, int defaultValue) {
+            String value = values.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " expects a number, got '" + value + "'");
+            }
+        }
+        
+        long getLong(String name, long defaultValue) {
+            String value = values.get(name);
+            if (value == null) {
+                return defaultValue;
+            }
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("--" + name + " expects a number, got '" + value + "'");
+            }
+        }
+        
+        List<String> positional() {
+            return positional;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the JMS client work, so that slow sends can be lined up with GC
+ * pauses, lock contention and socket I/O in the same recording.
+ * <p>
+ * Events cost next to nothing unless a recording is running: callers check
+ * {@link Event#isEnabled()} or {@link Event#shouldCommit()} before filling in the fields.
+ */
+public final class JmsEvents {
+    
+    private static final String CATEGORY = "JMS GUI Sender";
+    
+    private JmsEvents() {
+    }
+    
+    @Name("com.example.jmsguisender.Connect")
+    @Label("JMS Connect")
+    @Description("Creation of a broker connection, from building the connection factory to starting the connection")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ConnectEvent extends Event {
+        @Label("Broker URL")
+        String brokerUrl;
+        
+        @Label("Transport")
+        String transport;
+        
+        @Label("SSL")
+        boolean ssl;
+        
+        @Label("Factory Setup")
+        @Description("Time to build the connection factory, including the SSL context")
+        @Timespan(Timespan.NANOSECONDS)
+        long factorySetup;
+        
+        @Label("Succeeded")
+        boolean succeeded;
+        
+        @Label("Error")
+        String error;
+    }
+    
+    @Name("com.example.jmsguisender.SslContext")
+    @Label("SSL Context Setup")
+    @Description("Loading of the key and trust stores and initialisation of the SSL context")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class SslContextEvent extends Event {
+        @Label("Trust Store")
+        String trustStore;
+        
+        @Label("Key Store")
+        String keyStore;
+        
+        @Label("Skip Certificate Validation")
+        boolean skipValidation;
+    }
+    
+    @Name("com.example.jmsguisender.SessionCreate")
+    @Label("JMS Session Creation")
+    @Description("Creation of a pooled session and its producer, when none was idle")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class SessionEvent extends Event {
+        @Label("Broker URL")
+        String brokerUrl;
+        
+        @Label("Succeeded")
+        boolean succeeded;
+    }
+    
+    @Name("com.example.jmsguisender.Send")
+    @Label("JMS Send")
+    @Description("One message send, including getting the connection and a pooled session")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class SendEvent extends Event {
+        @Label("Broker URL")
+        String brokerUrl;
+        
+        @Label("Destination")
+        String destination;
+        
+        @Label("Topic")
+        boolean topic;
+        
+        @Label("Payload Size")
+        @DataAmount
+        long payloadSize;
+        
+        @Label("Custom Headers")
+        int headers;
+        
+        @Label("Persistent")
+        boolean persistent;
+        
+        @Label("Succeeded")
+        boolean succeeded;
+        
+        @Label("Error")
+        String error;
+    }
+}
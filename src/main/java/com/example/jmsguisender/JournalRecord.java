@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One sent message as recorded in the {@link SendJournal}.
+ */
+public class JournalRecord {
+    
+    private final long timestamp;
+    private final String messageId;
+    private final String destination;
+    private final boolean topic;
+    private final Map<String, Object> properties;
+    private final int payloadSize;
+    private final byte[] payloadHash;
+    private final String payload;
+    
+    public JournalRecord(long timestamp, String messageId, String destination, boolean topic,
+                         Map<String, Object> properties, int payloadSize, byte[] payloadHash, String payload) {
+        this.timestamp = timestamp;
+        this.messageId = messageId;
+        this.destination = destination;
+        this.topic = topic;
+        this.properties = Collections.unmodifiableMap(new LinkedHashMap<>(properties));
+        this.payloadSize = payloadSize;
+        this.payloadHash = payloadHash;
+        this.payload = payload;
+    }
+    
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public String getMessageId() {
+        return messageId;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public boolean isTopic() {
+        return topic;
+    }
+    
+    public Map<String, Object> getProperties() {
+        return properties;
+    }
+    
+    /** Size of the UTF-8 encoded payload in bytes. */
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+    
+    /** SHA-256 of the UTF-8 encoded payload. */
+    public byte[] getPayloadHash() {
+        return payloadHash.clone();
+    }
+    
+    public String getPayloadHashHex() {
+        return HexFormat.of().formatHex(payloadHash);
+    }
+    
+    public boolean hasPayload() {
+        return payload != null;
+    }
+    
+    /** The payload, or {@code null} if the journal was written without full payloads. */
+    public String getPayload() {
+        return payload;
+    }
+    
+    @Override
+    public String toString() {
+        return "JournalRecord{" +
+                "timestamp=" + timestamp +
+                ", messageId='" + messageId + '\'' +
+                ", destination='" + destination + '\'' +
+                ", topic=" + topic +
+                ", properties=" + properties +
+                ", payloadSize=" + payloadSize +
+                ", payloadHash=" + getPayloadHashHex() +
+                '}';
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Locale;
+
+/**
+ * Validates, minifies or canonicalises JSON payloads before they are sent.
+ * <p>
+ * Validation and minification stream the payload through a Jackson parser without building a
+ * tree, and copy numbers as written so no precision is lost. Canonicalisation needs the whole
+ * document to sort object keys, so it reads it into maps first. Duplicate keys and content after
+ * the JSON value are rejected in every mode. A payload is meant to be processed once per send or
+ * load run, not once per message.
+ */
+public class JsonPayloadProcessor {
+    
+    /**
+     * What to do with the payload.
+     */
+    public enum Mode {
+        OFF("Off (send as is)"),
+        VALIDATE("Validate"),
+        MINIFY("Validate and minify"),
+        CANONICAL("Canonicalise (sorted keys, minified)");
+        
+        private final String label;
+        
+        Mode(String label) {
+            this.label = label;
+        }
+        
+        /**
+         * Parses a mode name, ignoring case, e.g. {@code minify}.
+         */
+        public static Mode parse(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+        
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+    
+    private static final JsonFactory FACTORY = JsonFactory.builder()
+        .enable(StreamReadFeature.STRICT_DUPLICATE_DETECTION)
+        .build();
+    
+    private static final ObjectMapper CANONICAL_MAPPER = JsonMapper.builder(FACTORY)
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+        .enable(DeserializationFeature.FAIL_ON_TRAILING_TOKENS)
+        .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+        .build();
+    
+    private JsonPayloadProcessor() {
+    }
+    
+    /**
+     * Processes the payload of a request with the mode of its configuration.
+     */
+    public static Result process(SendRequest request) {
+        ServerConfiguration config = request.getConfiguration();
+        return process(request.getPayload(), config != null ? config.getJsonMode() : Mode.VALIDATE);
+    }
+    
+    public static Result process(String payload, Mode mode) {
+        if (mode == Mode.OFF) {
+            return new Result(mode, payload, payload, null);
+        }
+        try {
+            String processed = mode == Mode.CANONICAL ? canonicalise(payload) : stream(payload, mode == Mode.MINIFY);
+            return new Result(mode, payload, processed, null);
+        } catch (JsonProcessingException e) {
+            JsonLocation location = e.getLocation();
+            String where = location != null && location.getLineNr() > 0
+                ? " at line " + location.getLineNr() + ", column " + location.getColumnNr()
+                : "";
+            // Drop the source reference Jackson appends to unclosed array and object errors
+            String message = e.getOriginalMessage().replaceFirst(" \\(start marker at .*$", "");
+            return new Result(mode, payload, null, where + ": " + message);
+        } catch (IOException e) {
+            // Not expected when reading from and writing to strings
+            return new Result(mode, payload, null, e.getMessage());
+        }
+    }
+    
+    /**
+     * Parses the payload token by token, writing it back without white space when minifying.
+     *
+     * @return the minified payload, or the payload itself when only validating
+     */
+    private static String stream(String payload, boolean minify) throws IOException {
+        StringWriter out = minify ? new StringWriter(payload.length()) : null;
+        try (JsonParser parser = FACTORY.createParser(payload);
+             JsonGenerator generator = minify ? FACTORY.createGenerator(out) : null) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                throw new JsonParseException(parser, "No JSON content");
+            }
+            int depth = 0;
+            do {
+                if (generator != null) {
+                    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                        // As written, rather than through a double
+                        generator.writeNumber(parser.getText());
+                    } else {
+                        generator.copyCurrentEvent(parser);
+                    }
+                }
+                if (token.isStructStart()) {
+                    depth++;
+                } else if (token.isStructEnd()) {
+                    depth--;
+                }
+            } while (depth > 0 && (token = parser.nextToken()) != null);
+            
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the JSON value");
+            }
+        }
+        return minify ? out.toString() : payload;
+    }
+    
+    private static String canonicalise(String payload) throws IOException {
+        // Streaming first gives the same error messages as the other modes
+        stream(payload, false);
+        return CANONICAL_MAPPER.writeValueAsString(CANONICAL_MAPPER.readValue(payload, Object.class));
+    }
+    
+    /**
+     * Number of bytes of a string encoded as UTF-8, without encoding it.
+     */
+    static long utf8Length(String text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+    
+    /**
+     * Outcome of processing a payload.
+     */
+    public static final class Result {
+        private final Mode mode;
+        private final String original;
+        private final String payload;
+        private final String error;
+        
+        Result(Mode mode, String original, String payload, String error) {
+            this.mode = mode;
+            this.original = original;
+            this.payload = payload;
+            this.error = error;
+        }
+        
+        public Mode getMode() {
+            return mode;
+        }
+        
+        public boolean isValid() {
+            return error == null;
+        }
+        
+        /**
+         * Where and why the payload is not valid JSON, e.g. {@code " at line 2, column 5: Unexpected ..."},
+         * or {@code null}.
+         */
+        public String getError() {
+            return error;
+        }
+        
+        /**
+         * The payload to send, or {@code null} if it is not valid JSON.
+         */
+        public String getPayload() {
+            return payload;
+        }
+        
+        /**
+         * Returns the payload to send.
+         *
+         * @throws IllegalArgumentException if the payload is not valid JSON
+         */
+        public String orThrow() {
+            if (error != null) {
+                throw new IllegalArgumentException("Invalid JSON payload" + error);
+            }
+            return payload;
+        }
+        
+        /**
+         * Whether the payload to send differs from the original, i.e. it was minified or canonicalised.
+         */
+        public boolean isRewritten() {
+            return error == null && (mode == Mode.MINIFY || mode == Mode.CANONICAL);
+        }
+        
+        public long getOriginalBytes() {
+            return utf8Length(original);
+        }
+        
+        public long getProcessedBytes() {
+            return payload != null ? utf8Length(payload) : 0;
+        }
+        
+        /**
+         * One line summary, e.g. {@code Valid JSON, minified 1234 -> 890 bytes (-27.9%)}.
+         */
+        public String describe() {
+            if (error != null) {
+                return "Invalid JSON" + error;
+            }
+            if (mode == Mode.OFF) {
+                return "JSON not checked, " + getOriginalBytes() + " bytes";
+            }
+            if (mode == Mode.VALIDATE) {
+                return "Valid JSON, " + getOriginalBytes() + " bytes";
+            }
+            long before = getOriginalBytes();
+            long after = getProcessedBytes();
+            return String.format(Locale.ROOT, "Valid JSON, %s %d -> %d bytes (%+.1f%%)", mode == Mode.MINIFY ? "minified" : "canonicalised",
+                before, after, before > 0 ? 100.0 * (after - before) / before : 0);
+        }
+    }
+}
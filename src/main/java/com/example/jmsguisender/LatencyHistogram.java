@@ -0,0 +1,197 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Values below 128 are counted exactly; above that each power of two is split
+ * into 64 buckets, which bounds the error of reported percentiles to about 1.6%
+ * while keeping recording to a couple of atomic increments.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = 2 * SUB_BUCKET_COUNT;
+    private static final int BUCKET_COUNT = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+    
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.increment();
+        totalValue.add(value);
+        long max;
+        while (value > (max = maxValue.get()) && !maxValue.compareAndSet(max, value)) {
+            // Retry until the maximum is updated or a larger value wins
+        }
+    }
+    
+    public long getCount() {
+        return totalCount.sum();
+    }
+    
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalValue.sum() / count;
+    }
+    
+    public long getMax() {
+        return maxValue.get();
+    }
+    
+    /**
+     * Returns the value at the given percentile (0-100), as the upper bound of its bucket
+     * capped at the recorded maximum.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = totalCount.sum();
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(bucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+    
+    /**
+     * Adds all values recorded in {@code other} to this histogram.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalValue.add(other.totalValue.sum());
+        long otherMax = other.getMax();
+        long max;
+        while (otherMax > (max = maxValue.get()) && !maxValue.compareAndSet(max, otherMax)) {
+            // Retry
+        }
+    }
+    
+    /**
+     * Returns a copy of the values recorded so far and clears this histogram. Values recorded
+     * concurrently end up in either the copy or this histogram.
+     */
+    public LatencyHistogram snapshotAndReset() {
+        LatencyHistogram snapshot = new LatencyHistogram();
+        long moved = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.getAndSet(i, 0);
+            if (count != 0) {
+                snapshot.counts.set(i, count);
+                moved += count;
+            }
+        }
+        long sum = totalValue.sumThenReset();
+        totalCount.add(-moved);
+        snapshot.totalCount.add(moved);
+        snapshot.totalValue.add(sum);
+        snapshot.maxValue.set(maxValue.getAndSet(0));
+        return snapshot;
+    }
+    
+    /**
+     * Sparse representation (bucket index to count) for persisting or transferring the histogram.
+     */
+    public Map<Integer, Long> toBucketCounts() {
+        Map<Integer, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count != 0) {
+                buckets.put(i, count);
+            }
+        }
+        return buckets;
+    }
+    
+    public static LatencyHistogram fromBucketCounts(Map<Integer, Long> buckets, long max) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (Map.Entry<Integer, Long> bucket : buckets.entrySet()) {
+            int index = bucket.getKey();
+            long count = bucket.getValue();
+            histogram.counts.set(index, count);
+            histogram.totalCount.add(count);
+            histogram.totalValue.add(bucketMidpoint(index) * count);
+        }
+        histogram.maxValue.set(max);
+        return histogram;
+    }
+    
+    /**
+     * One line summary in milliseconds: count, mean, p50, p90, p99, p99.9 and max.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "n=%d mean=%.3fms p50=%.3fms p90=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+            getCount(), getMean() / 1e6, millis(50), millis(90), millis(99), millis(99.9), getMax() / 1e6);
+    }
+    
+    private double millis(double percentile) {
+        return getValueAtPercentile(percentile) / 1e6;
+    }
+    
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+    
+    static long bucketLowerBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+    
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + 1;
+        return bucketLowerBound(index) + (1L << shift) - 1;
+    }
+    
+    private static long bucketMidpoint(int index) {
+        return bucketLowerBound(index) + (bucketUpperBound(index) - bucketLowerBound(index)) / 2;
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs one load test over several {@link LoadWorker} processes, for brokers or clusters that a single
+ * JVM cannot saturate.
+ * <p>
+ * The coordinator waits for the expected number of workers to connect and splits the run between
+ * them: with at least as many destinations as workers each worker gets its own destinations and the
+ * matching share of the rate, otherwise every worker sends to all destinations at an equal share.
+ * Workers warm up their connections first and all start on the same signal. Their latency histograms
+ * and counters are merged into one {@link LoadRunResult}, and per-second samples are summed across workers.
+ */
+public class LoadCoordinator implements Closeable {
+    
+    public static final int DEFAULT_PORT = 8791;
+    
+    private static final int HELLO_TIMEOUT_MILLIS = 10_000;
+    static final int READY_TIMEOUT_MILLIS = 120_000;
+    /** How long after the planned end a worker may take to drain its sends and report its result. */
+    static final long RESULT_GRACE_SECONDS = 60;
+    
+    private final SendRequest request;
+    private final List<String> destinations;
+    private final String profileSpecification;
+    private final RateProfile profile;
+    private final long durationSeconds;
+    private final int concurrency;
+    private final int workerCount;
+    private final List<Worker> workers = new ArrayList<>();
+    private final Map<Integer, List<LoadRunSample>> samplesBySecond = new TreeMap<>();
+    private volatile boolean stopped;
+    private ServerSocket serverSocket;
+    private Consumer<String> progressListener = progress -> { };
+    private long elapsedNanos;
+    
+    /**
+     * @param request         the message to send, with its payload already processed; workers generate
+     *                        payloads themselves if the configuration asks for it
+     * @param destinations    resolved destination names
+     * @param concurrency     sending threads per worker
+     */
+    public LoadCoordinator(SendRequest request, List<String> destinations, String profileSpecification,
+                           long durationSeconds, int concurrency, int workerCount) {
+        if (workerCount <= 0) {
+            throw new IllegalArgumentException("At least one worker is required");
+        }
+        if (destinations.isEmpty()) {
+            throw new IllegalArgumentException("At least one destination is required");
+        }
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        this.request = request;
+        this.destinations = List.copyOf(destinations);
+        this.profileSpecification = profileSpecification;
+        this.profile = RateProfile.parse(profileSpecification);
+        this.durationSeconds = durationSeconds;
+        this.concurrency = concurrency;
+        this.workerCount = workerCount;
+    }
+    
+    /**
+     * Sets the callback receiving progress lines, from the coordinator's threads.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    /**
+     * Starts listening for workers.
+     *
+     * @return the address listened on, with the actual port if 0 was given
+     */
+    public synchronized InetSocketAddress bind(InetSocketAddress address) throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(address);
+        return (InetSocketAddress) serverSocket.getLocalSocketAddress();
+    }
+    
+    /**
+     * Waits for the workers, runs the load test on all of them and returns the merged result.
+     *
+     * @param acceptTimeoutSeconds how long to wait for all workers to connect
+     * @throws IOException if not enough workers connect or one of them fails before the start
+     */
+    public LoadRunResult run(long acceptTimeoutSeconds) throws IOException, InterruptedException {
+        if (serverSocket == null) {
+            throw new IllegalStateException("Not bound");
+        }
+        try {
+            acceptWorkers(TimeUnit.SECONDS.toNanos(acceptTimeoutSeconds));
+            assign();
+            for (Worker worker : workers) {
+                worker.channel.expect(WorkerMessage.Type.READY, READY_TIMEOUT_MILLIS);
+            }
+            if (stopped) {
+                throw new IOException("Stopped before the start");
+            }
+            
+            progressListener.accept("All " + workers.size() + " worker(s) ready, starting " + profile.describe() +
+                " for " + durationSeconds + "s");
+            long start = System.nanoTime();
+            for (Worker worker : workers) {
+                worker.channel.send(new WorkerMessage(WorkerMessage.Type.START, null));
+            }
+            long deadline = start + TimeUnit.SECONDS.toNanos(durationSeconds + RESULT_GRACE_SECONDS);
+            List<Thread> readers = new ArrayList<>();
+            for (Worker worker : workers) {
+                readers.add(Thread.ofVirtual().name("load-coordinator-" + worker.name).start(() -> collect(worker, deadline)));
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            elapsedNanos = System.nanoTime() - start;
+            return mergedResult();
+        } finally {
+            close();
+        }
+    }
+    
+    /**
+     * Stops the run early on every worker; their results so far are still collected.
+     */
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            if (workers.size() < workerCount) {
+                // Still waiting for workers
+                closeServerSocket();
+            }
+            for (Worker worker : workers) {
+                try {
+                    worker.channel.send(new WorkerMessage(WorkerMessage.Type.STOP, null));
+                } catch (IOException e) {
+                    // Already gone
+                }
+            }
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        closeServerSocket();
+        workers.forEach(worker -> worker.channel.close());
+    }
+    
+    private void acceptWorkers(long timeoutNanos) throws IOException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (workers.size() < workerCount) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0 || stopped) {
+                throw new IOException("Only " + workers.size() + " of " + workerCount + " worker(s) connected");
+            }
+            Socket socket;
+            try {
+                serverSocket.setSoTimeout((int) Math.min(remainingMillis, Integer.MAX_VALUE));
+                socket = serverSocket.accept();
+            } catch (SocketTimeoutException e) {
+                continue;
+            } catch (IOException e) {
+                if (stopped) {
+                    continue;
+                }
+                throw e;
+            }
+            WorkerChannel channel = new WorkerChannel(socket);
+            try {
+                WorkerMessage hello = channel.expect(WorkerMessage.Type.HELLO, HELLO_TIMEOUT_MILLIS);
+                String name = hello.getWorker() != null ? hello.getWorker() : channel.getRemoteAddress();
+                synchronized (this) {
+                    workers.add(new Worker(name, channel));
+                }
+                progressListener.accept("Worker " + name + " connected from " + channel.getRemoteAddress() +
+                    " (" + workers.size() + " of " + workerCount + ")");
+            } catch (IOException e) {
+                // Not a worker, or too slow to introduce itself
+                progressListener.accept("WARNING: Ignoring connection from " + channel.getRemoteAddress() + ": " + e.getMessage());
+                channel.close();
+            }
+        }
+        closeServerSocket();
+    }
+    
+    private void assign() throws IOException {
+        boolean partition = destinations.size() >= workers.size();
+        for (int i = 0; i < workers.size(); i++) {
+            Worker worker = workers.get(i);
+            List<String> assigned = new ArrayList<>();
+            if (partition) {
+                for (int d = i; d < destinations.size(); d += workers.size()) {
+                    assigned.add(destinations.get(d));
+                }
+            } else {
+                assigned.addAll(destinations);
+            }
+            worker.destinations = assigned;
+            
+            WorkerMessage assignment = new WorkerMessage(WorkerMessage.Type.ASSIGN, worker.name);
+            assignment.setProfile(profileSpecification);
+            // Every destination gets the same rate
+            assignment.setShare(partition ? (double) assigned.size() / destinations.size() : 1.0 / workers.size());
+            assignment.setDurationSeconds(durationSeconds);
+            assignment.setConcurrency(concurrency);
+            assignment.setBrokerUrl(request.getBrokerUrl());
+            assignment.setDestinations(assigned);
+            assignment.setTopic(request.isTopic());
+            assignment.setPayload(request.getPayload());
+            assignment.setHeaders(request.getCustomHeaders());
+            ServerConfiguration config = request.getConfiguration();
+            assignment.setPersistent(config == null || config.isPersistentDelivery());
+            assignment.setGenerate(config != null && config.isGeneratePayloads());
+            worker.channel.send(assignment);
+        }
+    }
+    
+    private void collect(Worker worker, long deadlineNanos) {
+        try {
+            WorkerMessage message;
+            while ((message = worker.channel.receiveBefore(deadlineNanos)) != null) {
+                switch (message.getType()) {
+                    case SAMPLE:
+                        if (message.getSample() != null) {
+                            addSample(message.getSample());
+                        }
+                        break;
+                    case RESULT:
+                        worker.result = message;
+                        return;
+                    case ERROR:
+                        worker.error = message.getError();
+                        progressListener.accept("ERROR: Worker " + worker.name + ": " + message.getError());
+                        return;
+                    default:
+                        break;
+                }
+            }
+            worker.error = "Connection closed before the result was reported";
+        } catch (SocketTimeoutException e) {
+            worker.error = "No result " + RESULT_GRACE_SECONDS + "s after the end of the run";
+        } catch (IOException e) {
+            worker.error = e.getMessage();
+        }
+        progressListener.accept("WARNING: Lost worker " + worker.name + ": " + worker.error);
+    }
+    
+    private void addSample(LoadRunSample sample) {
+        List<LoadRunSample> second;
+        synchronized (samplesBySecond) {
+            second = samplesBySecond.computeIfAbsent(sample.getSecond(), s -> new ArrayList<>());
+            second.add(sample);
+            if (second.size() != workers.size()) {
+                return;
+            }
+        }
+        progressListener.accept(merge(sample.getSecond(), second) + " (" + second.size() + " workers)");
+    }
+    
+    /**
+     * Sum of the workers' rates for one second; the p99 is the highest of the workers' p99s.
+     */
+    private static LoadRunSample merge(int second, List<LoadRunSample> samples) {
+        double target = 0;
+        double actual = 0;
+        long failed = 0;
+        double p99 = 0;
+        for (LoadRunSample sample : samples) {
+            target += sample.getTargetRate();
+            actual += sample.getActualRate();
+            failed += sample.getFailed();
+            p99 = Math.max(p99, sample.getP99Millis());
+        }
+        return new LoadRunSample(second, target, actual, failed, p99);
+    }
+    
+    private LoadRunResult mergedResult() {
+        long sent = 0;
+        long failed = 0;
+        boolean anyStopped = stopped;
+        String lastError = null;
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram serviceTime = new LatencyHistogram();
+        for (Worker worker : workers) {
+            if (worker.result == null) {
+                anyStopped = true;
+                lastError = worker.name + ": " + worker.error;
+                continue;
+            }
+            sent += worker.result.getSent();
+            failed += worker.result.getFailed();
+            anyStopped |= worker.result.isStopped();
+            latency.add(worker.result.getLatency());
+            serviceTime.add(worker.result.getServiceTime());
+            if (worker.result.getError() != null) {
+                lastError = worker.name + ": " + worker.result.getError();
+            }
+        }
+        List<LoadRunSample> samples = new ArrayList<>();
+        synchronized (samplesBySecond) {
+            samplesBySecond.forEach((second, secondSamples) -> samples.add(merge(second, secondSamples)));
+        }
+        return new LoadRunResult(profile.describe() + " over " + workers.size() + " worker(s)", elapsedNanos,
+            sent, failed, latency, serviceTime, samples, lastError, anyStopped);
+    }
+    
+    /**
+     * Per-worker table, flagging workers that failed or reported errors.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-24s %-30s %10s %8s %10s %10s %10s %10s%n",
+            "Worker", "Destinations", "Sent", "Failed", "msg/s", "p50 ms", "p99 ms", "max ms"));
+        for (Worker worker : workers) {
+            String destinationList = String.join(",", worker.destinations);
+            if (destinationList.length() > 30) {
+                destinationList = destinationList.substring(0, 27) + "...";
+            }
+            if (worker.result == null) {
+                report.append(String.format(Locale.ROOT, "%-24s %-30s  <-- no result: %s%n", worker.name, destinationList, worker.error));
+                continue;
+            }
+            WorkerMessage result = worker.result;
+            LatencyHistogram latency = result.getLatency();
+            double seconds = result.getElapsedNanos() / 1e9;
+            report.append(String.format(Locale.ROOT, "%-24s %-30s %10d %8d %10.1f %10.3f %10.3f %10.3f%s%n", worker.name,
+                destinationList, result.getSent(), result.getFailed(), seconds > 0 ? result.getSent() / seconds : 0,
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6, latency.getMax() / 1e6,
+                result.getFailed() > 0 ? "  <-- errors: " + result.getError() : ""));
+        }
+        return report.toString();
+    }
+    
+    private synchronized void closeServerSocket() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+    
+    /**
+     * A connected worker, as seen by the coordinator.
+     */
+    private static class Worker {
+        private final String name;
+        private final WorkerChannel channel;
+        private List<String> destinations = List.of();
+        private volatile WorkerMessage result;
+        private volatile String error;
+        
+        Worker(String name, WorkerChannel channel) {
+            this.name = name;
+            this.channel = channel;
+        }
+    }
+}
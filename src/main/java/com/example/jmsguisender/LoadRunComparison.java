@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Side by side view of load runs that differ in one setting, e.g. persistent and non-persistent
+ * delivery. Throughput is also shown relative to the first run.
+ */
+public class LoadRunComparison {
+    
+    private final Map<String, LoadRunResult> results = new LinkedHashMap<>();
+    
+    public void add(String label, LoadRunResult result) {
+        results.put(label, result);
+    }
+    
+    public Map<String, LoadRunResult> getResults() {
+        return results;
+    }
+    
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-24s %10s %8s %10s %8s %10s %10s %10s%n",
+            "Run", "Sent", "Failed", "msg/s", "vs 1st", "p50 ms", "p99 ms", "max ms"));
+        double baseline = 0;
+        for (Map.Entry<String, LoadRunResult> entry : results.entrySet()) {
+            LoadRunResult result = entry.getValue();
+            if (baseline == 0) {
+                baseline = result.getThroughput();
+            }
+            LatencyHistogram latency = result.getLatency();
+            report.append(String.format("%-24s %10d %8d %10.1f %7.0f%% %10.3f %10.3f %10.3f%n",
+                entry.getKey() + (result.isStopped() ? " (stopped)" : ""), result.getSent(), result.getFailed(),
+                result.getThroughput(), baseline > 0 ? 100 * result.getThroughput() / baseline : 0,
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6, latency.getMax() / 1e6));
+        }
+        return report.toString();
+    }
+}
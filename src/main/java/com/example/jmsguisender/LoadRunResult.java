@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Outcome of a {@link RateScheduler} run.
+ */
+public class LoadRunResult {
+    
+    private final String profile;
+    private final long elapsedNanos;
+    private final long sent;
+    private final long failed;
+    private final LatencyHistogram latency;
+    private final LatencyHistogram serviceTime;
+    private final List<LoadRunSample> samples;
+    private final String lastError;
+    private final boolean stopped;
+    
+    public LoadRunResult(String profile, long elapsedNanos, long sent, long failed, LatencyHistogram latency,
+                         LatencyHistogram serviceTime, List<LoadRunSample> samples, String lastError, boolean stopped) {
+        this.profile = profile;
+        this.elapsedNanos = elapsedNanos;
+        this.sent = sent;
+        this.failed = failed;
+        this.latency = latency;
+        this.serviceTime = serviceTime;
+        this.samples = Collections.unmodifiableList(samples);
+        this.lastError = lastError;
+        this.stopped = stopped;
+    }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+    
+    public long getSent() {
+        return sent;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : sent / (elapsedNanos / 1e9);
+    }
+    
+    /**
+     * Latency from the moment each send was scheduled, which includes time spent waiting
+     * behind earlier sends and so does not hide stalls (coordinated omission).
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+    
+    /**
+     * Time spent inside the send call itself.
+     */
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+    
+    public List<LoadRunSample> getSamples() {
+        return samples;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    public String summary() {
+        return String.format(Locale.ROOT, "%s%s: sent=%d failed=%d in %.1fs (%.1f msg/s)%n  latency: %s%n  service: %s",
+            profile, stopped ? " (stopped)" : "", sent, failed, elapsedNanos / 1e9, getThroughput(),
+            latency.summary(), serviceTime.summary());
+    }
+}
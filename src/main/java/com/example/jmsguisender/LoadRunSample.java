@@ -0,0 +1,80 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Locale;
+
+/**
+ * Per-second measurement of a load run.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LoadRunSample {
+    
+    @JsonProperty("second")
+    private int second;
+    
+    @JsonProperty("targetRate")
+    private double targetRate;
+    
+    @JsonProperty("actualRate")
+    private double actualRate;
+    
+    @JsonProperty("failed")
+    private long failed;
+    
+    @JsonProperty("p99Millis")
+    private double p99Millis;
+    
+    public LoadRunSample() {
+    }
+    
+    public LoadRunSample(int second, double targetRate, double actualRate, long failed, double p99Millis) {
+        this.second = second;
+        this.targetRate = targetRate;
+        this.actualRate = actualRate;
+        this.failed = failed;
+        this.p99Millis = p99Millis;
+    }
+    
+    public int getSecond() {
+        return second;
+    }
+    
+    public double getTargetRate() {
+        return targetRate;
+    }
+    
+    public double getActualRate() {
+        return actualRate;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public double getP99Millis() {
+        return p99Millis;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "t=%ds target=%.1f msg/s actual=%.1f msg/s failed=%d p99=%.3fms",
+            second, targetRate, actualRate, failed, p99Millis);
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.VBox;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Load test tab: sends the message configured on the Send tab along a rate profile.
+ */
+public class LoadTestPane {
+    
+    private static final String CONSTANT = "Constant";
+    private static final String RAMP = "Linear ramp";
+    private static final String BURST = "Step bursts";
+    private static final String WAVE = "Sine wave";
+    
+    private enum RunKind {
+        PROFILE, COMPARE_DELIVERY, ADAPTIVE
+    }
+    
+    private final JMSSender jmsSender;
+    private final SendExecutor executor;
+    private final Supplier<SendRequest> requestSupplier;
+    private final Consumer<String> log;
+    
+    private ComboBox<String> profileCombo;
+    private Label rateLabel;
+    private Label peakLabel;
+    private Label periodLabel;
+    private Label burstLabel;
+    private TextField rateField;
+    private TextField peakField;
+    private TextField periodField;
+    private TextField burstField;
+    private TextField durationField;
+    private TextField concurrencyField;
+    private TextArea brokersArea;
+    private ComboBox<MultiBrokerRun.Distribution> distributionCombo;
+    private TextField maxDepthField;
+    private TextField targetP99Field;
+    private TextField tagField;
+    private Button startButton;
+    private Button compareButton;
+    private Button adaptiveButton;
+    private Button stopButton;
+    private CheckBox recordJfrCheckBox;
+    private Label statusLabel;
+    private volatile Runnable stopAction;
+    private volatile String runTag;
+    
+    /**
+     * @param executor        runs the load tests; cancelling its tasks stops them
+     * @param requestSupplier captures the message to send from the Send tab, or returns {@code null}
+     *                        (after logging why) if it is incomplete; called on the FX thread
+     * @param log             appends a line to the log area; called on the FX thread
+     */
+    public LoadTestPane(JMSSender jmsSender, SendExecutor executor, Supplier<SendRequest> requestSupplier,
+                        Consumer<String> log) {
+        this.jmsSender = jmsSender;
+        this.executor = executor;
+        this.requestSupplier = requestSupplier;
+        this.log = log;
+    }
+    
+    public VBox create() {
+        Label title = new Label("Rate Profile:");
+        title.setStyle("-fx-font-weight: bold;");
+        
+        profileCombo = new ComboBox<>();
+        profileCombo.getItems().addAll(CONSTANT, RAMP, BURST, WAVE);
+        profileCombo.setValue(CONSTANT);
+        profileCombo.setOnAction(e -> updateProfileFields());
+        
+        rateLabel = new Label();
+        peakLabel = new Label();
+        periodLabel = new Label();
+        burstLabel = new Label();
+        rateField = new TextField("100");
+        peakField = new TextField("1000");
+        periodField = new TextField("60");
+        burstField = new TextField("5");
+        durationField = new TextField("60");
+        concurrencyField = new TextField("4");
+        brokersArea = new TextArea();
+        brokersArea.setPromptText("Optional: one broker URL per line; the Send tab server is used when empty");
+        brokersArea.setPrefRowCount(3);
+        distributionCombo = new ComboBox<>();
+        distributionCombo.getItems().addAll(MultiBrokerRun.Distribution.values());
+        distributionCombo.setValue(MultiBrokerRun.Distribution.ROUND_ROBIN);
+        maxDepthField = new TextField();
+        maxDepthField.setPromptText("Optional: pause while a queue holds more messages");
+        targetP99Field = new TextField("50");
+        tagField = new TextField();
+        tagField.setPromptText("Optional: label for the stored run, e.g. the broker version");
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(5);
+        grid.add(new Label("Profile:"), 0, 0);
+        grid.add(profileCombo, 1, 0);
+        grid.add(rateLabel, 0, 1);
+        grid.add(rateField, 1, 1);
+        grid.add(peakLabel, 0, 2);
+        grid.add(peakField, 1, 2);
+        grid.add(periodLabel, 0, 3);
+        grid.add(periodField, 1, 3);
+        grid.add(burstLabel, 0, 4);
+        grid.add(burstField, 1, 4);
+        grid.add(new Label("Duration (s):"), 0, 5);
+        grid.add(durationField, 1, 5);
+        grid.add(new Label("Concurrency:"), 0, 6);
+        grid.add(concurrencyField, 1, 6);
+        grid.add(new Label("Brokers:"), 0, 7);
+        grid.add(brokersArea, 1, 7);
+        grid.add(new Label("Distribution:"), 0, 8);
+        grid.add(distributionCombo, 1, 8);
+        grid.add(new Label("Pause above depth:"), 0, 9);
+        grid.add(maxDepthField, 1, 9);
+        grid.add(new Label("Adaptive p99 target (ms):"), 0, 10);
+        grid.add(targetP99Field, 1, 10);
+        grid.add(new Label("Run tag:"), 0, 11);
+        grid.add(tagField, 1, 11);
+        
+        ColumnConstraints col1 = new ColumnConstraints();
+        col1.setMinWidth(160);
+        ColumnConstraints col2 = new ColumnConstraints();
+        col2.setPrefWidth(320);
+        grid.getColumnConstraints().addAll(col1, col2);
+        
+        startButton = new Button("Start Load Test");
+        startButton.setOnAction(e -> start(RunKind.PROFILE));
+        compareButton = new Button("Compare Persistent / Non-persistent");
+        compareButton.setOnAction(e -> start(RunKind.COMPARE_DELIVERY));
+        adaptiveButton = new Button("Find Sustainable Concurrency");
+        adaptiveButton.setOnAction(e -> start(RunKind.ADAPTIVE));
+        stopButton = new Button("Stop");
+        stopButton.setDisable(true);
+        stopButton.setOnAction(e -> stop());
+        
+        recordJfrCheckBox = new CheckBox("Record JFR during the run");
+        
+        HBox buttonBox = new HBox(10);
+        buttonBox.setAlignment(Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(startButton, compareButton, adaptiveButton, stopButton, recordJfrCheckBox);
+        
+        statusLabel = new Label("Idle");
+        statusLabel.setStyle("-fx-font-family: monospace;");
+        
+        Label hint = new Label("Sends the destination, payload and headers configured on the Send tab. " +
+            "Finished runs are stored for the Runs tab.");
+        
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+        root.getChildren().addAll(title, hint, grid, buttonBox, statusLabel);
+        
+        updateProfileFields();
+        return root;
+    }
+    
+    private void updateProfileFields() {
+        String profile = profileCombo.getValue();
+        switch (profile) {
+            case RAMP:
+                setFieldLabels("Start rate (msg/s):", "End rate (msg/s):", "Ramp time (s):", null);
+                break;
+            case BURST:
+                setFieldLabels("Base rate (msg/s):", "Burst rate (msg/s):", "Burst period (s):", "Burst length (s):");
+                break;
+            case WAVE:
+                setFieldLabels("Mean rate (msg/s):", "Amplitude (msg/s):", "Wave period (s):", null);
+                break;
+            default:
+                setFieldLabels("Rate (msg/s):", null, null, null);
+                break;
+        }
+    }
+    
+    private void setFieldLabels(String rate, String peak, String period, String burst) {
+        rateLabel.setText(rate);
+        setOptionalField(peakLabel, peakField, peak);
+        setOptionalField(periodLabel, periodField, period);
+        setOptionalField(burstLabel, burstField, burst);
+    }
+    
+    private void setOptionalField(Label label, TextField field, String text) {
+        label.setText(text != null ? text : "");
+        label.setVisible(text != null);
+        field.setVisible(text != null);
+    }
+    
+    private RateProfile buildProfile() {
+        double rate = Double.parseDouble(rateField.getText().trim());
+        switch (profileCombo.getValue()) {
+            case RAMP:
+                return RateProfile.linearRamp(rate, Double.parseDouble(peakField.getText().trim()),
+                    Double.parseDouble(periodField.getText().trim()));
+            case BURST:
+                return RateProfile.stepBurst(rate, Double.parseDouble(peakField.getText().trim()),
+                    Double.parseDouble(periodField.getText().trim()), Double.parseDouble(burstField.getText().trim()));
+            case WAVE:
+                return RateProfile.wave(rate, Double.parseDouble(peakField.getText().trim()),
+                    Double.parseDouble(periodField.getText().trim()));
+            default:
+                return RateProfile.constant(rate);
+        }
+    }
+    
+    /**
+     * @param kind the profile once; the profile twice, persistent then non-persistent, side by side; or
+     *             an adaptive search of the concurrency, up to the Concurrency field, ignoring the profile
+     */
+    private void start(RunKind kind) {
+        RateProfile profile;
+        long duration;
+        int concurrency;
+        long maxDepth;
+        double targetP99;
+        try {
+            profile = buildProfile();
+            duration = Long.parseLong(durationField.getText().trim());
+            concurrency = Integer.parseInt(concurrencyField.getText().trim());
+            maxDepth = maxDepthField.getText().isBlank() ? 0 : Long.parseLong(maxDepthField.getText().trim());
+            targetP99 = Double.parseDouble(targetP99Field.getText().trim());
+        } catch (IllegalArgumentException e) {
+            log.accept("ERROR: Invalid load test settings: " + e.getMessage());
+            return;
+        }
+        
+        List<String> brokers = MultiBrokerRun.parseBrokerUrls(brokersArea.getText());
+        MultiBrokerRun.Distribution distribution = distributionCombo.getValue();
+        
+        SendRequest request = requestSupplier.get();
+        if (request == null) {
+            return;
+        }
+        
+        if (duration <= 0 || concurrency <= 0 || targetP99 <= 0) {
+            log.accept("ERROR: Duration, concurrency and the p99 target must be positive");
+            return;
+        }
+        if (maxDepth < 0 || (maxDepth > 0 && !brokers.isEmpty())) {
+            log.accept("ERROR: The pause depth must be positive, and watches the Send tab broker only");
+            return;
+        }
+        
+        startButton.setDisable(true);
+        compareButton.setDisable(true);
+        adaptiveButton.setDisable(true);
+        stopButton.setDisable(false);
+        
+        boolean recordJfr = recordJfrCheckBox.isSelected();
+        runTag = tagField.getText();
+        executor.submit("Load test", () -> {
+            RunRecording recording = null;
+            DepthMonitor monitor = null;
+            try {
+                if (recordJfr) {
+                    recording = RunRecording.start("load-test");
+                    Platform.runLater(() -> log.accept("Recording JFR during the load test"));
+                }
+                
+                // Once for the whole run, not per message
+                JsonPayloadProcessor.Result json = JsonPayloadProcessor.process(request);
+                SendRequest processed = PayloadGenerator.attach(request.withPayload(json.orThrow()));
+                if (json.isRewritten()) {
+                    Platform.runLater(() -> log.accept(json.describe()));
+                }
+                PayloadGenerator generator = processed.getPayloadGenerator();
+                if (generator != null) {
+                    Platform.runLater(() -> log.accept("Generating a payload per message from the " +
+                        (generator.isSchema() ? "JSON Schema" : "sample document")));
+                }
+                
+                // Several destinations are sent to in turn
+                List<String> destinations = jmsSender.resolveDestinations(processed);
+                if (destinations.isEmpty()) {
+                    throw new IllegalArgumentException("No destinations match '" + request.getDestination() + "'");
+                }
+                List<SendRequest> requests = destinations.stream().map(processed::withDestination).toList();
+                
+                if (maxDepth > 0) {
+                    monitor = new DepthMonitor(jmsSender, processed, destinations);
+                    monitor.setMaxDepth(maxDepth);
+                    monitor.setListener(message -> Platform.runLater(() -> log.accept(message)));
+                    monitor.start();
+                }
+                
+                if (kind == RunKind.ADAPTIVE) {
+                    runAdaptive(processed, requests, targetP99, duration, concurrency);
+                    return;
+                }
+                if (kind == RunKind.COMPARE_DELIVERY) {
+                    runDeliveryComparison(processed, requests, profile, duration, concurrency, monitor);
+                    return;
+                }
+                if (!brokers.isEmpty()) {
+                    runMultiBroker(requests, brokers, distribution, profile, duration, concurrency);
+                    return;
+                }
+                
+                RateScheduler scheduler = new RateScheduler(profile, duration, concurrency,
+                    sequence -> jmsSender.sendMessage(requests.get((int) (sequence % requests.size()))));
+                scheduler.setProgressListener(sample -> Platform.runLater(() -> statusLabel.setText(sample.toString())));
+                if (monitor != null) {
+                    scheduler.setPauseCondition(monitor::isOverMaxDepth);
+                }
+                stopAction = scheduler::stop;
+                
+                Platform.runLater(() -> log.accept("Starting load test: " + profile.describe() + " for " + duration +
+                    "s with concurrency " + concurrency + " to " + destinations.size() + " " +
+                    (request.isTopic() ? "topic(s)" : "queue(s)") + ": " + String.join(", ", destinations)));
+                LoadRunResult result = scheduler.run();
+                Platform.runLater(() -> {
+                    log.accept("Load test finished: " + result.summary());
+                    if (result.getLastError() != null) {
+                        log.accept("WARNING: Last send error: " + result.getLastError());
+                    }
+                    finished();
+                });
+                storeRun("load", processed, loadParameters(profile, duration, concurrency, requests.size()), result);
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    log.accept("ERROR: Load test failed: " + e.getMessage());
+                    finished();
+                });
+            } finally {
+                if (monitor != null) {
+                    monitor.close();
+                }
+                if (recording != null) {
+                    saveRecording(recording);
+                }
+            }
+        }, null, this::stopRun);
+    }
+    
+    private void saveRecording(RunRecording recording) {
+        try {
+            Path file = recording.stop(RunRecording.defaultFile("load-test"));
+            Platform.runLater(() -> log.accept("SUCCESS: JFR recording saved to " + file +
+                " (open it in JDK Mission Control; sends are under JMS GUI Sender)"));
+        } catch (IOException e) {
+            Platform.runLater(() -> log.accept("ERROR: Failed to save JFR recording: " + e.getMessage()));
+        }
+    }
+    
+    private void runDeliveryComparison(SendRequest request, List<SendRequest> requests, RateProfile profile, long duration,
+                                       int concurrency, DepthMonitor monitor) throws InterruptedException {
+        LoadRunComparison comparison = new LoadRunComparison();
+        for (boolean persistent : new boolean[] {true, false}) {
+            String label = persistent ? "persistent" : "non-persistent";
+            ServerConfiguration modeConfig = new ServerConfiguration(request.getConfiguration());
+            modeConfig.setPersistentDelivery(persistent);
+            List<SendRequest> modeRequests = requests.stream().map(modeRequest -> modeRequest.withConfiguration(modeConfig)).toList();
+            
+            RateScheduler scheduler = new RateScheduler(profile, duration, concurrency,
+                sequence -> jmsSender.sendMessage(modeRequests.get((int) (sequence % modeRequests.size()))));
+            scheduler.setProgressListener(sample -> Platform.runLater(() -> statusLabel.setText(label + " " + sample)));
+            if (monitor != null) {
+                scheduler.setPauseCondition(monitor::isOverMaxDepth);
+            }
+            stopAction = scheduler::stop;
+            
+            Platform.runLater(() -> log.accept("Starting " + label + " run: " + profile.describe() + " for " + duration +
+                "s with concurrency " + concurrency));
+            LoadRunResult result = scheduler.run();
+            comparison.add(label, result);
+            storeRun("load", request.withConfiguration(modeConfig), loadParameters(profile, duration, concurrency, requests.size()),
+                result);
+            if (result.isStopped()) {
+                break;
+            }
+        }
+        String report = comparison.report();
+        Platform.runLater(() -> {
+            log.accept("Delivery mode comparison:\n" + report.stripTrailing());
+            finished();
+        });
+    }
+    
+    private void runAdaptive(SendRequest request, List<SendRequest> requests, double targetP99, long duration,
+                             int maxConcurrency) throws InterruptedException {
+        AdaptiveConcurrency run = new AdaptiveConcurrency(
+            sequence -> jmsSender.sendMessage(requests.get((int) (sequence % requests.size()))), targetP99, duration);
+        run.setConcurrencyLimits(1, maxConcurrency);
+        run.setProgressListener(step -> Platform.runLater(() -> statusLabel.setText(step.toString())));
+        stopAction = run::stop;
+        
+        Platform.runLater(() -> log.accept("Starting adaptive load test: p99 target " + targetP99 + " ms for " + duration +
+            "s with up to " + maxConcurrency + " senders"));
+        LoadRunResult result = run.run();
+        String report = run.report();
+        Platform.runLater(() -> {
+            log.accept("Adaptive load test finished: " + result.summary());
+            log.accept(report.stripTrailing());
+            finished();
+        });
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("targetP99Millis", targetP99);
+        parameters.put("minConcurrency", 1);
+        parameters.put("maxConcurrency", maxConcurrency);
+        parameters.put("duration", duration);
+        parameters.put("destinations", requests.size());
+        storeRun("adaptive", request, parameters, result);
+    }
+    
+    private static Map<String, Object> loadParameters(RateProfile profile, long duration, int concurrency, int destinations) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("profile", profile.describe());
+        parameters.put("duration", duration);
+        parameters.put("concurrency", concurrency);
+        parameters.put("destinations", destinations);
+        return parameters;
+    }
+    
+    /**
+     * Keeps a finished run in the local run store, for the Runs tab.
+     */
+    private void storeRun(String kind, SendRequest request, Map<String, Object> parameters, LoadRunResult result) {
+        try {
+            String id = RunStore.local().save(RunRecord.of(kind, runTag, request, parameters, result));
+            Platform.runLater(() -> log.accept("Run stored as " + id));
+        } catch (IOException e) {
+            Platform.runLater(() -> log.accept("WARNING: Failed to store the run: " + e.getMessage()));
+        }
+    }
+    
+    private void runMultiBroker(List<SendRequest> requests, List<String> brokers, MultiBrokerRun.Distribution distribution,
+                                RateProfile profile, long duration, int concurrency) throws InterruptedException {
+        MultiBrokerRun run = new MultiBrokerRun(jmsSender, requests, brokers, distribution, profile, duration, concurrency);
+        run.setProgressListener(progress -> Platform.runLater(() -> statusLabel.setText(progress)));
+        stopAction = run::stop;
+        
+        Platform.runLater(() -> log.accept("Starting load test: " + profile.describe() + " for " + duration +
+            "s with concurrency " + concurrency + ", " + distribution + " over " + brokers.size() + " broker(s): " +
+            String.join(", ", brokers)));
+        run.run();
+        String report = run.report();
+        Platform.runLater(() -> {
+            log.accept("Load test finished:\n" + report.stripTrailing());
+            finished();
+        });
+    }
+    
+    private void stop() {
+        if (stopRun()) {
+            log.accept("Stopping load test...");
+        }
+    }
+    
+    private boolean stopRun() {
+        Runnable action = stopAction;
+        if (action != null) {
+            action.run();
+        }
+        return action != null;
+    }
+    
+    private void finished() {
+        stopAction = null;
+        startButton.setDisable(false);
+        compareButton.setDisable(false);
+        adaptiveButton.setDisable(false);
+        stopButton.setDisable(true);
+        statusLabel.setText("Idle");
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.JMSException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One process of a distributed load run: connects to a {@link LoadCoordinator}, receives its share of
+ * the rate and its destinations, and sends them through the normal {@link JMSSender} path when the
+ * coordinator starts the run.
+ * <p>
+ * Credentials and SSL settings come from the worker's own configuration and are never sent over the
+ * coordinator connection. As they are sent to the broker, the worker only accepts the broker URL
+ * given by the coordinator if it is the configured one or allowed with
+ * {@link #setAllowedBrokerUrls(Collection)}; {@link #setBrokerUrl(String)} overrides it, e.g. to reach
+ * the broker through a different address.
+ */
+public class LoadWorker {
+    
+    private static final int ASSIGN_TIMEOUT_MILLIS = 60_000;
+    // Longer than the coordinator waits for the slowest worker to be ready
+    private static final int START_TIMEOUT_MILLIS = LoadCoordinator.READY_TIMEOUT_MILLIS + 60_000;
+    
+    private final JMSSender jmsSender;
+    private final ServerConfiguration configuration;
+    private final String name;
+    private String brokerUrl;
+    private Set<String> allowedBrokerUrls = Set.of();
+    private Consumer<String> progressListener = progress -> { };
+    
+    public LoadWorker(JMSSender jmsSender, ServerConfiguration configuration, String name) {
+        this.jmsSender = jmsSender;
+        this.configuration = configuration;
+        this.name = name;
+    }
+    
+    /**
+     * Sends to this broker instead of the one given by the coordinator.
+     */
+    public void setBrokerUrl(String brokerUrl) {
+        this.brokerUrl = brokerUrl;
+    }
+    
+    /**
+     * Sets the broker URLs the coordinator may assign besides the configured one.
+     */
+    public void setAllowedBrokerUrls(Collection<String> urls) {
+        this.allowedBrokerUrls = Set.copyOf(urls);
+    }
+    
+    /**
+     * Sets the callback receiving progress lines, from the run's threads.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    /**
+     * Takes part in one run and returns this worker's result once it has been reported.
+     *
+     * @throws IOException if the coordinator is unreachable, goes away before the start, or reports an error
+     */
+    public LoadRunResult run(InetSocketAddress coordinator) throws IOException, JMSException, InterruptedException {
+        try (WorkerChannel channel = WorkerChannel.connect(coordinator)) {
+            channel.send(new WorkerMessage(WorkerMessage.Type.HELLO, name));
+            WorkerMessage assignment = channel.expect(WorkerMessage.Type.ASSIGN, ASSIGN_TIMEOUT_MILLIS);
+            RateProfile profile;
+            List<SendRequest> requests;
+            try {
+                profile = RateProfile.parse(assignment.getProfile()).scaled(assignment.getShare());
+                requests = toRequests(assignment);
+            } catch (IllegalArgumentException e) {
+                channel.send(WorkerMessage.error(name, "Worker " + name + " rejected the assignment: " + e.getMessage()));
+                throw e;
+            }
+            progressListener.accept("Assigned " + profile.describe() + " for " + assignment.getDurationSeconds() +
+                "s, concurrency " + assignment.getConcurrency() + ", to " + assignment.getDestinations());
+            
+            SendRequest first = requests.get(0);
+            try {
+                long nanos = jmsSender.warmUp(first.getBrokerUrl(), first.getUsername(), first.getPassword(),
+                    first.getConfiguration(), assignment.getConcurrency());
+                progressListener.accept(String.format(Locale.ROOT, "Connected to %s in %.1f ms", first.getBrokerUrl(), nanos / 1e6));
+            } catch (JMSException e) {
+                channel.send(WorkerMessage.error(name, "Worker " + name + " cannot connect to " +
+                    first.getBrokerUrl() + ": " + e.getMessage()));
+                throw e;
+            }
+            channel.send(new WorkerMessage(WorkerMessage.Type.READY, name));
+            
+            WorkerMessage start;
+            try {
+                start = channel.receive(START_TIMEOUT_MILLIS);
+            } catch (SocketTimeoutException e) {
+                throw new IOException("The coordinator did not start the run within " +
+                    TimeUnit.MILLISECONDS.toSeconds(START_TIMEOUT_MILLIS) + "s");
+            }
+            if (start == null || start.getType() != WorkerMessage.Type.START) {
+                throw new IOException("Coordinator ended the run before it started");
+            }
+            long deadline = System.nanoTime() +
+                TimeUnit.SECONDS.toNanos(assignment.getDurationSeconds() + LoadCoordinator.RESULT_GRACE_SECONDS);
+            
+            RateScheduler scheduler = new RateScheduler(profile, assignment.getDurationSeconds(), assignment.getConcurrency(),
+                sequence -> jmsSender.sendMessage(requests.get((int) (sequence % requests.size()))));
+            scheduler.setProgressListener(sample -> {
+                progressListener.accept(sample.toString());
+                try {
+                    channel.send(WorkerMessage.sample(name, sample));
+                } catch (IOException e) {
+                    progressListener.accept("WARNING: Lost the coordinator, stopping: " + e.getMessage());
+                    scheduler.stop();
+                }
+            });
+            Thread watcher = Thread.ofVirtual().name("load-worker-watcher").start(() -> watchForStop(channel, scheduler, deadline));
+            
+            LoadRunResult result = scheduler.run();
+            channel.send(WorkerMessage.result(name, result));
+            progressListener.accept(result.summary());
+            watcher.interrupt();
+            return result;
+        }
+    }
+    
+    private void watchForStop(WorkerChannel channel, RateScheduler scheduler, long deadlineNanos) {
+        try {
+            WorkerMessage message;
+            while ((message = channel.receiveBefore(deadlineNanos)) != null) {
+                if (message.getType() == WorkerMessage.Type.STOP) {
+                    progressListener.accept("Stopped by the coordinator");
+                    scheduler.stop();
+                    return;
+                }
+            }
+            // The coordinator went away: no one is left to report to
+            scheduler.stop();
+        } catch (SocketTimeoutException e) {
+            progressListener.accept("WARNING: Still running " + LoadCoordinator.RESULT_GRACE_SECONDS +
+                "s after the planned end, stopping");
+            scheduler.stop();
+        } catch (IOException e) {
+            scheduler.stop();
+        }
+    }
+    
+    private List<SendRequest> toRequests(WorkerMessage assignment) {
+        if (assignment.getDestinations().isEmpty()) {
+            throw new IllegalArgumentException("The assignment has no destinations");
+        }
+        ServerConfiguration config = new ServerConfiguration(configuration);
+        config.setPersistentDelivery(assignment.isPersistent());
+        config.setGeneratePayloads(assignment.isGenerate());
+        String url = brokerUrl;
+        if (url == null) {
+            url = assignment.getBrokerUrl();
+            if (url == null || !url.equals(configuration.getServerUrl()) && !allowedBrokerUrls.contains(url)) {
+                // The worker's credentials would go to a broker chosen by the coordinator
+                throw new IllegalArgumentException("The broker " + url + " is neither the configured one (" +
+                    configuration.getServerUrl() + ") nor an allowed one");
+            }
+        }
+        SendRequest request = PayloadGenerator.attach(SendRequest.of(config, assignment.getDestinations().get(0),
+            assignment.isTopic(), assignment.getPayload(), assignment.getHeaders()).withBrokerUrl(url));
+        return assignment.getDestinations().stream().map(request::withDestination).toList();
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Load run against several brokers at once, e.g. the nodes of a cluster or a blue/green pair.
+ * <p>
+ * With {@link Distribution#ROUND_ROBIN} one rate profile is spread over the nodes in turn. With
+ * {@link Distribution#BROADCAST} every node gets its own scheduler running the full profile, so
+ * all nodes see identical load at the same time. Each node is reached over its own pooled
+ * connection in the shared {@link JMSSender}, and its sends are measured separately so that a
+ * slow or failing node stands out in the {@link #report()}.
+ */
+public class MultiBrokerRun {
+    
+    public enum Distribution {
+        ROUND_ROBIN, BROADCAST
+    }
+    
+    private static final double SLOW_NODE_FACTOR = 2.0;
+    private static final double FAILING_NODE_ERROR_RATE = 0.01;
+    
+    private final JMSSender jmsSender;
+    private final List<SendRequest> requests;
+    private final List<Node> nodes = new ArrayList<>();
+    private final Distribution distribution;
+    private final RateProfile profile;
+    private final long durationSeconds;
+    private final int concurrency;
+    private final List<RateScheduler> schedulers = new ArrayList<>();
+    private volatile boolean stopped;
+    private Consumer<String> progressListener = progress -> { };
+    private long elapsedNanos;
+    
+    /**
+     * @param requests the messages to send, one per destination, sent in turn; their broker URL is replaced per node
+     */
+    public MultiBrokerRun(JMSSender jmsSender, List<SendRequest> requests, List<String> brokerUrls,
+                          Distribution distribution, RateProfile profile, long durationSeconds, int concurrency) {
+        if (brokerUrls.isEmpty()) {
+            throw new IllegalArgumentException("At least one broker URL is required");
+        }
+        this.jmsSender = jmsSender;
+        this.requests = requests;
+        this.distribution = distribution;
+        this.profile = profile;
+        this.durationSeconds = durationSeconds;
+        this.concurrency = concurrency;
+        for (String brokerUrl : brokerUrls) {
+            nodes.add(new Node(brokerUrl));
+        }
+    }
+    
+    /**
+     * Splits a list of broker URLs separated by white space, new lines or semicolons. Commas are
+     * kept, since they are part of failover URLs.
+     */
+    public static List<String> parseBrokerUrls(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(text.trim().split("[\\s;]+")).filter(url -> !url.isEmpty()).distinct().toList();
+    }
+    
+    /**
+     * Sets the callback receiving per-second progress lines, from the pacing threads.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    public void stop() {
+        stopped = true;
+        synchronized (schedulers) {
+            schedulers.forEach(RateScheduler::stop);
+        }
+    }
+    
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        if (distribution == Distribution.ROUND_ROBIN) {
+            RateScheduler scheduler = new RateScheduler(profile, durationSeconds, concurrency, sequence -> {
+                Node node = nodes.get((int) (sequence % nodes.size()));
+                node.send(requests.get((int) ((sequence / nodes.size()) % requests.size())));
+            });
+            scheduler.setProgressListener(sample -> progressListener.accept(sample.toString()));
+            register(scheduler);
+            scheduler.run();
+        } else {
+            List<Thread> threads = new ArrayList<>();
+            for (Node node : nodes) {
+                RateScheduler scheduler = new RateScheduler(profile, durationSeconds, concurrency,
+                    sequence -> node.send(requests.get((int) (sequence % requests.size()))));
+                scheduler.setProgressListener(sample -> progressListener.accept(node.brokerUrl + " " + sample));
+                register(scheduler);
+                Thread thread = new Thread(() -> {
+                    try {
+                        scheduler.run();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, "multi-broker-" + node.brokerUrl);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+    
+    private void register(RateScheduler scheduler) {
+        synchronized (schedulers) {
+            schedulers.add(scheduler);
+            if (stopped) {
+                scheduler.stop();
+            }
+        }
+    }
+    
+    /**
+     * Per-node comparison table. Nodes with a p99 more than twice the median p99, or more than
+     * 1% failed sends, are flagged.
+     */
+    public String report() {
+        double seconds = elapsedNanos / 1e9;
+        List<Long> p99s = nodes.stream().map(node -> node.latency.getValueAtPercentile(99)).sorted().toList();
+        long medianP99 = p99s.get(p99s.size() / 2);
+        
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%s over %d broker(s), %s, %.1fs%n", distribution, nodes.size(), profile.describe(), seconds));
+        report.append(String.format("%-40s %10s %8s %10s %10s %10s %10s%n", "Broker", "Sent", "Failed", "msg/s", "p50 ms", "p99 ms", "max ms"));
+        for (Node node : nodes) {
+            long sent = node.sent.sum();
+            long failed = node.failed.sum();
+            long p99 = node.latency.getValueAtPercentile(99);
+            String flag = "";
+            if (sent + failed > 0 && (double) failed / (sent + failed) > FAILING_NODE_ERROR_RATE) {
+                flag = "  <-- errors: " + node.lastError;
+            } else if (nodes.size() > 1 && medianP99 > 0 && p99 > SLOW_NODE_FACTOR * medianP99) {
+                flag = "  <-- slow";
+            }
+            report.append(String.format("%-40s %10d %8d %10.1f %10.3f %10.3f %10.3f%s%n", node.brokerUrl, sent, failed,
+                seconds > 0 ? sent / seconds : 0, node.latency.getValueAtPercentile(50) / 1e6, p99 / 1e6,
+                node.latency.getMax() / 1e6, flag));
+        }
+        return report.toString();
+    }
+    
+    public long getTotalSent() {
+        return nodes.stream().mapToLong(node -> node.sent.sum()).sum();
+    }
+    
+    public long getTotalFailed() {
+        return nodes.stream().mapToLong(node -> node.failed.sum()).sum();
+    }
+    
+    /**
+     * Send statistics of one broker.
+     */
+    private class Node {
+        private final String brokerUrl;
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private volatile String lastError;
+        
+        Node(String brokerUrl) {
+            this.brokerUrl = brokerUrl;
+        }
+        
+        void send(SendRequest request) throws Exception {
+            long start = System.nanoTime();
+            try {
+                jmsSender.sendMessage(request.withBrokerUrl(brokerUrl));
+                latency.record(System.nanoTime() - start);
+                sent.increment();
+            } catch (Exception e) {
+                failed.increment();
+                lastError = e.getMessage();
+                throw e;
+            }
+        }
+    }
+}
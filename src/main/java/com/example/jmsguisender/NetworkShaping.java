@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Locale;
+
+/**
+ * Simulated network conditions between the client and the broker, applied by a {@link ShapingProxy}.
+ * <p>
+ * Latency and jitter are added in each direction. The bandwidth cap applies to each direction of
+ * each connection. With a drop interval, connections are reset at random times averaging that
+ * interval, to exercise reconnect settings. Connections are cached per {@link #cacheKey()}, so
+ * different shapings against the same broker get their own connections.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class NetworkShaping {
+    
+    @JsonProperty("enabled")
+    private boolean enabled;
+    
+    @JsonProperty("latencyMillis")
+    private int latencyMillis;
+    
+    @JsonProperty("jitterMillis")
+    private int jitterMillis;
+    
+    @JsonProperty("bandwidthKbps")
+    private int bandwidthKbps;
+    
+    @JsonProperty("dropIntervalSeconds")
+    private int dropIntervalSeconds;
+    
+    public NetworkShaping() {
+        this.enabled = false;
+        this.latencyMillis = 0;
+        this.jitterMillis = 0;
+        this.bandwidthKbps = 0;
+        this.dropIntervalSeconds = 0;
+    }
+    
+    public NetworkShaping(NetworkShaping other) {
+        this.enabled = other.enabled;
+        this.latencyMillis = other.latencyMillis;
+        this.jitterMillis = other.jitterMillis;
+        this.bandwidthKbps = other.bandwidthKbps;
+        this.dropIntervalSeconds = other.dropIntervalSeconds;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    /**
+     * Delay added to every chunk of data, in each direction.
+     */
+    public int getLatencyMillis() {
+        return latencyMillis;
+    }
+    
+    public void setLatencyMillis(int latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+    
+    /**
+     * Maximum random deviation from the latency, either way. Data is never reordered.
+     */
+    public int getJitterMillis() {
+        return jitterMillis;
+    }
+    
+    public void setJitterMillis(int jitterMillis) {
+        this.jitterMillis = jitterMillis;
+    }
+    
+    /**
+     * Bandwidth cap in kilobits per second, 0 for none.
+     */
+    public int getBandwidthKbps() {
+        return bandwidthKbps;
+    }
+    
+    public void setBandwidthKbps(int bandwidthKbps) {
+        this.bandwidthKbps = bandwidthKbps;
+    }
+    
+    /**
+     * Mean time between connection resets, 0 for none.
+     */
+    public int getDropIntervalSeconds() {
+        return dropIntervalSeconds;
+    }
+    
+    public void setDropIntervalSeconds(int dropIntervalSeconds) {
+        this.dropIntervalSeconds = dropIntervalSeconds;
+    }
+    
+    public String cacheKey() {
+        return enabled
+            ? "latency:" + latencyMillis + ",jitter:" + jitterMillis + ",bandwidth:" + bandwidthKbps + ",drop:" + dropIntervalSeconds
+            : "direct";
+    }
+    
+    @Override
+    public String toString() {
+        return enabled
+            ? String.format(Locale.ROOT, "%d ms ± %d ms, %s, %s", latencyMillis, jitterMillis,
+                bandwidthKbps > 0 ? bandwidthKbps + " kbit/s" : "unlimited bandwidth",
+                dropIntervalSeconds > 0 ? "drops every ~" + dropIntervalSeconds + " s" : "no drops")
+            : "direct";
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.ConnectionFactory;
+import org.apache.activemq.ActiveMQConnectionFactory;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ActiveMQ OpenWire client, understood by ActiveMQ Classic and by Artemis' OpenWire acceptor.
+ */
+public class OpenWireConnectionFactoryProvider implements ConnectionFactoryProvider {
+    
+    /** Transports backed by a TCP socket, which take socket options. */
+    private static final Set<String> SOCKET_SCHEMES = Set.of("tcp", "ssl", "nio", "nio+ssl", "auto", "auto+ssl", "auto+nio", "auto+nio+ssl");
+    
+    @Override
+    public ConnectionFactory createConnectionFactory(String brokerURL, ServerConfiguration sslConfig) throws Exception {
+        ClientTuning tuning = sslConfig != null ? sslConfig.getClientTuning() : new ClientTuning();
+        String transportOptions = tuning.transportOptions();
+        if (sslConfig != null && sslConfig.getConnectTimeout() > 0) {
+            // Socket connect timeout; the connect response timeout below covers the OpenWire handshake
+            transportOptions += (transportOptions.isEmpty() ? "" : "&") + "connectionTimeout=" + sslConfig.getConnectTimeout();
+        }
+        ActiveMQConnectionFactory factory = new ActiveMQConnectionFactory(withTransportOptions(brokerURL, transportOptions));
+        if (sslConfig != null) {
+            factory.setConnectResponseTimeout((int) Math.min(sslConfig.getConnectTimeout(), Integer.MAX_VALUE));
+        }
+        if (sslConfig != null && sslConfig.getSendTimeout() > 0) {
+            // Any send timeout makes the client wait for a broker receipt, async send included
+            factory.setSendTimeout((int) Math.min(sslConfig.getSendTimeout(), Integer.MAX_VALUE));
+        }
+        factory.setUseAsyncSend(tuning.isUseAsyncSend());
+        factory.setUseCompression(tuning.isUseCompression());
+        factory.setOptimizeAcknowledge(tuning.isOptimizeAcknowledge());
+        factory.setAlwaysSessionAsync(tuning.isAlwaysSessionAsync());
+        if (tuning.getProducerWindowSize() > 0) {
+            factory.setProducerWindowSize(tuning.getProducerWindowSize());
+        }
+        if (tuning.getPrefetch() > 0) {
+            factory.getPrefetchPolicy().setAll(tuning.getPrefetch());
+        }
+        
+        // Configure SSL if enabled
+        if (sslConfig != null && sslConfig.isUseSsl()) {
+            javax.net.ssl.SSLContext sslContext = SSLContextHelper.createSSLContext(sslConfig);
+            if (sslContext != null) {
+                // For ActiveMQ Classic, we need to set trust store system properties
+                // as it doesn't have direct SSL context configuration in the same way as Artemis
+                configureSystemSSLProperties(sslConfig);
+            }
+        }
+        return factory;
+    }
+    
+    /**
+     * Adds socket options to a transport URL. Composite URLs such as
+     * {@code failover:(tcp://a:61616,tcp://b:61616)?randomize=false} get them on every nested URL;
+     * non-socket transports such as {@code vm://} are left alone.
+     */
+    static String withTransportOptions(String brokerURL, String options) {
+        if (options.isEmpty()) {
+            return brokerURL;
+        }
+        int open = brokerURL.indexOf('(');
+        int close = brokerURL.lastIndexOf(')');
+        if (open >= 0 && close > open) {
+            StringBuilder url = new StringBuilder(brokerURL.substring(0, open + 1));
+            String[] nested = brokerURL.substring(open + 1, close).split(",");
+            for (int i = 0; i < nested.length; i++) {
+                url.append(i > 0 ? "," : "").append(withTransportOptions(nested[i].trim(), options));
+            }
+            return url.append(brokerURL.substring(close)).toString();
+        }
+        if (!SOCKET_SCHEMES.contains(brokerURL.substring(0, Math.max(brokerURL.indexOf("://"), 0)).toLowerCase(Locale.ROOT))) {
+            return brokerURL;
+        }
+        return brokerURL + (brokerURL.contains("?") ? "&" : "?") + options;
+    }
+    
+    private void configureSystemSSLProperties(ServerConfiguration sslConfig) {
+        if (sslConfig.getTrustStorePath() != null && !sslConfig.getTrustStorePath().trim().isEmpty()) {
+            System.setProperty("javax.net.ssl.trustStore", sslConfig.getTrustStorePath());
+            if (sslConfig.getTrustStorePassword() != null && !sslConfig.getTrustStorePassword().trim().isEmpty()) {
+                System.setProperty("javax.net.ssl.trustStorePassword", sslConfig.getTrustStorePassword());
+            }
+            
+            // Detect truststore type
+            String trustStoreType = SSLContextHelper.detectKeyStoreType(sslConfig.getTrustStorePath());
+            System.setProperty("javax.net.ssl.trustStoreType", trustStoreType);
+        }
+        
+        if (sslConfig.getKeyStorePath() != null && !sslConfig.getKeyStorePath().trim().isEmpty()) {
+            System.setProperty("javax.net.ssl.keyStore", sslConfig.getKeyStorePath());
+            if (sslConfig.getKeyStorePassword() != null && !sslConfig.getKeyStorePassword().trim().isEmpty()) {
+                System.setProperty("javax.net.ssl.keyStorePassword", sslConfig.getKeyStorePassword());
+            }
+            
+            // Detect keystore type
+            String keyStoreType = SSLContextHelper.detectKeyStoreType(sslConfig.getKeyStorePath());
+            System.setProperty("javax.net.ssl.keyStoreType", keyStoreType);
+        }
+        
+        if (sslConfig.isSkipCertificateValidation()) {
+            System.setProperty("com.sun.net.ssl.checkRevocation", "false");
+            System.setProperty("sun.security.ssl.allowUnsafeRenegotiation", "true");
+        }
+    }
+}
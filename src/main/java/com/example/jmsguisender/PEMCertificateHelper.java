@@ -18,25 +18,35 @@ package com.example.jmsguisender;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509TrustManager;
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class PEMCertificateHelper {
     
-    private static final Pattern CERT_PATTERN = Pattern.compile(
-        "-----BEGIN CERTIFICATE-----\\s*([\\s\\S]*?)\\s*-----END CERTIFICATE-----"
-    );
+    private static final String BEGIN_MARKER = "-----BEGIN CERTIFICATE-----";
+    private static final String END_MARKER = "-----END CERTIFICATE-----";
+    
+    // CertificateFactory instances are not guaranteed to be thread-safe, so keep one per thread
+    private static final ThreadLocal<CertificateFactory> CERTIFICATE_FACTORY = ThreadLocal.withInitial(() -> {
+        try {
+            return CertificateFactory.getInstance("X.509");
+        } catch (CertificateException e) {
+            throw new IllegalStateException("X.509 certificate factory not available", e);
+        }
+    });
     
     public static boolean isPEMFile(String path) {
         if (path == null || path.trim().isEmpty()) {
@@ -74,42 +84,111 @@ public class PEMCertificateHelper {
     }
     
     public static List<X509Certificate> loadCertificatesFromPEM(String pemFilePath) throws Exception {
-        List<X509Certificate> certificates = new ArrayList<>();
-        
-        try {
-            String pemContent = Files.readString(Paths.get(pemFilePath));
-            certificates.addAll(parsePEMCertificates(pemContent));
+        // ISO-8859-1 maps every byte to a character, so UTF-8 comments in CA bundles never fail to decode;
+        // the markers and Base64 are ASCII either way
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(pemFilePath), StandardCharsets.ISO_8859_1)) {
+            return parsePEMCertificates(reader);
         } catch (IOException e) {
             throw new Exception("Failed to read PEM file: " + pemFilePath, e);
         }
-        
-        return certificates;
     }
     
     public static List<X509Certificate> parsePEMCertificates(String pemContent) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new StringReader(pemContent))) {
+            return parsePEMCertificates(reader);
+        }
+    }
+    
+    /**
+     * Parses every certificate block in a single pass over the input, line by line.
+     * Base64 characters of the current block are collected into one reused buffer
+     * (whitespace skipped), so large CA bundles are never held in memory as a whole.
+     */
+    private static List<X509Certificate> parsePEMCertificates(BufferedReader reader) throws Exception {
         List<X509Certificate> certificates = new ArrayList<>();
-        CertificateFactory cf = CertificateFactory.getInstance("X.509");
-        
-        Matcher matcher = CERT_PATTERN.matcher(pemContent);
+        CertificateFactory cf = CERTIFICATE_FACTORY.get();
+        StringBuilder base64 = new StringBuilder(2048);
+        boolean inCertificate = false;
         
-        while (matcher.find()) {
-            String base64Cert = matcher.group(1).replaceAll("\\s", "");
-            
-            try {
-                byte[] certBytes = Base64.getDecoder().decode(base64Cert);
-                Certificate cert = cf.generateCertificate(new ByteArrayInputStream(certBytes));
-                
-                if (cert instanceof X509Certificate) {
-                    certificates.add((X509Certificate) cert);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            int from = 0;
+            while (from < line.length()) {
+                if (!inCertificate) {
+                    int begin = line.indexOf(BEGIN_MARKER, from);
+                    if (begin < 0) {
+                        break;
+                    }
+                    inCertificate = true;
+                    base64.setLength(0);
+                    from = begin + BEGIN_MARKER.length();
+                } else {
+                    int end = line.indexOf(END_MARKER, from);
+                    appendBase64(base64, line, from, end < 0 ? line.length() : end);
+                    if (end < 0) {
+                        break;
+                    }
+                    X509Certificate cert = decodeCertificate(cf, base64);
+                    if (cert != null) {
+                        certificates.add(cert);
+                    }
+                    inCertificate = false;
+                    from = end + END_MARKER.length();
                 }
-            } catch (Exception e) {
-                throw new Exception("Failed to parse certificate in PEM content", e);
             }
         }
         
         return certificates;
     }
     
+    private static void appendBase64(StringBuilder target, String line, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = line.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                target.append(c);
+            }
+        }
+    }
+    
+    private static X509Certificate decodeCertificate(CertificateFactory cf, CharSequence base64) throws Exception {
+        try {
+            byte[] encoded = new byte[base64.length()];
+            for (int i = 0; i < encoded.length; i++) {
+                encoded[i] = (byte) base64.charAt(i);
+            }
+            byte[] certBytes = Base64.getDecoder().decode(encoded);
+            Certificate cert = cf.generateCertificate(new ByteArrayInputStream(certBytes));
+            
+            return cert instanceof X509Certificate ? (X509Certificate) cert : null;
+        } catch (Exception e) {
+            throw new Exception("Failed to parse certificate in PEM content", e);
+        }
+    }
+    
+    /**
+     * Checks whether the file content starts like a PEM document, regardless of its extension.
+     */
+    public static boolean hasPEMContent(byte[] header) {
+        int i = 0;
+        // Skip a UTF-8 byte order mark and leading whitespace
+        if (header.length >= 3 && (header[0] & 0xFF) == 0xEF && (header[1] & 0xFF) == 0xBB && (header[2] & 0xFF) == 0xBF) {
+            i = 3;
+        }
+        while (i < header.length && Character.isWhitespace(header[i])) {
+            i++;
+        }
+        byte[] prefix = "-----BEGIN".getBytes(StandardCharsets.US_ASCII);
+        if (header.length - i < prefix.length) {
+            return false;
+        }
+        for (int j = 0; j < prefix.length; j++) {
+            if (header[i + j] != prefix[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
     public static String getCertificateInfo(X509Certificate cert) {
         StringBuilder info = new StringBuilder();
         info.append("Subject: ").append(cert.getSubjectX500Principal().getName()).append("\n");
@@ -0,0 +1,746 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Generates varied JSON payloads from a JSON Schema or from a sample document.
+ * <p>
+ * The schema or sample is compiled once into a tree of field generators, so producing a payload
+ * only draws random values and writes them. Payloads are written by {@link JsonGenerator}s that
+ * are pooled together with their output buffer and reused for every payload, which keeps the
+ * generator fast enough to feed a load test. {@link #next()} can be called from several threads.
+ * <p>
+ * From a schema, the supported keywords are {@code type}, {@code properties}, {@code required},
+ * {@code items}, {@code minItems}, {@code maxItems}, {@code enum}, {@code const}, {@code minLength},
+ * {@code maxLength}, {@code format} ({@code date-time}, {@code date}, {@code uuid}, {@code email},
+ * {@code uri}), {@code minimum}, {@code maximum}, the exclusive bounds, {@code oneOf},
+ * {@code anyOf}, {@code allOf} and local {@code $ref}s. Validation keywords the generator cannot
+ * honour, such as {@code pattern} or {@code multipleOf}, make {@link #compile(String)} fail rather
+ * than produce payloads that do not match the schema. From a sample, every field keeps its type
+ * and roughly its size; strings that look like UUIDs, dates or e-mail addresses stay that way.
+ */
+public class PayloadGenerator {
+    
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+        .disable(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES)
+        .build();
+    private static final Set<String> SCHEMA_TYPES = Set.of("object", "array", "string", "integer", "number", "boolean", "null");
+    private static final Set<String> UNSUPPORTED_KEYWORDS = Set.of("pattern", "patternProperties", "multipleOf",
+        "minProperties", "maxProperties", "propertyNames", "dependencies", "dependentRequired", "dependentSchemas",
+        "contains", "minContains", "maxContains", "not", "if", "then", "else", "unevaluatedProperties",
+        "unevaluatedItems", "$dynamicRef", "$recursiveRef");
+    private static final Pattern UUID_PATTERN = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("[^@\\s]+@[^@\\s]+\\.[a-zA-Z]+");
+    private static final char[] ALPHANUMERIC = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+    private static final double OPTIONAL_PROPERTY_PROBABILITY = 0.8;
+    private static final long DATE_RANGE_SECONDS = 365L * 24 * 3600;
+    private static final long DEFAULT_INTEGER_RANGE = 10000;
+    private static final BigDecimal DEFAULT_NUMBER_RANGE = BigDecimal.valueOf(1000);
+    private static final int NUMBER_SCALE = 2;
+    /** Decimals used at most to fit a number between narrow bounds. */
+    private static final int MAX_NUMBER_SCALE = 12;
+    
+    /** Pooled writers holding on to more than this are dropped instead of reused. */
+    private static final int MAX_POOLED_BUFFER = 1 << 20;
+    
+    /**
+     * Writes one value.
+     */
+    @FunctionalInterface
+    interface FieldGenerator {
+        void write(Output output, ThreadLocalRandom random) throws IOException;
+    }
+    
+    private final FieldGenerator root;
+    private final boolean schema;
+    private final ConcurrentLinkedQueue<Output> pool = new ConcurrentLinkedQueue<>();
+    
+    private PayloadGenerator(FieldGenerator root, boolean schema) {
+        this.root = root;
+        this.schema = schema;
+    }
+    
+    /**
+     * Compiles a JSON Schema, recognised by a {@code $schema} keyword or a JSON Schema {@code type},
+     * or otherwise a sample document.
+     *
+     * @throws IllegalArgumentException if the text is not JSON, or uses an unsupported schema construct
+     */
+    public static PayloadGenerator compile(String schemaOrSample) {
+        JsonNode document;
+        try {
+            document = MAPPER.readTree(schemaOrSample);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Payload template is not valid JSON: " + e.getOriginalMessage());
+        }
+        if (document == null || document.isMissingNode()) {
+            throw new IllegalArgumentException("Payload template is empty");
+        }
+        if (isSchema(document)) {
+            return new PayloadGenerator(new SchemaCompiler(document).compile(document), true);
+        }
+        return new PayloadGenerator(fromSample(document), false);
+    }
+    
+    /**
+     * Returns the request with a payload generator built from its payload, if its configuration
+     * asks for generated payloads, or the request itself.
+     *
+     * @throws IllegalArgumentException if the payload is not a usable schema or sample
+     */
+    public static SendRequest attach(SendRequest request) {
+        ServerConfiguration config = request.getConfiguration();
+        if (config == null || !config.isGeneratePayloads()) {
+            return request;
+        }
+        return request.withPayloadGenerator(compile(request.getPayload()));
+    }
+    
+    private static boolean isSchema(JsonNode document) {
+        if (!document.isObject()) {
+            return false;
+        }
+        if (document.has("$schema")) {
+            return true;
+        }
+        JsonNode type = document.get("type");
+        if (type != null && type.isTextual()) {
+            return SCHEMA_TYPES.contains(type.asText());
+        }
+        if (type != null && type.isArray() && !type.isEmpty()) {
+            for (JsonNode name : type) {
+                if (!SCHEMA_TYPES.contains(name.asText())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Whether the generator was compiled from a JSON Schema rather than a sample document.
+     */
+    public boolean isSchema() {
+        return schema;
+    }
+    
+    /**
+     * Generates a payload.
+     */
+    public String next() {
+        Output output = pool.poll();
+        if (output == null) {
+            output = new Output();
+        }
+        String payload;
+        try {
+            root.write(output, ThreadLocalRandom.current());
+            payload = output.take();
+        } catch (IOException e) {
+            // Only possible with a broken writer, which is then not returned to the pool
+            throw new IllegalStateException("Failed to generate payload: " + e.getMessage(), e);
+        }
+        if (output.buffer.capacity() <= MAX_POOLED_BUFFER) {
+            pool.offer(output);
+        }
+        return payload;
+    }
+    
+    // Sample documents
+    
+    private static FieldGenerator fromSample(JsonNode sample) {
+        switch (sample.getNodeType()) {
+            case OBJECT: {
+                List<String> names = new ArrayList<>();
+                List<FieldGenerator> fields = new ArrayList<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = sample.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    names.add(field.getKey());
+                    fields.add(fromSample(field.getValue()));
+                }
+                return object(names, fields, null);
+            }
+            case ARRAY: {
+                if (sample.isEmpty()) {
+                    return (output, random) -> {
+                        output.generator.writeStartArray();
+                        output.generator.writeEndArray();
+                    };
+                }
+                List<FieldGenerator> elements = new ArrayList<>();
+                sample.forEach(element -> elements.add(fromSample(element)));
+                return array(oneOf(elements), Math.max(1, sample.size() / 2), Math.max(1, sample.size() * 2));
+            }
+            case STRING:
+                return sampleString(sample.asText());
+            case NUMBER:
+                if (sample.isIntegralNumber()) {
+                    long value = sample.asLong();
+                    long bound = value == 0 ? 100 : Math.abs(value) * 2;
+                    return value < 0 ? integer(-bound, 0) : integer(0, bound);
+                } else {
+                    BigDecimal value = sample.decimalValue();
+                    BigDecimal bound = value.signum() == 0 ? BigDecimal.valueOf(100) : value.abs().multiply(BigDecimal.valueOf(2));
+                    int scale = Math.max(0, value.scale());
+                    return value.signum() < 0
+                        ? number(bound.negate(), false, BigDecimal.ZERO, false, scale)
+                        : number(BigDecimal.ZERO, false, bound, false, scale);
+                }
+            case BOOLEAN:
+                return (output, random) -> output.generator.writeBoolean(random.nextBoolean());
+            default:
+                return (output, random) -> output.generator.writeNull();
+        }
+    }
+    
+    private static FieldGenerator sampleString(String value) {
+        if (value.isEmpty()) {
+            return (output, random) -> output.generator.writeString("");
+        }
+        if (UUID_PATTERN.matcher(value).matches()) {
+            return format("uuid");
+        }
+        if (EMAIL_PATTERN.matcher(value).matches()) {
+            return format("email");
+        }
+        try {
+            OffsetDateTime.parse(value);
+            return format("date-time");
+        } catch (DateTimeParseException e) {
+            // Not a timestamp
+        }
+        try {
+            LocalDate.parse(value);
+            return format("date");
+        } catch (DateTimeParseException e) {
+            // Not a date
+        }
+        int length = value.length();
+        return string(Math.max(1, length / 2), Math.max(1, length + length / 2));
+    }
+    
+    // JSON Schema
+    
+    private static final class SchemaCompiler {
+        private final JsonNode document;
+        private final Set<String> resolving = new HashSet<>();
+        
+        SchemaCompiler(JsonNode document) {
+            this.document = document;
+        }
+        
+        FieldGenerator compile(JsonNode schema) {
+            if (schema == null || schema.isBoolean() || schema.isEmpty()) {
+                // true or {} allows anything
+                return string(4, 12);
+            }
+            for (Iterator<String> it = schema.fieldNames(); it.hasNext(); ) {
+                String keyword = it.next();
+                if (UNSUPPORTED_KEYWORDS.contains(keyword) || keyword.equals("uniqueItems") && schema.get(keyword).asBoolean()) {
+                    throw new IllegalArgumentException("Schema keyword '" + keyword + "' is not supported");
+                }
+            }
+            if (schema.has("$ref")) {
+                return ref(schema.get("$ref").asText());
+            }
+            if (schema.has("const")) {
+                return constant(List.of(schema.get("const")));
+            }
+            if (schema.has("enum")) {
+                List<JsonNode> values = new ArrayList<>();
+                schema.get("enum").forEach(values::add);
+                if (values.isEmpty()) {
+                    throw new IllegalArgumentException("Empty enum in schema");
+                }
+                return constant(values);
+            }
+            if (schema.has("allOf")) {
+                ObjectNode merged = MAPPER.createObjectNode();
+                for (JsonNode part : schema.get("allOf")) {
+                    merge(merged, part.has("$ref") ? resolve(part.get("$ref").asText()) : part);
+                }
+                ObjectNode rest = schema.deepCopy();
+                rest.remove("allOf");
+                merge(merged, rest);
+                return compile(merged);
+            }
+            for (String keyword : new String[] {"oneOf", "anyOf"}) {
+                if (schema.has(keyword)) {
+                    List<FieldGenerator> alternatives = new ArrayList<>();
+                    schema.get(keyword).forEach(alternative -> alternatives.add(compile(alternative)));
+                    if (alternatives.isEmpty()) {
+                        throw new IllegalArgumentException("Empty " + keyword + " in schema");
+                    }
+                    return oneOf(alternatives);
+                }
+            }
+            
+            JsonNode type = schema.get("type");
+            if (type != null && type.isArray()) {
+                List<FieldGenerator> alternatives = new ArrayList<>();
+                for (JsonNode name : type) {
+                    alternatives.add(compileType(name.asText(), schema));
+                }
+                return oneOf(alternatives);
+            }
+            String typeName;
+            if (type != null) {
+                typeName = type.asText();
+            } else if (schema.has("properties")) {
+                typeName = "object";
+            } else if (schema.has("items")) {
+                typeName = "array";
+            } else if (schema.has("minimum") || schema.has("maximum") || schema.has("exclusiveMinimum") ||
+                schema.has("exclusiveMaximum")) {
+                typeName = "number";
+            } else {
+                typeName = "string";
+            }
+            return compileType(typeName, schema);
+        }
+        
+        private FieldGenerator compileType(String type, JsonNode schema) {
+            switch (type) {
+                case "object": {
+                    Set<String> required = new HashSet<>();
+                    if (schema.has("required")) {
+                        schema.get("required").forEach(name -> required.add(name.asText()));
+                    }
+                    List<String> names = new ArrayList<>();
+                    List<FieldGenerator> fields = new ArrayList<>();
+                    boolean[] optional = new boolean[schema.path("properties").size()];
+                    for (Iterator<Map.Entry<String, JsonNode>> it = schema.path("properties").fields(); it.hasNext(); ) {
+                        Map.Entry<String, JsonNode> property = it.next();
+                        optional[names.size()] = !required.contains(property.getKey());
+                        names.add(property.getKey());
+                        fields.add(compile(property.getValue()));
+                    }
+                    // Required, but not described: any value will do
+                    for (String name : required) {
+                        if (!names.contains(name)) {
+                            names.add(name);
+                            fields.add(compile(null));
+                        }
+                    }
+                    return object(names, fields, Arrays.copyOf(optional, names.size()));
+                }
+                case "array": {
+                    JsonNode items = schema.get("items");
+                    JsonNode tuple = schema.has("prefixItems") ? schema.get("prefixItems") : items != null && items.isArray() ? items : null;
+                    if (tuple != null) {
+                        // Tuple form: exactly the listed items, in order
+                        if (schema.path("minItems").asInt(0) > tuple.size() || schema.path("maxItems").asInt(tuple.size()) < tuple.size()) {
+                            throw new IllegalArgumentException("Item counts other than the number of tuple items are not supported");
+                        }
+                        List<FieldGenerator> elements = new ArrayList<>();
+                        tuple.forEach(item -> elements.add(compile(item)));
+                        return tuple(elements);
+                    }
+                    Integer minItems = schema.has("minItems") ? schema.get("minItems").asInt() : null;
+                    Integer maxItems = schema.has("maxItems") ? schema.get("maxItems").asInt() : null;
+                    int min = minItems != null ? minItems : maxItems != null ? Math.min(1, maxItems) : 1;
+                    int max = maxItems != null ? maxItems : min + 4;
+                    if (min > max) {
+                        throw new IllegalArgumentException("minItems " + min + " is above maxItems " + max);
+                    }
+                    return array(compile(items), min, max);
+                }
+                case "string": {
+                    if (schema.has("format")) {
+                        FieldGenerator formatted = format(schema.get("format").asText());
+                        if (formatted != null) {
+                            return formatted;
+                        }
+                    }
+                    Integer minLength = schema.has("minLength") ? schema.get("minLength").asInt() : null;
+                    Integer maxLength = schema.has("maxLength") ? schema.get("maxLength").asInt() : null;
+                    int min = minLength != null ? minLength : maxLength != null ? Math.min(1, maxLength) : 1;
+                    int max = maxLength != null ? maxLength : Math.max(min, 16);
+                    if (min > max) {
+                        throw new IllegalArgumentException("minLength " + min + " is above maxLength " + max);
+                    }
+                    return string(min, max);
+                }
+                case "integer": {
+                    Bound lower = Bound.lower(schema);
+                    Bound upper = Bound.upper(schema);
+                    // Smallest and largest integers within the bounds
+                    BigDecimal minimum = lower == null ? null : lower.exclusive
+                        ? lower.value.setScale(0, RoundingMode.FLOOR).add(BigDecimal.ONE)
+                        : lower.value.setScale(0, RoundingMode.CEILING);
+                    BigDecimal maximum = upper == null ? null : upper.exclusive
+                        ? upper.value.setScale(0, RoundingMode.CEILING).subtract(BigDecimal.ONE)
+                        : upper.value.setScale(0, RoundingMode.FLOOR);
+                    BigDecimal range = BigDecimal.valueOf(DEFAULT_INTEGER_RANGE);
+                    if (minimum == null) {
+                        minimum = maximum == null ? BigDecimal.ZERO : maximum.subtract(range);
+                    }
+                    if (maximum == null) {
+                        maximum = minimum.add(range);
+                    }
+                    if (minimum.compareTo(maximum) > 0) {
+                        throw new IllegalArgumentException("No integer between " + describe(lower, true) + " and " + describe(upper, false));
+                    }
+                    BigDecimal smallest = BigDecimal.valueOf(Long.MIN_VALUE);
+                    BigDecimal largest = BigDecimal.valueOf(Long.MAX_VALUE);
+                    return integer(minimum.max(smallest).min(largest).longValue(), maximum.max(smallest).min(largest).longValue());
+                }
+                case "number": {
+                    Bound lower = Bound.lower(schema);
+                    Bound upper = Bound.upper(schema);
+                    if (lower == null) {
+                        lower = new Bound(upper == null ? BigDecimal.ZERO : upper.value.subtract(DEFAULT_NUMBER_RANGE), false);
+                    }
+                    if (upper == null) {
+                        upper = new Bound(lower.value.add(DEFAULT_NUMBER_RANGE), false);
+                    }
+                    int comparison = lower.value.compareTo(upper.value);
+                    if (comparison > 0 || comparison == 0 && (lower.exclusive || upper.exclusive)) {
+                        throw new IllegalArgumentException("No number between " + describe(lower, true) + " and " + describe(upper, false));
+                    }
+                    return number(lower.value, lower.exclusive, upper.value, upper.exclusive, NUMBER_SCALE);
+                }
+                case "boolean":
+                    return (output, random) -> output.generator.writeBoolean(random.nextBoolean());
+                case "null":
+                    return (output, random) -> output.generator.writeNull();
+                default:
+                    throw new IllegalArgumentException("Unknown type '" + type + "' in schema");
+            }
+        }
+        
+        private FieldGenerator ref(String ref) {
+            if (!resolving.add(ref)) {
+                throw new IllegalArgumentException("Recursive $ref " + ref + " is not supported");
+            }
+            try {
+                return compile(resolve(ref));
+            } finally {
+                resolving.remove(ref);
+            }
+        }
+        
+        private JsonNode resolve(String ref) {
+            if (!ref.startsWith("#")) {
+                throw new IllegalArgumentException("Only local $refs are supported: " + ref);
+            }
+            JsonNode target = document.at(ref.substring(1));
+            if (target.isMissingNode()) {
+                throw new IllegalArgumentException("Unresolved $ref " + ref);
+            }
+            return target;
+        }
+        
+        private static String describe(Bound bound, boolean lower) {
+            if (bound == null) {
+                return lower ? "-infinity" : "infinity";
+            }
+            return bound.value.toPlainString() + (bound.exclusive ? " (exclusive)" : "");
+        }
+        
+        private static void merge(ObjectNode target, JsonNode source) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = source.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode existing = target.get(field.getKey());
+                if (existing instanceof ObjectNode && field.getValue().isObject()) {
+                    ((ObjectNode) existing).setAll((ObjectNode) field.getValue());
+                } else if (existing != null && existing.isArray() && field.getValue().isArray() && field.getKey().equals("required")) {
+                    ((ArrayNode) existing).addAll((ArrayNode) field.getValue());
+                } else {
+                    target.set(field.getKey(), field.getValue());
+                }
+            }
+        }
+    }
+    
+    /**
+     * A lower or upper bound of a number, from {@code minimum}/{@code maximum} and the exclusive
+     * bounds, either as numbers or as the booleans of draft 4.
+     */
+    private record Bound(BigDecimal value, boolean exclusive) {
+        
+        static Bound lower(JsonNode schema) {
+            return of(schema, "minimum", "exclusiveMinimum", 1);
+        }
+        
+        static Bound upper(JsonNode schema) {
+            return of(schema, "maximum", "exclusiveMaximum", -1);
+        }
+        
+        /**
+         * @param tighter sign of the comparison that makes a bound tighter
+         */
+        private static Bound of(JsonNode schema, String inclusiveName, String exclusiveName, int tighter) {
+            JsonNode inclusive = schema.get(inclusiveName);
+            JsonNode exclusive = schema.get(exclusiveName);
+            Bound bound = null;
+            if (inclusive != null && inclusive.isNumber()) {
+                bound = new Bound(inclusive.decimalValue(), exclusive != null && exclusive.asBoolean(false));
+            }
+            if (exclusive != null && exclusive.isNumber()) {
+                BigDecimal value = exclusive.decimalValue();
+                if (bound == null || value.compareTo(bound.value) * tighter >= 0) {
+                    bound = new Bound(value, true);
+                }
+            }
+            return bound;
+        }
+    }
+    
+    // Field generators
+    
+    /**
+     * @param optional per field, whether it may be left out; {@code null} if none can
+     */
+    private static FieldGenerator object(List<String> names, List<FieldGenerator> fields, boolean[] optional) {
+        String[] nameArray = names.toArray(new String[0]);
+        FieldGenerator[] fieldArray = fields.toArray(new FieldGenerator[0]);
+        return (output, random) -> {
+            JsonGenerator generator = output.generator;
+            generator.writeStartObject();
+            for (int i = 0; i < nameArray.length; i++) {
+                if (optional != null && optional[i] && random.nextDouble() >= OPTIONAL_PROPERTY_PROBABILITY) {
+                    continue;
+                }
+                generator.writeFieldName(nameArray[i]);
+                fieldArray[i].write(output, random);
+            }
+            generator.writeEndObject();
+        };
+    }
+    
+    private static FieldGenerator array(FieldGenerator element, int minItems, int maxItems) {
+        int min = Math.max(0, minItems);
+        int max = Math.max(min, maxItems);
+        return (output, random) -> {
+            int count = min == max ? min : random.nextInt(min, max + 1);
+            output.generator.writeStartArray();
+            for (int i = 0; i < count; i++) {
+                element.write(output, random);
+            }
+            output.generator.writeEndArray();
+        };
+    }
+    
+    private static FieldGenerator tuple(List<FieldGenerator> elements) {
+        FieldGenerator[] array = elements.toArray(new FieldGenerator[0]);
+        return (output, random) -> {
+            output.generator.writeStartArray();
+            for (FieldGenerator element : array) {
+                element.write(output, random);
+            }
+            output.generator.writeEndArray();
+        };
+    }
+    
+    private static FieldGenerator oneOf(List<FieldGenerator> alternatives) {
+        if (alternatives.size() == 1) {
+            return alternatives.get(0);
+        }
+        FieldGenerator[] array = alternatives.toArray(new FieldGenerator[0]);
+        return (output, random) -> array[random.nextInt(array.length)].write(output, random);
+    }
+    
+    /**
+     * One of fixed values, serialised once up front and written raw.
+     */
+    private static FieldGenerator constant(List<JsonNode> values) {
+        String[] raw = new String[values.size()];
+        for (int i = 0; i < raw.length; i++) {
+            try {
+                raw[i] = MAPPER.writeValueAsString(values.get(i));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Cannot serialise value " + values.get(i), e);
+            }
+        }
+        if (raw.length == 1) {
+            String value = raw[0];
+            return (output, random) -> output.generator.writeRawValue(value);
+        }
+        return (output, random) -> output.generator.writeRawValue(raw[random.nextInt(raw.length)]);
+    }
+    
+    private static FieldGenerator string(int minLength, int maxLength) {
+        int min = Math.max(0, minLength);
+        int max = Math.max(min, maxLength);
+        return (output, random) -> {
+            int length = min == max ? min : random.nextInt(min, max + 1);
+            char[] chars = output.scratch(length);
+            for (int i = 0; i < length; i++) {
+                chars[i] = ALPHANUMERIC[random.nextInt(ALPHANUMERIC.length)];
+            }
+            output.generator.writeString(chars, 0, length);
+        };
+    }
+    
+    private static FieldGenerator integer(long minimum, long maximum) {
+        long max = Math.max(minimum, maximum);
+        return (output, random) -> output.generator.writeNumber(
+            minimum == max ? minimum : max < Long.MAX_VALUE ? random.nextLong(minimum, max + 1) : random.nextLong(minimum, max));
+    }
+    
+    /**
+     * Numbers with {@code scale} decimals between the bounds, or with more decimals if none fits.
+     */
+    private static FieldGenerator number(BigDecimal minimum, boolean minimumExclusive, BigDecimal maximum, boolean maximumExclusive,
+                                         int scale) {
+        long lowest;
+        long highest;
+        try {
+            // The bounds in units of the last decimal
+            BigDecimal low = minimum.movePointRight(scale);
+            BigDecimal high = maximum.movePointRight(scale);
+            lowest = (minimumExclusive ? low.setScale(0, RoundingMode.FLOOR).add(BigDecimal.ONE) : low.setScale(0, RoundingMode.CEILING))
+                .longValueExact();
+            highest = (maximumExclusive ? high.setScale(0, RoundingMode.CEILING).subtract(BigDecimal.ONE) : high.setScale(0, RoundingMode.FLOOR))
+                .longValueExact();
+        } catch (ArithmeticException e) {
+            // Too large for whole units: rounding does not matter at that size
+            double low = minimum.doubleValue();
+            double high = maximum.doubleValue();
+            return (output, random) -> output.generator.writeNumber(low < high ? random.nextDouble(low, high) : low);
+        }
+        if (lowest > highest) {
+            if (scale >= MAX_NUMBER_SCALE) {
+                throw new IllegalArgumentException("No number with at most " + MAX_NUMBER_SCALE + " decimals between " +
+                    minimum.toPlainString() + " and " + maximum.toPlainString());
+            }
+            return number(minimum, minimumExclusive, maximum, maximumExclusive, scale + 1);
+        }
+        long first = lowest;
+        long last = highest;
+        return (output, random) -> output.generator.writeNumber(BigDecimal.valueOf(
+            first == last ? first : last < Long.MAX_VALUE ? random.nextLong(first, last + 1) : random.nextLong(first, last), scale));
+    }
+    
+    /**
+     * Generator for a string format, or {@code null} for formats that are not supported.
+     */
+    private static FieldGenerator format(String format) {
+        switch (format) {
+            case "date-time":
+                return (output, random) -> output.generator.writeString(
+                    Instant.ofEpochSecond(Instant.now().getEpochSecond() - random.nextLong(DATE_RANGE_SECONDS)).toString());
+            case "date":
+                return (output, random) -> output.generator.writeString(
+                    LocalDate.now().minusDays(random.nextInt(365)).toString());
+            case "uuid":
+                // Random (version 4) UUIDs
+                return (output, random) -> output.generator.writeString(new UUID(
+                    (random.nextLong() & ~0xF000L) | 0x4000L,
+                    (random.nextLong() & ~0xC000000000000000L) | 0x8000000000000000L).toString());
+            case "email":
+                return (output, random) -> {
+                    char[] chars = output.scratch(8);
+                    for (int i = 0; i < 8; i++) {
+                        chars[i] = ALPHANUMERIC[random.nextInt(26)];
+                    }
+                    output.generator.writeString(new String(chars, 0, 8) + "@example.com");
+                };
+            case "uri":
+                return (output, random) -> output.generator.writeString(
+                    "https://example.com/" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36));
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * A reusable JSON generator writing into a string buffer, plus scratch space for strings.
+     */
+    static final class Output {
+        private final StringBuilder buffer = new StringBuilder(256);
+        private final JsonGenerator generator;
+        private char[] scratch = new char[64];
+        
+        Output() {
+            try {
+                generator = MAPPER.getFactory().createGenerator(new Writer() {
+                    @Override
+                    public void write(char[] chars, int offset, int length) {
+                        buffer.append(chars, offset, length);
+                    }
+                    
+                    @Override
+                    public void write(String text, int offset, int length) {
+                        buffer.append(text, offset, offset + length);
+                    }
+                    
+                    @Override
+                    public void flush() {
+                    }
+                    
+                    @Override
+                    public void close() {
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            // Payloads are written one after the other as root values, without a separator
+            generator.setRootValueSeparator(null);
+        }
+        
+        char[] scratch(int length) {
+            if (scratch.length < length) {
+                scratch = new char[Math.max(length, scratch.length * 2)];
+            }
+            return scratch;
+        }
+        
+        /**
+         * Returns what was written since the last call and empties the buffer.
+         */
+        String take() throws IOException {
+            generator.flush();
+            String text = buffer.toString();
+            buffer.setLength(0);
+            return text;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archive file of {@link ArchivedMessage}s, written in batches.
+ * <p>
+ * Every batch is a complete gzip member appended to the file; concatenated members are a valid gzip
+ * file, so archives can be read with {@code zcat} as well as with {@link Reader}. Because a batch is
+ * only part of the archive once it has been fully written and forced to disk, an interrupted export
+ * can truncate the file back to the end of its last batch and carry on.
+ * <p>
+ * {@link Format#NDJSON} archives hold one JSON object per line, with bytes bodies in Base64.
+ * {@link Format#BINARY} archives hold length-prefixed records: the length and JSON of the headers and
+ * properties, then the length and raw bytes of the body (text as UTF-8, -1 for none).
+ */
+public final class QueueArchive {
+    
+    public enum Format {
+        NDJSON, BINARY;
+        
+        /**
+         * Binary for {@code .bin} and {@code .bin.gz} files, NDJSON otherwise.
+         */
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".bin") || name.endsWith(".bin.gz") ? BINARY : NDJSON;
+        }
+    }
+    
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int NO_BODY = -1;
+    
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+        .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+        .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+        .build();
+    
+    private QueueArchive() {
+    }
+    
+    /**
+     * Appends batches to an archive file.
+     */
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final Format format;
+        private DataOutputStream batch;
+        private int batchCount;
+        
+        /**
+         * Opens an archive, dropping anything after {@code offset}, e.g. a batch that was being written
+         * when the previous export was interrupted.
+         */
+        public Writer(Path file, Format format, long offset) throws IOException {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.format = format;
+            if (channel.size() > offset) {
+                channel.truncate(offset);
+            }
+            channel.position(offset);
+        }
+        
+        public void write(ArchivedMessage message) throws IOException {
+            if (batch == null) {
+                batch = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(new KeepOpenOutputStream(Channels.newOutputStream(channel)), BUFFER_BYTES), BUFFER_BYTES));
+            }
+            if (format == Format.NDJSON) {
+                MAPPER.writeValue((OutputStream) batch, message);
+                batch.write('\n');
+            } else {
+                writeBinary(message);
+            }
+            batchCount++;
+        }
+        
+        private void writeBinary(ArchivedMessage message) throws IOException {
+            // The body goes after the headers, raw
+            String text = message.getText();
+            byte[] bytes = message.getBytes();
+            byte[] body = text != null ? text.getBytes(StandardCharsets.UTF_8) : bytes;
+            message.setText(null);
+            message.setBytes(null);
+            byte[] header = MAPPER.writeValueAsBytes(message);
+            message.setText(text);
+            message.setBytes(bytes);
+            
+            batch.writeInt(header.length);
+            batch.write(header);
+            batch.writeInt(body != null ? body.length : NO_BODY);
+            if (body != null) {
+                batch.write(body);
+            }
+        }
+        
+        /**
+         * Messages written since the last {@link #endBatch()}.
+         */
+        public int getBatchCount() {
+            return batchCount;
+        }
+        
+        /**
+         * Completes the current batch and forces it to disk.
+         *
+         * @return the archive size including this batch, the offset to resume from
+         */
+        public long endBatch() throws IOException {
+            if (batch != null) {
+                // Finishes the gzip member and releases its deflater; the file stays open
+                batch.close();
+                batch = null;
+                channel.force(false);
+            }
+            batchCount = 0;
+            return channel.position();
+        }
+        
+        /**
+         * Closes the file. A batch that was not ended is discarded when the export resumes.
+         */
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+    
+    /**
+     * Reads the messages of an archive in order.
+     */
+    public static class Reader implements Closeable {
+        private final Format format;
+        private final DataInputStream in;
+        private final BufferedReader lines;
+        
+        public Reader(Path file) throws IOException {
+            this(file, Format.forFile(file));
+        }
+        
+        public Reader(Path file, Format format) throws IOException {
+            this.format = format;
+            InputStream gzip = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_BYTES), BUFFER_BYTES);
+            if (format == Format.NDJSON) {
+                this.in = null;
+                this.lines = new BufferedReader(new InputStreamReader(gzip, StandardCharsets.UTF_8), BUFFER_BYTES);
+            } else {
+                this.in = new DataInputStream(new BufferedInputStream(gzip, BUFFER_BYTES));
+                this.lines = null;
+            }
+        }
+        
+        /**
+         * @return the next message, or {@code null} at the end of the archive
+         */
+        public ArchivedMessage next() throws IOException {
+            if (format == Format.NDJSON) {
+                String line;
+                do {
+                    line = lines.readLine();
+                } while (line != null && line.isBlank());
+                return line != null ? MAPPER.readValue(line, ArchivedMessage.class) : null;
+            }
+            
+            int headerLength;
+            try {
+                headerLength = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            byte[] header = in.readNBytes(headerLength);
+            int bodyLength = in.readInt();
+            byte[] body = bodyLength != NO_BODY ? in.readNBytes(bodyLength) : null;
+            if (header.length != headerLength || (body != null && body.length != bodyLength)) {
+                throw new EOFException("Archive ends in the middle of a message");
+            }
+            ArchivedMessage message = MAPPER.readValue(header, ArchivedMessage.class);
+            if (body != null) {
+                if (message.getBodyType() == ArchivedMessage.BodyType.TEXT) {
+                    message.setText(new String(body, StandardCharsets.UTF_8));
+                } else {
+                    message.setBytes(body);
+                }
+            }
+            return message;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (lines != null) {
+                lines.close();
+            } else {
+                in.close();
+            }
+        }
+    }
+    
+    /**
+     * Lets a batch's streams be closed without closing the archive file underneath.
+     */
+    private static class KeepOpenOutputStream extends FilterOutputStream {
+        KeepOpenOutputStream(OutputStream out) {
+            super(out);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+        
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
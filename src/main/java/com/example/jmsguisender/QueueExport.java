@@ -0,0 +1,267 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.Connection;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Queue;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.Session;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.function.Consumer;
+
+/**
+ * Streams the messages of a queue into a {@link QueueArchive}, one message in memory at a time.
+ * <p>
+ * {@link Mode#BROWSE} leaves the queue untouched. {@link Mode#DRAIN} consumes the messages in a
+ * transacted session and commits each batch only after it is on disk, so an interrupted export
+ * loses nothing: at worst the last batch is exported twice, and the message IDs tell the copies apart.
+ * <p>
+ * After every batch a checkpoint next to the archive records where the archive ends and which
+ * message was exported last. Running the export again resumes from there: a drain simply carries on,
+ * a browse skips the queue up to the last exported message. Later runs thereby append only messages
+ * that are new since the previous run.
+ */
+public class QueueExport {
+    
+    public enum Mode {
+        BROWSE, DRAIN
+    }
+    
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    
+    /** A drain ends once the queue has been empty this long. */
+    private static final long IDLE_TIMEOUT_MILLIS = 2000;
+    
+    private final JMSSender jmsSender;
+    private final SendRequest source;
+    private final Path archive;
+    private final Mode mode;
+    private final QueueArchive.Format format;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long maxMessages = Long.MAX_VALUE;
+    private String selector;
+    private volatile boolean stopped;
+    private Consumer<String> progressListener = progress -> { };
+    
+    /**
+     * @param source the broker, credentials and queue to export; its payload is not used
+     */
+    public QueueExport(JMSSender jmsSender, SendRequest source, Path archive, Mode mode, QueueArchive.Format format) {
+        if (source.isTopic()) {
+            throw new IllegalArgumentException("Only queues can be exported");
+        }
+        this.jmsSender = jmsSender;
+        this.source = source;
+        this.archive = archive;
+        this.mode = mode;
+        this.format = format;
+    }
+    
+    public static Path checkpointFile(Path archive) {
+        return archive.resolveSibling(archive.getFileName() + ".checkpoint");
+    }
+    
+    /**
+     * Messages per batch: per gzip member, disk flush, checkpoint and, when draining, transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Stops after this many messages in this run.
+     */
+    public void setMaxMessages(long maxMessages) {
+        this.maxMessages = maxMessages > 0 ? maxMessages : Long.MAX_VALUE;
+    }
+    
+    public void setSelector(String selector) {
+        this.selector = selector != null && !selector.isBlank() ? selector : null;
+    }
+    
+    /**
+     * Sets the callback receiving a line per batch, from the exporting thread.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    /**
+     * Ends the export after the current message; the batch so far is completed normally.
+     */
+    public void stop() {
+        stopped = true;
+    }
+    
+    /**
+     * Runs the export, resuming from the checkpoint if there is one.
+     *
+     * @return the number of messages exported by this run
+     * @throws IOException if the archive cannot be written, or a browse cannot find where it left off
+     */
+    public long run() throws IOException, JMSException {
+        Checkpoint checkpoint = readCheckpoint();
+        if (checkpoint.exported > 0) {
+            progressListener.accept("Resuming after " + checkpoint.exported + " message(s), last " + checkpoint.lastMessageId);
+        }
+        
+        Connection connection = jmsSender.connect(source.getBrokerUrl(), source.getUsername(), source.getPassword(),
+            source.getConfiguration());
+        boolean drain = mode == Mode.DRAIN;
+        long exported = 0;
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(archive, format, checkpoint.offset);
+             Session session = connection.createSession(drain, drain ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE)) {
+            Queue queue = session.createQueue(source.getDestination());
+            if (drain) {
+                try (MessageConsumer consumer = session.createConsumer(queue, selector)) {
+                    Message message;
+                    while (!stopped && exported < maxMessages && (message = consumer.receive(IDLE_TIMEOUT_MILLIS)) != null) {
+                        writer.write(ArchivedMessage.from(message));
+                        exported++;
+                        checkpoint.lastMessageId = message.getJMSMessageID();
+                        if (writer.getBatchCount() >= batchSize) {
+                            endBatch(writer, checkpoint, session);
+                        }
+                    }
+                    endBatch(writer, checkpoint, session);
+                }
+            } else {
+                try (QueueBrowser browser = session.createBrowser(queue, selector)) {
+                    exported = browse(browser, writer, checkpoint);
+                }
+            }
+        }
+        progressListener.accept("Exported " + exported + " message(s) from " + source.getDestination() + " to " + archive +
+            " (" + checkpoint.exported + " in total)");
+        return exported;
+    }
+    
+    private long browse(QueueBrowser browser, QueueArchive.Writer writer, Checkpoint checkpoint) throws IOException, JMSException {
+        String resumeAfter = checkpoint.lastMessageId;
+        long exported = 0;
+        Enumeration<?> messages = browser.getEnumeration();
+        while (!stopped && exported < maxMessages && messages.hasMoreElements()) {
+            Message message = (Message) messages.nextElement();
+            if (resumeAfter != null) {
+                if (resumeAfter.equals(message.getJMSMessageID())) {
+                    resumeAfter = null;
+                }
+                continue;
+            }
+            writer.write(ArchivedMessage.from(message));
+            exported++;
+            checkpoint.lastMessageId = message.getJMSMessageID();
+            if (writer.getBatchCount() >= batchSize) {
+                endBatch(writer, checkpoint, null);
+            }
+        }
+        endBatch(writer, checkpoint, null);
+        if (resumeAfter != null && !stopped) {
+            throw new IOException("Cannot resume: the last exported message " + resumeAfter + " is no longer on " +
+                source.getDestination() + "; move " + checkpointFile(archive) + " away to export it again from the start");
+        }
+        return exported;
+    }
+    
+    /**
+     * Makes the batch durable: archive on disk, then checkpoint, then (when draining) the commit
+     * that removes its messages from the queue.
+     */
+    private void endBatch(QueueArchive.Writer writer, Checkpoint checkpoint, Session session) throws IOException, JMSException {
+        int count = writer.getBatchCount();
+        if (count == 0) {
+            return;
+        }
+        checkpoint.offset = writer.endBatch();
+        checkpoint.exported += count;
+        writeCheckpoint(checkpoint);
+        if (session != null) {
+            session.commit();
+        }
+        progressListener.accept("Exported " + checkpoint.exported + " message(s), " + checkpoint.offset + " bytes");
+    }
+    
+    private Checkpoint readCheckpoint() throws IOException {
+        Path file = checkpointFile(archive);
+        if (!Files.exists(file)) {
+            if (Files.exists(archive) && Files.size(archive) > 0) {
+                throw new IllegalArgumentException(archive + " exists without a checkpoint; choose another file");
+            }
+            Checkpoint checkpoint = new Checkpoint();
+            checkpoint.destination = source.getDestination();
+            checkpoint.mode = mode;
+            checkpoint.format = format;
+            return checkpoint;
+        }
+        Checkpoint checkpoint = objectMapper.readValue(file.toFile(), Checkpoint.class);
+        if (!source.getDestination().equals(checkpoint.destination) || checkpoint.mode != mode || checkpoint.format != format) {
+            throw new IllegalArgumentException(archive + " holds a " + checkpoint.mode + " export of " + checkpoint.destination +
+                " in " + checkpoint.format + " format; resume it with the same settings or choose another file");
+        }
+        return checkpoint;
+    }
+    
+    private void writeCheckpoint(Checkpoint checkpoint) throws IOException {
+        Path target = checkpointFile(archive);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), checkpoint);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Where an export stands: the archive size after the last complete batch and the last message in it.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    static class Checkpoint {
+        @JsonProperty("destination")
+        String destination;
+        
+        @JsonProperty("mode")
+        Mode mode;
+        
+        @JsonProperty("format")
+        QueueArchive.Format format;
+        
+        @JsonProperty("offset")
+        long offset;
+        
+        @JsonProperty("exported")
+        long exported;
+        
+        @JsonProperty("lastMessageId")
+        String lastMessageId;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.Connection;
+import jakarta.jms.DeliveryMode;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.QueueBrowser;
+import jakarta.jms.Session;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Moves or copies the messages of a queue to another destination, on the same or another broker.
+ * <p>
+ * {@link Mode#MOVE} runs several consumers in parallel, each with transacted sessions committed
+ * once per batch. When both sides share a pooled connection, consuming and producing are one
+ * transaction, so a message is never lost or duplicated. Across brokers the target is committed
+ * before the source: a failure between the two commits leaves the batch on both, never on neither.
+ * {@link Mode#COPY} browses the source instead, leaving it untouched, with one transacted producer.
+ * <p>
+ * Moved messages keep their body, properties, priority, delivery mode and remaining time to live.
+ * Properties set by the JMS provider are dropped, as is the duplicate ID: the target has usually
+ * seen it already (a dead letter queue being moved back) and would discard the message.
+ */
+public class QueueMover {
+    
+    public enum Mode {
+        MOVE, COPY
+    }
+    
+    public static final int DEFAULT_CONSUMERS = 4;
+    public static final int DEFAULT_BATCH_SIZE = 100;
+    
+    /** A consumer ends once the source has been empty this long. */
+    private static final long IDLE_TIMEOUT_MILLIS = 2000;
+    
+    private final JMSSender jmsSender;
+    private final SendRequest source;
+    private final SendRequest target;
+    private final Mode mode;
+    private final AtomicLong moved = new AtomicLong();
+    private final AtomicLong remaining = new AtomicLong(Long.MAX_VALUE);
+    private int consumers = DEFAULT_CONSUMERS;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private String selector;
+    private Map<String, Object> setProperties = Map.of();
+    private Set<String> removeProperties = Set.of();
+    private volatile boolean stopped;
+    private volatile JMSException error;
+    private Consumer<String> progressListener = progress -> { };
+    
+    /**
+     * @param source the broker, credentials and queue to move from; its payload is not used
+     * @param target the broker, credentials and destination to move to; its payload is not used
+     */
+    public QueueMover(JMSSender jmsSender, SendRequest source, SendRequest target, Mode mode) {
+        if (source.isTopic()) {
+            throw new IllegalArgumentException("Only queues can be moved or copied");
+        }
+        if (source.getBrokerUrl().equals(target.getBrokerUrl()) && !target.isTopic() &&
+            source.getDestination().equals(target.getDestination())) {
+            throw new IllegalArgumentException("Source and target are the same queue");
+        }
+        this.jmsSender = jmsSender;
+        this.source = source;
+        this.target = target;
+        this.mode = mode;
+    }
+    
+    /**
+     * Number of parallel consumers when moving; a copy always browses with one.
+     */
+    public void setConsumers(int consumers) {
+        if (consumers <= 0) {
+            throw new IllegalArgumentException("Consumers must be positive");
+        }
+        this.consumers = consumers;
+    }
+    
+    /**
+     * Messages per transaction.
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+    
+    /**
+     * Stops after this many messages.
+     */
+    public void setMaxMessages(long maxMessages) {
+        remaining.set(maxMessages > 0 ? maxMessages : Long.MAX_VALUE);
+    }
+    
+    public void setSelector(String selector) {
+        this.selector = selector != null && !selector.isBlank() ? selector : null;
+    }
+    
+    /**
+     * Properties to set on, and to remove from, every message on its way to the target.
+     */
+    public void setHeaderRewrite(Map<String, Object> setProperties, Set<String> removeProperties) {
+        this.setProperties = setProperties != null ? Map.copyOf(setProperties) : Map.of();
+        this.removeProperties = removeProperties != null ? Set.copyOf(removeProperties) : Set.of();
+    }
+    
+    /**
+     * Sets the callback receiving a progress line every second, from the calling thread of {@link #run()}.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    /**
+     * Ends the move after the current batch, which is committed normally.
+     */
+    public void stop() {
+        stopped = true;
+    }
+    
+    /**
+     * Runs the move on the calling thread and returns once every consumer has finished.
+     *
+     * @return the number of messages moved or copied
+     * @throws JMSException the first error of any consumer; batches committed before it stay moved
+     */
+    public long run() throws JMSException, InterruptedException {
+        Connection sourceConnection = jmsSender.connect(source.getBrokerUrl(), source.getUsername(), source.getPassword(),
+            source.getConfiguration());
+        Connection targetConnection = jmsSender.connect(target.getBrokerUrl(), target.getUsername(), target.getPassword(),
+            target.getConfiguration());
+        
+        int workerCount = mode == Mode.MOVE ? consumers : 1;
+        List<Thread> workers = new ArrayList<>(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(() -> work(sourceConnection, targetConnection), "queue-mover-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        
+        long start = System.nanoTime();
+        long movedAtLastReport = 0;
+        try {
+            for (Thread worker : workers) {
+                while (!worker.join(Duration.ofSeconds(1))) {
+                    long movedNow = moved.get();
+                    progressListener.accept(describe(movedNow, System.nanoTime() - start) +
+                        ", now " + (movedNow - movedAtLastReport) + " msg/s");
+                    movedAtLastReport = movedNow;
+                }
+            }
+        } finally {
+            stopped = true;
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        
+        progressListener.accept(describe(moved.get(), System.nanoTime() - start));
+        if (error != null) {
+            throw error;
+        }
+        return moved.get();
+    }
+    
+    private String describe(long count, long elapsedNanos) {
+        double seconds = Math.max(elapsedNanos / 1e9, 1e-3);
+        return (mode == Mode.MOVE ? "Moved " : "Copied ") + count + " message(s) from " + source.getDestination() +
+            " to " + target.getDestination() + " in " + String.format(Locale.ROOT, "%.1f s (%.0f msg/s)", seconds, count / seconds);
+    }
+    
+    private void work(Connection sourceConnection, Connection targetConnection) {
+        // One connection means one session can consume and produce in the same transaction
+        boolean shared = sourceConnection == targetConnection;
+        Session sourceSession = null;
+        Session targetSession = null;
+        try {
+            sourceSession = sourceConnection.createSession(mode == Mode.MOVE, mode == Mode.MOVE ? Session.SESSION_TRANSACTED : Session.AUTO_ACKNOWLEDGE);
+            targetSession = shared && mode == Mode.MOVE ? sourceSession : targetConnection.createSession(true, Session.SESSION_TRANSACTED);
+            Destination destination = target.isTopic()
+                ? targetSession.createTopic(target.getDestination())
+                : targetSession.createQueue(target.getDestination());
+            MessageProducer producer = targetSession.createProducer(destination);
+            if (mode == Mode.MOVE) {
+                MessageConsumer consumer = sourceSession.createConsumer(sourceSession.createQueue(source.getDestination()), selector);
+                consume(consumer, producer, sourceSession, targetSession);
+            } else {
+                QueueBrowser browser = sourceSession.createBrowser(sourceSession.createQueue(source.getDestination()), selector);
+                browse(browser, producer, targetSession);
+            }
+        } catch (JMSException e) {
+            if (error == null) {
+                error = e;
+            }
+            stopped = true;
+        } finally {
+            close(targetSession);
+            close(sourceSession);
+        }
+    }
+    
+    private void consume(MessageConsumer consumer, MessageProducer producer, Session sourceSession, Session targetSession) throws JMSException {
+        int batch = 0;
+        try {
+            while (!stopped && remaining.getAndDecrement() > 0) {
+                Message message = consumer.receive(IDLE_TIMEOUT_MILLIS);
+                if (message == null) {
+                    break;
+                }
+                forward(producer, message);
+                if (++batch >= batchSize) {
+                    commit(sourceSession, targetSession, batch);
+                    batch = 0;
+                }
+            }
+            if (batch > 0) {
+                commit(sourceSession, targetSession, batch);
+            }
+        } catch (JMSException e) {
+            rollback(targetSession);
+            rollback(sourceSession);
+            throw e;
+        }
+    }
+    
+    private void browse(QueueBrowser browser, MessageProducer producer, Session targetSession) throws JMSException {
+        int batch = 0;
+        try {
+            Enumeration<?> messages = browser.getEnumeration();
+            while (!stopped && messages.hasMoreElements() && remaining.getAndDecrement() > 0) {
+                forward(producer, (Message) messages.nextElement());
+                if (++batch >= batchSize) {
+                    targetSession.commit();
+                    moved.addAndGet(batch);
+                    batch = 0;
+                }
+            }
+            if (batch > 0) {
+                targetSession.commit();
+                moved.addAndGet(batch);
+            }
+        } catch (JMSException e) {
+            rollback(targetSession);
+            throw e;
+        }
+    }
+    
+    private void commit(Session sourceSession, Session targetSession, int batch) throws JMSException {
+        if (targetSession != sourceSession) {
+            targetSession.commit();
+        }
+        sourceSession.commit();
+        moved.addAndGet(batch);
+    }
+    
+    private void forward(MessageProducer producer, Message message) throws JMSException {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        Enumeration<?> names = message.getPropertyNames();
+        while (names.hasMoreElements()) {
+            String name = (String) names.nextElement();
+            if (!name.startsWith("JMSX") && !name.startsWith("JMS_") && !name.equals(JMSSender.DUPLICATE_ID_PROPERTY) &&
+                !removeProperties.contains(name)) {
+                properties.put(name, message.getObjectProperty(name));
+            }
+        }
+        properties.putAll(setProperties);
+        
+        // Received properties are read-only until cleared
+        message.clearProperties();
+        for (Map.Entry<String, Object> property : properties.entrySet()) {
+            message.setObjectProperty(property.getKey(), property.getValue());
+        }
+        
+        long expiration = message.getJMSExpiration();
+        long timeToLive = expiration > 0 ? Math.max(1, expiration - System.currentTimeMillis()) : Message.DEFAULT_TIME_TO_LIVE;
+        int deliveryMode = message.getJMSDeliveryMode() == DeliveryMode.NON_PERSISTENT ? DeliveryMode.NON_PERSISTENT : DeliveryMode.PERSISTENT;
+        producer.send(message, deliveryMode, message.getJMSPriority(), timeToLive);
+    }
+    
+    private static void rollback(Session session) {
+        try {
+            if (session != null && session.getTransacted()) {
+                session.rollback();
+            }
+        } catch (JMSException e) {
+            // The session is broken; the broker rolls back when it goes away
+        }
+    }
+    
+    private static void close(Session session) {
+        try {
+            if (session != null) {
+                session.close();
+            }
+        } catch (JMSException e) {
+            // Already closed with its connection
+        }
+    }
+}
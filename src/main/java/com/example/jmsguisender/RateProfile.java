@@ -0,0 +1,219 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.Locale;
+
+/**
+ * Target send rate, in messages per second, as a function of the time elapsed since the start of a run.
+ */
+public interface RateProfile {
+    
+    double rateAt(double elapsedSeconds);
+    
+    /**
+     * Short human readable description, e.g. for logs and reports.
+     */
+    String describe();
+    
+    /**
+     * This profile with every rate multiplied by a factor, e.g. one worker's share of a distributed run.
+     */
+    default RateProfile scaled(double factor) {
+        return factor == 1 ? this : new Scaled(this, factor);
+    }
+    
+    static RateProfile constant(double rate) {
+        return new Constant(rate);
+    }
+    
+    static RateProfile linearRamp(double fromRate, double toRate, double rampSeconds) {
+        return new LinearRamp(fromRate, toRate, rampSeconds);
+    }
+    
+    static RateProfile stepBurst(double baseRate, double burstRate, double periodSeconds, double burstSeconds) {
+        return new StepBurst(baseRate, burstRate, periodSeconds, burstSeconds);
+    }
+    
+    static RateProfile wave(double meanRate, double amplitude, double periodSeconds) {
+        return new Wave(meanRate, amplitude, periodSeconds);
+    }
+    
+    /**
+     * Parses a profile specification:
+     * <ul>
+     *   <li>{@code constant:RATE}</li>
+     *   <li>{@code ramp:FROM:TO:SECONDS}</li>
+     *   <li>{@code burst:BASE:BURST:PERIOD_SECONDS:BURST_SECONDS}</li>
+     *   <li>{@code sine:MEAN:AMPLITUDE:PERIOD_SECONDS}</li>
+     * </ul>
+     */
+    static RateProfile parse(String specification) {
+        String[] parts = specification.trim().split(":");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "constant":
+                    expectParts(parts, 2, specification);
+                    return constant(Double.parseDouble(parts[1]));
+                case "ramp":
+                    expectParts(parts, 4, specification);
+                    return linearRamp(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+                case "burst":
+                    expectParts(parts, 5, specification);
+                    return stepBurst(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]),
+                        Double.parseDouble(parts[3]), Double.parseDouble(parts[4]));
+                case "sine":
+                    expectParts(parts, 4, specification);
+                    return wave(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+                default:
+                    throw new IllegalArgumentException("Unknown rate profile '" + parts[0] + "' in: " + specification);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in rate profile: " + specification, e);
+        }
+    }
+    
+    private static void expectParts(String[] parts, int expected, String specification) {
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Rate profile '" + parts[0] + "' expects " + (expected - 1) +
+                " value(s): " + specification);
+        }
+    }
+    
+    final class Constant implements RateProfile {
+        private final double rate;
+        
+        Constant(double rate) {
+            this.rate = Math.max(0, rate);
+        }
+        
+        @Override
+        public double rateAt(double elapsedSeconds) {
+            return rate;
+        }
+        
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "constant %.1f msg/s", rate);
+        }
+    }
+    
+    final class Scaled implements RateProfile {
+        private final RateProfile profile;
+        private final double factor;
+        
+        Scaled(RateProfile profile, double factor) {
+            this.profile = profile;
+            this.factor = Math.max(0, factor);
+        }
+        
+        @Override
+        public double rateAt(double elapsedSeconds) {
+            return profile.rateAt(elapsedSeconds) * factor;
+        }
+        
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "%s x %.3f", profile.describe(), factor);
+        }
+    }
+    
+    /**
+     * Rate moving linearly from one value to another, then holding the final rate.
+     */
+    final class LinearRamp implements RateProfile {
+        private final double fromRate;
+        private final double toRate;
+        private final double rampSeconds;
+        
+        LinearRamp(double fromRate, double toRate, double rampSeconds) {
+            this.fromRate = Math.max(0, fromRate);
+            this.toRate = Math.max(0, toRate);
+            this.rampSeconds = Math.max(0, rampSeconds);
+        }
+        
+        @Override
+        public double rateAt(double elapsedSeconds) {
+            if (elapsedSeconds >= rampSeconds) {
+                return toRate;
+            }
+            return fromRate + (toRate - fromRate) * (elapsedSeconds / rampSeconds);
+        }
+        
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "ramp %.1f -> %.1f msg/s over %.0fs", fromRate, toRate, rampSeconds);
+        }
+    }
+    
+    /**
+     * Base rate with a burst at the start of every period.
+     */
+    final class StepBurst implements RateProfile {
+        private final double baseRate;
+        private final double burstRate;
+        private final double periodSeconds;
+        private final double burstSeconds;
+        
+        StepBurst(double baseRate, double burstRate, double periodSeconds, double burstSeconds) {
+            if (periodSeconds <= 0) {
+                throw new IllegalArgumentException("Burst period must be positive");
+            }
+            this.baseRate = Math.max(0, baseRate);
+            this.burstRate = Math.max(0, burstRate);
+            this.periodSeconds = periodSeconds;
+            this.burstSeconds = Math.max(0, Math.min(burstSeconds, periodSeconds));
+        }
+        
+        @Override
+        public double rateAt(double elapsedSeconds) {
+            return (elapsedSeconds % periodSeconds) < burstSeconds ? burstRate : baseRate;
+        }
+        
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "burst %.1f msg/s, %.1f msg/s for %.1fs every %.1fs", baseRate, burstRate, burstSeconds, periodSeconds);
+        }
+    }
+    
+    /**
+     * Sine wave around a mean rate, never going below zero.
+     */
+    final class Wave implements RateProfile {
+        private final double meanRate;
+        private final double amplitude;
+        private final double periodSeconds;
+        
+        Wave(double meanRate, double amplitude, double periodSeconds) {
+            if (periodSeconds <= 0) {
+                throw new IllegalArgumentException("Wave period must be positive");
+            }
+            this.meanRate = meanRate;
+            this.amplitude = amplitude;
+            this.periodSeconds = periodSeconds;
+        }
+        
+        @Override
+        public double rateAt(double elapsedSeconds) {
+            return Math.max(0, meanRate + amplitude * Math.sin(2 * Math.PI * elapsedSeconds / periodSeconds));
+        }
+        
+        @Override
+        public String describe() {
+            return String.format(Locale.ROOT, "sine %.1f +/- %.1f msg/s, period %.1fs", meanRate, amplitude, periodSeconds);
+        }
+    }
+}
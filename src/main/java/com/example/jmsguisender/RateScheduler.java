@@ -0,0 +1,211 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Drives sends along a {@link RateProfile} for a fixed duration.
+ * <p>
+ * A pacing loop on the calling thread computes the intended start time of every
+ * send from the current target rate and hands it to a pool of worker threads.
+ * Waiting uses {@link LockSupport#parkNanos} for the bulk of the gap and spins for
+ * the last stretch, so rates of tens of thousands of messages per second are
+ * held accurately, which {@code Thread.sleep} granularity cannot do.
+ * <p>
+ * Latency is measured from the intended start time, so when the broker slows
+ * down and sends queue up behind each other the wait is counted too.
+ */
+public class RateScheduler {
+    
+    /**
+     * One send of a run. Implementations must be safe to call from several worker threads.
+     */
+    @FunctionalInterface
+    public interface SendTask {
+        void send(long sequence) throws Exception;
+    }
+    
+    private static final long SPIN_THRESHOLD_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long IDLE_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long POISON = Long.MIN_VALUE;
+    
+    private final RateProfile profile;
+    private final long durationNanos;
+    private final int concurrency;
+    private final SendTask task;
+    private final BlockingQueue<Long> scheduled;
+    
+    private final AtomicLong sequence = new AtomicLong();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram windowLatency = new LatencyHistogram();
+    private final List<LoadRunSample> samples = new ArrayList<>();
+    private volatile String lastError;
+    private volatile boolean stopped;
+    private Consumer<LoadRunSample> progressListener = sample -> { };
+    private BooleanSupplier pauseCondition = () -> false;
+    
+    public RateScheduler(RateProfile profile, long durationSeconds, int concurrency, SendTask task) {
+        if (durationSeconds <= 0) {
+            throw new IllegalArgumentException("Duration must be positive");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        this.profile = profile;
+        this.durationNanos = TimeUnit.SECONDS.toNanos(durationSeconds);
+        this.concurrency = concurrency;
+        this.task = task;
+        this.scheduled = new ArrayBlockingQueue<>(Math.max(1024, concurrency * 16));
+    }
+    
+    /**
+     * Sets the callback receiving one sample per second of the run, on the pacing thread.
+     */
+    public void setProgressListener(Consumer<LoadRunSample> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : sample -> { };
+    }
+    
+    /**
+     * Sets a condition under which nothing is scheduled, e.g. {@link DepthMonitor#isOverMaxDepth()}.
+     * The profile clock keeps running while paused, and no backlog of sends builds up.
+     */
+    public void setPauseCondition(BooleanSupplier pauseCondition) {
+        this.pauseCondition = pauseCondition != null ? pauseCondition : () -> false;
+    }
+    
+    /**
+     * Stops the run early. Sends already started complete; scheduled ones are dropped.
+     */
+    public void stop() {
+        stopped = true;
+    }
+    
+    /**
+     * Runs the profile on the calling thread and returns once all sends have completed.
+     */
+    public LoadRunResult run() throws InterruptedException {
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(this::work, "rate-scheduler-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long next = start;
+        long nextSample = start + TimeUnit.SECONDS.toNanos(1);
+        long sentAtLastSample = 0;
+        long failedAtLastSample = 0;
+        
+        try {
+            while (!stopped && next < end) {
+                double elapsedSeconds = (next - start) / 1e9;
+                double rate = profile.rateAt(elapsedSeconds);
+                
+                if (rate > 0 && !pauseCondition.getAsBoolean()) {
+                    waitUntil(next);
+                    if (!scheduled.offer(next)) {
+                        // Workers are saturated: block, and let the latency show how far behind we are
+                        scheduled.put(next);
+                    }
+                    next += (long) (1e9 / rate);
+                } else {
+                    next += IDLE_STEP_NANOS;
+                    waitUntil(Math.min(next, end));
+                }
+                
+                while (System.nanoTime() >= nextSample) {
+                    long sentNow = sent.sum();
+                    long failedNow = failed.sum();
+                    int second = samples.size() + 1;
+                    LoadRunSample sample = new LoadRunSample(second, profile.rateAt(second - 0.5),
+                        sentNow - sentAtLastSample, failedNow - failedAtLastSample,
+                        windowLatency.snapshotAndReset().getValueAtPercentile(99) / 1e6);
+                    samples.add(sample);
+                    progressListener.accept(sample);
+                    sentAtLastSample = sentNow;
+                    failedAtLastSample = failedNow;
+                    nextSample += TimeUnit.SECONDS.toNanos(1);
+                }
+            }
+        } finally {
+            if (stopped) {
+                scheduled.clear();
+            }
+            for (int i = 0; i < concurrency; i++) {
+                scheduled.put(POISON);
+            }
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+        
+        long elapsed = System.nanoTime() - start;
+        return new LoadRunResult(profile.describe(), elapsed, sent.sum(), failed.sum(), latency, serviceTime,
+            samples, lastError, stopped);
+    }
+    
+    private void work() {
+        try {
+            while (true) {
+                long intended = scheduled.take();
+                if (intended == POISON) {
+                    return;
+                }
+                long begin = System.nanoTime();
+                try {
+                    task.send(sequence.getAndIncrement());
+                    long done = System.nanoTime();
+                    latency.record(done - intended);
+                    windowLatency.record(done - intended);
+                    serviceTime.record(done - begin);
+                    sent.increment();
+                } catch (Exception e) {
+                    failed.increment();
+                    lastError = e.getMessage();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void waitUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0 && !stopped) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A finished run as kept in the {@link RunStore}: what was run, against which configuration,
+ * and its metrics, including the per-second samples used to compare runs.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RunRecord {
+    
+    @JsonProperty("id")
+    private String id;
+    
+    @JsonProperty("kind")
+    private String kind;
+    
+    @JsonProperty("description")
+    private String description;
+    
+    @JsonProperty("tag")
+    private String tag;
+    
+    @JsonProperty("startedAt")
+    private long startedAt;
+    
+    @JsonProperty("brokerUrl")
+    private String brokerUrl;
+    
+    @JsonProperty("destination")
+    private String destination;
+    
+    @JsonProperty("parameters")
+    private Map<String, Object> parameters;
+    
+    @JsonProperty("configuration")
+    private ServerConfiguration configuration;
+    
+    @JsonProperty("elapsedSeconds")
+    private double elapsedSeconds;
+    
+    @JsonProperty("sent")
+    private long sent;
+    
+    @JsonProperty("failed")
+    private long failed;
+    
+    @JsonProperty("throughput")
+    private double throughput;
+    
+    @JsonProperty("latencyMillis")
+    private Map<String, Double> latencyMillis;
+    
+    @JsonProperty("serviceTimeMillis")
+    private Map<String, Double> serviceTimeMillis;
+    
+    @JsonProperty("samples")
+    private List<LoadRunSample> samples;
+    
+    @JsonProperty("stopped")
+    private boolean stopped;
+    
+    @JsonProperty("lastError")
+    private String lastError;
+    
+    public RunRecord() {
+        this.parameters = new LinkedHashMap<>();
+        this.latencyMillis = new LinkedHashMap<>();
+        this.serviceTimeMillis = new LinkedHashMap<>();
+        this.samples = new ArrayList<>();
+    }
+    
+    /**
+     * Record of a finished run. Passwords are left out of the stored configuration.
+     *
+     * @param kind       what was run, e.g. {@code load} or {@code bulk}
+     * @param tag        free text to find and group runs by, e.g. a broker version; may be {@code null}
+     * @param request    the broker, destination and configuration the run sent with
+     * @param parameters run settings that are not part of the configuration, e.g. the concurrency
+     */
+    public static RunRecord of(String kind, String tag, SendRequest request, Map<String, Object> parameters,
+                               LoadRunResult result) {
+        RunRecord record = new RunRecord();
+        record.kind = kind;
+        record.description = result.getProfile();
+        record.tag = tag != null && !tag.isBlank() ? tag.trim() : null;
+        record.startedAt = System.currentTimeMillis() - result.getElapsedNanos() / 1_000_000;
+        record.brokerUrl = request.getBrokerUrl();
+        record.destination = request.getDestination();
+        record.parameters.putAll(parameters);
+        record.parameters.putIfAbsent("payloadBytes", request.getPayload() != null ? request.getPayload().getBytes(StandardCharsets.UTF_8).length : 0);
+        record.parameters.putIfAbsent("headers", request.getCustomHeaders().size());
+        
+        ServerConfiguration configuration = new ServerConfiguration(request.getConfiguration());
+        configuration.setPassword("");
+        configuration.setTrustStorePassword("");
+        configuration.setKeyStorePassword("");
+        record.configuration = configuration;
+        
+        record.elapsedSeconds = result.getElapsedNanos() / 1e9;
+        record.sent = result.getSent();
+        record.failed = result.getFailed();
+        record.throughput = result.getThroughput();
+        record.latencyMillis = percentilesMillis(result.getLatency());
+        record.serviceTimeMillis = percentilesMillis(result.getServiceTime());
+        record.samples = new ArrayList<>(result.getSamples());
+        record.stopped = result.isStopped();
+        record.lastError = result.getLastError();
+        return record;
+    }
+    
+    private static Map<String, Double> percentilesMillis(LatencyHistogram histogram) {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        millis.put("mean", histogram.getMean() / 1e6);
+        millis.put("p50", histogram.getValueAtPercentile(50) / 1e6);
+        millis.put("p90", histogram.getValueAtPercentile(90) / 1e6);
+        millis.put("p99", histogram.getValueAtPercentile(99) / 1e6);
+        millis.put("p99.9", histogram.getValueAtPercentile(99.9) / 1e6);
+        millis.put("max", histogram.getMax() / 1e6);
+        return millis;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getKind() {
+        return kind;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getTag() {
+        return tag;
+    }
+    
+    public long getStartedAt() {
+        return startedAt;
+    }
+    
+    public String getBrokerUrl() {
+        return brokerUrl;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+    
+    public ServerConfiguration getConfiguration() {
+        return configuration;
+    }
+    
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+    
+    public long getSent() {
+        return sent;
+    }
+    
+    public long getFailed() {
+        return failed;
+    }
+    
+    public double getThroughput() {
+        return throughput;
+    }
+    
+    /**
+     * Latency percentiles ({@code mean}, {@code p50}, {@code p90}, {@code p99}, {@code p99.9}, {@code max}).
+     */
+    public Map<String, Double> getLatencyMillis() {
+        return latencyMillis;
+    }
+    
+    public Map<String, Double> getServiceTimeMillis() {
+        return serviceTimeMillis;
+    }
+    
+    public List<LoadRunSample> getSamples() {
+        return samples;
+    }
+    
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s  %-10s %-24s %s%s: sent=%d failed=%d %.1f msg/s p99=%.3f ms",
+            id, kind, tag != null ? tag : "-", description, stopped ? " (stopped)" : "", sent, failed, throughput,
+            latencyMillis.getOrDefault("p99", 0.0));
+    }
+}
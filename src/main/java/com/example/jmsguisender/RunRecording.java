@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Java Flight Recorder recording around a single run, with the {@code profile} settings plus the
+ * {@link JmsEvents}, dumped to a file when the run ends.
+ */
+public class RunRecording implements Closeable {
+    
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    private final Recording recording;
+    
+    private RunRecording(Recording recording) {
+        this.recording = recording;
+    }
+    
+    /**
+     * Starts recording.
+     *
+     * @param name shown in JDK Mission Control, e.g. {@code load-test}
+     */
+    public static RunRecording start(String name) throws IOException {
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration("profile");
+        } catch (ParseException e) {
+            throw new IOException("Invalid JFR configuration: " + e.getMessage(), e);
+        }
+        Recording recording = new Recording(configuration);
+        recording.setName(name);
+        recording.setToDisk(true);
+        recording.start();
+        return new RunRecording(recording);
+    }
+    
+    /**
+     * A new file in the recordings directory of the configuration directory, named after the run and the current time.
+     */
+    public static Path defaultFile(String name) {
+        return ConfigurationManager.getConfigurationDirectory().resolve("recordings")
+            .resolve(name + "-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+    }
+    
+    /**
+     * Stops recording and writes the recording to a file, creating its directory if needed.
+     *
+     * @return the file written
+     */
+    public Path stop(Path file) throws IOException {
+        try {
+            recording.stop();
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            recording.dump(file);
+            return file;
+        } finally {
+            recording.close();
+        }
+    }
+    
+    @Override
+    public void close() {
+        recording.close();
+    }
+}
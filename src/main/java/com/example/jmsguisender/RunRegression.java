@@ -0,0 +1,367 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compares a stored run against a baseline run and flags statistically significant
+ * throughput or latency regressions.
+ * <p>
+ * Each run's per-second samples are the observations: a run of 60 seconds gives 60
+ * throughput and 60 p99 values. Welch's t-test, which does not assume equal variances,
+ * decides whether the means differ at the chosen significance level; a significant
+ * difference in the worse direction is a regression. The first second is left out when
+ * a run has more than three samples, as it includes connection set-up.
+ * <p>
+ * Runs are only comparable when they differ in the setting under test, so the report
+ * also lists every configuration value and run parameter that differs between the two.
+ */
+public class RunRegression {
+    
+    public static final double DEFAULT_ALPHA = 0.05;
+    
+    private static final int MIN_SAMPLES = 2;
+    
+    private final RunRecord baseline;
+    private final RunRecord candidate;
+    private final double alpha;
+    private final List<Metric> metrics;
+    private final Map<String, String[]> differences;
+    
+    private RunRegression(RunRecord baseline, RunRecord candidate, double alpha, List<Metric> metrics,
+                          Map<String, String[]> differences) {
+        this.baseline = baseline;
+        this.candidate = candidate;
+        this.alpha = alpha;
+        this.metrics = Collections.unmodifiableList(metrics);
+        this.differences = Collections.unmodifiableMap(differences);
+    }
+    
+    /**
+     * @param alpha significance level, e.g. {@link #DEFAULT_ALPHA}
+     */
+    public static RunRegression compare(RunRecord baseline, RunRecord candidate, double alpha) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("Significance level must be between 0 and 1, got " + alpha);
+        }
+        List<Metric> metrics = new ArrayList<>();
+        metrics.add(Metric.of("Throughput (msg/s)", true, baseline, candidate, LoadRunSample::getActualRate, alpha));
+        metrics.add(Metric.of("p99 latency (ms)", false, baseline, candidate, LoadRunSample::getP99Millis, alpha));
+        return new RunRegression(baseline, candidate, alpha, metrics, differences(baseline, candidate));
+    }
+    
+    public RunRecord getBaseline() {
+        return baseline;
+    }
+    
+    public RunRecord getCandidate() {
+        return candidate;
+    }
+    
+    public List<Metric> getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Settings that differ, by name, with the baseline and candidate values.
+     */
+    public Map<String, String[]> getDifferences() {
+        return differences;
+    }
+    
+    public boolean hasRegression() {
+        return metrics.stream().anyMatch(Metric::isRegression);
+    }
+    
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("Baseline:  ").append(baseline).append(System.lineSeparator());
+        report.append("Candidate: ").append(candidate).append(System.lineSeparator());
+        if (differences.isEmpty()) {
+            report.append("Same configuration and parameters").append(System.lineSeparator());
+        } else {
+            report.append("Differences:").append(System.lineSeparator());
+            for (Map.Entry<String, String[]> difference : differences.entrySet()) {
+                report.append(String.format(Locale.ROOT, "  %-28s %s -> %s%n", difference.getKey(),
+                    difference.getValue()[0], difference.getValue()[1]));
+            }
+        }
+        report.append(System.lineSeparator());
+        report.append(String.format(Locale.ROOT, "%-20s %24s %24s %9s %9s  %s%n",
+            "Metric", "Baseline mean (sd, n)", "Candidate mean (sd, n)", "Change", "p", "Verdict"));
+        for (Metric metric : metrics) {
+            report.append(metric.format()).append(System.lineSeparator());
+        }
+        report.append(String.format(Locale.ROOT, "Significance level %.3f, Welch's t-test on per-second samples%n", alpha));
+        return report.toString();
+    }
+    
+    private static Map<String, String[]> differences(RunRecord baseline, RunRecord candidate) {
+        Map<String, String[]> differences = new LinkedHashMap<>();
+        addDifference(differences, "kind", baseline.getKind(), candidate.getKind());
+        addDifference(differences, "tag", baseline.getTag(), candidate.getTag());
+        addDifference(differences, "description", baseline.getDescription(), candidate.getDescription());
+        addDifference(differences, "brokerUrl", baseline.getBrokerUrl(), candidate.getBrokerUrl());
+        addDifference(differences, "destination", baseline.getDestination(), candidate.getDestination());
+        addDifferences(differences, "", baseline.getParameters(), candidate.getParameters());
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> baselineConfiguration = baseline.getConfiguration() != null
+            ? objectMapper.convertValue(baseline.getConfiguration(), Map.class) : Map.of();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> candidateConfiguration = candidate.getConfiguration() != null
+            ? objectMapper.convertValue(candidate.getConfiguration(), Map.class) : Map.of();
+        addDifferences(differences, "", baselineConfiguration, candidateConfiguration);
+        return differences;
+    }
+    
+    private static void addDifferences(Map<String, String[]> differences, String prefix,
+                                       Map<String, Object> baseline, Map<String, Object> candidate) {
+        Set<String> names = new LinkedHashSet<>(baseline.keySet());
+        names.addAll(candidate.keySet());
+        for (String name : names) {
+            Object baselineValue = baseline.get(name);
+            Object candidateValue = candidate.get(name);
+            if (baselineValue instanceof Map && candidateValue instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> baselineMap = (Map<String, Object>) baselineValue;
+                @SuppressWarnings("unchecked")
+                Map<String, Object> candidateMap = (Map<String, Object>) candidateValue;
+                addDifferences(differences, prefix + name + ".", baselineMap, candidateMap);
+            } else {
+                addDifference(differences, prefix + name, baselineValue, candidateValue);
+            }
+        }
+    }
+    
+    private static void addDifference(Map<String, String[]> differences, String name, Object baseline, Object candidate) {
+        if (!Objects.equals(baseline, candidate)) {
+            differences.put(name, new String[] {String.valueOf(baseline), String.valueOf(candidate)});
+        }
+    }
+    
+    /**
+     * One compared metric.
+     */
+    public static class Metric {
+        private final String name;
+        private final boolean higherIsBetter;
+        private final Summary baseline;
+        private final Summary candidate;
+        private final double pValue;
+        private final boolean significant;
+        
+        private Metric(String name, boolean higherIsBetter, Summary baseline, Summary candidate, double pValue,
+                       boolean significant) {
+            this.name = name;
+            this.higherIsBetter = higherIsBetter;
+            this.baseline = baseline;
+            this.candidate = candidate;
+            this.pValue = pValue;
+            this.significant = significant;
+        }
+        
+        static Metric of(String name, boolean higherIsBetter, RunRecord baselineRun, RunRecord candidateRun,
+                         ToDoubleFunction<LoadRunSample> value, double alpha) {
+            Summary baseline = Summary.of(baselineRun.getSamples(), value);
+            Summary candidate = Summary.of(candidateRun.getSamples(), value);
+            if (baseline.count < MIN_SAMPLES || candidate.count < MIN_SAMPLES) {
+                return new Metric(name, higherIsBetter, baseline, candidate, Double.NaN, false);
+            }
+            double pValue = welchPValue(baseline, candidate);
+            return new Metric(name, higherIsBetter, baseline, candidate, pValue, pValue < alpha);
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public double getBaselineMean() {
+            return baseline.mean;
+        }
+        
+        public double getCandidateMean() {
+            return candidate.mean;
+        }
+        
+        /**
+         * Change of the candidate mean relative to the baseline, in percent.
+         */
+        public double getChangePercent() {
+            return baseline.mean == 0 ? 0 : 100 * (candidate.mean - baseline.mean) / baseline.mean;
+        }
+        
+        /**
+         * Two-sided p-value, or NaN when either run has too few samples.
+         */
+        public double getPValue() {
+            return pValue;
+        }
+        
+        public boolean isSignificant() {
+            return significant;
+        }
+        
+        public boolean isRegression() {
+            return significant && (higherIsBetter ? candidate.mean < baseline.mean : candidate.mean > baseline.mean);
+        }
+        
+        public String getVerdict() {
+            if (Double.isNaN(pValue)) {
+                return "not enough samples";
+            }
+            if (!significant) {
+                return "no significant change";
+            }
+            return isRegression() ? "REGRESSION" : "improvement";
+        }
+        
+        String format() {
+            return String.format(Locale.ROOT, "%-20s %24s %24s %8.1f%% %9s  %s", name, baseline, candidate,
+                getChangePercent(), Double.isNaN(pValue) ? "-" : String.format(Locale.ROOT, "%.4f", pValue), getVerdict());
+        }
+    }
+    
+    private static final class Summary {
+        private final int count;
+        private final double mean;
+        private final double variance;
+        
+        private Summary(int count, double mean, double variance) {
+            this.count = count;
+            this.mean = mean;
+            this.variance = variance;
+        }
+        
+        static Summary of(List<LoadRunSample> samples, ToDoubleFunction<LoadRunSample> value) {
+            int skip = samples.size() > 3 ? 1 : 0;
+            int count = samples.size() - skip;
+            if (count <= 0) {
+                return new Summary(0, 0, 0);
+            }
+            double sum = 0;
+            for (int i = skip; i < samples.size(); i++) {
+                sum += value.applyAsDouble(samples.get(i));
+            }
+            double mean = sum / count;
+            double squares = 0;
+            for (int i = skip; i < samples.size(); i++) {
+                double deviation = value.applyAsDouble(samples.get(i)) - mean;
+                squares += deviation * deviation;
+            }
+            return new Summary(count, mean, count > 1 ? squares / (count - 1) : 0);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%.1f (%.1f, %d)", mean, Math.sqrt(variance), count);
+        }
+    }
+    
+    // Statistics
+    
+    /**
+     * Two-sided p-value of Welch's t-test for a difference between the means.
+     */
+    static double welchPValue(Summary a, Summary b) {
+        double varianceA = a.variance / a.count;
+        double varianceB = b.variance / b.count;
+        double standardError = Math.sqrt(varianceA + varianceB);
+        if (standardError == 0) {
+            // Both runs constant: identical means or certainly different
+            return a.mean == b.mean ? 1 : 0;
+        }
+        double t = (a.mean - b.mean) / standardError;
+        // Welch-Satterthwaite degrees of freedom
+        double degreesOfFreedom = (varianceA + varianceB) * (varianceA + varianceB) /
+            (varianceA * varianceA / (a.count - 1) + varianceB * varianceB / (b.count - 1));
+        return regularizedIncompleteBeta(degreesOfFreedom / (degreesOfFreedom + t * t), degreesOfFreedom / 2, 0.5);
+    }
+    
+    /**
+     * I<sub>x</sub>(a, b), evaluated with the continued fraction of Numerical Recipes (section 6.4).
+     */
+    static double regularizedIncompleteBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b) + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+    
+    private static double betaContinuedFraction(double x, double a, double b) {
+        final double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double result = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            double numerator = m * (b - m) * x / ((a + m2 - 1) * (a + m2));
+            d = 1 / nonZero(1 + numerator * d, tiny);
+            c = nonZero(1 + numerator / c, tiny);
+            result *= d * c;
+            numerator = -(a + m) * (a + b + m) * x / ((a + m2) * (a + m2 + 1));
+            d = 1 / nonZero(1 + numerator * d, tiny);
+            c = nonZero(1 + numerator / c, tiny);
+            double step = d * c;
+            result *= step;
+            if (Math.abs(step - 1) < 1e-12) {
+                break;
+            }
+        }
+        return result;
+    }
+    
+    private static double nonZero(double value, double tiny) {
+        return Math.abs(value) < tiny ? tiny : value;
+    }
+    
+    /**
+     * Log of the gamma function for x &gt; 0, Lanczos approximation.
+     */
+    private static double logGamma(double x) {
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+            -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+}
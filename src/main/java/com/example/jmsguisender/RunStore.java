@@ -0,0 +1,135 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Local store of finished runs, one JSON file per run in {@code ~/.jms-gui-sender/runs}.
+ * <p>
+ * Run IDs are the local start time ({@code 20250601-101500}), with a counter appended when
+ * several runs start in the same second, so they sort in the order the runs were made.
+ */
+public class RunStore {
+    
+    private static final String FILE_SUFFIX = ".json";
+    private static final DateTimeFormatter ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    private final Path directory;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    
+    public RunStore(Path directory) {
+        this.directory = directory;
+    }
+    
+    /**
+     * The store in the configuration directory.
+     */
+    public static RunStore local() {
+        return new RunStore(ConfigurationManager.getRunsDirectory());
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Stores a run under a new ID, which is set on the record and returned.
+     */
+    public synchronized String save(RunRecord record) throws IOException {
+        Files.createDirectories(directory);
+        String base = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getStartedAt()), ZoneId.systemDefault())
+            .format(ID_FORMAT);
+        String id = base;
+        for (int i = 2; Files.exists(fileFor(id)); i++) {
+            id = base + "-" + i;
+        }
+        record.setId(id);
+        
+        Path target = fileFor(id);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        objectMapper.writeValue(temp.toFile(), record);
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target);
+        }
+        return id;
+    }
+    
+    /**
+     * @throws NoSuchFileException if there is no run with this ID
+     */
+    public RunRecord load(String id) throws IOException {
+        Path file = fileFor(id);
+        if (!Files.exists(file)) {
+            throw new NoSuchFileException(file.toString(), null, "No stored run '" + id + "'");
+        }
+        RunRecord record = objectMapper.readValue(file.toFile(), RunRecord.class);
+        record.setId(id);
+        return record;
+    }
+    
+    /**
+     * Every stored run, oldest first. Unreadable files are skipped.
+     */
+    public List<RunRecord> list() throws IOException {
+        List<RunRecord> records = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return records;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(FILE_SUFFIX)) {
+                    continue;
+                }
+                try {
+                    RunRecord record = objectMapper.readValue(file.toFile(), RunRecord.class);
+                    record.setId(name.substring(0, name.length() - FILE_SUFFIX.length()));
+                    records.add(record);
+                } catch (IOException e) {
+                    // Half written by a crash, or not a run
+                }
+            }
+        }
+        records.sort(Comparator.comparing(RunRecord::getId));
+        return records;
+    }
+    
+    private Path fileFor(String id) {
+        if (id.contains("/") || id.contains("\\") || id.contains("..")) {
+            throw new IllegalArgumentException("Invalid run ID: " + id);
+        }
+        return directory.resolve(id + FILE_SUFFIX);
+    }
+}
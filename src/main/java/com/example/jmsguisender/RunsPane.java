@@ -0,0 +1,167 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.ListChangeListener;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Runs tab: lists the runs kept in the {@link RunStore} and compares two of them for
+ * regressions, see {@link RunRegression}.
+ */
+public class RunsPane {
+    
+    private final RunStore store;
+    private final SendExecutor executor;
+    private final Consumer<String> log;
+    
+    private TextField alphaField;
+    private Button compareButton;
+    private Label statusLabel;
+    private TableView<RunRecord> runsTable;
+    private TextArea reportArea;
+    
+    /**
+     * @param executor reads the stored runs off the FX thread
+     * @param log      appends a line to the log area; called on the FX thread
+     */
+    public RunsPane(RunStore store, SendExecutor executor, Consumer<String> log) {
+        this.store = store;
+        this.executor = executor;
+        this.log = log;
+    }
+    
+    public VBox create() {
+        Label title = new Label("Stored Runs:");
+        title.setStyle("-fx-font-weight: bold;");
+        
+        Label hint = new Label("Load tests, adaptive runs, sweep cells and bulk sends are stored in " + store.getDirectory() +
+            ". Select two runs to compare; the older one is the baseline.");
+        
+        runsTable = new TableView<>();
+        runsTable.setPlaceholder(new Label("No stored runs"));
+        runsTable.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+        runsTable.getColumns().add(textColumn("Run", 150, RunRecord::getId));
+        runsTable.getColumns().add(textColumn("Kind", 80, RunRecord::getKind));
+        runsTable.getColumns().add(textColumn("Tag", 140, RunRecord::getTag));
+        runsTable.getColumns().add(textColumn("Description", 240,
+            record -> record.getDescription() + (record.isStopped() ? " (stopped)" : "")));
+        runsTable.getColumns().add(numberColumn("msg/s", record -> Math.round(record.getThroughput() * 10) / 10.0));
+        runsTable.getColumns().add(numberColumn("p99 ms",
+            record -> Math.round(record.getLatencyMillis().getOrDefault("p99", 0.0) * 1000) / 1000.0));
+        runsTable.getColumns().add(numberColumn("Failed", record -> (double) record.getFailed()));
+        runsTable.getSelectionModel().getSelectedItems().addListener(
+            (ListChangeListener<RunRecord>) change ->
+                compareButton.setDisable(runsTable.getSelectionModel().getSelectedItems().size() != 2));
+        
+        Button refreshButton = new Button("Refresh");
+        refreshButton.setOnAction(e -> refresh());
+        compareButton = new Button("Compare Selected");
+        compareButton.setDisable(true);
+        compareButton.setOnAction(e -> compare());
+        alphaField = new TextField(String.valueOf(RunRegression.DEFAULT_ALPHA));
+        alphaField.setPrefColumnCount(5);
+        
+        HBox buttonBox = new HBox(10);
+        buttonBox.setAlignment(Pos.CENTER_LEFT);
+        buttonBox.getChildren().addAll(refreshButton, compareButton, new Label("Significance level:"), alphaField);
+        
+        statusLabel = new Label("");
+        
+        reportArea = new TextArea();
+        reportArea.setEditable(false);
+        reportArea.setPrefRowCount(12);
+        reportArea.setStyle("-fx-font-family: monospace;");
+        
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+        root.getChildren().addAll(title, hint, runsTable, buttonBox, statusLabel, reportArea);
+        VBox.setVgrow(runsTable, Priority.ALWAYS);
+        return root;
+    }
+    
+    private static TableColumn<RunRecord, String> textColumn(String name, double width, Function<RunRecord, String> value) {
+        TableColumn<RunRecord, String> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new ReadOnlyStringWrapper(value.apply(cellData.getValue())));
+        column.setPrefWidth(width);
+        return column;
+    }
+    
+    private static TableColumn<RunRecord, Double> numberColumn(String name, Function<RunRecord, Double> value) {
+        TableColumn<RunRecord, Double> column = new TableColumn<>(name);
+        column.setCellValueFactory(cellData -> new ReadOnlyObjectWrapper<>(value.apply(cellData.getValue())));
+        column.setPrefWidth(90);
+        column.setStyle("-fx-alignment: CENTER-RIGHT;");
+        return column;
+    }
+    
+    /**
+     * Reloads the stored runs.
+     */
+    public void refresh() {
+        executor.submit("Load stored runs", () -> {
+            List<RunRecord> records = store.list();
+            Platform.runLater(() -> {
+                runsTable.getItems().setAll(records);
+                statusLabel.setText(records.size() + " stored run(s)");
+            });
+        }, e -> Platform.runLater(() -> log.accept("ERROR: Failed to read stored runs: " + e.getMessage())));
+    }
+    
+    private void compare() {
+        double alpha;
+        try {
+            alpha = Double.parseDouble(alphaField.getText().trim());
+        } catch (NumberFormatException e) {
+            log.accept("ERROR: Invalid significance level: " + alphaField.getText());
+            return;
+        }
+        List<RunRecord> selected = new ArrayList<>(runsTable.getSelectionModel().getSelectedItems());
+        if (selected.size() != 2) {
+            return;
+        }
+        selected.sort(Comparator.comparingLong(RunRecord::getStartedAt));
+        try {
+            RunRegression regression = RunRegression.compare(selected.get(0), selected.get(1), alpha);
+            reportArea.setText(regression.report());
+            statusLabel.setText(regression.hasRegression()
+                ? "Significant regression in " + selected.get(1).getId()
+                : "No significant regression in " + selected.get(1).getId());
+        } catch (IllegalArgumentException e) {
+            log.accept("ERROR: " + e.getMessage());
+        }
+    }
+}
@@ -18,17 +18,41 @@ package com.example.jmsguisender;
 import javax.net.ssl.*;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 
 public class SSLContextHelper {
     
+    private static final int JKS_MAGIC = 0xFEEDFEED;
+    private static final int JCEKS_MAGIC = 0xCECECECE;
+    private static final int DER_SEQUENCE_TAG = 0x30;
+    private static final int HEADER_LENGTH = 32;
+    
     public static SSLContext createSSLContext(ServerConfiguration config) throws Exception {
         if (!config.isUseSsl()) {
             return null;
         }
         
+        JmsEvents.SslContextEvent event = new JmsEvents.SslContextEvent();
+        event.begin();
+        try {
+            return buildSSLContext(config);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.trustStore = config.getTrustStorePath();
+                event.keyStore = config.getKeyStorePath();
+                event.skipValidation = config.isSkipCertificateValidation();
+                event.commit();
+            }
+        }
+    }
+    
+    private static SSLContext buildSSLContext(ServerConfiguration config) throws Exception {
         SSLContext sslContext = SSLContext.getInstance("TLS");
         
         // Create key manager if keystore is provided
@@ -70,8 +94,8 @@ public class SSLContextHelper {
     }
     
     private static TrustManager[] createTrustManagers(String trustStorePath, String trustStorePassword) throws Exception {
-        // Check if it's a PEM file
-        if (PEMCertificateHelper.isPEMFile(trustStorePath)) {
+        // Check if it's a PEM file, by extension or by content
+        if (isPEMTrustStore(trustStorePath)) {
             return PEMCertificateHelper.createTrustManagersFromPEM(trustStorePath);
         } else {
             // Handle as keystore (JKS, PKCS12, etc.)
@@ -84,6 +108,13 @@ public class SSLContextHelper {
         }
     }
     
+    /**
+     * Whether the trust store is a PEM certificate bundle, by extension or by content.
+     */
+    static boolean isPEMTrustStore(String trustStorePath) {
+        return PEMCertificateHelper.isPEMFile(trustStorePath) || PEMCertificateHelper.hasPEMContent(readHeader(trustStorePath));
+    }
+    
     private static TrustManager[] createTrustAllTrustManagers() {
         return new TrustManager[]{
             new X509TrustManager() {
@@ -117,7 +148,24 @@ public class SSLContextHelper {
         return keyStore;
     }
     
-    private static String detectKeyStoreType(String path) {
+    /**
+     * Detects the keystore type from the file's magic bytes, falling back to the
+     * file extension when the content is not recognised (or cannot be read).
+     */
+    static String detectKeyStoreType(String path) {
+        byte[] header = readHeader(path);
+        if (header.length >= 4) {
+            int magic = ((header[0] & 0xFF) << 24) | ((header[1] & 0xFF) << 16) | ((header[2] & 0xFF) << 8) | (header[3] & 0xFF);
+            if (magic == JKS_MAGIC) {
+                return "JKS";
+            } else if (magic == JCEKS_MAGIC) {
+                return "JCEKS";
+            } else if ((header[0] & 0xFF) == DER_SEQUENCE_TAG) {
+                // PKCS12 files are a DER encoded PFX structure, which starts with a SEQUENCE
+                return "PKCS12";
+            }
+        }
+        
         String lowerPath = path.toLowerCase();
         if (lowerPath.endsWith(".p12") || lowerPath.endsWith(".pfx")) {
             return "PKCS12";
@@ -129,6 +177,14 @@ public class SSLContextHelper {
         }
     }
     
+    private static byte[] readHeader(String path) {
+        try (InputStream in = Files.newInputStream(Paths.get(path))) {
+            return in.readNBytes(HEADER_LENGTH);
+        } catch (IOException | RuntimeException e) {
+            return new byte[0];
+        }
+    }
+    
     public static HostnameVerifier createHostnameVerifier(boolean skipValidation) {
         if (skipValidation) {
             return (hostname, session) -> true; // Accept all hostnames - USE ONLY FOR DEVELOPMENT
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Runs sends and other broker work on virtual threads, keeping a handle on every running task so it
+ * can be cancelled, and shutting down in order when the application closes.
+ * <p>
+ * Cancelling interrupts the task's thread, which makes a blocked JMS send or connect fail with an
+ * exception; tasks that loop (load runs, spool resends) also get a stop action to finish cleanly.
+ */
+public class SendExecutor {
+    
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("jms-send-", 0).factory());
+    private final Set<TaskHandle> running = ConcurrentHashMap.newKeySet();
+    private volatile Consumer<Integer> runningCountListener = count -> { };
+    
+    /**
+     * A task that may throw, like a JMS send.
+     */
+    @FunctionalInterface
+    public interface Task {
+        void run() throws Exception;
+    }
+    
+    /**
+     * Sets the callback receiving the number of running tasks whenever it changes, from the task threads.
+     */
+    public void setRunningCountListener(Consumer<Integer> runningCountListener) {
+        this.runningCountListener = runningCountListener != null ? runningCountListener : count -> { };
+    }
+    
+    /**
+     * Submits a task.
+     *
+     * @param description shown when listing or cancelling tasks
+     * @param task        the work; exceptions are handed to {@code onError}
+     * @param onError     receives the task's exception, or {@code null} to ignore it
+     * @return the handle to cancel the task with
+     * @throws RejectedExecutionException after {@link #shutdown(long, TimeUnit)}
+     */
+    public TaskHandle submit(String description, Task task, Consumer<Exception> onError) {
+        return submit(description, task, onError, null);
+    }
+    
+    /**
+     * Submits a task that has its own way of stopping, e.g. {@link RateScheduler#stop()}, which
+     * {@link TaskHandle#cancel()} calls before interrupting the task.
+     */
+    public TaskHandle submit(String description, Task task, Consumer<Exception> onError, Runnable stopAction) {
+        TaskHandle handle = new TaskHandle(description, stopAction);
+        // The future is set before the handle is published, so that cancel() always reaches it
+        handle.future = new FutureTask<Void>(() -> {
+            if (!handle.settled.compareAndSet(false, true)) {
+                // Cancelled before it started, and already reported
+                return null;
+            }
+            try {
+                if (handle.cancelled) {
+                    throw new InterruptedException("Cancelled");
+                }
+                task.run();
+            } catch (Exception e) {
+                if (onError != null) {
+                    onError.accept(handle.cancelled && !(e instanceof InterruptedException)
+                        ? new InterruptedException("Cancelled: " + e.getMessage()) : e);
+                }
+            }
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled() && handle.settled.compareAndSet(false, true) && onError != null) {
+                    // The task never ran
+                    onError.accept(new InterruptedException("Cancelled"));
+                }
+                running.remove(handle);
+                runningCountListener.accept(running.size());
+            }
+        };
+        running.add(handle);
+        runningCountListener.accept(running.size());
+        try {
+            executor.execute(handle.future);
+        } catch (RejectedExecutionException e) {
+            running.remove(handle);
+            runningCountListener.accept(running.size());
+            throw e;
+        }
+        return handle;
+    }
+    
+    public List<TaskHandle> getRunningTasks() {
+        return new ArrayList<>(running);
+    }
+    
+    /**
+     * Cancels every running task.
+     *
+     * @return the number of tasks cancelled
+     */
+    public int cancelAll() {
+        List<TaskHandle> tasks = getRunningTasks();
+        tasks.forEach(TaskHandle::cancel);
+        return tasks.size();
+    }
+    
+    /**
+     * Stops accepting tasks and waits for the running ones to finish, cancelling them if they take
+     * longer than the grace period.
+     *
+     * @return {@code true} if every task finished
+     */
+    public boolean shutdown(long gracePeriod, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (executor.awaitTermination(gracePeriod, unit)) {
+                return true;
+            }
+            cancelAll();
+            executor.shutdownNow();
+            return executor.awaitTermination(gracePeriod, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            return false;
+        }
+    }
+    
+    /**
+     * Handle on a submitted task.
+     */
+    public static class TaskHandle {
+        private final String description;
+        private final Runnable stopAction;
+        private volatile FutureTask<Void> future;
+        private volatile boolean cancelled;
+        /** Set once the task started, or its cancellation before it started was reported. */
+        private final AtomicBoolean settled = new AtomicBoolean();
+        
+        TaskHandle(String description, Runnable stopAction) {
+            this.description = description;
+            this.stopAction = stopAction;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        public boolean isDone() {
+            return future.isDone();
+        }
+        
+        /**
+         * Runs the stop action, if any, and interrupts the task.
+         */
+        public void cancel() {
+            cancelled = true;
+            if (stopAction != null) {
+                stopAction.run();
+            }
+            future.cancel(true);
+        }
+        
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searchable history of sent messages, indexed over the {@link SendJournal}.
+ * <p>
+ * The journal stays the only copy of the messages; the index keeps, per record, its segment
+ * and offset, timestamp and destination number in parallel arrays, plus sorted posting lists
+ * of record numbers per destination and per {@code name=value} property. A search walks the
+ * shortest posting list of its terms, checks the others, the time range and any wildcard
+ * destinations on each candidate, and only reads the records it returns from disk, so it
+ * takes milliseconds over millions of records.
+ * <p>
+ * {@link #refresh()} indexes the records appended since the previous refresh, and forgets
+ * those in segments deleted by the journal's size cap.
+ */
+public class SendHistory {
+    
+    public static final int DEFAULT_LIMIT = 1000;
+    
+    private final Path directory;
+    
+    private long[] positions = new long[1024];
+    private long[] timestamps = new long[1024];
+    private int[] destinations = new int[1024];
+    private int size;
+    // Records before this one are in deleted segments
+    private int first;
+    private final Map<String, Integer> destinationNumbers = new HashMap<>();
+    private final List<IntList> byDestination = new ArrayList<>();
+    private final Map<String, IntList> byProperty = new HashMap<>();
+    
+    private long lastSegment;
+    private int lastOffset;
+    
+    public SendHistory(Path directory) {
+        this.directory = directory;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    /**
+     * Number of records indexed.
+     */
+    public synchronized int size() {
+        return size - first;
+    }
+    
+    /**
+     * Indexes the records written since the previous refresh.
+     *
+     * @return the number of records added to the index
+     */
+    public synchronized int refresh() throws IOException {
+        List<Path> segments = SendJournal.listSegments(directory);
+        if (segments.isEmpty() || SendJournal.segmentIndex(segments.get(segments.size() - 1)) < lastSegment) {
+            // The journal was deleted or started over
+            clear();
+            if (segments.isEmpty()) {
+                return 0;
+            }
+        }
+        
+        long oldest = SendJournal.segmentIndex(segments.get(0));
+        while (first < size && segmentOf(first) < oldest) {
+            first++;
+        }
+        if (first > 0 && first >= size / 2) {
+            compact();
+        }
+        
+        int before = size;
+        for (Path path : segments) {
+            long segment = SendJournal.segmentIndex(path);
+            if (segment < lastSegment) {
+                continue;
+            }
+            int from = segment == lastSegment ? lastOffset : 0;
+            try {
+                lastOffset = SendJournal.readSegment(path, from, false, (offset, record) -> add(segment, offset, record));
+            } catch (NoSuchFileException e) {
+                // Deleted by the size cap while listing
+                continue;
+            }
+            lastSegment = segment;
+        }
+        return size - before;
+    }
+    
+    /**
+     * Finds sent messages, newest first.
+     *
+     * @param destination destination names or wildcard patterns, comma separated; {@code null} or empty for any
+     * @param from        earliest timestamp, inclusive, in epoch millis
+     * @param to          latest timestamp, exclusive, in epoch millis
+     * @param properties  property values the messages must all have, compared as strings
+     * @param limit       the maximum number of records to return
+     */
+    public synchronized Result search(String destination, long from, long to, Map<String, String> properties,
+                                      int limit) throws IOException {
+        long start = System.nanoTime();
+        
+        List<IntList> terms = new ArrayList<>();
+        // Several destinations are checked per candidate rather than merged into one posting list
+        boolean[] accepted = null;
+        if (destination != null && !destination.isBlank()) {
+            Set<Integer> numbers = matchingDestinations(DestinationPattern.split(destination));
+            if (numbers.size() == 1) {
+                terms.add(byDestination.get(numbers.iterator().next()));
+            } else {
+                accepted = new boolean[byDestination.size()];
+                for (int number : numbers) {
+                    accepted[number] = true;
+                }
+                if (numbers.isEmpty()) {
+                    terms.add(new IntList());
+                }
+            }
+        }
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            IntList postings = byProperty.get(propertyKey(property.getKey(), property.getValue()));
+            terms.add(postings != null ? postings : new IntList());
+        }
+        terms.sort(Comparator.comparingInt(postings -> postings.size));
+        
+        // Walk the shortest posting list (or every record) backwards, so the newest come first
+        IntList driver = terms.isEmpty() ? null : terms.get(0);
+        int matches = 0;
+        List<Integer> hits = new ArrayList<>();
+        int end = driver != null ? driver.size : size;
+        int stop = driver != null ? driver.lowerBound(first) : first;
+        for (int i = end - 1; i >= stop; i--) {
+            int id = driver != null ? driver.data[i] : i;
+            long timestamp = timestamps[id];
+            if (timestamp < from || timestamp >= to || (accepted != null && !accepted[destinations[id]]) ||
+                !inAll(terms, id)) {
+                continue;
+            }
+            matches++;
+            if (hits.size() < limit) {
+                hits.add(id);
+            }
+        }
+        
+        List<JournalRecord> records = new ArrayList<>(hits.size());
+        Map<Long, ByteBuffer> segments = new HashMap<>();
+        for (int id : hits) {
+            long segment = segmentOf(id);
+            try {
+                ByteBuffer buffer = segments.get(segment);
+                if (buffer == null) {
+                    buffer = SendJournal.mapSegment(SendJournal.segmentPath(directory, segment));
+                    segments.put(segment, buffer);
+                }
+                records.add(SendJournal.readAt(buffer, (int) positions[id]));
+            } catch (NoSuchFileException e) {
+                // Deleted by the size cap since the last refresh
+                matches--;
+            }
+        }
+        return new Result(records, matches, System.nanoTime() - start);
+    }
+    
+    private void add(long segment, int offset, JournalRecord record) {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, size * 2);
+            timestamps = Arrays.copyOf(timestamps, size * 2);
+            destinations = Arrays.copyOf(destinations, size * 2);
+        }
+        int id = size++;
+        positions[id] = segment << 32 | (offset & 0xFFFFFFFFL);
+        timestamps[id] = record.getTimestamp();
+        
+        Integer number = destinationNumbers.get(record.getDestination());
+        if (number == null) {
+            number = byDestination.size();
+            destinationNumbers.put(record.getDestination(), number);
+            byDestination.add(new IntList());
+        }
+        destinations[id] = number;
+        byDestination.get(number).add(id);
+        for (Map.Entry<String, Object> property : record.getProperties().entrySet()) {
+            String name = property.getKey();
+            // Values unique to each message would only bloat the index
+            if (name.startsWith("JMSX") || name.startsWith("JMS_") || name.equals("timestamp") ||
+                name.equals(JMSSender.MESSAGE_ID_PROPERTY) || name.equals(JMSSender.DUPLICATE_ID_PROPERTY)) {
+                continue;
+            }
+            byProperty.computeIfAbsent(propertyKey(name, String.valueOf(property.getValue())), key -> new IntList()).add(id);
+        }
+    }
+    
+    private long segmentOf(int id) {
+        return positions[id] >>> 32;
+    }
+    
+    private Set<Integer> matchingDestinations(List<String> patterns) {
+        Set<Integer> numbers = new LinkedHashSet<>();
+        for (String pattern : patterns) {
+            if (!DestinationPattern.isWildcard(pattern)) {
+                Integer number = destinationNumbers.get(pattern);
+                if (number != null) {
+                    numbers.add(number);
+                }
+                continue;
+            }
+            for (Map.Entry<String, Integer> entry : destinationNumbers.entrySet()) {
+                if (DestinationPattern.matches(pattern, entry.getKey())) {
+                    numbers.add(entry.getValue());
+                }
+            }
+        }
+        return numbers;
+    }
+    
+    private static boolean inAll(List<IntList> terms, int id) {
+        for (int i = 1; i < terms.size(); i++) {
+            if (!terms.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String propertyKey(String name, String value) {
+        // Property names are Java identifiers, so cannot contain '='
+        return name + "=" + value;
+    }
+    
+    /**
+     * Drops the records of deleted segments from the arrays and renumbers the rest.
+     */
+    private void compact() {
+        positions = Arrays.copyOfRange(positions, first, Math.max(first + 1024, positions.length));
+        timestamps = Arrays.copyOfRange(timestamps, first, Math.max(first + 1024, timestamps.length));
+        destinations = Arrays.copyOfRange(destinations, first, Math.max(first + 1024, destinations.length));
+        size -= first;
+        // Destinations keep their numbers, even without records left
+        for (IntList postings : byDestination) {
+            postings.dropBefore(first);
+        }
+        int shift = first;
+        byProperty.values().removeIf(postings -> {
+            postings.dropBefore(shift);
+            return postings.size == 0;
+        });
+        first = 0;
+    }
+    
+    private void clear() {
+        positions = new long[1024];
+        timestamps = new long[1024];
+        destinations = new int[1024];
+        size = 0;
+        first = 0;
+        destinationNumbers.clear();
+        byDestination.clear();
+        byProperty.clear();
+        lastSegment = 0;
+        lastOffset = 0;
+    }
+    
+    // Query parsing
+    
+    /**
+     * Parses a point in time for a search: an ISO instant ({@code 2025-06-01T10:00:00Z}), a local
+     * date and time ({@code 2025-06-01T10:00}) or date ({@code 2025-06-01}), {@code today},
+     * {@code yesterday}, or a duration before now such as {@code 30m}, {@code 2h} or {@code 7d}.
+     */
+    public static long parseTime(String text, long now, ZoneId zone) {
+        String value = text.trim();
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        if (value.equalsIgnoreCase("now")) {
+            return now;
+        }
+        if (value.equalsIgnoreCase("today")) {
+            return today.atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        if (value.equalsIgnoreCase("yesterday")) {
+            return today.minusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        if (value.matches("\\d+[smhd]")) {
+            long amount = Long.parseLong(value.substring(0, value.length() - 1));
+            TimeUnit unit = switch (value.charAt(value.length() - 1)) {
+                case 's' -> TimeUnit.SECONDS;
+                case 'm' -> TimeUnit.MINUTES;
+                case 'h' -> TimeUnit.HOURS;
+                default -> TimeUnit.DAYS;
+            };
+            return now - unit.toMillis(amount);
+        }
+        try {
+            if (value.endsWith("Z") || value.matches(".*[+-]\\d\\d:\\d\\d$")) {
+                return Instant.parse(value).toEpochMilli();
+            }
+            if (value.contains("T")) {
+                return LocalDateTime.parse(value).atZone(zone).toInstant().toEpochMilli();
+            }
+            return LocalDate.parse(value).atStartOfDay(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time '" + text + "', expected an ISO date or time, " +
+                "today, yesterday, or a duration such as 2h or 7d");
+        }
+    }
+    
+    /**
+     * Parses {@code name=value} pairs separated by commas.
+     */
+    public static Map<String, String> parseProperties(String text) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        if (text == null) {
+            return properties;
+        }
+        for (String pair : text.split(",")) {
+            if (pair.isBlank()) {
+                continue;
+            }
+            int equals = pair.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected NAME=VALUE, got: " + pair.trim());
+            }
+            properties.put(pair.substring(0, equals).trim(), pair.substring(equals + 1).trim());
+        }
+        return properties;
+    }
+    
+    /**
+     * The records found by a search.
+     */
+    public static class Result {
+        private final List<JournalRecord> records;
+        private final int matches;
+        private final long elapsedNanos;
+        
+        Result(List<JournalRecord> records, int matches, long elapsedNanos) {
+            this.records = Collections.unmodifiableList(records);
+            this.matches = matches;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        /** The newest matching records, up to the search limit. */
+        public List<JournalRecord> getRecords() {
+            return records;
+        }
+        
+        /** The number of matching records, including those beyond the limit. */
+        public int getMatches() {
+            return matches;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+    
+    /**
+     * Growable, ascending list of record numbers.
+     */
+    private static class IntList {
+        private int[] data = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == data.length) {
+                data = Arrays.copyOf(data, size * 2);
+            }
+            data[size++] = value;
+        }
+        
+        boolean contains(int value) {
+            return Arrays.binarySearch(data, 0, size, value) >= 0;
+        }
+        
+        /** Index of the first value at least {@code value}. */
+        int lowerBound(int value) {
+            int index = Arrays.binarySearch(data, 0, size, value);
+            return index >= 0 ? index : -index - 1;
+        }
+        
+        /** Removes the values below {@code shift} and subtracts it from the others. */
+        void dropBefore(int shift) {
+            int start = lowerBound(shift);
+            int remaining = size - start;
+            for (int i = 0; i < remaining; i++) {
+                data[i] = data[start + i] - shift;
+            }
+            size = remaining;
+        }
+    }
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of sent messages, written to memory-mapped segment files.
+ * <p>
+ * Each segment starts with an 8 byte header (magic, format version) followed by
+ * records laid out as:
+ * <pre>
+ * int     body length
+ * byte    flags (1 = topic, 2 = payload included)
+ * long    timestamp (epoch millis)
+ * string  message id
+ * string  destination
+ * short   property count, then per property: string name, byte type, value
+ * int     payload size in bytes
+ * byte[32] SHA-256 of the payload
+ * byte[]  payload (only when flag 2 is set)
+ * int     CRC32C of the body
+ * </pre>
+ * Strings are an int byte length (-1 for null) followed by UTF-8 bytes. A zero
+ * body length marks the end of the written part of a segment; the length is
+ * written last, so a record interrupted by a crash is never read back.
+ * <p>
+ * Records are encoded and hashed on the calling thread; only the copy into the
+ * mapped segment is serialized, which keeps the cost per send in the low
+ * microseconds.
+ * <p>
+ * With a maximum size, the oldest segments are deleted whenever a new segment is
+ * started and the journal has grown past it. A segment that cannot be deleted yet,
+ * e.g. on Windows while a reader or a not yet collected mapping still holds it, is
+ * reported to the warning listener and tried again at the next new segment.
+ * {@link SendHistory} indexes the records by their segment and offset.
+ */
+public class SendJournal implements Closeable {
+    
+    public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+    
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final int SEGMENT_MAGIC = 0x534A4E4C; // "SJNL"
+    private static final int FORMAT_VERSION = 1;
+    private static final int SEGMENT_HEADER_SIZE = 8;
+    private static final int HASH_SIZE = 32;
+    
+    private static final byte FLAG_TOPIC = 1;
+    private static final byte FLAG_PAYLOAD = 2;
+    
+    private static final byte TYPE_STRING = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_BOOLEAN = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_FLOAT = 5;
+    private static final byte TYPE_SHORT = 6;
+    private static final byte TYPE_BYTE = 7;
+    
+    private static final ThreadLocal<Encoder> ENCODER = ThreadLocal.withInitial(Encoder::new);
+    
+    private final Path directory;
+    private final boolean includePayload;
+    private final long segmentSize;
+    
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private boolean closed;
+    private long maxSize;
+    private boolean deleteFailing;
+    private volatile Consumer<String> warningListener = warning -> { };
+    
+    private SendJournal(Path directory, boolean includePayload, long segmentSize) {
+        this.directory = directory;
+        this.includePayload = includePayload;
+        this.segmentSize = segmentSize;
+    }
+    
+    public static SendJournal open(Path directory, boolean includePayload) throws IOException {
+        return open(directory, includePayload, DEFAULT_SEGMENT_SIZE);
+    }
+    
+    /**
+     * Opens the journal in {@code directory}, continuing after the last record of the
+     * newest segment if the directory already holds a journal.
+     */
+    public static SendJournal open(Path directory, boolean includePayload, long segmentSize) throws IOException {
+        Files.createDirectories(directory);
+        SendJournal journal = new SendJournal(directory, includePayload, segmentSize);
+        
+        List<Path> segments = listSegments(directory);
+        if (segments.isEmpty()) {
+            journal.startSegment(1, segmentSize);
+        } else {
+            journal.resumeSegment(segments.get(segments.size() - 1));
+        }
+        return journal;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public boolean isIncludePayload() {
+        return includePayload;
+    }
+    
+    /**
+     * Caps the total size of the segment files, 0 for no limit. The current segment is never
+     * deleted, so the journal can exceed the cap by up to one segment.
+     */
+    public synchronized void setMaxSize(long maxSize) throws IOException {
+        this.maxSize = maxSize;
+        deleteOldSegments();
+    }
+    
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+    
+    /**
+     * Sets the callback receiving old segments that could not be deleted, from the appending thread.
+     */
+    public void setWarningListener(Consumer<String> warningListener) {
+        this.warningListener = warningListener != null ? warningListener : warning -> { };
+    }
+    
+    /**
+     * Appends one sent message. {@code properties} are the JMS properties that were set
+     * on the message; values must be JMS property types, anything else is stored as a string.
+     */
+    public void append(long timestamp, String messageId, String destination, boolean isTopic,
+                       Map<String, Object> properties, String payload) throws IOException {
+        Encoder encoder = ENCODER.get();
+        ByteBuffer record = encoder.encode(timestamp, messageId, destination, isTopic, properties, payload, includePayload);
+        
+        synchronized (this) {
+            if (closed) {
+                throw new IOException("Journal is closed: " + directory);
+            }
+            if (segment.remaining() < record.remaining() + Integer.BYTES) {
+                // Keep room for the zero length end marker, unless the segment is fresh and the record is oversized
+                startSegment(segmentIndex + 1, Math.max(segmentSize, SEGMENT_HEADER_SIZE + record.remaining() + Integer.BYTES));
+            }
+            int start = segment.position();
+            segment.position(start + Integer.BYTES);
+            record.position(Integer.BYTES);
+            segment.put(record);
+            // Publish the record by writing its length last
+            segment.putInt(start, record.limit() - 2 * Integer.BYTES);
+        }
+    }
+    
+    /**
+     * Flushes the current segment to disk.
+     */
+    public synchronized void force() {
+        if (!closed) {
+            segment.force();
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        segment.force();
+        segment = null;
+        channel.close();
+    }
+    
+    private void startSegment(long index, long size) throws IOException {
+        if (channel != null) {
+            segment.force();
+            // Java cannot unmap a buffer: dropping it lets the next GC release the mapping
+            segment = null;
+            channel.close();
+        }
+        Path path = directory.resolve(segmentName(index));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        segment.putInt(SEGMENT_MAGIC);
+        segment.putInt(FORMAT_VERSION);
+        segmentIndex = index;
+        deleteOldSegments();
+    }
+    
+    /**
+     * Deletes the oldest segments while the journal is larger than the maximum size. Failures are
+     * reported, once until a deletion succeeds again, and do not fail the append that started a segment.
+     */
+    private void deleteOldSegments() {
+        if (maxSize <= 0) {
+            return;
+        }
+        Path path = null;
+        try {
+            List<Path> segments = listSegments(directory);
+            long total = 0;
+            for (Path segmentPath : segments) {
+                total += Files.size(segmentPath);
+            }
+            for (Path segmentPath : segments) {
+                if (total <= maxSize || segmentIndex(segmentPath) >= segmentIndex) {
+                    break;
+                }
+                path = segmentPath;
+                long size = Files.size(path);
+                Files.deleteIfExists(path);
+                total -= size;
+            }
+            deleteFailing = false;
+        } catch (IOException e) {
+            if (!deleteFailing) {
+                deleteFailing = true;
+                warningListener.accept("Failed to delete old journal segment" + (path != null ? " " + path : "") +
+                    ", trying again at the next segment: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void resumeSegment(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        checkHeader(segment, path);
+        segment.position(endOfRecords(segment));
+        segmentIndex = segmentIndex(path);
+    }
+    
+    // Reading
+    
+    /**
+     * Reads every record of the journal in {@code directory}, oldest first.
+     */
+    public static void read(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        for (Path path : listSegments(directory)) {
+            readSegment(path, consumer);
+        }
+    }
+    
+    public static void readSegment(Path path, Consumer<JournalRecord> consumer) throws IOException {
+        readSegment(path, 0, true, (offset, record) -> consumer.accept(record));
+    }
+    
+    /**
+     * Reads the records of a segment from {@code fromOffset} on (0 for the first record), passing
+     * each with its offset in the segment. Without {@code withPayload} payloads are skipped, which
+     * is faster when only the other fields are needed.
+     *
+     * @return the offset after the last record read, to continue from once more records are written
+     */
+    public static int readSegment(Path path, int fromOffset, boolean withPayload, RecordVisitor visitor) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            checkHeader(buffer, path);
+            if (fromOffset > SEGMENT_HEADER_SIZE) {
+                buffer.position(fromOffset);
+            }
+            
+            while (true) {
+                int offset = buffer.position();
+                JournalRecord record = readRecord(buffer, withPayload);
+                if (record == null) {
+                    return offset;
+                }
+                visitor.visit(offset, record);
+            }
+        }
+    }
+    
+    /**
+     * Reads the record at {@code offset} of a segment, as passed to a {@link RecordVisitor}.
+     */
+    public static JournalRecord readAt(Path path, int offset) throws IOException {
+        return readAt(mapSegment(path), offset);
+    }
+    
+    /**
+     * Maps a segment for reading, to read several records with {@link #readAt(ByteBuffer, int)}.
+     */
+    public static ByteBuffer mapSegment(Path path) throws IOException {
+        try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size());
+            checkHeader(buffer.duplicate(), path);
+            return buffer;
+        }
+    }
+    
+    public static JournalRecord readAt(ByteBuffer segment, int offset) throws IOException {
+        if (offset < SEGMENT_HEADER_SIZE || offset >= segment.limit()) {
+            throw new IOException("No journal record at offset " + offset);
+        }
+        JournalRecord record = readRecord(segment.duplicate().position(offset), true);
+        if (record == null) {
+            throw new IOException("No journal record at offset " + offset);
+        }
+        return record;
+    }
+    
+    public static List<Path> listSegments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(path -> {
+                    String name = path.getFileName().toString();
+                    return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                })
+                .sorted()
+                .toList();
+        }
+    }
+    
+    private static void checkHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.remaining() < SEGMENT_HEADER_SIZE || buffer.getInt() != SEGMENT_MAGIC) {
+            throw new IOException("Not a journal segment: " + path);
+        }
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported journal format version " + version + " in " + path);
+        }
+    }
+    
+    private static int endOfRecords(ByteBuffer buffer) {
+        ByteBuffer scan = buffer.duplicate();
+        while (readRecord(scan, false) != null) {
+            // Skip to the end of the written records
+        }
+        return scan.position();
+    }
+    
+    /**
+     * Decodes the record at the buffer's position, or returns {@code null} (leaving the
+     * position unchanged) at the end of the written records or at a damaged record.
+     */
+    private static JournalRecord readRecord(ByteBuffer buffer, boolean withPayload) {
+        int start = buffer.position();
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining() - Integer.BYTES) {
+            buffer.position(start);
+            return null;
+        }
+        
+        ByteBuffer body = buffer.slice(start + Integer.BYTES, length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES + length)) {
+            buffer.position(start);
+            return null;
+        }
+        
+        byte flags = body.get();
+        long timestamp = body.getLong();
+        String messageId = readString(body);
+        String destination = readString(body);
+        int propertyCount = body.getShort() & 0xFFFF;
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            String name = readString(body);
+            properties.put(name, readValue(body));
+        }
+        int payloadSize = body.getInt();
+        byte[] hash = new byte[HASH_SIZE];
+        body.get(hash);
+        String payload = null;
+        if ((flags & FLAG_PAYLOAD) != 0 && withPayload) {
+            byte[] payloadBytes = new byte[payloadSize];
+            body.get(payloadBytes);
+            payload = new String(payloadBytes, StandardCharsets.UTF_8);
+        }
+        
+        buffer.position(start + 2 * Integer.BYTES + length);
+        return new JournalRecord(timestamp, messageId, destination, (flags & FLAG_TOPIC) != 0,
+            properties, payloadSize, hash, payload);
+    }
+    
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    private static Object readValue(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case TYPE_INT:
+                return buffer.getInt();
+            case TYPE_LONG:
+                return buffer.getLong();
+            case TYPE_BOOLEAN:
+                return buffer.get() != 0;
+            case TYPE_DOUBLE:
+                return buffer.getDouble();
+            case TYPE_FLOAT:
+                return buffer.getFloat();
+            case TYPE_SHORT:
+                return buffer.getShort();
+            case TYPE_BYTE:
+                return buffer.get();
+            default:
+                return readString(buffer);
+        }
+    }
+    
+    public static Path segmentPath(Path directory, long index) {
+        return directory.resolve(segmentName(index));
+    }
+    
+    private static String segmentName(long index) {
+        return String.format(Locale.ROOT, "%s%010d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+    
+    /**
+     * The sequence number of a segment, increasing from 1 in the order segments are written.
+     */
+    public static long segmentIndex(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+    
+    /**
+     * Receives records with their offset in the segment.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        void visit(int offset, JournalRecord record);
+    }
+    
+    /**
+     * Per-thread record encoder with a reusable buffer and digest.
+     */
+    private static class Encoder {
+        private final MessageDigest digest;
+        private final CRC32C crc = new CRC32C();
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+        
+        Encoder() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+        
+        ByteBuffer encode(long timestamp, String messageId, String destination, boolean isTopic,
+                          Map<String, Object> properties, String payload, boolean includePayload) {
+            byte[] payloadBytes = payload != null ? payload.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            byte[] hash = digest.digest(payloadBytes);
+            
+            while (true) {
+                try {
+                    buffer.clear();
+                    buffer.putInt(0); // Length placeholder
+                    byte flags = (byte) ((isTopic ? FLAG_TOPIC : 0) | (includePayload ? FLAG_PAYLOAD : 0));
+                    buffer.put(flags);
+                    buffer.putLong(timestamp);
+                    putString(messageId);
+                    putString(destination);
+                    int count = properties != null ? Math.min(properties.size(), 0xFFFF) : 0;
+                    buffer.putShort((short) count);
+                    if (count > 0) {
+                        int written = 0;
+                        for (Map.Entry<String, Object> property : properties.entrySet()) {
+                            if (written++ == count) {
+                                break;
+                            }
+                            putString(property.getKey());
+                            putValue(property.getValue());
+                        }
+                    }
+                    buffer.putInt(payloadBytes.length);
+                    buffer.put(hash);
+                    if (includePayload) {
+                        buffer.put(payloadBytes);
+                    }
+                    
+                    int bodyLength = buffer.position() - Integer.BYTES;
+                    crc.reset();
+                    crc.update(buffer.array(), Integer.BYTES, bodyLength);
+                    buffer.putInt((int) crc.getValue());
+                    buffer.flip();
+                    return buffer;
+                } catch (BufferOverflowException e) {
+                    buffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                }
+            }
+        }
+        
+        private void putString(String value) {
+            if (value == null) {
+                buffer.putInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        
+        private void putValue(Object value) {
+            if (value instanceof Integer) {
+                buffer.put(TYPE_INT).putInt((Integer) value);
+            } else if (value instanceof Long) {
+                buffer.put(TYPE_LONG).putLong((Long) value);
+            } else if (value instanceof Boolean) {
+                buffer.put(TYPE_BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+            } else if (value instanceof Double) {
+                buffer.put(TYPE_DOUBLE).putDouble((Double) value);
+            } else if (value instanceof Float) {
+                buffer.put(TYPE_FLOAT).putFloat((Float) value);
+            } else if (value instanceof Short) {
+                buffer.put(TYPE_SHORT).putShort((Short) value);
+            } else if (value instanceof Byte) {
+                buffer.put(TYPE_BYTE).put((Byte) value);
+            } else {
+                buffer.put(TYPE_STRING);
+                putString(value != null ? value.toString() : null);
+            }
+        }
+    }
+}
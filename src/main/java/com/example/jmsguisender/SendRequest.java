@@ -0,0 +1,145 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Everything needed to send a message: broker, credentials, destination, payload and headers.
+ * <p>
+ * Captured from the GUI (or command line) once, so that background sends never touch UI controls.
+ */
+public class SendRequest {
+    
+    private final String brokerUrl;
+    private final String username;
+    private final String password;
+    private final String destination;
+    private final boolean topic;
+    private final String payload;
+    private final PayloadGenerator payloadGenerator;
+    private final Map<String, Object> customHeaders;
+    private final ServerConfiguration configuration;
+    
+    public SendRequest(String brokerUrl, String username, String password, String destination, boolean topic,
+                       String payload, Map<String, Object> customHeaders, ServerConfiguration configuration) {
+        this(brokerUrl, username, password, destination, topic, payload, null,
+            Collections.unmodifiableMap(new LinkedHashMap<>(customHeaders != null ? customHeaders : Map.of())), configuration);
+    }
+    
+    /**
+     * Copy with some values changed; the headers are already an unmodifiable copy, so they are shared.
+     */
+    private SendRequest(String brokerUrl, String username, String password, String destination, boolean topic,
+                        String payload, PayloadGenerator payloadGenerator, Map<String, Object> customHeaders,
+                        ServerConfiguration configuration) {
+        this.brokerUrl = brokerUrl;
+        this.username = username;
+        this.password = password;
+        this.destination = destination;
+        this.topic = topic;
+        this.payload = payload;
+        this.payloadGenerator = payloadGenerator;
+        this.customHeaders = customHeaders;
+        this.configuration = configuration;
+    }
+    
+    /**
+     * Request using the connection settings of a configuration.
+     */
+    public static SendRequest of(ServerConfiguration configuration, String destination, boolean topic,
+                                 String payload, Map<String, Object> customHeaders) {
+        return new SendRequest(configuration.getServerUrl(), configuration.getUsername(), configuration.getPassword(),
+            destination, topic, payload, customHeaders, configuration);
+    }
+    
+    public String getBrokerUrl() {
+        return brokerUrl;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getPassword() {
+        return password;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public boolean isTopic() {
+        return topic;
+    }
+    
+    /**
+     * The payload as entered; with a payload generator, the schema or sample it was built from.
+     */
+    public String getPayload() {
+        return payload;
+    }
+    
+    public PayloadGenerator getPayloadGenerator() {
+        return payloadGenerator;
+    }
+    
+    /**
+     * The payload of the next message: a freshly generated one if there is a payload generator,
+     * otherwise {@link #getPayload()}.
+     */
+    public String nextPayload() {
+        return payloadGenerator != null ? payloadGenerator.next() : payload;
+    }
+    
+    public Map<String, Object> getCustomHeaders() {
+        return customHeaders;
+    }
+    
+    public ServerConfiguration getConfiguration() {
+        return configuration;
+    }
+    
+    public SendRequest withBrokerUrl(String brokerUrl) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, payloadGenerator, customHeaders, configuration);
+    }
+    
+    public SendRequest withDestination(String destination) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, payloadGenerator, customHeaders, configuration);
+    }
+    
+    /**
+     * Request sending this fixed payload, without the payload generator.
+     */
+    public SendRequest withPayload(String payload) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, null, customHeaders, configuration);
+    }
+    
+    public SendRequest withPayloadGenerator(PayloadGenerator payloadGenerator) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, payloadGenerator, customHeaders, configuration);
+    }
+    
+    public SendRequest withCustomHeaders(Map<String, Object> customHeaders) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, customHeaders, configuration)
+            .withPayloadGenerator(payloadGenerator);
+    }
+    
+    public SendRequest withConfiguration(ServerConfiguration configuration) {
+        return new SendRequest(brokerUrl, username, password, destination, topic, payload, payloadGenerator, customHeaders, configuration);
+    }
+}
@@ -36,6 +36,45 @@ public class ServerConfiguration {
     @JsonProperty("isTopicSelected")
     private boolean isTopicSelected;
     
+    @JsonProperty("transport")
+    private Transport transport;
+    
+    @JsonProperty("connectTimeout")
+    private long connectTimeout;
+    
+    @JsonProperty("sendTimeout")
+    private long sendTimeout;
+    
+    @JsonProperty("persistentDelivery")
+    private boolean persistentDelivery;
+    
+    @JsonProperty("priority")
+    private int priority;
+    
+    @JsonProperty("timeToLive")
+    private long timeToLive;
+    
+    @JsonProperty("deliveryDelay")
+    private long deliveryDelay;
+    
+    @JsonProperty("disableMessageId")
+    private boolean disableMessageId;
+    
+    @JsonProperty("disableMessageTimestamp")
+    private boolean disableMessageTimestamp;
+    
+    @JsonProperty("clientTuning")
+    private ClientTuning clientTuning;
+    
+    @JsonProperty("networkShaping")
+    private NetworkShaping networkShaping;
+    
+    @JsonProperty("jsonMode")
+    private JsonPayloadProcessor.Mode jsonMode;
+    
+    @JsonProperty("generatePayloads")
+    private boolean generatePayloads;
+    
     @JsonProperty("useSsl")
     private boolean useSsl;
     
@@ -54,6 +93,21 @@ public class ServerConfiguration {
     @JsonProperty("skipCertificateValidation")
     private boolean skipCertificateValidation;
     
+    @JsonProperty("journalEnabled")
+    private boolean journalEnabled;
+    
+    @JsonProperty("journalIncludePayload")
+    private boolean journalIncludePayload;
+    
+    @JsonProperty("journalDirectory")
+    private String journalDirectory;
+    
+    @JsonProperty("journalMaxSizeMb")
+    private long journalMaxSizeMb;
+    
+    @JsonProperty("spoolFailedMessages")
+    private boolean spoolFailedMessages;
+    
     public ServerConfiguration() {
         // Default values
         this.serverUrl = "tcp://localhost:61616";
@@ -61,12 +115,30 @@ public class ServerConfiguration {
         this.password = "";
         this.lastDestination = "";
         this.isTopicSelected = false;
+        this.transport = Transport.AUTO;
+        this.connectTimeout = 10000;
+        this.sendTimeout = 0;
+        this.persistentDelivery = true;
+        this.priority = 4;
+        this.timeToLive = 0;
+        this.deliveryDelay = 0;
+        this.disableMessageId = false;
+        this.disableMessageTimestamp = false;
+        this.clientTuning = new ClientTuning();
+        this.networkShaping = new NetworkShaping();
+        this.jsonMode = JsonPayloadProcessor.Mode.VALIDATE;
+        this.generatePayloads = false;
         this.useSsl = false;
         this.trustStorePath = "";
         this.trustStorePassword = "";
         this.keyStorePath = "";
         this.keyStorePassword = "";
         this.skipCertificateValidation = false;
+        this.journalEnabled = false;
+        this.journalIncludePayload = false;
+        this.journalDirectory = "";
+        this.journalMaxSizeMb = 1024;
+        this.spoolFailedMessages = false;
     }
     
     public ServerConfiguration(String serverUrl, String username, String password, 
@@ -76,12 +148,62 @@ public class ServerConfiguration {
         this.password = password;
         this.lastDestination = lastDestination;
         this.isTopicSelected = isTopicSelected;
+        this.transport = Transport.AUTO;
+        this.connectTimeout = 10000;
+        this.sendTimeout = 0;
+        this.persistentDelivery = true;
+        this.priority = 4;
+        this.timeToLive = 0;
+        this.deliveryDelay = 0;
+        this.disableMessageId = false;
+        this.disableMessageTimestamp = false;
+        this.clientTuning = new ClientTuning();
+        this.networkShaping = new NetworkShaping();
+        this.jsonMode = JsonPayloadProcessor.Mode.VALIDATE;
+        this.generatePayloads = false;
         this.useSsl = false;
         this.trustStorePath = "";
         this.trustStorePassword = "";
         this.keyStorePath = "";
         this.keyStorePassword = "";
         this.skipCertificateValidation = false;
+        this.journalEnabled = false;
+        this.journalIncludePayload = false;
+        this.journalDirectory = "";
+        this.journalMaxSizeMb = 1024;
+        this.spoolFailedMessages = false;
+    }
+    
+    public ServerConfiguration(ServerConfiguration other) {
+        this.serverUrl = other.serverUrl;
+        this.username = other.username;
+        this.password = other.password;
+        this.lastDestination = other.lastDestination;
+        this.isTopicSelected = other.isTopicSelected;
+        this.transport = other.transport;
+        this.connectTimeout = other.connectTimeout;
+        this.sendTimeout = other.sendTimeout;
+        this.persistentDelivery = other.persistentDelivery;
+        this.priority = other.priority;
+        this.timeToLive = other.timeToLive;
+        this.deliveryDelay = other.deliveryDelay;
+        this.disableMessageId = other.disableMessageId;
+        this.disableMessageTimestamp = other.disableMessageTimestamp;
+        this.clientTuning = new ClientTuning(other.getClientTuning());
+        this.networkShaping = new NetworkShaping(other.getNetworkShaping());
+        this.jsonMode = other.jsonMode;
+        this.generatePayloads = other.generatePayloads;
+        this.useSsl = other.useSsl;
+        this.trustStorePath = other.trustStorePath;
+        this.trustStorePassword = other.trustStorePassword;
+        this.keyStorePath = other.keyStorePath;
+        this.keyStorePassword = other.keyStorePassword;
+        this.skipCertificateValidation = other.skipCertificateValidation;
+        this.journalEnabled = other.journalEnabled;
+        this.journalIncludePayload = other.journalIncludePayload;
+        this.journalDirectory = other.journalDirectory;
+        this.journalMaxSizeMb = other.journalMaxSizeMb;
+        this.spoolFailedMessages = other.spoolFailedMessages;
     }
     
     // Getters and Setters
@@ -125,6 +247,116 @@ public class ServerConfiguration {
         this.isTopicSelected = topicSelected;
     }
     
+    public Transport getTransport() {
+        return transport != null ? transport : Transport.AUTO;
+    }
+    
+    public void setTransport(Transport transport) {
+        this.transport = transport;
+    }
+    
+    public long getConnectTimeout() {
+        return connectTimeout;
+    }
+    
+    public void setConnectTimeout(long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+    
+    public long getSendTimeout() {
+        return sendTimeout;
+    }
+    
+    public void setSendTimeout(long sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+    
+    public boolean isPersistentDelivery() {
+        return persistentDelivery;
+    }
+    
+    public void setPersistentDelivery(boolean persistentDelivery) {
+        this.persistentDelivery = persistentDelivery;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+    
+    public long getTimeToLive() {
+        return timeToLive;
+    }
+    
+    public void setTimeToLive(long timeToLive) {
+        this.timeToLive = timeToLive;
+    }
+    
+    public long getDeliveryDelay() {
+        return deliveryDelay;
+    }
+    
+    public void setDeliveryDelay(long deliveryDelay) {
+        this.deliveryDelay = deliveryDelay;
+    }
+    
+    public boolean isDisableMessageId() {
+        return disableMessageId;
+    }
+    
+    public void setDisableMessageId(boolean disableMessageId) {
+        this.disableMessageId = disableMessageId;
+    }
+    
+    public boolean isDisableMessageTimestamp() {
+        return disableMessageTimestamp;
+    }
+    
+    public void setDisableMessageTimestamp(boolean disableMessageTimestamp) {
+        this.disableMessageTimestamp = disableMessageTimestamp;
+    }
+    
+    public ClientTuning getClientTuning() {
+        if (clientTuning == null) {
+            clientTuning = new ClientTuning();
+        }
+        return clientTuning;
+    }
+    
+    public void setClientTuning(ClientTuning clientTuning) {
+        this.clientTuning = clientTuning;
+    }
+    
+    public NetworkShaping getNetworkShaping() {
+        if (networkShaping == null) {
+            networkShaping = new NetworkShaping();
+        }
+        return networkShaping;
+    }
+    
+    public void setNetworkShaping(NetworkShaping networkShaping) {
+        this.networkShaping = networkShaping;
+    }
+    
+    public JsonPayloadProcessor.Mode getJsonMode() {
+        return jsonMode != null ? jsonMode : JsonPayloadProcessor.Mode.VALIDATE;
+    }
+    
+    public void setJsonMode(JsonPayloadProcessor.Mode jsonMode) {
+        this.jsonMode = jsonMode;
+    }
+    
+    public boolean isGeneratePayloads() {
+        return generatePayloads;
+    }
+    
+    public void setGeneratePayloads(boolean generatePayloads) {
+        this.generatePayloads = generatePayloads;
+    }
+    
     public boolean isUseSsl() {
         return useSsl;
     }
@@ -173,6 +405,46 @@ public class ServerConfiguration {
         this.skipCertificateValidation = skipCertificateValidation;
     }
     
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+    
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+    
+    public boolean isJournalIncludePayload() {
+        return journalIncludePayload;
+    }
+    
+    public void setJournalIncludePayload(boolean journalIncludePayload) {
+        this.journalIncludePayload = journalIncludePayload;
+    }
+    
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+    
+    public void setJournalDirectory(String journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+    
+    public long getJournalMaxSizeMb() {
+        return journalMaxSizeMb;
+    }
+    
+    public void setJournalMaxSizeMb(long journalMaxSizeMb) {
+        this.journalMaxSizeMb = journalMaxSizeMb;
+    }
+    
+    public boolean isSpoolFailedMessages() {
+        return spoolFailedMessages;
+    }
+    
+    public void setSpoolFailedMessages(boolean spoolFailedMessages) {
+        this.spoolFailedMessages = spoolFailedMessages;
+    }
+    
     public boolean hasCredentials() {
         return username != null && !username.trim().isEmpty() && 
                password != null && !password.trim().isEmpty();
@@ -191,6 +463,7 @@ public class ServerConfiguration {
                 ", password='***'" +
                 ", lastDestination='" + lastDestination + '\'' +
                 ", isTopicSelected=" + isTopicSelected +
+                ", transport=" + getTransport() +
                 '}';
     }
 }
\ No newline at end of file
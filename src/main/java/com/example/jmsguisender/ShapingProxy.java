@@ -0,0 +1,455 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process TCP proxy that forwards to one broker address under simulated {@link NetworkShaping}
+ * conditions, to see how send settings (batching, async send, reconnects) behave over slow links.
+ * <p>
+ * A single selector thread moves the data. Every chunk read is given a release time: after the
+ * previous chunk has been serialised at the capped bandwidth, plus the latency and a random jitter,
+ * but never before an earlier chunk, so data is never reordered. Once a direction has more than a
+ * router queue's worth of data waiting, the proxy stops reading from that side and TCP flow control
+ * pushes back on the sender, as on a real slow link. Dropped connections are reset (RST) on both sides.
+ */
+public class ShapingProxy implements Closeable {
+    
+    private static final int MAX_CHUNK_BYTES = 16 * 1024;
+    private static final int MIN_CHUNK_BYTES = 1460;
+    private static final int UNLIMITED_QUEUE_BYTES = 4 * 1024 * 1024;
+    private static final int MIN_QUEUE_BYTES = 64 * 1024;
+    
+    private static final Pattern HOST_AND_PORT = Pattern.compile("(?<=://)(\\[[0-9A-Fa-f:.]+]|[^/:?,()\\s\\[\\]]+):(\\d+)");
+    private static final Pattern TLS = Pattern.compile("(?i)(?:^|[(,\\s])[a-z0-9+]*(?:ssl|amqps|wss|https)://|[?&]sslEnabled=true");
+    
+    private final InetSocketAddress target;
+    private final NetworkShaping shaping;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread thread;
+    private final List<Link> links = new ArrayList<>();
+    private final int chunkBytes;
+    private final int queueBytes;
+    private final AtomicLong bytesToTarget = new AtomicLong();
+    private final AtomicLong bytesFromTarget = new AtomicLong();
+    private final AtomicLong connectionCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+    private volatile boolean dropRequested;
+    private volatile boolean closed;
+    
+    /**
+     * Starts a proxy on an ephemeral loopback port.
+     */
+    public ShapingProxy(InetSocketAddress target, NetworkShaping shaping) throws IOException {
+        this(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), target, shaping);
+    }
+    
+    public ShapingProxy(InetSocketAddress listen, InetSocketAddress target, NetworkShaping shaping) throws IOException {
+        this.target = target;
+        this.shaping = new NetworkShaping(shaping);
+        long bytesPerSecond = shaping.getBandwidthKbps() * 1000L / 8;
+        // About 10 ms worth of data per chunk, so that a capped link does not deliver in big lumps
+        this.chunkBytes = shaping.getBandwidthKbps() > 0
+            ? (int) Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, bytesPerSecond / 100))
+            : MAX_CHUNK_BYTES;
+        this.queueBytes = shaping.getBandwidthKbps() > 0
+            ? (int) Math.max(MIN_QUEUE_BYTES, Math.min(UNLIMITED_QUEUE_BYTES, bytesPerSecond / 4))
+            : UNLIMITED_QUEUE_BYTES;
+        
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        try {
+            server.bind(listen);
+            server.configureBlocking(false);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        this.thread = new Thread(this::loop, "shaping-proxy-" + target.getHostString() + ":" + target.getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    /**
+     * Rewrites every {@code host:port} of a broker URL, including those inside failover lists, to
+     * the address of a proxy for it.
+     *
+     * @param proxyFor returns the proxy address for a broker address
+     */
+    public static String routeThrough(String brokerUrl, Function<InetSocketAddress, InetSocketAddress> proxyFor) {
+        Matcher matcher = HOST_AND_PORT.matcher(brokerUrl);
+        StringBuilder routed = new StringBuilder();
+        while (matcher.find()) {
+            String host = matcher.group(1);
+            if (host.startsWith("[")) {
+                host = host.substring(1, host.length() - 1);
+            }
+            InetSocketAddress proxy = proxyFor.apply(InetSocketAddress.createUnresolved(host, Integer.parseInt(matcher.group(2))));
+            matcher.appendReplacement(routed, Matcher.quoteReplacement(proxy.getHostString() + ":" + proxy.getPort()));
+        }
+        matcher.appendTail(routed);
+        return routed.toString();
+    }
+    
+    /**
+     * Whether a broker URL, or one of the URLs of a failover list, connects over TLS, e.g.
+     * {@code ssl://}, {@code amqps://} or an Artemis URL with {@code sslEnabled=true}.
+     */
+    public static boolean usesTls(String brokerUrl) {
+        return TLS.matcher(brokerUrl).find();
+    }
+    
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) server.getLocalAddress();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public InetSocketAddress getTarget() {
+        return target;
+    }
+    
+    public NetworkShaping getShaping() {
+        return new NetworkShaping(shaping);
+    }
+    
+    /**
+     * Resets every open connection, as a network failure would.
+     */
+    public void dropConnections() {
+        dropRequested = true;
+        selector.wakeup();
+    }
+    
+    /**
+     * Connections, drops and bytes forwarded so far.
+     */
+    public String describe() {
+        return String.format(Locale.ROOT, "%s:%d via %s:%d (%s): %d connection(s), %d dropped, %d bytes sent, %d bytes received",
+            target.getHostString(), target.getPort(), getAddress().getHostString(), getAddress().getPort(), shaping,
+            connectionCount.get(), dropCount.get(), bytesToTarget.get(), bytesFromTarget.get());
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void loop() {
+        try {
+            while (!closed) {
+                long wait = processDue(System.nanoTime());
+                selector.select(wait == Long.MAX_VALUE ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait + 999_999)));
+                Iterator<SelectionKey> selected = selector.selectedKeys().iterator();
+                while (selected.hasNext()) {
+                    SelectionKey key = selected.next();
+                    selected.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        ((Link) key.attachment()).handle(key);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            // Closing
+        } finally {
+            new ArrayList<>(links).forEach(link -> link.close(false));
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                // Nothing left to release
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel client = server.accept();
+        if (client == null) {
+            return;
+        }
+        SocketChannel broker = SocketChannel.open();
+        try {
+            client.configureBlocking(false);
+            client.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            broker.configureBlocking(false);
+            broker.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            InetSocketAddress address = target.isUnresolved() ? new InetSocketAddress(target.getHostString(), target.getPort()) : target;
+            Link link = new Link(client, broker);
+            links.add(link);
+            connectionCount.incrementAndGet();
+            if (broker.connect(address)) {
+                link.connected();
+            } else {
+                link.brokerKey.interestOps(SelectionKey.OP_CONNECT);
+            }
+        } catch (IOException e) {
+            reset(client);
+            broker.close();
+        }
+    }
+    
+    /**
+     * Writes what is due, resets connections whose drop time has come, and returns the nanoseconds
+     * until the next of these events.
+     */
+    private long processDue(long now) {
+        boolean dropAll = dropRequested;
+        dropRequested = false;
+        long next = Long.MAX_VALUE;
+        for (Link link : new ArrayList<>(links)) {
+            if (dropAll || now >= link.dropAt) {
+                dropCount.incrementAndGet();
+                link.close(true);
+                continue;
+            }
+            try {
+                next = Math.min(next, link.up.flush(now));
+                next = Math.min(next, link.down.flush(now));
+                if (link.up.finished() && link.down.finished()) {
+                    link.close(false);
+                    continue;
+                }
+                link.updateInterest();
+            } catch (IOException e) {
+                link.close(true);
+                continue;
+            }
+            if (link.dropAt != Long.MAX_VALUE) {
+                next = Math.min(next, link.dropAt - now);
+            }
+        }
+        return next;
+    }
+    
+    private static void reset(SocketChannel channel) {
+        try {
+            if (channel.isOpen()) {
+                channel.setOption(StandardSocketOptions.SO_LINGER, 0);
+            }
+        } catch (IOException e) {
+            // Closed anyway
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+    
+    /**
+     * A proxied connection: the client side, the broker side and the data in flight both ways.
+     */
+    private final class Link {
+        private final SocketChannel client;
+        private final SocketChannel broker;
+        private final SelectionKey clientKey;
+        private final SelectionKey brokerKey;
+        private final Direction up;
+        private final Direction down;
+        private final long dropAt;
+        private boolean connected;
+        
+        Link(SocketChannel client, SocketChannel broker) throws IOException {
+            this.client = client;
+            this.broker = broker;
+            this.clientKey = client.register(selector, 0, this);
+            this.brokerKey = broker.register(selector, 0, this);
+            this.up = new Direction(client, broker, bytesToTarget);
+            this.down = new Direction(broker, client, bytesFromTarget);
+            if (shaping.getDropIntervalSeconds() > 0) {
+                // Exponentially distributed, so drops arrive at random with the configured mean interval
+                double seconds = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * shaping.getDropIntervalSeconds();
+                this.dropAt = System.nanoTime() + (long) (seconds * 1e9);
+            } else {
+                this.dropAt = Long.MAX_VALUE;
+            }
+        }
+        
+        void connected() {
+            connected = true;
+            updateInterest();
+        }
+        
+        void handle(SelectionKey key) {
+            try {
+                if (key.isConnectable()) {
+                    broker.finishConnect();
+                    connected();
+                    return;
+                }
+                Direction reading = key == clientKey ? up : down;
+                Direction writing = key == clientKey ? down : up;
+                if (key.isWritable()) {
+                    writing.blocked = false;
+                }
+                if (key.isReadable()) {
+                    reading.read(System.nanoTime());
+                }
+                updateInterest();
+            } catch (IOException e) {
+                close(true);
+            }
+        }
+        
+        void updateInterest() {
+            if (!connected || !clientKey.isValid() || !brokerKey.isValid()) {
+                return;
+            }
+            clientKey.interestOps((up.wantsRead() ? SelectionKey.OP_READ : 0) | (down.blocked ? SelectionKey.OP_WRITE : 0));
+            brokerKey.interestOps((down.wantsRead() ? SelectionKey.OP_READ : 0) | (up.blocked ? SelectionKey.OP_WRITE : 0));
+        }
+        
+        void close(boolean abort) {
+            links.remove(this);
+            if (abort) {
+                reset(client);
+                reset(broker);
+            } else {
+                try {
+                    client.close();
+                    broker.close();
+                } catch (IOException e) {
+                    // Nothing left to release
+                }
+            }
+        }
+    }
+    
+    /**
+     * One direction of a link, with the chunks read but not yet released.
+     */
+    private final class Direction {
+        private final SocketChannel source;
+        private final SocketChannel sink;
+        private final AtomicLong counter;
+        private final ArrayDeque<Chunk> queue = new ArrayDeque<>();
+        private int queued;
+        private long nextFree;
+        private long lastRelease;
+        private boolean endOfStream;
+        private boolean outputShut;
+        private boolean blocked;
+        
+        Direction(SocketChannel source, SocketChannel sink, AtomicLong counter) {
+            this.source = source;
+            this.sink = sink;
+            this.counter = counter;
+        }
+        
+        boolean wantsRead() {
+            return !endOfStream && queued < queueBytes;
+        }
+        
+        boolean finished() {
+            return outputShut;
+        }
+        
+        void read(long now) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(chunkBytes);
+            int read = source.read(buffer);
+            if (read < 0) {
+                endOfStream = true;
+                return;
+            }
+            if (read == 0) {
+                return;
+            }
+            buffer.flip();
+            
+            long transmit = shaping.getBandwidthKbps() > 0 ? read * 8L * 1_000_000L / shaping.getBandwidthKbps() : 0;
+            nextFree = Math.max(now, nextFree) + transmit;
+            long delay = TimeUnit.MILLISECONDS.toNanos(shaping.getLatencyMillis());
+            if (shaping.getJitterMillis() > 0) {
+                long jitter = TimeUnit.MILLISECONDS.toNanos(shaping.getJitterMillis());
+                delay = Math.max(0, delay + ThreadLocalRandom.current().nextLong(-jitter, jitter + 1));
+            }
+            long release = Math.max(nextFree + delay, lastRelease);
+            lastRelease = release;
+            queue.add(new Chunk(buffer, release));
+            queued += read;
+        }
+        
+        /**
+         * Writes the chunks that are due.
+         *
+         * @return nanoseconds until the next chunk is due, or {@link Long#MAX_VALUE} if there is none
+         *         or the sink is not writable
+         */
+        long flush(long now) throws IOException {
+            while (!blocked && !queue.isEmpty()) {
+                Chunk chunk = queue.peek();
+                if (chunk.release > now) {
+                    return chunk.release - now;
+                }
+                int written = sink.write(chunk.data);
+                counter.addAndGet(written);
+                if (chunk.data.hasRemaining()) {
+                    blocked = true;
+                    return Long.MAX_VALUE;
+                }
+                queue.poll();
+                queued -= chunk.data.limit();
+            }
+            if (queue.isEmpty() && endOfStream && !outputShut) {
+                sink.shutdownOutput();
+                outputShut = true;
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+    
+    private record Chunk(ByteBuffer data, long release) {
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.JMSException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Benchmark sweeping payload size and custom header count against a broker.
+ * <p>
+ * Every combination is a cell, run closed loop (each worker sends as fast as the broker accepts)
+ * through {@link JMSSender#sendMessage(SendRequest)}, so pooling, tuning and delivery options
+ * apply as for real sends. A cell stops after its duration, or once about
+ * {@link #MAX_BYTES_PER_CELL} of payload was sent so that large messages do not flood the broker.
+ * An unmeasured run of the first cell comes before the others, so JIT compilation and connection
+ * setup only show up in the warm-up. The result is a throughput and latency matrix, as text, CSV or HTML.
+ * Every cell also keeps per-second samples, so that cells can be stored as runs and compared with
+ * {@link RunRegression}.
+ */
+public class SizeSweep {
+    
+    public static final List<Integer> DEFAULT_SIZES = List.of(100, 1 << 10, 10 << 10, 100 << 10, 1 << 20, 10 << 20);
+    public static final List<Integer> DEFAULT_HEADER_COUNTS = List.of(0, 10, 50, 200);
+    public static final long MAX_BYTES_PER_CELL = 256L << 20;
+    
+    private static final String HEADER_PREFIX = "sweepHeader";
+    private static final long WARM_UP_SECONDS = 2;
+    
+    private final JMSSender jmsSender;
+    private final SendRequest request;
+    private final List<Integer> sizes;
+    private final List<Integer> headerCounts;
+    private final long cellSeconds;
+    private final int concurrency;
+    private final List<Cell> cells = new ArrayList<>();
+    private volatile boolean stopped;
+    private Consumer<String> progressListener = progress -> { };
+    
+    /**
+     * @param request the destination and connection to send to; its payload and headers are replaced
+     */
+    public SizeSweep(JMSSender jmsSender, SendRequest request, List<Integer> sizes, List<Integer> headerCounts,
+                     long cellSeconds, int concurrency) {
+        if (sizes.isEmpty() || headerCounts.isEmpty()) {
+            throw new IllegalArgumentException("At least one payload size and header count is required");
+        }
+        if (cellSeconds <= 0) {
+            throw new IllegalArgumentException("Duration per cell must be positive");
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive");
+        }
+        this.jmsSender = jmsSender;
+        this.request = request;
+        this.sizes = List.copyOf(sizes);
+        this.headerCounts = List.copyOf(headerCounts);
+        this.cellSeconds = cellSeconds;
+        this.concurrency = concurrency;
+    }
+    
+    /**
+     * Parses a comma or space separated list of sizes in bytes, with an optional {@code k} or
+     * {@code m} suffix (1024 based), e.g. {@code 100,1k,64k,1m}.
+     */
+    public static List<Integer> parseSizes(String text) {
+        List<Integer> sizes = new ArrayList<>();
+        for (String part : split(text)) {
+            String value = part.toLowerCase(Locale.ROOT).replaceAll("b$", "");
+            int multiplier = 1;
+            if (value.endsWith("k")) {
+                multiplier = 1 << 10;
+            } else if (value.endsWith("m")) {
+                multiplier = 1 << 20;
+            }
+            if (multiplier > 1) {
+                value = value.substring(0, value.length() - 1);
+            }
+            try {
+                long size = (long) (Double.parseDouble(value) * multiplier);
+                if (size <= 0 || size > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("Payload size out of range: " + part);
+                }
+                sizes.add((int) size);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid payload size: " + part);
+            }
+        }
+        return sizes;
+    }
+    
+    /**
+     * Parses a comma or space separated list of header counts, e.g. {@code 0,10,100}.
+     */
+    public static List<Integer> parseCounts(String text) {
+        List<Integer> counts = new ArrayList<>();
+        for (String part : split(text)) {
+            try {
+                int count = Integer.parseInt(part);
+                if (count < 0) {
+                    throw new IllegalArgumentException("Header count cannot be negative: " + part);
+                }
+                counts.add(count);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid header count: " + part);
+            }
+        }
+        return counts;
+    }
+    
+    private static List<String> split(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(text.trim().split("[\\s,;]+")).filter(part -> !part.isEmpty()).toList();
+    }
+    
+    public static String formatSize(long bytes) {
+        if (bytes >= 1 << 20 && bytes % (1 << 20) == 0) {
+            return (bytes >> 20) + " MB";
+        }
+        if (bytes >= 1 << 10 && bytes % (1 << 10) == 0) {
+            return (bytes >> 10) + " KB";
+        }
+        return bytes + " B";
+    }
+    
+    /**
+     * Sets the callback receiving one line per finished cell, on the sweep thread.
+     */
+    public void setProgressListener(Consumer<String> progressListener) {
+        this.progressListener = progressListener != null ? progressListener : progress -> { };
+    }
+    
+    /**
+     * Stops the sweep after the sends in flight; the cells run so far are kept.
+     */
+    public void stop() {
+        stopped = true;
+    }
+    
+    public boolean isStopped() {
+        return stopped;
+    }
+    
+    /**
+     * Runs every cell on the calling thread, smallest payloads first.
+     */
+    public List<Cell> run() throws InterruptedException {
+        int total = sizes.size() * headerCounts.size();
+        try {
+            // Open a session per worker up front so the first cell does not pay for it
+            jmsSender.warmUp(request.getBrokerUrl(), request.getUsername(), request.getPassword(),
+                request.getConfiguration(), concurrency);
+        } catch (JMSException e) {
+            // The first cell reports the error
+        }
+        // Unmeasured run of the first cell, so JIT compilation does not slow it down
+        runCell(request.withPayload(payload(sizes.get(0))).withCustomHeaders(headers(headerCounts.get(0))),
+            sizes.get(0), headerCounts.get(0), WARM_UP_SECONDS);
+        for (int size : sizes) {
+            String payload = payload(size);
+            for (int headerCount : headerCounts) {
+                if (stopped) {
+                    return getCells();
+                }
+                Cell cell = runCell(request.withPayload(payload).withCustomHeaders(headers(headerCount)), size, headerCount,
+                    cellSeconds);
+                synchronized (cells) {
+                    cells.add(cell);
+                }
+                progressListener.accept(String.format(Locale.ROOT, "[%d/%d] %s", cells.size(), total, cell));
+            }
+        }
+        return getCells();
+    }
+    
+    private Cell runCell(SendRequest cellRequest, int size, int headerCount, long seconds) throws InterruptedException {
+        // One unmeasured send, so the connection and the first large buffers are not in the numbers
+        try {
+            jmsSender.sendMessage(cellRequest);
+        } catch (Exception e) {
+            return new Cell(size, headerCount, 0, 1, 0, new LatencyHistogram(), List.of(), e.getMessage());
+        }
+        
+        AtomicLong remaining = new AtomicLong(Math.max(concurrency, MAX_BYTES_PER_CELL / size));
+        LongAdder sent = new LongAdder();
+        LongAdder failed = new LongAdder();
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram window = new LatencyHistogram();
+        AtomicReference<String> lastError = new AtomicReference<>();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (!stopped && System.nanoTime() < deadline && remaining.getAndDecrement() > 0) {
+                    long begin = System.nanoTime();
+                    try {
+                        jmsSender.sendMessage(cellRequest);
+                        long sendTime = System.nanoTime() - begin;
+                        latency.record(sendTime);
+                        window.record(sendTime);
+                        sent.increment();
+                    } catch (Exception e) {
+                        failed.increment();
+                        lastError.set(e.getMessage());
+                    }
+                }
+            }, "size-sweep-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        // Sample every second until the workers are done; a last partial second is left out
+        List<LoadRunSample> samples = new ArrayList<>();
+        long nextSample = start + TimeUnit.SECONDS.toNanos(1);
+        long sampledSent = 0;
+        long sampledFailed = 0;
+        try {
+            for (Thread worker : workers) {
+                while (worker.isAlive()) {
+                    long wait = nextSample - System.nanoTime();
+                    if (wait > 0) {
+                        TimeUnit.NANOSECONDS.timedJoin(worker, wait);
+                    }
+                    if (System.nanoTime() >= nextSample) {
+                        long sentNow = sent.sum();
+                        long failedNow = failed.sum();
+                        samples.add(new LoadRunSample(samples.size() + 1, 0, sentNow - sampledSent, failedNow - sampledFailed,
+                            window.snapshotAndReset().getValueAtPercentile(99) / 1e6));
+                        sampledSent = sentNow;
+                        sampledFailed = failedNow;
+                        nextSample += TimeUnit.SECONDS.toNanos(1);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            stopped = true;
+            throw e;
+        }
+        return new Cell(size, headerCount, sent.sum(), failed.sum(), System.nanoTime() - start, latency, samples,
+            lastError.get());
+    }
+    
+    /**
+     * JSON document of exactly {@code size} characters (at least the empty object).
+     */
+    static String payload(int size) {
+        String prefix = "{\"data\":\"";
+        String suffix = "\"}";
+        int fill = size - prefix.length() - suffix.length();
+        if (fill < 0) {
+            return "{}";
+        }
+        StringBuilder builder = new StringBuilder(size);
+        builder.append(prefix);
+        for (int i = 0; i < fill; i++) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+        return builder.append(suffix).toString();
+    }
+    
+    static Map<String, Object> headers(int count) {
+        Map<String, Object> headers = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            headers.put(String.format(Locale.ROOT, "%s%03d", HEADER_PREFIX, i), "value-" + i);
+        }
+        return headers;
+    }
+    
+    public List<Cell> getCells() {
+        synchronized (cells) {
+            return new ArrayList<>(cells);
+        }
+    }
+    
+    /**
+     * Keeps every finished cell in the run store, as a run of kind {@code sweep}.
+     *
+     * @return the IDs of the stored runs, in cell order
+     */
+    public List<String> store(RunStore store, String tag) throws IOException {
+        List<String> ids = new ArrayList<>();
+        for (Cell cell : getCells()) {
+            Map<String, Object> parameters = new LinkedHashMap<>();
+            parameters.put("payloadBytes", cell.getSize());
+            parameters.put("headers", cell.getHeaderCount());
+            parameters.put("cellSeconds", cellSeconds);
+            parameters.put("concurrency", concurrency);
+            ids.add(store.save(RunRecord.of("sweep", tag, request, parameters, cell.toResult())));
+        }
+        return ids;
+    }
+    
+    /**
+     * Text matrix with one row per payload size and one column per header count, showing
+     * throughput and p99 latency.
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT, "%-10s", "Payload"));
+        for (int headerCount : headerCounts) {
+            report.append(String.format(Locale.ROOT, " %24s", headerCount + " headers"));
+        }
+        report.append(String.format(Locale.ROOT, "%n"));
+        for (int size : sizes) {
+            report.append(String.format(Locale.ROOT, "%-10s", formatSize(size)));
+            for (int headerCount : headerCounts) {
+                Cell cell = find(size, headerCount);
+                report.append(String.format(Locale.ROOT, " %24s", cell == null ? "-"
+                    : String.format(Locale.ROOT, "%.0f msg/s p99 %.2fms", cell.getThroughput(), cell.getLatency().getValueAtPercentile(99) / 1e6)));
+            }
+            report.append(String.format(Locale.ROOT, "%n"));
+        }
+        return report.toString();
+    }
+    
+    public String toCsv() {
+        StringBuilder csv = new StringBuilder("payload_bytes,headers,sent,failed,elapsed_s,msg_per_s,mb_per_s,mean_ms,p50_ms,p90_ms,p99_ms,max_ms\n");
+        for (Cell cell : getCells()) {
+            LatencyHistogram latency = cell.getLatency();
+            csv.append(String.format(Locale.ROOT, "%d,%d,%d,%d,%.3f,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                cell.getSize(), cell.getHeaderCount(), cell.getSent(), cell.getFailed(), cell.getElapsedNanos() / 1e9,
+                cell.getThroughput(), cell.getMegabytesPerSecond(), latency.getMean() / 1e6,
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(90) / 1e6,
+                latency.getValueAtPercentile(99) / 1e6, latency.getMax() / 1e6));
+        }
+        return csv.toString();
+    }
+    
+    /**
+     * Self-contained HTML page with a throughput and a p99 latency matrix, cells shaded from the
+     * best (green) to the worst (red) value.
+     */
+    public String toHtml() {
+        List<Cell> all = getCells();
+        double best = all.stream().mapToDouble(Cell::getThroughput).max().orElse(0);
+        double worstP99 = all.stream().mapToDouble(cell -> cell.getLatency().getValueAtPercentile(99)).max().orElse(0);
+        
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html><head><meta charset=\"utf-8\"><title>Size sweep</title>\n")
+            .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+            .append("td,th{border:1px solid #ccc;padding:4px 10px;text-align:right}</style></head><body>\n")
+            .append("<h1>Payload size and header count sweep</h1>\n<p>")
+            .append(escape((request.isTopic() ? "Topic " : "Queue ") + request.getDestination() + " on " + request.getBrokerUrl()))
+            .append(String.format(Locale.ROOT, ", %d s per cell, concurrency %d%s.</p>%n", cellSeconds, concurrency, stopped ? ", stopped early" : ""));
+        appendMatrix(html, "Throughput (msg/s, MB/s)", cell -> String.format(Locale.ROOT, "%.0f<br><small>%.2f MB/s</small>",
+            cell.getThroughput(), cell.getMegabytesPerSecond()), cell -> best > 0 ? cell.getThroughput() / best : 0);
+        appendMatrix(html, "Latency (p99 / p50 ms)", cell -> String.format(Locale.ROOT, "%.2f<br><small>%.2f</small>",
+            cell.getLatency().getValueAtPercentile(99) / 1e6, cell.getLatency().getValueAtPercentile(50) / 1e6),
+            cell -> worstP99 > 0 ? 1 - cell.getLatency().getValueAtPercentile(99) / worstP99 : 0);
+        return html.append("</body></html>\n").toString();
+    }
+    
+    private void appendMatrix(StringBuilder html, String title, Function<Cell, String> value,
+                              ToDoubleFunction<Cell> score) {
+        html.append("<h2>").append(title).append("</h2>\n<table><tr><th>Payload</th>");
+        for (int headerCount : headerCounts) {
+            html.append("<th>").append(headerCount).append(" headers</th>");
+        }
+        html.append("</tr>\n");
+        for (int size : sizes) {
+            html.append("<tr><th>").append(formatSize(size)).append("</th>");
+            for (int headerCount : headerCounts) {
+                Cell cell = find(size, headerCount);
+                if (cell == null) {
+                    html.append("<td>-</td>");
+                } else {
+                    // Hue 0 (red) for the worst cell to 120 (green) for the best
+                    int hue = (int) Math.round(120 * Math.max(0, Math.min(1, score.applyAsDouble(cell))));
+                    html.append("<td style=\"background:hsl(").append(hue).append(",70%,85%)\"")
+                        .append(cell.getFailed() > 0 ? " title=\"" + cell.getFailed() + " failed: " + escape(String.valueOf(cell.getLastError())) + "\"" : "")
+                        .append(">").append(value.apply(cell)).append("</td>");
+                }
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+    }
+    
+    private Cell find(int size, int headerCount) {
+        for (Cell cell : getCells()) {
+            if (cell.getSize() == size && cell.getHeaderCount() == headerCount) {
+                return cell;
+            }
+        }
+        return null;
+    }
+    
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+    
+    /**
+     * Outcome of one payload size and header count combination.
+     */
+    public static final class Cell {
+        private final int size;
+        private final int headerCount;
+        private final long sent;
+        private final long failed;
+        private final long elapsedNanos;
+        private final LatencyHistogram latency;
+        private final List<LoadRunSample> samples;
+        private final String lastError;
+        
+        Cell(int size, int headerCount, long sent, long failed, long elapsedNanos, LatencyHistogram latency,
+             List<LoadRunSample> samples, String lastError) {
+            this.size = size;
+            this.headerCount = headerCount;
+            this.sent = sent;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+            this.samples = List.copyOf(samples);
+            this.lastError = lastError;
+        }
+        
+        public int getSize() {
+            return size;
+        }
+        
+        public int getHeaderCount() {
+            return headerCount;
+        }
+        
+        public long getSent() {
+            return sent;
+        }
+        
+        public long getFailed() {
+            return failed;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        public double getThroughput() {
+            return elapsedNanos > 0 ? sent * 1e9 / elapsedNanos : 0;
+        }
+        
+        public double getMegabytesPerSecond() {
+            return getThroughput() * size / (1 << 20);
+        }
+        
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+        
+        public List<LoadRunSample> getSamples() {
+            return samples;
+        }
+        
+        public String getLastError() {
+            return lastError;
+        }
+        
+        /**
+         * The cell as a load run result; sends are back to back, so latency is the send time.
+         */
+        public LoadRunResult toResult() {
+            return new LoadRunResult("sweep " + formatSize(size) + ", " + headerCount + " headers", elapsedNanos,
+                sent, failed, latency, latency, samples, lastError, false);
+        }
+        
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s, %d headers: %d sent, %d failed, %.1f msg/s, %.2f MB/s, p50=%.3fms p99=%.3fms%s",
+                formatSize(size), headerCount, sent, failed, getThroughput(), getMegabytesPerSecond(),
+                latency.getValueAtPercentile(50) / 1e6, latency.getValueAtPercentile(99) / 1e6,
+                lastError != null ? " (last error: " + lastError + ")" : "");
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A message whose send failed, as stored in the {@link FailedMessageSpool}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class SpooledMessage {
+    
+    @JsonProperty("messageId")
+    private String messageId;
+    
+    @JsonProperty("brokerUrl")
+    private String brokerUrl;
+    
+    @JsonProperty("username")
+    private String username;
+    
+    @JsonProperty("destination")
+    private String destination;
+    
+    @JsonProperty("topic")
+    private boolean topic;
+    
+    @JsonProperty("payload")
+    private String payload;
+    
+    @JsonProperty("headers")
+    private List<Header> headers;
+    
+    /** Send settings at the time of the failure, without the password and the store passwords. */
+    @JsonProperty("configuration")
+    private ServerConfiguration configuration;
+    
+    @JsonProperty("attempts")
+    private int attempts;
+    
+    @JsonProperty("firstFailedAt")
+    private long firstFailedAt;
+    
+    @JsonProperty("nextAttemptAt")
+    private long nextAttemptAt;
+    
+    @JsonProperty("lastError")
+    private String lastError;
+    
+    public SpooledMessage() {
+        this.headers = new ArrayList<>();
+    }
+    
+    public SpooledMessage(String messageId, String brokerUrl, String username, String destination, boolean topic,
+                          String payload, Map<String, Object> customHeaders) {
+        this.messageId = messageId;
+        this.brokerUrl = brokerUrl;
+        this.username = username;
+        this.destination = destination;
+        this.topic = topic;
+        this.payload = payload;
+        this.headers = new ArrayList<>();
+        if (customHeaders != null) {
+            for (Map.Entry<String, Object> header : customHeaders.entrySet()) {
+                headers.add(Header.of(header.getKey(), header.getValue()));
+            }
+        }
+    }
+    
+    public String getMessageId() {
+        return messageId;
+    }
+    
+    public String getBrokerUrl() {
+        return brokerUrl;
+    }
+    
+    public String getUsername() {
+        return username;
+    }
+    
+    public String getDestination() {
+        return destination;
+    }
+    
+    public boolean isTopic() {
+        return topic;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public List<Header> getHeaders() {
+        return headers;
+    }
+    
+    /**
+     * Rebuilds the custom headers with their original property types.
+     */
+    @JsonIgnore
+    public Map<String, Object> getCustomHeaders() {
+        Map<String, Object> customHeaders = new LinkedHashMap<>();
+        for (Header header : headers) {
+            customHeaders.put(header.name, header.typedValue());
+        }
+        return customHeaders;
+    }
+    
+    public ServerConfiguration getConfiguration() {
+        return configuration;
+    }
+    
+    public void setConfiguration(ServerConfiguration configuration) {
+        this.configuration = configuration;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public long getFirstFailedAt() {
+        return firstFailedAt;
+    }
+    
+    public void setFirstFailedAt(long firstFailedAt) {
+        this.firstFailedAt = firstFailedAt;
+    }
+    
+    public long getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+    
+    public void setNextAttemptAt(long nextAttemptAt) {
+        this.nextAttemptAt = nextAttemptAt;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+    
+    /**
+     * A custom header with its JMS property type, so that it survives the JSON round trip.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Header {
+        @JsonProperty("name")
+        private String name;
+        
+        @JsonProperty("type")
+        private String type;
+        
+        @JsonProperty("value")
+        private String value;
+        
+        public Header() {
+        }
+        
+        public Header(String name, String type, String value) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+        
+        static Header of(String name, Object value) {
+            String type = value != null ? value.getClass().getSimpleName() : "String";
+            return new Header(name, type, value != null ? value.toString() : null);
+        }
+        
+        Object typedValue() {
+            if (value == null) {
+                return null;
+            }
+            switch (type) {
+                case "Integer":
+                    return Integer.valueOf(value);
+                case "Long":
+                    return Long.valueOf(value);
+                case "Boolean":
+                    return Boolean.valueOf(value);
+                case "Double":
+                    return Double.valueOf(value);
+                case "Float":
+                    return Float.valueOf(value);
+                case "Short":
+                    return Short.valueOf(value);
+                case "Byte":
+                    return Byte.valueOf(value);
+                default:
+                    return value;
+            }
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getType() {
+            return type;
+        }
+        
+        public String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import javafx.application.Platform;
+import javafx.geometry.Insets;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.ColumnConstraints;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Sweep tab: measures throughput and latency over payload sizes and header counts, see {@link SizeSweep}.
+ */
+public class SweepPane {
+    
+    private final JMSSender jmsSender;
+    private final SendExecutor executor;
+    private final Supplier<SendRequest> requestSupplier;
+    private final Consumer<String> log;
+    
+    private TextField sizesField;
+    private TextField headersField;
+    private TextField cellSecondsField;
+    private TextField concurrencyField;
+    private TextField tagField;
+    private Button startButton;
+    private Button stopButton;
+    private Button saveCsvButton;
+    private Button saveHtmlButton;
+    private Label statusLabel;
+    private TextArea resultArea;
+    private volatile SizeSweep sweep;
+    
+    /**
+     * @param executor        runs the sweeps; cancelling its tasks stops them
+     * @param requestSupplier captures the destination and connection from the Send tab, or returns
+     *                        {@code null} (after logging why) if it is incomplete; called on the FX thread
+     * @param log             appends a line to the log area; called on the FX thread
+     */
+    public SweepPane(JMSSender jmsSender, SendExecutor executor, Supplier<SendRequest> requestSupplier,
+                     Consumer<String> log) {
+        this.jmsSender = jmsSender;
+        this.executor = executor;
+        this.requestSupplier = requestSupplier;
+        this.log = log;
+    }
+    
+    public VBox create() {
+        Label title = new Label("Payload Size and Header Sweep:");
+        title.setStyle("-fx-font-weight: bold;");
+        
+        sizesField = new TextField(join(SizeSweep.DEFAULT_SIZES, size -> SizeSweep.formatSize(size).replace(" ", "")));
+        headersField = new TextField(join(SizeSweep.DEFAULT_HEADER_COUNTS, String::valueOf));
+        cellSecondsField = new TextField("5");
+        concurrencyField = new TextField("4");
+        tagField = new TextField();
+        tagField.setPromptText("Optional: label for the stored runs, e.g. the broker version");
+        
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(5);
+        grid.add(new Label("Payload sizes:"), 0, 0);
+        grid.add(sizesField, 1, 0);
+        grid.add(new Label("Header counts:"), 0, 1);
+        grid.add(headersField, 1, 1);
+        grid.add(new Label("Seconds per cell:"), 0, 2);
+        grid.add(cellSecondsField, 1, 2);
+        grid.add(new Label("Concurrency:"), 0, 3);
+        grid.add(concurrencyField, 1, 3);
+        grid.add(new Label("Run tag:"), 0, 4);
+        grid.add(tagField, 1, 4);
+        
+        ColumnConstraints col1 = new ColumnConstraints();
+        col1.setMinWidth(160);
+        ColumnConstraints col2 = new ColumnConstraints();
+        col2.setPrefWidth(320);
+        grid.getColumnConstraints().addAll(col1, col2);
+        
+        startButton = new Button("Start Sweep");
+        startButton.setOnAction(e -> start());
+        stopButton = new Button("Stop");
+        stopButton.setDisable(true);
+        stopButton.setOnAction(e -> stop());
+        saveCsvButton = new Button("Save CSV...");
+        saveCsvButton.setDisable(true);
+        saveCsvButton.setOnAction(e -> save("CSV files", "*.csv", "size-sweep.csv", SizeSweep::toCsv));
+        saveHtmlButton = new Button("Save HTML...");
+        saveHtmlButton.setDisable(true);
+        saveHtmlButton.setOnAction(e -> save("HTML files", "*.html", "size-sweep.html", SizeSweep::toHtml));
+        
+        HBox buttonBox = new HBox(10);
+        buttonBox.getChildren().addAll(startButton, stopButton, saveCsvButton, saveHtmlButton);
+        
+        statusLabel = new Label("Idle");
+        statusLabel.setStyle("-fx-font-family: monospace;");
+        
+        resultArea = new TextArea();
+        resultArea.setEditable(false);
+        resultArea.setPrefRowCount(10);
+        resultArea.setStyle("-fx-font-family: monospace;");
+        VBox.setVgrow(resultArea, Priority.ALWAYS);
+        
+        Label hint = new Label("Sends generated payloads to the destination configured on the Send tab. " +
+            "Sizes accept k and m suffixes; a cell stops early after " + SizeSweep.formatSize(SizeSweep.MAX_BYTES_PER_CELL) + ". " +
+            "Every cell is stored as a run, to compare on the Runs tab.");
+        hint.setWrapText(true);
+        
+        VBox root = new VBox(10);
+        root.setPadding(new Insets(10));
+        root.getChildren().addAll(title, hint, grid, buttonBox, statusLabel, resultArea);
+        return root;
+    }
+    
+    private static String join(List<Integer> values, Function<Integer, String> format) {
+        return values.stream().map(format).collect(Collectors.joining(","));
+    }
+    
+    private void start() {
+        List<Integer> sizes;
+        List<Integer> headerCounts;
+        long cellSeconds;
+        int concurrency;
+        try {
+            sizes = SizeSweep.parseSizes(sizesField.getText());
+            headerCounts = SizeSweep.parseCounts(headersField.getText());
+            cellSeconds = Long.parseLong(cellSecondsField.getText().trim());
+            concurrency = Integer.parseInt(concurrencyField.getText().trim());
+        } catch (IllegalArgumentException e) {
+            log.accept("ERROR: Invalid sweep settings: " + e.getMessage());
+            return;
+        }
+        
+        SendRequest request = requestSupplier.get();
+        if (request == null) {
+            return;
+        }
+        
+        SizeSweep newSweep;
+        try {
+            newSweep = new SizeSweep(jmsSender, request, sizes, headerCounts, cellSeconds, concurrency);
+        } catch (IllegalArgumentException e) {
+            log.accept("ERROR: " + e.getMessage());
+            return;
+        }
+        newSweep.setProgressListener(progress -> Platform.runLater(() -> statusLabel.setText(progress)));
+        sweep = newSweep;
+        
+        startButton.setDisable(true);
+        stopButton.setDisable(false);
+        saveCsvButton.setDisable(true);
+        saveHtmlButton.setDisable(true);
+        resultArea.clear();
+        log.accept("Starting sweep: " + sizes.size() + " payload size(s) x " + headerCounts.size() + " header count(s), " +
+            cellSeconds + "s per cell, concurrency " + concurrency + ", to " + request.getDestination());
+        
+        String tag = tagField.getText();
+        executor.submit("Size sweep", () -> {
+            newSweep.run();
+            store(newSweep, tag);
+            Platform.runLater(() -> {
+                log.accept("Sweep " + (newSweep.isStopped() ? "stopped" : "finished") + " after " +
+                    newSweep.getCells().size() + " cell(s)");
+                finished(newSweep);
+            });
+        }, e -> Platform.runLater(() -> {
+            log.accept("ERROR: Sweep failed: " + e.getMessage());
+            finished(newSweep);
+        }), newSweep::stop);
+    }
+    
+    /**
+     * Keeps the finished cells in the local run store; called on the sweep's thread.
+     */
+    private void store(SizeSweep finishedSweep, String tag) {
+        if (finishedSweep.getCells().isEmpty()) {
+            return;
+        }
+        try {
+            List<String> ids = finishedSweep.store(RunStore.local(), tag);
+            Platform.runLater(() -> log.accept("Sweep cells stored as runs " + ids.get(0) + " to " + ids.get(ids.size() - 1)));
+        } catch (IOException e) {
+            Platform.runLater(() -> log.accept("WARNING: Failed to store the sweep: " + e.getMessage()));
+        }
+    }
+    
+    private void stop() {
+        SizeSweep current = sweep;
+        if (current != null) {
+            current.stop();
+            log.accept("Stopping sweep after the current cell...");
+        }
+    }
+    
+    private void finished(SizeSweep finishedSweep) {
+        resultArea.setText(finishedSweep.report());
+        boolean hasCells = !finishedSweep.getCells().isEmpty();
+        startButton.setDisable(false);
+        stopButton.setDisable(true);
+        saveCsvButton.setDisable(!hasCells);
+        saveHtmlButton.setDisable(!hasCells);
+        statusLabel.setText("Idle");
+    }
+    
+    private void save(String description, String extension, String initialName, Function<SizeSweep, String> format) {
+        SizeSweep current = sweep;
+        if (current == null) {
+            return;
+        }
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Save Sweep Results");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter(description, extension));
+        fileChooser.setInitialDirectory(new File(System.getProperty("user.home")));
+        fileChooser.setInitialFileName(initialName);
+        File file = fileChooser.showSaveDialog(resultArea.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.writeString(file.toPath(), format.apply(current));
+            log.accept("SUCCESS: Sweep results saved to " + file);
+        } catch (IOException e) {
+            log.accept("ERROR: Failed to save sweep results: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import java.util.Locale;
+
+/**
+ * Wire protocol, and with it the client library, used to reach the broker.
+ */
+public enum Transport {
+    
+    AUTO("Auto (from URL)", null),
+    OPENWIRE("OpenWire", new OpenWireConnectionFactoryProvider()),
+    AMQP("AMQP 1.0", new AmqpConnectionFactoryProvider()),
+    ARTEMIS_CORE("Artemis core", new ArtemisCoreConnectionFactoryProvider());
+    
+    private final String label;
+    private final ConnectionFactoryProvider provider;
+    
+    Transport(String label, ConnectionFactoryProvider provider) {
+        this.label = label;
+        this.provider = provider;
+    }
+    
+    /**
+     * Resolves {@link #AUTO} from the URL scheme: {@code amqp}, {@code amqps}, {@code amqpws} and
+     * {@code amqpwss} use AMQP 1.0, anything else OpenWire. Artemis core URLs look like OpenWire ones
+     * ({@code tcp://host:61616}), so that protocol has to be chosen explicitly.
+     */
+    public Transport resolve(String brokerURL) {
+        if (this != AUTO) {
+            return this;
+        }
+        String url = brokerURL != null ? brokerURL.trim().toLowerCase(Locale.ROOT) : "";
+        if (url.startsWith("amqp://") || url.startsWith("amqps://") || url.startsWith("amqpws://") || url.startsWith("amqpwss://")) {
+            return AMQP;
+        }
+        return OPENWIRE;
+    }
+    
+    public ConnectionFactoryProvider getProvider(String brokerURL) {
+        return resolve(brokerURL).provider;
+    }
+    
+    /**
+     * Parses a transport name, ignoring case and accepting dashes, e.g. {@code artemis-core}.
+     */
+    public static Transport parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+    
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP connection between a coordinator and a worker carrying one JSON {@link WorkerMessage} per line.
+ * Sending is thread-safe; receiving is meant for a single reader thread.
+ */
+class WorkerChannel implements Closeable {
+    
+    private static final int CONNECT_TIMEOUT_MILLIS = 10_000;
+    
+    private final Socket socket;
+    private final BufferedReader reader;
+    private final Writer writer;
+    // Fields only: the getters of WorkerMessage fill in defaults and convert histograms
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+        .setVisibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY);
+    
+    WorkerChannel(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        this.writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+    
+    static WorkerChannel connect(InetSocketAddress address) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+            return new WorkerChannel(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+    
+    String getRemoteAddress() {
+        return String.valueOf(socket.getRemoteSocketAddress());
+    }
+    
+    synchronized void send(WorkerMessage message) throws IOException {
+        writer.write(objectMapper.writeValueAsString(message));
+        writer.write('\n');
+        writer.flush();
+    }
+    
+    /**
+     * Waits for the next message.
+     *
+     * @param timeoutMillis how long to wait, 0 to wait forever
+     * @return the message, or {@code null} if the other side closed the connection
+     */
+    WorkerMessage receive(int timeoutMillis) throws IOException {
+        socket.setSoTimeout(timeoutMillis);
+        String line;
+        try {
+            line = reader.readLine();
+        } catch (SocketException e) {
+            if (socket.isClosed()) {
+                return null;
+            }
+            throw e;
+        }
+        return line != null ? objectMapper.readValue(line, WorkerMessage.class) : null;
+    }
+    
+    /**
+     * Waits for the next message until a {@link System#nanoTime()} deadline.
+     *
+     * @return the message, or {@code null} if the other side closed the connection
+     * @throws SocketTimeoutException if no message arrived by the deadline
+     */
+    WorkerMessage receiveBefore(long deadlineNanos) throws IOException {
+        long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+        if (remainingMillis <= 0) {
+            throw new SocketTimeoutException("No message from " + getRemoteAddress() + " in time");
+        }
+        return receive((int) Math.min(remainingMillis, Integer.MAX_VALUE));
+    }
+    
+    /**
+     * Waits for the next message, failing if it is missing or not of the expected type. An
+     * {@link WorkerMessage.Type#ERROR} from the other side is reported with its message.
+     */
+    WorkerMessage expect(WorkerMessage.Type type, int timeoutMillis) throws IOException {
+        WorkerMessage message = receive(timeoutMillis);
+        if (message == null) {
+            throw new IOException("Connection to " + getRemoteAddress() + " closed while waiting for " + type);
+        }
+        if (message.getType() == WorkerMessage.Type.ERROR) {
+            throw new IOException(message.getError());
+        }
+        if (message.getType() != type) {
+            throw new IOException("Expected " + type + " from " + getRemoteAddress() + " but got " + message.getType());
+        }
+        return message;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One line of the protocol between a {@link LoadCoordinator} and its {@link LoadWorker}s.
+ * <p>
+ * A worker connects and says {@link Type#HELLO}; the coordinator answers with its
+ * {@link Type#ASSIGN assignment}. The worker warms up its connection and reports {@link Type#READY}.
+ * Once every worker is ready the coordinator sends {@link Type#START} to all of them, and each
+ * worker reports a {@link Type#SAMPLE} per second and finally its {@link Type#RESULT}, with the
+ * latency histograms as bucket counts. Either side may send {@link Type#STOP} or {@link Type#ERROR}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WorkerMessage {
+    
+    public enum Type {
+        HELLO, ASSIGN, READY, START, SAMPLE, RESULT, STOP, ERROR
+    }
+    
+    @JsonProperty("type")
+    private Type type;
+    
+    @JsonProperty("worker")
+    private String worker;
+    
+    // Assignment
+    
+    @JsonProperty("profile")
+    private String profile;
+    
+    @JsonProperty("share")
+    private Double share;
+    
+    @JsonProperty("durationSeconds")
+    private Long durationSeconds;
+    
+    @JsonProperty("concurrency")
+    private Integer concurrency;
+    
+    @JsonProperty("brokerUrl")
+    private String brokerUrl;
+    
+    @JsonProperty("destinations")
+    private List<String> destinations;
+    
+    @JsonProperty("topic")
+    private Boolean topic;
+    
+    @JsonProperty("payload")
+    private String payload;
+    
+    @JsonProperty("headers")
+    private Map<String, Object> headers;
+    
+    @JsonProperty("persistent")
+    private Boolean persistent;
+    
+    @JsonProperty("generate")
+    private Boolean generate;
+    
+    // Progress and result
+    
+    @JsonProperty("sample")
+    private LoadRunSample sample;
+    
+    @JsonProperty("sent")
+    private Long sent;
+    
+    @JsonProperty("failed")
+    private Long failed;
+    
+    @JsonProperty("elapsedNanos")
+    private Long elapsedNanos;
+    
+    @JsonProperty("stopped")
+    private Boolean stopped;
+    
+    @JsonProperty("latency")
+    private Histogram latency;
+    
+    @JsonProperty("serviceTime")
+    private Histogram serviceTime;
+    
+    @JsonProperty("error")
+    private String error;
+    
+    public WorkerMessage() {
+    }
+    
+    public WorkerMessage(Type type, String worker) {
+        this.type = type;
+        this.worker = worker;
+    }
+    
+    public static WorkerMessage error(String worker, String error) {
+        WorkerMessage message = new WorkerMessage(Type.ERROR, worker);
+        message.error = error;
+        return message;
+    }
+    
+    public static WorkerMessage sample(String worker, LoadRunSample sample) {
+        WorkerMessage message = new WorkerMessage(Type.SAMPLE, worker);
+        message.sample = sample;
+        return message;
+    }
+    
+    public static WorkerMessage result(String worker, LoadRunResult result) {
+        WorkerMessage message = new WorkerMessage(Type.RESULT, worker);
+        message.sent = result.getSent();
+        message.failed = result.getFailed();
+        message.elapsedNanos = result.getElapsedNanos();
+        message.stopped = result.isStopped();
+        message.latency = Histogram.of(result.getLatency());
+        message.serviceTime = Histogram.of(result.getServiceTime());
+        message.error = result.getLastError();
+        return message;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getWorker() {
+        return worker;
+    }
+    
+    public String getProfile() {
+        return profile;
+    }
+    
+    public void setProfile(String profile) {
+        this.profile = profile;
+    }
+    
+    public double getShare() {
+        return share != null ? share : 1;
+    }
+    
+    public void setShare(double share) {
+        this.share = share;
+    }
+    
+    public long getDurationSeconds() {
+        return durationSeconds != null ? durationSeconds : 0;
+    }
+    
+    public void setDurationSeconds(long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+    
+    public int getConcurrency() {
+        return concurrency != null ? concurrency : 1;
+    }
+    
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public String getBrokerUrl() {
+        return brokerUrl;
+    }
+    
+    public void setBrokerUrl(String brokerUrl) {
+        this.brokerUrl = brokerUrl;
+    }
+    
+    public List<String> getDestinations() {
+        return destinations != null ? destinations : List.of();
+    }
+    
+    public void setDestinations(List<String> destinations) {
+        this.destinations = destinations;
+    }
+    
+    public boolean isTopic() {
+        return Boolean.TRUE.equals(topic);
+    }
+    
+    public void setTopic(boolean topic) {
+        this.topic = topic;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public Map<String, Object> getHeaders() {
+        return headers != null ? headers : Map.of();
+    }
+    
+    public void setHeaders(Map<String, Object> headers) {
+        this.headers = headers;
+    }
+    
+    public boolean isPersistent() {
+        return !Boolean.FALSE.equals(persistent);
+    }
+    
+    public void setPersistent(boolean persistent) {
+        this.persistent = persistent;
+    }
+    
+    public boolean isGenerate() {
+        return Boolean.TRUE.equals(generate);
+    }
+    
+    public void setGenerate(boolean generate) {
+        this.generate = generate;
+    }
+    
+    public LoadRunSample getSample() {
+        return sample;
+    }
+    
+    public long getSent() {
+        return sent != null ? sent : 0;
+    }
+    
+    public long getFailed() {
+        return failed != null ? failed : 0;
+    }
+    
+    public long getElapsedNanos() {
+        return elapsedNanos != null ? elapsedNanos : 0;
+    }
+    
+    public boolean isStopped() {
+        return Boolean.TRUE.equals(stopped);
+    }
+    
+    public LatencyHistogram getLatency() {
+        return latency != null ? latency.toHistogram() : new LatencyHistogram();
+    }
+    
+    public LatencyHistogram getServiceTime() {
+        return serviceTime != null ? serviceTime.toHistogram() : new LatencyHistogram();
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    /**
+     * A {@link LatencyHistogram} as sparse bucket counts.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Histogram {
+        
+        @JsonProperty("buckets")
+        private Map<Integer, Long> buckets;
+        
+        @JsonProperty("max")
+        private long max;
+        
+        public Histogram() {
+        }
+        
+        static Histogram of(LatencyHistogram histogram) {
+            Histogram data = new Histogram();
+            data.buckets = histogram.toBucketCounts();
+            data.max = histogram.getMax();
+            return data;
+        }
+        
+        LatencyHistogram toHistogram() {
+            return LatencyHistogram.fromBucketCounts(buckets != null ? buckets : Map.of(), max);
+        }
+    }
+}
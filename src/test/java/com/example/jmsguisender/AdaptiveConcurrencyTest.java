@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveConcurrencyTest {
+    
+    @Test
+    void slowStartDoublesUpToTheMaximum() {
+        AdaptiveConcurrency adaptive = adaptive(10);
+        adaptive.setConcurrencyLimits(1, 20);
+        
+        assertEquals(2, adaptive.nextConcurrency(1, 100, 0, 5, true));
+        assertEquals(16, adaptive.nextConcurrency(8, 100, 0, 5, true));
+        assertEquals(20, adaptive.nextConcurrency(16, 100, 0, 5, true));
+        assertEquals(20, adaptive.nextConcurrency(20, 100, 0, 5, true));
+    }
+    
+    @Test
+    void afterTheSlowStartOneSenderIsAdded() {
+        AdaptiveConcurrency adaptive = adaptive(10);
+        adaptive.setConcurrencyLimits(1, 20);
+        
+        assertEquals(9, adaptive.nextConcurrency(8, 100, 0, 10, false));
+        assertEquals(20, adaptive.nextConcurrency(20, 100, 0, 10, false));
+    }
+    
+    @Test
+    void p99OverTheTargetCutsByAQuarter() {
+        AdaptiveConcurrency adaptive = adaptive(10);
+        adaptive.setConcurrencyLimits(2, 100);
+        
+        assertEquals(75, adaptive.nextConcurrency(100, 100, 0, 10.5, true));
+        assertEquals(75, adaptive.nextConcurrency(100, 100, 0, 10.5, false));
+        // Always at least one fewer, never under the minimum
+        assertEquals(2, adaptive.nextConcurrency(3, 100, 0, 10.5, false));
+        assertEquals(2, adaptive.nextConcurrency(2, 100, 0, 10.5, false));
+    }
+    
+    @Test
+    void failuresBackOffEvenUnderTheTarget() {
+        AdaptiveConcurrency adaptive = adaptive(10);
+        
+        assertEquals(6, adaptive.nextConcurrency(8, 100, 1, 1, true));
+    }
+    
+    @Test
+    void windowWithoutCompletedSendsKeepsTheLevel() {
+        AdaptiveConcurrency adaptive = adaptive(10);
+        
+        assertEquals(8, adaptive.nextConcurrency(8, 0, 0, 0, true));
+    }
+    
+    @Test
+    void fastSendsReachTheMaximum() throws InterruptedException {
+        AdaptiveConcurrency adaptive = new AdaptiveConcurrency(sequence -> { }, 1000, 1);
+        adaptive.setConcurrencyLimits(1, 8);
+        adaptive.setWindow(100);
+        
+        LoadRunResult result = adaptive.run();
+        
+        List<AdaptiveConcurrency.Step> steps = adaptive.getSteps();
+        assertEquals(List.of(1, 2, 4, 8), steps.stream().limit(4).map(AdaptiveConcurrency.Step::getConcurrency).toList());
+        assertEquals(8, steps.get(steps.size() - 1).getNextConcurrency());
+        assertEquals(0, result.getFailed());
+        assertTrue(adaptive.report().contains("Sustainable: "));
+    }
+    
+    @Test
+    void failingSendsStayAtTheMinimum() throws InterruptedException {
+        AdaptiveConcurrency adaptive = new AdaptiveConcurrency(sequence -> {
+            throw new IllegalStateException("Broker unavailable");
+        }, 10, 1);
+        adaptive.setConcurrencyLimits(2, 8);
+        adaptive.setWindow(100);
+        
+        LoadRunResult result = adaptive.run();
+        
+        assertTrue(adaptive.getSteps().stream().allMatch(step -> step.getConcurrency() == 2));
+        assertEquals("Broker unavailable", result.getLastError());
+        assertTrue(adaptive.report().contains("No window stayed under 10.0 ms p99 without errors, even at concurrency 2"));
+    }
+    
+    @Test
+    void reportIsTheSameInEveryLocale() throws InterruptedException {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            AdaptiveConcurrency adaptive = adaptive(2.5);
+            adaptive.setWindow(500);
+            adaptive.run();
+            
+            assertTrue(adaptive.report().startsWith("adaptive concurrency 1-256, p99 target 2.5 ms, 1."),
+                adaptive.report());
+            assertTrue(adaptive.getSteps().get(0).toString().startsWith("t=0.5s concurrency=1 "));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+    
+    private static AdaptiveConcurrency adaptive(double targetP99Millis) {
+        return new AdaptiveConcurrency(sequence -> { }, targetP99Millis, 1);
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ControlServerTest {
+    
+    private static final String TOKEN = "0123456789abcdef0123";
+    private static final String BODY = "{\"destination\": \"orders\", \"payload\": \"{\\\"id\\\": 1}\"}";
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final RecordingSender sender = new RecordingSender();
+    private ControlServer server;
+    
+    @BeforeEach
+    void start() throws IOException {
+        ServerConfiguration defaults = new ServerConfiguration();
+        defaults.setServerUrl("tcp://default:61616");
+        server = new ControlServer(sender, defaults);
+        server.setRunStore(null);
+        server.setToken(TOKEN);
+        server.setAllowedBrokerUrls(List.of("tcp://allowed:61616"));
+        server.start(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+    }
+    
+    @AfterEach
+    void stop() {
+        server.close();
+        client.close();
+    }
+    
+    @Test
+    void requestsWithoutTheTokenAreRejected() throws Exception {
+        assertEquals(401, send(post("/send", BODY).build()).statusCode());
+        assertEquals(401, send(post("/send", BODY).header("Authorization", "Bearer wrong-token-0000000").build()).statusCode());
+        assertEquals(401, send(request("/status").header("Authorization", "Basic " + TOKEN).GET().build()).statusCode());
+        assertEquals(List.of(), sender.urls);
+    }
+    
+    @Test
+    void bodiesMustBeJson() throws Exception {
+        HttpResponse<String> response = send(request("/send").header("Authorization", "Bearer " + TOKEN)
+            .header("Content-Type", "text/plain").POST(HttpRequest.BodyPublishers.ofString(BODY)).build());
+        
+        assertEquals(415, response.statusCode());
+        assertEquals(List.of(), sender.urls);
+        assertEquals(200, send(authorized(post("/send", BODY)).header("Content-Type", "Application/JSON; charset=UTF-8")
+            .build()).statusCode());
+    }
+    
+    @Test
+    void wrongMethodIsRejected() throws Exception {
+        HttpResponse<String> response = send(authorized(request("/send")).GET().build());
+        
+        assertEquals(405, response.statusCode());
+        assertEquals("POST", response.headers().firstValue("Allow").orElse(null));
+    }
+    
+    @Test
+    void sendsGoToTheDefaultBroker() throws Exception {
+        HttpResponse<String> response = send(authorized(post("/send", BODY)).build());
+        
+        assertEquals(200, response.statusCode(), response.body());
+        assertEquals(List.of("tcp://default:61616"), sender.urls);
+        assertEquals(List.of("orders"), sender.destinations);
+    }
+    
+    @Test
+    void onlyAllowedBrokersCanBeNamed() throws Exception {
+        HttpResponse<String> rejected = send(authorized(post("/send",
+            "{\"url\": \"tcp://attacker:61616\", \"destination\": \"orders\", \"payload\": \"{\\\"id\\\": 1}\"}")).build());
+        HttpResponse<String> allowed = send(authorized(post("/send",
+            "{\"url\": \"tcp://allowed:61616\", \"destination\": \"orders\", \"payload\": \"{\\\"id\\\": 1}\"}")).build());
+        
+        assertEquals(400, rejected.statusCode());
+        assertTrue(rejected.body().contains("tcp://attacker:61616"), rejected.body());
+        assertEquals(200, allowed.statusCode(), allowed.body());
+        assertEquals(List.of("tcp://allowed:61616"), sender.urls);
+    }
+    
+    @Test
+    void invalidRequestsAreBadRequests() throws Exception {
+        assertEquals(400, send(authorized(post("/send", "{\"destination\": \"orders\"}")).build()).statusCode());
+        assertEquals(400, send(authorized(post("/send", "{\"payload\": ")).build()).statusCode());
+        assertEquals(400, send(authorized(post("/send", "{\"destination\": \"orders\", \"payload\": \"x\", \"count\": 0}"))
+            .build()).statusCode());
+    }
+    
+    @Test
+    void metricsCountTheSends() throws Exception {
+        send(authorized(post("/send", "{\"destination\": \"orders\", \"payload\": \"{\\\"id\\\": 1}\", \"count\": 3}")).build());
+        
+        HttpResponse<String> response = send(authorized(request("/metrics")).GET().build());
+        
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().matches("(?s).*\"sent\"\\s*:\\s*3\\b.*"), response.body());
+    }
+    
+    @Test
+    void shortTokensAreRefused() {
+        assertThrows(IllegalArgumentException.class, () -> server.setToken("too-short"));
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        InetSocketAddress address = server.getAddress();
+        return HttpRequest.newBuilder(URI.create("http://" + address.getHostString() + ":" + address.getPort() + path));
+    }
+    
+    private HttpRequest.Builder post(String path, String body) {
+        return request(path).header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+    
+    private static HttpRequest.Builder authorized(HttpRequest.Builder request) {
+        return request.header("Authorization", "Bearer " + TOKEN);
+    }
+    
+    private HttpResponse<String> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+    
+    /**
+     * Records the sends instead of connecting to a broker.
+     */
+    private static class RecordingSender extends JMSSender {
+        final List<String> urls = new ArrayList<>();
+        final List<String> destinations = new ArrayList<>();
+        
+        @Override
+        public synchronized void sendMessage(SendRequest request) {
+            urls.add(request.getBrokerUrl());
+            destinations.add(request.getDestination());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DestinationPatternTest {
+    
+    @Test
+    void splitsOnCommasSemicolonsAndNewLines() {
+        assertEquals(List.of("a", "b", "c", "d"), DestinationPattern.split(" a, b;c\nd ,, a"));
+        assertEquals(List.of(), DestinationPattern.split(null));
+    }
+    
+    @Test
+    void starMatchesOneSegmentOrPartOfOne() {
+        assertTrue(DestinationPattern.matches("orders.*", "orders.eu"));
+        assertFalse(DestinationPattern.matches("orders.*", "orders.eu.fr"));
+        assertTrue(DestinationPattern.matches("orders.eu*", "orders.eu-west"));
+        assertFalse(DestinationPattern.matches("orders.eu*", "orders.us"));
+        assertTrue(DestinationPattern.matches("*.eu", "orders.eu"));
+    }
+    
+    @Test
+    void greaterThanMatchesAllRemainingSegments() {
+        assertTrue(DestinationPattern.matches("orders.>", "orders.eu.fr"));
+        assertTrue(DestinationPattern.matches("orders.>", "orders"));
+        assertFalse(DestinationPattern.matches("orders.>", "invoices.eu"));
+        assertTrue(DestinationPattern.matches(">", "anything.at.all"));
+    }
+    
+    @Test
+    void literalCharactersAreNotRegex() {
+        assertFalse(DestinationPattern.matches("a+b.*", "aab.x"));
+        assertTrue(DestinationPattern.matches("a+b.*", "a+b.x"));
+    }
+    
+    @Test
+    void expandsWildcardsSortedAndKeepsPlainNames() {
+        List<String> known = List.of("orders.us", "orders.eu", "invoices.eu");
+        
+        assertEquals(List.of("plain", "orders.eu", "orders.us"),
+            DestinationPattern.expand(List.of("plain", "orders.*", "orders.eu"), known));
+    }
+    
+    @Test
+    void multipleMeansAListOrAWildcard() {
+        assertFalse(DestinationPattern.isMultiple("orders"));
+        assertTrue(DestinationPattern.isMultiple("orders,invoices"));
+        assertTrue(DestinationPattern.isMultiple("orders.>"));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import jakarta.jms.InvalidDestinationException;
+import jakarta.jms.JMSException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FailedMessageSpoolTest {
+    
+    private static final String BROKER = "ssl://broker:61617";
+    
+    @TempDir
+    Path directory;
+    
+    private final RecordingSender sender = new RecordingSender();
+    private final List<String> messages = new ArrayList<>();
+    
+    @Test
+    void backoffDoublesUpToTheMaximum() {
+        assertEquals(1_000, FailedMessageSpool.backoff(1));
+        assertEquals(2_000, FailedMessageSpool.backoff(2));
+        assertEquals(8_000, FailedMessageSpool.backoff(4));
+        assertEquals(5 * 60_000, FailedMessageSpool.backoff(10));
+        assertEquals(5 * 60_000, FailedMessageSpool.backoff(100));
+    }
+    
+    @Test
+    void spoolsTheSettingsWithoutPasswords() throws IOException {
+        FailedMessageSpool spool = spool(configuration(BROKER, "alice"));
+        
+        spool.spool("id-1", BROKER, "alice", "orders", false, "{}", Map.of("count", 3), configuration(BROKER, "alice"),
+            new JMSException("down"));
+        
+        String file = Files.readString(directory.resolve("id-1.json"));
+        assertFalse(file.contains("secret"), file);
+        SpooledMessage message = spool.list().get(0);
+        assertEquals(1, message.getAttempts());
+        assertEquals(Map.of("count", 3), message.getCustomHeaders());
+        assertEquals("/stores/trust.p12", message.getConfiguration().getTrustStorePath());
+        assertEquals(Transport.AMQP, message.getConfiguration().getTransport());
+        assertNull(message.getConfiguration().getPassword());
+    }
+    
+    @Test
+    void resendsWithTheSpooledSettingsAndTheCurrentPasswordOfTheSameLogin() throws IOException {
+        ServerConfiguration current = configuration(BROKER, "alice");
+        FailedMessageSpool spool = spool(current);
+        spool.spool("id-1", BROKER, "alice", "orders", false, "{}", Map.of(), configuration(BROKER, "alice"), new JMSException("down"));
+        // The user switched to another broker profile since
+        current.setTransport(Transport.OPENWIRE);
+        current.setServerUrl("tcp://other:61616");
+        
+        assertEquals(1, spool.resendAll());
+        
+        assertEquals(Transport.AMQP, sender.configs.get(0).getTransport());
+        assertNull(sender.passwords.get(0));
+        assertEquals("trust-secret", sender.configs.get(0).getTrustStorePassword());
+        assertEquals(0, spool.size());
+        
+        current.setServerUrl(BROKER);
+        spool.spool("id-2", BROKER, "alice", "orders", false, "{}", Map.of(), configuration(BROKER, "alice"), new JMSException("down"));
+        spool.spool("id-3", BROKER, "bob", "orders", false, "{}", Map.of(), configuration(BROKER, "bob"), new JMSException("down"));
+        
+        assertEquals(2, spool.resendAll());
+        assertEquals("secret", sender.passwords.get(1));
+        assertNull(sender.passwords.get(2));
+    }
+    
+    @Test
+    void storePasswordsAreOnlyUsedForTheSameStores() {
+        SpooledMessage message = new SpooledMessage("id-1", BROKER, "alice", "orders", false, "{}", Map.of());
+        ServerConfiguration saved = configuration(BROKER, "alice");
+        saved.setTrustStorePassword(null);
+        saved.setKeyStorePassword(null);
+        message.setConfiguration(saved);
+        ServerConfiguration current = configuration(BROKER, "alice");
+        current.setKeyStorePath("/stores/other.p12");
+        
+        ServerConfiguration settings = FailedMessageSpool.settingsFor(message, current);
+        
+        assertEquals("trust-secret", settings.getTrustStorePassword());
+        assertNull(settings.getKeyStorePassword());
+        assertNull(settings.getPassword());
+    }
+    
+    @Test
+    void parksMessagesThatCannotSucceed() throws IOException {
+        FailedMessageSpool spool = spool(configuration(BROKER, "alice"));
+        spool.spool("id-1", BROKER, "alice", "orders", false, "{}", Map.of(), null, new JMSException("down"));
+        sender.failure = new InvalidDestinationException("no such queue");
+        
+        assertEquals(0, spool.resendAll());
+        
+        assertEquals(FailedMessageSpool.MAX_AUTOMATIC_ATTEMPTS, spool.list().get(0).getAttempts());
+        assertTrue(messages.get(0).startsWith("WARNING: Parked message id-1"), messages.toString());
+    }
+    
+    @Test
+    void stopsAtTheFirstUnreachableBroker() throws IOException {
+        FailedMessageSpool spool = spool(configuration(BROKER, "alice"));
+        spool.spool("id-1", BROKER, "alice", "orders", false, "{}", Map.of(), null, new JMSException("down"));
+        spool.spool("id-2", BROKER, "alice", "orders", false, "{}", Map.of(), null, new JMSException("down"));
+        sender.failure = new JMSSender.ConnectFailedException("Could not connect", new ConnectException("refused"));
+        
+        assertEquals(0, spool.resendAll());
+        
+        assertEquals(1, sender.passwords.size());
+        List<SpooledMessage> spooled = spool.list();
+        assertEquals(List.of(2, 1), spooled.stream().map(SpooledMessage::getAttempts).sorted((a, b) -> b - a).toList());
+        assertTrue(spooled.get(0).getNextAttemptAt() > spooled.get(0).getFirstFailedAt());
+    }
+    
+    private FailedMessageSpool spool(ServerConfiguration current) throws IOException {
+        FailedMessageSpool spool = new FailedMessageSpool(directory, sender, () -> current);
+        spool.setListener(messages::add);
+        return spool;
+    }
+    
+    private static ServerConfiguration configuration(String url, String username) {
+        ServerConfiguration config = new ServerConfiguration(url, username, "secret", "orders", false);
+        config.setTransport(Transport.AMQP);
+        config.setUseSsl(true);
+        config.setTrustStorePath("/stores/trust.p12");
+        config.setTrustStorePassword("trust-secret");
+        config.setKeyStorePath("/stores/key.p12");
+        config.setKeyStorePassword("key-secret");
+        return config;
+    }
+    
+    /**
+     * Records resends instead of connecting, or fails them.
+     */
+    private static class RecordingSender extends JMSSender {
+        final List<String> passwords = new ArrayList<>();
+        final List<ServerConfiguration> configs = new ArrayList<>();
+        Exception failure;
+        
+        @Override
+        public void resendMessage(String brokerURL, String username, String password, String destinationName, String messageText,
+                                  boolean isTopic, ServerConfiguration sslConfig, Map<String, Object> customHeaders,
+                                  String messageId) throws JMSException {
+            passwords.add(password);
+            configs.add(sslConfig);
+            if (failure instanceof JMSException jmsException) {
+                throw jmsException;
+            } else if (failure instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonPayloadProcessorTest {
+    
+    private static final String PAYLOAD = "{ \"b\" : [1, 2.50, 1e400],\n  \"a\" : { \"z\" : null, \"y\" : \"é\" } }";
+    
+    @Test
+    void offSendsAnythingAsIs() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process("not json", JsonPayloadProcessor.Mode.OFF);
+        
+        assertTrue(result.isValid());
+        assertEquals("not json", result.getPayload());
+        assertFalse(result.isRewritten());
+    }
+    
+    @Test
+    void validateKeepsThePayloadAsWritten() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process(PAYLOAD, JsonPayloadProcessor.Mode.VALIDATE);
+        
+        assertTrue(result.isValid());
+        assertEquals(PAYLOAD, result.getPayload());
+        assertFalse(result.isRewritten());
+    }
+    
+    @Test
+    void minifyKeepsNumbersAndKeyOrderExactly() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process(PAYLOAD, JsonPayloadProcessor.Mode.MINIFY);
+        
+        assertEquals("{\"b\":[1,2.50,1e400],\"a\":{\"z\":null,\"y\":\"é\"}}", result.getPayload());
+        assertTrue(result.isRewritten());
+        assertEquals(PAYLOAD.length() + 1, result.getOriginalBytes());
+    }
+    
+    @Test
+    void canonicalSortsKeysAndKeepsDecimalsExact() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process("{\"b\":2.50,\"a\":{\"d\":1,\"c\":0.1}}",
+            JsonPayloadProcessor.Mode.CANONICAL);
+        
+        assertEquals("{\"a\":{\"c\":0.1,\"d\":1},\"b\":2.50}", result.getPayload());
+    }
+    
+    @Test
+    void reportsWhereThePayloadIsInvalid() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process("{\n  \"a\": 1,\n  \"a\": 2\n}",
+            JsonPayloadProcessor.Mode.MINIFY);
+        
+        assertFalse(result.isValid());
+        assertNull(result.getPayload());
+        assertTrue(result.getError().startsWith(" at line 3"), result.getError());
+        assertTrue(result.getError().contains("Duplicate field 'a'"), result.getError());
+        assertThrows(IllegalArgumentException.class, result::orThrow);
+    }
+    
+    @Test
+    void rejectsEmptyAndTrailingContent() {
+        for (JsonPayloadProcessor.Mode mode : new JsonPayloadProcessor.Mode[] {
+            JsonPayloadProcessor.Mode.VALIDATE, JsonPayloadProcessor.Mode.MINIFY, JsonPayloadProcessor.Mode.CANONICAL}) {
+            assertFalse(JsonPayloadProcessor.process("  ", mode).isValid(), mode.name());
+            assertFalse(JsonPayloadProcessor.process("{} {}", mode).isValid(), mode.name());
+            assertFalse(JsonPayloadProcessor.process("[1, 2", mode).isValid(), mode.name());
+        }
+    }
+    
+    @Test
+    void parsesModeNamesAndCountsUtf8Bytes() {
+        assertEquals(JsonPayloadProcessor.Mode.CANONICAL, JsonPayloadProcessor.Mode.parse(" canonical "));
+        assertEquals(1 + 2 + 3 + 4, JsonPayloadProcessor.utf8Length("aé€😀"));
+    }
+    
+    @Test
+    void describesTheSizeChange() {
+        JsonPayloadProcessor.Result result = JsonPayloadProcessor.process("[1, 2]", JsonPayloadProcessor.Mode.MINIFY);
+        
+        assertEquals("Valid JSON, minified 6 -> 5 bytes (-16.7%)", result.describe());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+    }
+    
+    @Test
+    void largeValuesStayWithinTheBucketError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 to 10000 microseconds
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+        
+        assertWithin(5_000_000, histogram.getValueAtPercentile(50));
+        assertWithin(9_900_000, histogram.getValueAtPercentile(99));
+        assertWithin(9_990_000, histogram.getValueAtPercentile(99.9));
+        assertEquals(10_000_000, histogram.getMax());
+        assertEquals(10_000_000, histogram.getValueAtPercentile(100));
+    }
+    
+    @Test
+    void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMean(), 0);
+    }
+    
+    @Test
+    void addMergesAndBucketCountsRoundTrip() {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            (value % 2 == 0 ? first : second).record(value * 997);
+        }
+        first.add(second);
+        LatencyHistogram copy = LatencyHistogram.fromBucketCounts(first.toBucketCounts(), first.getMax());
+        
+        assertEquals(1000, first.getCount());
+        assertEquals(first.getValueAtPercentile(90), copy.getValueAtPercentile(90));
+        assertEquals(first.getMax(), copy.getMax());
+    }
+    
+    @Test
+    void snapshotAndResetMovesTheValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000);
+        histogram.record(2_000);
+        
+        LatencyHistogram snapshot = histogram.snapshotAndReset();
+        
+        assertEquals(2, snapshot.getCount());
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+    
+    private static void assertWithin(long expected, long actual) {
+        // Buckets are 1/64 of a power of two wide
+        assertTrue(Math.abs(actual - expected) <= expected / 50,
+            "expected about " + expected + " but was " + actual);
+    }
+}
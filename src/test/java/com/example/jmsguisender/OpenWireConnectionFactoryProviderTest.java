@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OpenWireConnectionFactoryProviderTest {
+    
+    private static final String OPTIONS = "tcpNoDelay=true&socketBufferSize=131072";
+    
+    @Test
+    void optionsAreAddedToASocketUrl() {
+        assertEquals("tcp://broker:61616?" + OPTIONS,
+            OpenWireConnectionFactoryProvider.withTransportOptions("tcp://broker:61616", OPTIONS));
+        assertEquals("ssl://broker:61617?verifyHostName=false&" + OPTIONS,
+            OpenWireConnectionFactoryProvider.withTransportOptions("ssl://broker:61617?verifyHostName=false", OPTIONS));
+        assertEquals("NIO+SSL://broker:61617?" + OPTIONS,
+            OpenWireConnectionFactoryProvider.withTransportOptions("NIO+SSL://broker:61617", OPTIONS));
+    }
+    
+    @Test
+    void everyNestedUrlOfACompositeGetsTheOptions() {
+        assertEquals("failover:(tcp://a:61616?" + OPTIONS + ",tcp://b:61616?keepAlive=true&" + OPTIONS + ")?randomize=false",
+            OpenWireConnectionFactoryProvider.withTransportOptions(
+                "failover:(tcp://a:61616, tcp://b:61616?keepAlive=true)?randomize=false", OPTIONS));
+    }
+    
+    @Test
+    void nonSocketTransportsAreLeftAlone() {
+        assertEquals("vm://localhost?broker.persistent=false",
+            OpenWireConnectionFactoryProvider.withTransportOptions("vm://localhost?broker.persistent=false", OPTIONS));
+        assertEquals("failover:(vm://embedded,tcp://b:61616?" + OPTIONS + ")",
+            OpenWireConnectionFactoryProvider.withTransportOptions("failover:(vm://embedded,tcp://b:61616)", OPTIONS));
+    }
+    
+    @Test
+    void noOptionsKeepTheUrl() {
+        assertEquals("tcp://broker:61616", OpenWireConnectionFactoryProvider.withTransportOptions("tcp://broker:61616", ""));
+    }
+    
+    @Test
+    void factoryGetsTheTuningAndTheConnectTimeout() throws Exception {
+        ServerConfiguration config = new ServerConfiguration();
+        ClientTuning tuning = new ClientTuning();
+        tuning.setTcpNoDelay(true);
+        tuning.setSocketBufferSize(131072);
+        tuning.setUseAsyncSend(true);
+        tuning.setProducerWindowSize(1 << 20);
+        config.setClientTuning(tuning);
+        config.setConnectTimeout(5000);
+        
+        ActiveMQConnectionFactory factory = (ActiveMQConnectionFactory) new OpenWireConnectionFactoryProvider()
+            .createConnectionFactory("tcp://broker:61616", config);
+        
+        assertEquals("tcp://broker:61616?" + OPTIONS + "&connectionTimeout=5000", factory.getBrokerURL());
+        assertEquals(5000, factory.getConnectResponseTimeout());
+        assertTrue(factory.isUseAsyncSend());
+        assertEquals(1 << 20, factory.getProducerWindowSize());
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PEMCertificateHelperTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void parsesEveryCertificateOfABundle() throws Exception {
+        List<X509Certificate> certificates = PEMCertificateHelper.parsePEMCertificates(bundle());
+        
+        assertEquals(2, certificates.size());
+        assertEquals("CN=Test CA 1", certificates.get(0).getSubjectX500Principal().getName());
+        assertEquals("CN=Test CA 2", certificates.get(1).getSubjectX500Principal().getName());
+    }
+    
+    @Test
+    void ignoresNonAsciiCommentsInFiles() throws Exception {
+        // As in curl's cacert.pem: "# Issuer: CN=NetLock Arany (Class Gold) Főtanúsítvány"
+        Path file = directory.resolve("cacert.pem");
+        Files.writeString(file, "# Issuer: CN=NetLock Arany (Class Gold) Főtanúsítvány\n" + bundle(),
+            StandardCharsets.UTF_8);
+        
+        assertEquals(2, PEMCertificateHelper.loadCertificatesFromPEM(file.toString()).size());
+    }
+    
+    @Test
+    void acceptsBlocksWithoutLineBreaks() throws Exception {
+        String bundle = bundle();
+        String first = bundle.substring(bundle.indexOf("-----BEGIN"), bundle.indexOf("-----END") + "-----END CERTIFICATE-----".length());
+        String oneLine = first.replace("\n", "").replace("\r", "");
+        
+        assertEquals(1, PEMCertificateHelper.parsePEMCertificates(oneLine).size());
+    }
+    
+    @Test
+    void findsNothingWithoutMarkers() throws Exception {
+        assertTrue(PEMCertificateHelper.parsePEMCertificates("# no certificates here\n").isEmpty());
+    }
+    
+    private static String bundle() throws Exception {
+        try (InputStream in = PEMCertificateHelperTest.class.getResourceAsStream("/test-ca-bundle.pem")) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PayloadGeneratorTest {
+    
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+        .disable(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES)
+        .build();
+    private static final int PAYLOADS = 500;
+    
+    @Test
+    void integersStayWithinOneSidedBounds() throws IOException {
+        for (JsonNode value : generate("{\"type\":\"integer\",\"maximum\":-5}")) {
+            assertTrue(value.isIntegralNumber() && value.asLong() <= -5, value.toString());
+        }
+        for (JsonNode value : generate("{\"type\":\"integer\",\"exclusiveMinimum\":7.5}")) {
+            assertTrue(value.asLong() >= 8, value.toString());
+        }
+        for (JsonNode value : generate("{\"type\":\"integer\",\"minimum\":3,\"exclusiveMaximum\":5}")) {
+            assertTrue(value.asLong() == 3 || value.asLong() == 4, value.toString());
+        }
+    }
+    
+    @Test
+    void numbersHonourExclusiveAndNarrowBounds() throws IOException {
+        for (JsonNode value : generate("{\"type\":\"number\",\"exclusiveMinimum\":0,\"maximum\":0.01}")) {
+            assertEquals(0, value.decimalValue().compareTo(new BigDecimal("0.01")), value.toString());
+        }
+        for (JsonNode value : generate("{\"type\":\"number\",\"minimum\":0.001,\"maximum\":0.002}")) {
+            BigDecimal number = value.decimalValue();
+            assertTrue(number.compareTo(new BigDecimal("0.001")) >= 0 && number.compareTo(new BigDecimal("0.002")) <= 0,
+                value.toString());
+        }
+        // Draft 4 style boolean exclusive bounds
+        for (JsonNode value : generate("{\"type\":\"number\",\"minimum\":-1,\"maximum\":0,\"exclusiveMaximum\":true}")) {
+            assertTrue(value.decimalValue().signum() < 0 && value.decimalValue().compareTo(BigDecimal.ONE.negate()) >= 0,
+                value.toString());
+        }
+        for (JsonNode value : generate("{\"type\":\"number\",\"maximum\":-100}")) {
+            assertTrue(value.decimalValue().compareTo(BigDecimal.valueOf(-100)) <= 0, value.toString());
+        }
+    }
+    
+    @Test
+    void lengthsAndItemCountsFollowTheGivenBound() throws IOException {
+        for (JsonNode value : generate("{\"type\":\"string\",\"maxLength\":0}")) {
+            assertEquals("", value.asText());
+        }
+        for (JsonNode value : generate("{\"type\":\"string\",\"minLength\":20}")) {
+            assertTrue(value.asText().length() >= 20, value.toString());
+        }
+        for (JsonNode value : generate("{\"type\":\"array\",\"maxItems\":0,\"items\":{\"type\":\"integer\"}}")) {
+            assertTrue(value.isArray() && value.isEmpty(), value.toString());
+        }
+    }
+    
+    @Test
+    void rejectsImpossibleBounds() {
+        assertThrows(IllegalArgumentException.class, () -> PayloadGenerator.compile("{\"type\":\"integer\",\"minimum\":5,\"maximum\":4}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadGenerator.compile("{\"type\":\"integer\",\"exclusiveMinimum\":1,\"exclusiveMaximum\":2}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadGenerator.compile("{\"type\":\"number\",\"exclusiveMinimum\":1,\"maximum\":1}"));
+        assertThrows(IllegalArgumentException.class, () -> PayloadGenerator.compile("{\"type\":\"string\",\"minLength\":5,\"maxLength\":2}"));
+    }
+    
+    @Test
+    void rejectsUnsupportedKeywords() {
+        for (String schema : new String[] {
+            "{\"type\":\"string\",\"pattern\":\"^[a-z]+$\"}",
+            "{\"type\":\"integer\",\"multipleOf\":5}",
+            "{\"type\":\"array\",\"uniqueItems\":true,\"items\":{\"type\":\"boolean\"}}",
+            "{\"type\":\"object\",\"properties\":{\"a\":{\"not\":{\"type\":\"string\"}}}}"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> PayloadGenerator.compile(schema), schema);
+            assertTrue(e.getMessage().contains("is not supported"), e.getMessage());
+        }
+        PayloadGenerator.compile("{\"type\":\"array\",\"uniqueItems\":false,\"items\":{\"type\":\"boolean\"}}");
+    }
+    
+    @Test
+    void objectsHaveEveryRequiredProperty() throws IOException {
+        String schema = "{\"$schema\":\"https://json-schema.org/draft/2020-12/schema\",\"type\":\"object\"," +
+            "\"required\":[\"id\",\"name\",\"extra\"],\"properties\":{" +
+            "\"id\":{\"type\":\"string\",\"format\":\"uuid\"},\"name\":{\"$ref\":\"#/$defs/name\"}," +
+            "\"kind\":{\"enum\":[\"a\",\"b\"]},\"pair\":{\"type\":\"array\",\"prefixItems\":[{\"type\":\"integer\"},{\"type\":\"boolean\"}]}}," +
+            "\"$defs\":{\"name\":{\"type\":\"string\",\"minLength\":3,\"maxLength\":3}}}";
+        PayloadGenerator generator = PayloadGenerator.compile(schema);
+        
+        assertTrue(generator.isSchema());
+        for (JsonNode value : generate(schema)) {
+            UUID.fromString(value.get("id").asText());
+            assertEquals(3, value.get("name").asText().length());
+            assertTrue(value.has("extra"));
+            assertTrue(!value.has("kind") || value.get("kind").asText().matches("[ab]"));
+            if (value.has("pair")) {
+                assertEquals(2, value.get("pair").size());
+                assertTrue(value.get("pair").get(0).isIntegralNumber() && value.get("pair").get(1).isBoolean());
+            }
+        }
+    }
+    
+    @Test
+    void samplesKeepTheirTypesAndScale() throws IOException {
+        PayloadGenerator generator = PayloadGenerator.compile("{\"id\":42,\"price\":-1.50,\"email\":\"a@b.com\",\"tags\":[\"x\"]}");
+        
+        assertFalse(generator.isSchema());
+        for (int i = 0; i < PAYLOADS; i++) {
+            JsonNode value = MAPPER.readTree(generator.next());
+            assertTrue(value.get("id").isIntegralNumber() && value.get("id").asLong() >= 0);
+            assertEquals(2, value.get("price").decimalValue().scale());
+            assertTrue(value.get("price").decimalValue().signum() <= 0);
+            assertTrue(value.get("email").asText().endsWith("@example.com"));
+            assertTrue(value.get("tags").isArray());
+        }
+    }
+    
+    private static JsonNode[] generate(String schema) throws IOException {
+        PayloadGenerator generator = PayloadGenerator.compile(schema);
+        JsonNode[] values = new JsonNode[PAYLOADS];
+        for (int i = 0; i < PAYLOADS; i++) {
+            values[i] = MAPPER.readTree(generator.next());
+        }
+        return values;
+    }
+}
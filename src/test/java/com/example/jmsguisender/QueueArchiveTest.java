@@ -0,0 +1,216 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.apache.activemq.command.ActiveMQTextMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QueueArchiveTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void ndjsonKeepsHeadersPropertiesAndBodies() throws Exception {
+        assertRoundTrip(directory.resolve("orders.ndjson.gz"), QueueArchive.Format.NDJSON);
+    }
+    
+    @Test
+    void binaryKeepsHeadersPropertiesAndBodies() throws Exception {
+        assertRoundTrip(directory.resolve("orders.bin.gz"), QueueArchive.Format.BINARY);
+    }
+    
+    @Test
+    void batchesAreConcatenatedGzipMembers() throws Exception {
+        Path file = directory.resolve("orders.ndjson.gz");
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(file, QueueArchive.Format.NDJSON, 0)) {
+            writer.write(text("ID:1", "first"));
+            writer.endBatch();
+            writer.write(text("ID:2", "second"));
+            writer.endBatch();
+        }
+        
+        String lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, lines.lines().count());
+    }
+    
+    @Test
+    void resumingDropsTheUnfinishedBatch() throws Exception {
+        for (QueueArchive.Format format : QueueArchive.Format.values()) {
+            Path file = directory.resolve("resume-" + format);
+            long offset;
+            try (QueueArchive.Writer writer = new QueueArchive.Writer(file, format, 0)) {
+                writer.write(text("ID:1", "first"));
+                writer.write(text("ID:2", "second"));
+                assertEquals(2, writer.getBatchCount());
+                offset = writer.endBatch();
+                assertEquals(0, writer.getBatchCount());
+                assertEquals(Files.size(file), offset);
+            }
+            // Half of a batch written when the export was interrupted
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+                channel.write(ByteBuffer.wrap(new byte[] {0x1f, (byte) 0x8b, 8, 0, 0, 0}));
+            }
+            
+            try (QueueArchive.Writer writer = new QueueArchive.Writer(file, format, offset)) {
+                writer.write(text("ID:3", "third"));
+                writer.endBatch();
+            }
+            
+            assertEquals(List.of("ID:1", "ID:2", "ID:3"), readIds(file, format), format.name());
+        }
+    }
+    
+    @Test
+    void unfinishedBatchIsLeftOutOfTheOffset() throws Exception {
+        Path file = directory.resolve("orders.bin");
+        long offset;
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(file, QueueArchive.Format.BINARY, 0)) {
+            writer.write(text("ID:1", "first"));
+            offset = writer.endBatch();
+            writer.write(text("ID:2", "never ended"));
+        }
+        
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(file, QueueArchive.Format.BINARY, offset)) {
+            assertEquals(offset, writer.endBatch());
+        }
+        assertEquals(offset, Files.size(file));
+        assertEquals(List.of("ID:1"), readIds(file, QueueArchive.Format.BINARY));
+    }
+    
+    @Test
+    void truncatedArchiveFails() throws Exception {
+        Path file = directory.resolve("orders.bin");
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(file, QueueArchive.Format.BINARY, 0)) {
+            writer.write(text("ID:1", "x".repeat(10_000)));
+            writer.endBatch();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() / 2);
+        }
+        
+        try (QueueArchive.Reader reader = new QueueArchive.Reader(file)) {
+            assertThrows(EOFException.class, reader::next);
+        }
+    }
+    
+    @Test
+    void formatFollowsTheFileName() {
+        assertEquals(QueueArchive.Format.BINARY, QueueArchive.Format.forFile(Path.of("export.bin")));
+        assertEquals(QueueArchive.Format.BINARY, QueueArchive.Format.forFile(Path.of("export.BIN.gz")));
+        assertEquals(QueueArchive.Format.NDJSON, QueueArchive.Format.forFile(Path.of("export.ndjson.gz")));
+        assertEquals(QueueArchive.Format.NDJSON, QueueArchive.Format.forFile(Path.of("export.gz")));
+    }
+    
+    private static void assertRoundTrip(Path file, QueueArchive.Format format) throws Exception {
+        ActiveMQTextMessage text = new ActiveMQTextMessage();
+        text.setJMSMessageID("ID:broker-1:1:1:1:1");
+        text.setJMSCorrelationID("order-42");
+        text.setJMSType("OrderCreated");
+        text.setJMSTimestamp(1_700_000_000_000L);
+        text.setJMSPriority(7);
+        text.setJMSDestination(new ActiveMQQueue("orders"));
+        text.setJMSReplyTo(new ActiveMQQueue("replies"));
+        text.setStringProperty("region", "eu");
+        text.setIntProperty("attempt", 3);
+        text.setText("{\"id\": 42, \"name\": \"café\"}\nsecond line");
+        ActiveMQBytesMessage bytes = new ActiveMQBytesMessage();
+        bytes.setJMSMessageID("ID:broker-1:1:1:1:2");
+        bytes.writeBytes(new byte[] {0, 1, 2, (byte) 0xff, '\n'});
+        bytes.reset();
+        ActiveMQMessage empty = new ActiveMQMessage();
+        empty.setJMSMessageID("ID:broker-1:1:1:1:3");
+        
+        try (QueueArchive.Writer writer = new QueueArchive.Writer(file, format, 0)) {
+            writer.write(ArchivedMessage.from(text));
+            writer.write(ArchivedMessage.from(bytes));
+            writer.endBatch();
+            writer.write(ArchivedMessage.from(empty));
+            writer.endBatch();
+        }
+        
+        try (QueueArchive.Reader reader = new QueueArchive.Reader(file, format)) {
+            ArchivedMessage first = reader.next();
+            assertEquals("ID:broker-1:1:1:1:1", first.getMessageId());
+            assertEquals("order-42", first.getCorrelationId());
+            assertEquals("OrderCreated", first.getType());
+            assertEquals(1_700_000_000_000L, first.getTimestamp());
+            assertEquals(7, first.getPriority());
+            assertEquals("queue://orders", first.getDestination());
+            assertEquals("queue://replies", first.getReplyTo());
+            assertEquals("eu", first.getProperties().get("region"));
+            assertEquals(3, first.getProperties().get("attempt"));
+            assertEquals(ArchivedMessage.BodyType.TEXT, first.getBodyType());
+            assertEquals("{\"id\": 42, \"name\": \"café\"}\nsecond line", first.getText());
+            
+            ArchivedMessage second = reader.next();
+            assertEquals(ArchivedMessage.BodyType.BYTES, second.getBodyType());
+            assertArrayEquals(new byte[] {0, 1, 2, (byte) 0xff, '\n'}, second.getBytes());
+            assertNull(second.getText());
+            
+            ArchivedMessage third = reader.next();
+            assertEquals("ID:broker-1:1:1:1:3", third.getMessageId());
+            assertEquals(ArchivedMessage.BodyType.NONE, third.getBodyType());
+            assertNull(third.getText());
+            assertNull(third.getBytes());
+            
+            assertNull(reader.next());
+        }
+    }
+    
+    private static ArchivedMessage text(String id, String body) throws Exception {
+        ActiveMQTextMessage message = new ActiveMQTextMessage();
+        message.setJMSMessageID(id);
+        message.setText(body);
+        return ArchivedMessage.from(message);
+    }
+    
+    private static List<String> readIds(Path file, QueueArchive.Format format) throws IOException {
+        List<String> ids = new ArrayList<>();
+        try (QueueArchive.Reader reader = new QueueArchive.Reader(file, format)) {
+            ArchivedMessage message;
+            while ((message = reader.next()) != null) {
+                ids.add(message.getMessageId());
+            }
+        }
+        return ids;
+    }
+}
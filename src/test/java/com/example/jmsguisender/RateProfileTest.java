@@ -0,0 +1,79 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RateProfileTest {
+    
+    @Test
+    void parsesEveryProfile() {
+        assertEquals(250, RateProfile.parse("constant:250").rateAt(42), 1e-9);
+        
+        RateProfile ramp = RateProfile.parse("ramp:100:300:10");
+        assertEquals(100, ramp.rateAt(0), 1e-9);
+        assertEquals(200, ramp.rateAt(5), 1e-9);
+        assertEquals(300, ramp.rateAt(60), 1e-9);
+        
+        RateProfile burst = RateProfile.parse("burst:10:1000:30:5");
+        assertEquals(1000, burst.rateAt(2), 1e-9);
+        assertEquals(10, burst.rateAt(10), 1e-9);
+        assertEquals(1000, burst.rateAt(31), 1e-9);
+        
+        RateProfile sine = RateProfile.parse("sine:100:50:20");
+        assertEquals(100, sine.rateAt(0), 1e-9);
+        assertEquals(150, sine.rateAt(5), 1e-9);
+        assertEquals(50, sine.rateAt(15), 1e-9);
+    }
+    
+    @Test
+    void rejectsInvalidSpecifications() {
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.parse("steady:100"));
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.parse("ramp:100:200"));
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.parse("constant:fast"));
+        assertThrows(IllegalArgumentException.class, () -> RateProfile.parse("burst:10:100:0:1"));
+    }
+    
+    @Test
+    void waveNeverGoesBelowZero() {
+        RateProfile wave = RateProfile.wave(10, 50, 4);
+        
+        assertEquals(0, wave.rateAt(3), 1e-9);
+    }
+    
+    @Test
+    void scalesEveryRate() {
+        RateProfile half = RateProfile.parse("ramp:100:300:10").scaled(0.5);
+        
+        assertEquals(100, half.rateAt(5), 1e-9);
+    }
+    
+    @Test
+    void describesIndependentlyOfTheDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        try {
+            Locale.setDefault(Locale.GERMANY);
+            assertEquals("ramp 100.0 -> 2000.0 msg/s over 60s", RateProfile.parse("ramp:100:2000:60").describe());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+}
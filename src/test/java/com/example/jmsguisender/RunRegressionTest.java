@@ -0,0 +1,124 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RunRegressionTest {
+    
+    @Test
+    void incompleteBetaGivesStudentTailProbabilities() {
+        assertEquals(0.3, RunRegression.regularizedIncompleteBeta(0.3, 1, 1), 1e-9);
+        // Two-sided p of t = 2.228 with 10 degrees of freedom
+        assertEquals(0.0500, RunRegression.regularizedIncompleteBeta(10 / (10 + 2.228 * 2.228), 5, 0.5), 1e-4);
+    }
+    
+    @Test
+    void welchTestMatchesAReferenceValue() {
+        // The first (warm-up) second is left out: 2, 3, 4, 5 against 7, 8, 9, 10, i.e. t = -5.477 with 6 df
+        RunRecord baseline = run(List.of(100.0, 2.0, 3.0, 4.0, 5.0), 1);
+        RunRecord candidate = run(List.of(100.0, 7.0, 8.0, 9.0, 10.0), 1);
+        
+        RunRegression.Metric throughput = RunRegression.compare(baseline, candidate, 0.05).getMetrics().get(0);
+        
+        assertEquals(3.5, throughput.getBaselineMean(), 1e-9);
+        assertEquals(8.5, throughput.getCandidateMean(), 1e-9);
+        assertEquals(0.001547, throughput.getPValue(), 1e-5);
+        assertEquals("improvement", throughput.getVerdict());
+    }
+    
+    @Test
+    void flagsASignificantThroughputDropAndLatencyRise() {
+        RunRecord baseline = run(List.of(900.0, 1000.0, 1010.0, 990.0, 1005.0, 995.0, 1000.0), 2);
+        RunRecord candidate = run(List.of(700.0, 800.0, 810.0, 790.0, 805.0, 795.0, 800.0), 3);
+        
+        RunRegression regression = RunRegression.compare(baseline, candidate, RunRegression.DEFAULT_ALPHA);
+        
+        assertTrue(regression.hasRegression());
+        assertTrue(regression.getMetrics().get(0).isRegression());
+        assertTrue(regression.getMetrics().get(1).isRegression());
+        assertTrue(regression.report().contains("REGRESSION"));
+    }
+    
+    @Test
+    void noisyRunsWithTheSameMeanDoNotRegress() {
+        RunRecord baseline = run(List.of(0.0, 1000.0, 900.0, 1100.0, 950.0, 1050.0), 2);
+        RunRecord candidate = run(List.of(0.0, 1050.0, 950.0, 1000.0, 1100.0, 900.0), 2);
+        
+        RunRegression regression = RunRegression.compare(baseline, candidate, RunRegression.DEFAULT_ALPHA);
+        
+        assertFalse(regression.hasRegression());
+        assertEquals("no significant change", regression.getMetrics().get(0).getVerdict());
+    }
+    
+    @Test
+    void tooFewSamplesAreNotTested() {
+        RunRegression regression = RunRegression.compare(run(List.of(1000.0), 2), run(List.of(10.0), 2), 0.05);
+        
+        assertTrue(Double.isNaN(regression.getMetrics().get(0).getPValue()));
+        assertEquals("not enough samples", regression.getMetrics().get(0).getVerdict());
+        assertFalse(regression.hasRegression());
+    }
+    
+    @Test
+    void listsDifferingSettings() {
+        RunRecord baseline = run(List.of(1.0, 2.0), 1);
+        ServerConfiguration configuration = new ServerConfiguration();
+        configuration.setPersistentDelivery(false);
+        RunRecord candidate = RunRecord.of("load", "v2", SendRequest.of(configuration, "orders", false, "{}", Map.of()),
+            Map.of("concurrency", 4), result(List.of(1.0, 2.0), 1));
+        
+        Map<String, String[]> differences = RunRegression.compare(baseline, candidate, 0.05).getDifferences();
+        
+        assertEquals("false", differences.get("persistentDelivery")[1]);
+        assertEquals("v2", differences.get("tag")[1]);
+        assertFalse(differences.containsKey("concurrency"));
+    }
+    
+    @Test
+    void rejectsAnInvalidSignificanceLevel() {
+        RunRecord run = run(List.of(1.0, 2.0), 1);
+        
+        assertThrows(IllegalArgumentException.class, () -> RunRegression.compare(run, run, 1.5));
+    }
+    
+    private static RunRecord run(List<Double> rates, double p99Millis) {
+        return RunRecord.of("load", null, SendRequest.of(new ServerConfiguration(), "orders", false, "{}", Map.of()),
+            Map.of("concurrency", 4), result(rates, p99Millis));
+    }
+    
+    private static LoadRunResult result(List<Double> rates, double p99Millis) {
+        List<LoadRunSample> samples = new ArrayList<>();
+        long sent = 0;
+        for (int i = 0; i < rates.size(); i++) {
+            // A little spread, so that the latency variance is not zero
+            samples.add(new LoadRunSample(i + 1, 0, rates.get(i), 0, p99Millis + (i % 2) * 0.1));
+            sent += rates.get(i).longValue();
+        }
+        LatencyHistogram latency = new LatencyHistogram();
+        latency.record((long) (p99Millis * 1e6));
+        return new LoadRunResult("constant", rates.size() * 1_000_000_000L, sent, 0, latency, latency, samples, null, false);
+    }
+}
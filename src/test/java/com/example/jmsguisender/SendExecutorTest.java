@@ -0,0 +1,100 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SendExecutorTest {
+    
+    private final SendExecutor executor = new SendExecutor();
+    private final List<Exception> errors = new CopyOnWriteArrayList<>();
+    
+    @AfterEach
+    void shutdown() {
+        executor.shutdown(1, TimeUnit.SECONDS);
+    }
+    
+    @Test
+    void cancellingInterruptsARunningTask() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        SendExecutor.TaskHandle handle = executor.submit("sleep", () -> {
+            started.countDown();
+            Thread.sleep(60_000);
+        }, errors::add);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        
+        assertEquals(1, executor.cancelAll());
+        
+        awaitIdle();
+        assertTrue(handle.isCancelled() && handle.isDone());
+        assertEquals(1, errors.size());
+        assertInstanceOf(InterruptedException.class, errors.get(0));
+    }
+    
+    @Test
+    void tasksCancelledRightAfterSubmittingRunOrReportExactlyOnce() throws InterruptedException {
+        AtomicInteger ran = new AtomicInteger();
+        for (int i = 0; i < 200; i++) {
+            SendExecutor.TaskHandle handle = executor.submit("send " + i, ran::incrementAndGet, errors::add);
+            handle.cancel();
+        }
+        
+        awaitIdle();
+        // Only tasks that finished before cancel() ran
+        assertEquals(200, ran.get() + errors.size());
+        errors.forEach(error -> assertInstanceOf(InterruptedException.class, error));
+    }
+    
+    @Test
+    void stopActionRunsBeforeTheInterrupt() throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+        executor.submit("load", stopped::await, errors::add, stopped::countDown).cancel();
+        
+        awaitIdle();
+        assertEquals(0, stopped.getCount());
+    }
+    
+    @Test
+    void failuresReachTheErrorCallback() throws InterruptedException {
+        executor.submit("fail", () -> {
+            throw new IllegalStateException("broken");
+        }, errors::add);
+        
+        awaitIdle();
+        assertEquals("broken", errors.get(0).getMessage());
+    }
+    
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!executor.getRunningTasks().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(executor.getRunningTasks().isEmpty(), "tasks still running: " + executor.getRunningTasks());
+        // A cancelled task's own error callback may still be on its way
+        Thread.sleep(50);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SendHistoryTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void searchesByDestinationTimeAndProperties() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(1_000, "ID:1", "orders.eu", false, Map.of("kind", "new"), "1");
+            journal.append(2_000, "ID:2", "orders.us", false, Map.of("kind", "new"), "2");
+            journal.append(3_000, "ID:3", "orders.eu", false, Map.of("kind", "cancel"), "3");
+            journal.append(4_000, "ID:4", "invoices", false, Map.of("kind", "new", "count", 2), "4");
+        }
+        SendHistory history = new SendHistory(directory);
+        
+        assertEquals(4, history.refresh());
+        assertEquals(List.of("ID:3", "ID:1"), ids(history.search("orders.eu", 0, Long.MAX_VALUE, Map.of(), 10)));
+        assertEquals(List.of("ID:3", "ID:2", "ID:1"), ids(history.search("orders.*", 0, Long.MAX_VALUE, Map.of(), 10)));
+        assertEquals(List.of("ID:4", "ID:2", "ID:1"), ids(history.search(null, 0, Long.MAX_VALUE, Map.of("kind", "new"), 10)));
+        assertEquals(List.of("ID:4"), ids(history.search("", 0, Long.MAX_VALUE, Map.of("count", "2"), 10)));
+        assertEquals(List.of("ID:2"), ids(history.search(null, 2_000, 3_000, Map.of(), 10)));
+        assertEquals(List.of(), ids(history.search("unknown", 0, Long.MAX_VALUE, Map.of(), 10)));
+    }
+    
+    @Test
+    void limitKeepsTheNewestAndCountsEveryMatch() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            for (int i = 1; i <= 5; i++) {
+                journal.append(i, "ID:" + i, "orders", false, Map.of(), "x");
+            }
+        }
+        SendHistory history = new SendHistory(directory);
+        history.refresh();
+        
+        SendHistory.Result result = history.search("orders", 0, Long.MAX_VALUE, Map.of(), 2);
+        
+        assertEquals(List.of("ID:5", "ID:4"), ids(result));
+        assertEquals(5, result.getMatches());
+    }
+    
+    @Test
+    void refreshOnlyIndexesNewRecords() throws IOException {
+        SendHistory history = new SendHistory(directory);
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(1, "ID:1", "orders", false, Map.of(), "x");
+            history.refresh();
+            journal.append(2, "ID:2", "orders", false, Map.of(), "x");
+            
+            assertEquals(1, history.refresh());
+        }
+        assertEquals(2, history.size());
+        assertEquals(List.of("ID:2", "ID:1"), ids(history.search("orders", 0, Long.MAX_VALUE, Map.of(), 10)));
+    }
+    
+    @Test
+    void parsesTimesAndProperties() {
+        long now = 1_750_000_000_000L;
+        
+        assertEquals(now - 2 * 3_600_000, SendHistory.parseTime("2h", now, ZoneOffset.UTC));
+        assertEquals(1_748_736_000_000L, SendHistory.parseTime("2025-06-01", now, ZoneOffset.UTC));
+        assertEquals(1_748_772_000_000L, SendHistory.parseTime("2025-06-01T10:00:00Z", now, ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class, () -> SendHistory.parseTime("soon", now, ZoneOffset.UTC));
+        assertEquals(Map.of("kind", "new", "region", "eu"), SendHistory.parseProperties("kind=new, region = eu"));
+        assertThrows(IllegalArgumentException.class, () -> SendHistory.parseProperties("kind"));
+    }
+    
+    private static List<String> ids(SendHistory.Result result) {
+        return result.getRecords().stream().map(JournalRecord::getMessageId).toList();
+    }
+}
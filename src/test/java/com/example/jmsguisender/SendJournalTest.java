@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SendJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void recordsRoundTrip() throws IOException {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("kind", "order");
+        properties.put("count", 3);
+        properties.put("total", 12L);
+        properties.put("urgent", true);
+        properties.put("ratio", 0.5);
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(1_000, "ID:1", "orders", false, properties, "{\"id\":1}");
+            journal.append(2_000, "ID:2", "events", true, Map.of(), "{\"id\":2}");
+        }
+        
+        List<JournalRecord> records = readAll();
+        
+        assertEquals(2, records.size());
+        JournalRecord first = records.get(0);
+        assertEquals(1_000, first.getTimestamp());
+        assertEquals("ID:1", first.getMessageId());
+        assertEquals("orders", first.getDestination());
+        assertFalse(first.isTopic());
+        assertEquals(properties, first.getProperties());
+        assertEquals("{\"id\":1}", first.getPayload());
+        assertEquals(8, first.getPayloadSize());
+        assertTrue(records.get(1).isTopic());
+    }
+    
+    @Test
+    void payloadsAreOnlyHashedWhenNotIncluded() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, false)) {
+            journal.append(1_000, "ID:1", "orders", false, Map.of(), "{\"id\":1}");
+        }
+        
+        JournalRecord record = readAll().get(0);
+        
+        assertFalse(record.hasPayload());
+        assertNull(record.getPayload());
+        assertEquals(8, record.getPayloadSize());
+        assertEquals(64, record.getPayloadHashHex().length());
+    }
+    
+    @Test
+    void reopeningAppendsAfterTheLastRecord() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(1_000, "ID:1", "orders", false, Map.of(), "a");
+            journal.append(2_000, "ID:2", "orders", false, Map.of(), "b");
+        }
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(3_000, "ID:3", "orders", false, Map.of(), "c");
+        }
+        
+        assertEquals(List.of("ID:1", "ID:2", "ID:3"), readAll().stream().map(JournalRecord::getMessageId).toList());
+        assertEquals(1, SendJournal.listSegments(directory).size());
+    }
+    
+    @Test
+    void readingStopsAtADamagedRecord() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, true)) {
+            journal.append(1_000, "ID:1", "orders", false, Map.of(), "a");
+            journal.append(2_000, "ID:2", "orders", false, Map.of(), "b");
+            journal.append(3_000, "ID:3", "orders", false, Map.of(), "c");
+        }
+        Path segment = SendJournal.listSegments(directory).get(0);
+        List<Integer> offsets = new ArrayList<>();
+        SendJournal.readSegment(segment, 0, false, (offset, record) -> offsets.add(offset));
+        
+        // Flip a byte of the second record's message ID, after its length, flags, timestamp and string length
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long position = offsets.get(1) + 4 + 1 + 8 + 4;
+            ByteBuffer value = ByteBuffer.allocate(1);
+            channel.read(value, position);
+            value.put(0, (byte) (value.get(0) ^ 0x20)).rewind();
+            channel.write(value, position);
+        }
+        
+        assertEquals(List.of("ID:1"), readAll().stream().map(JournalRecord::getMessageId).toList());
+    }
+    
+    @Test
+    void startsNewSegmentsAndDeletesTheOldestPastTheMaximumSize() throws IOException {
+        try (SendJournal journal = SendJournal.open(directory, true, 4096)) {
+            journal.setMaxSize(3 * 4096);
+            for (int i = 0; i < 200; i++) {
+                journal.append(i, "ID:" + i, "orders", false, Map.of(), "x".repeat(100));
+            }
+        }
+        
+        List<Path> segments = SendJournal.listSegments(directory);
+        List<JournalRecord> records = readAll();
+        
+        assertTrue(segments.size() <= 3, "segments: " + segments);
+        assertTrue(SendJournal.segmentIndex(segments.get(0)) > 1);
+        assertEquals("ID:199", records.get(records.size() - 1).getMessageId());
+    }
+    
+    @Test
+    void keepsAppendingWhenAnOldSegmentCannotBeDeleted() throws IOException {
+        // A non-empty directory in place of the oldest segment cannot be deleted, like a mapped file on Windows
+        Path blocker = directory.resolve("journal-0000000000.seg");
+        List<String> warnings = new ArrayList<>();
+        try (SendJournal journal = SendJournal.open(directory, true, 4096)) {
+            Files.createDirectories(blocker.resolve("held"));
+            journal.setWarningListener(warnings::add);
+            journal.setMaxSize(3 * 4096);
+            for (int i = 0; i < 200; i++) {
+                journal.append(i, "ID:" + i, "orders", false, Map.of(), "x".repeat(100));
+            }
+            
+            assertEquals(1, warnings.size(), warnings.toString());
+            assertTrue(SendJournal.listSegments(directory).size() > 3);
+            
+            Files.delete(blocker.resolve("held"));
+            for (int i = 200; i < 250; i++) {
+                journal.append(i, "ID:" + i, "orders", false, Map.of(), "x".repeat(100));
+            }
+        }
+        
+        assertTrue(SendJournal.listSegments(directory).size() <= 3);
+        assertEquals("ID:249", readAll().get(readAll().size() - 1).getMessageId());
+    }
+    
+    private List<JournalRecord> readAll() throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        SendJournal.read(directory, records::add);
+        return records;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShapingProxyTest {
+    
+    @Test
+    void routesEveryBrokerAddressThroughItsProxy() {
+        List<String> targets = new ArrayList<>();
+        String routed = ShapingProxy.routeThrough(
+            "failover:(tcp://broker-a:61616,tcp://[::1]:61617)?randomize=false&timeout=3000", target -> {
+                targets.add(target.getHostString() + ":" + target.getPort());
+                return InetSocketAddress.createUnresolved("127.0.0.1", 40000 + targets.size());
+            });
+        
+        assertEquals("failover:(tcp://127.0.0.1:40001,tcp://127.0.0.1:40002)?randomize=false&timeout=3000", routed);
+        assertEquals(List.of("broker-a:61616", "::1:61617"), targets);
+    }
+    
+    @Test
+    void leavesUrlsWithoutAPortAlone() {
+        assertEquals("vm://localhost", ShapingProxy.routeThrough("vm://localhost", target -> {
+            throw new AssertionError("no address to route");
+        }));
+    }
+    
+    @Test
+    void recognisesTlsUrls() {
+        assertTrue(ShapingProxy.usesTls("ssl://broker:61617"));
+        assertTrue(ShapingProxy.usesTls("failover:(tcp://a:61616,nio+ssl://b:61617)"));
+        assertTrue(ShapingProxy.usesTls("amqps://broker:5671"));
+        assertTrue(ShapingProxy.usesTls("amqpwss://broker:443"));
+        assertTrue(ShapingProxy.usesTls("tcp://broker:61616?sslEnabled=true"));
+        assertFalse(ShapingProxy.usesTls("tcp://broker:61616"));
+        assertFalse(ShapingProxy.usesTls("amqp://broker:5672"));
+        assertFalse(ShapingProxy.usesTls("tcp://broker:61616?sslEnabled=false"));
+    }
+    
+    @Test
+    void forwardsBothWaysWithTheConfiguredLatency() throws IOException {
+        NetworkShaping shaping = new NetworkShaping();
+        shaping.setEnabled(true);
+        shaping.setLatencyMillis(50);
+        try (ServerSocket echo = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             ShapingProxy proxy = new ShapingProxy(new InetSocketAddress(InetAddress.getLoopbackAddress(), echo.getLocalPort()), shaping)) {
+            Thread server = Thread.ofVirtual().start(() -> {
+                try (Socket socket = echo.accept()) {
+                    socket.getInputStream().transferTo(socket.getOutputStream());
+                } catch (IOException e) {
+                    // Client gone
+                }
+            });
+            
+            byte[] message = "hello broker".getBytes();
+            byte[] reply = new byte[message.length];
+            long start = System.nanoTime();
+            try (Socket client = new Socket(proxy.getAddress().getAddress(), proxy.getAddress().getPort())) {
+                OutputStream out = client.getOutputStream();
+                out.write(message);
+                out.flush();
+                InputStream in = client.getInputStream();
+                for (int read = 0; read < reply.length; ) {
+                    int n = in.read(reply, read, reply.length - read);
+                    assertTrue(n > 0);
+                    read += n;
+                }
+            }
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            assertArrayEquals(message, reply);
+            // Once towards the broker and once back
+            assertTrue(elapsedMillis >= 100, elapsedMillis + " ms");
+            assertTrue(proxy.describe().contains("1 connection(s)"), proxy.describe());
+            server.interrupt();
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2025 Bruno Dusausoy <bruno.dusausoy@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.example.jmsguisender;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkerMessageTest {
+    
+    private WorkerChannel coordinator;
+    private WorkerChannel worker;
+    
+    @BeforeEach
+    void connect() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            worker = WorkerChannel.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), serverSocket.getLocalPort()));
+            coordinator = new WorkerChannel(serverSocket.accept());
+        }
+    }
+    
+    @AfterEach
+    void close() {
+        worker.close();
+        coordinator.close();
+    }
+    
+    @Test
+    void assignmentKeepsEverySetting() throws IOException {
+        WorkerMessage assignment = new WorkerMessage(WorkerMessage.Type.ASSIGN, "worker-1");
+        assignment.setProfile("ramp:100:1000");
+        assignment.setShare(0.25);
+        assignment.setDurationSeconds(120);
+        assignment.setConcurrency(8);
+        assignment.setBrokerUrl("tcp://broker:61616");
+        assignment.setDestinations(List.of("orders.1", "orders.2"));
+        assignment.setTopic(true);
+        assignment.setPayload("{\"id\": 1}");
+        assignment.setHeaders(Map.of("region", "eu"));
+        assignment.setPersistent(false);
+        assignment.setGenerate(true);
+        coordinator.send(assignment);
+        
+        WorkerMessage received = worker.receive(5_000);
+        
+        assertEquals(WorkerMessage.Type.ASSIGN, received.getType());
+        assertEquals("worker-1", received.getWorker());
+        assertEquals("ramp:100:1000", received.getProfile());
+        assertEquals(0.25, received.getShare());
+        assertEquals(120, received.getDurationSeconds());
+        assertEquals(8, received.getConcurrency());
+        assertEquals("tcp://broker:61616", received.getBrokerUrl());
+        assertEquals(List.of("orders.1", "orders.2"), received.getDestinations());
+        assertTrue(received.isTopic());
+        assertEquals("{\"id\": 1}", received.getPayload());
+        assertEquals(Map.of("region", "eu"), received.getHeaders());
+        assertFalse(received.isPersistent());
+        assertTrue(received.isGenerate());
+    }
+    
+    @Test
+    void resultKeepsTheHistograms() throws IOException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LatencyHistogram serviceTime = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            latency.record(micros * 1_000);
+            serviceTime.record(micros * 500);
+        }
+        LoadRunResult result = new LoadRunResult("constant:100", 2_000_000_000L, 10_000, 3, latency, serviceTime,
+            List.of(), "Queue full", true);
+        worker.send(WorkerMessage.result("worker-1", result));
+        
+        WorkerMessage received = coordinator.receive(5_000);
+        
+        assertEquals(WorkerMessage.Type.RESULT, received.getType());
+        assertEquals(10_000, received.getSent());
+        assertEquals(3, received.getFailed());
+        assertEquals(2_000_000_000L, received.getElapsedNanos());
+        assertTrue(received.isStopped());
+        assertEquals("Queue full", received.getError());
+        assertSameDistribution(latency, received.getLatency());
+        assertSameDistribution(serviceTime, received.getServiceTime());
+    }
+    
+    @Test
+    void mergedHistogramsMatchOneRecordingEverything() throws IOException {
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        LatencyHistogram both = new LatencyHistogram();
+        for (long micros = 1; micros <= 5_000; micros++) {
+            first.record(micros * 1_000);
+            second.record(micros * 3_000);
+            both.record(micros * 1_000);
+            both.record(micros * 3_000);
+        }
+        worker.send(WorkerMessage.result("worker-1", resultWith(first)));
+        worker.send(WorkerMessage.result("worker-2", resultWith(second)));
+        
+        LatencyHistogram merged = new LatencyHistogram();
+        merged.add(coordinator.receive(5_000).getLatency());
+        merged.add(coordinator.receive(5_000).getLatency());
+        
+        assertSameDistribution(both, merged);
+    }
+    
+    @Test
+    void sampleAndErrorArriveAsSent() throws IOException {
+        worker.send(WorkerMessage.sample("worker-1", new LoadRunSample(7, 1000, 998.5, 2, 4.25)));
+        worker.send(WorkerMessage.error("worker-1", "Cannot connect"));
+        
+        LoadRunSample sample = coordinator.receive(5_000).getSample();
+        assertEquals(7, sample.getSecond());
+        assertEquals(1000, sample.getTargetRate());
+        assertEquals(998.5, sample.getActualRate());
+        assertEquals(2, sample.getFailed());
+        assertEquals(4.25, sample.getP99Millis());
+        IOException error = assertThrows(IOException.class, () -> coordinator.expect(WorkerMessage.Type.READY, 5_000));
+        assertEquals("Cannot connect", error.getMessage());
+    }
+    
+    @Test
+    void missingFieldsHaveDefaults() throws IOException {
+        worker.send(new WorkerMessage(WorkerMessage.Type.READY, "worker-1"));
+        
+        WorkerMessage received = coordinator.receive(5_000);
+        
+        assertEquals(1, received.getShare());
+        assertEquals(1, received.getConcurrency());
+        assertEquals(List.of(), received.getDestinations());
+        assertTrue(received.isPersistent());
+        assertEquals(0, received.getLatency().getCount());
+    }
+    
+    @Test
+    void receiveBeforeGivesUpAtTheDeadline() throws IOException {
+        long start = System.nanoTime();
+        
+        assertThrows(SocketTimeoutException.class,
+            () -> coordinator.receiveBefore(start + TimeUnit.MILLISECONDS.toNanos(200)));
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertThrows(SocketTimeoutException.class, () -> coordinator.receiveBefore(start));
+    }
+    
+    @Test
+    void closedChannelReceivesNull() throws IOException {
+        worker.close();
+        
+        assertNull(coordinator.receiveBefore(System.nanoTime() + TimeUnit.SECONDS.toNanos(5)));
+    }
+    
+    private static LoadRunResult resultWith(LatencyHistogram latency) {
+        return new LoadRunResult("constant:100", 1_000_000_000L, latency.getCount(), 0, latency,
+            new LatencyHistogram(), List.of(), null, false);
+    }
+    
+    private static void assertSameDistribution(LatencyHistogram expected, LatencyHistogram actual) {
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getMax(), actual.getMax());
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9, 100}) {
+            assertEquals(expected.getValueAtPercentile(percentile), actual.getValueAtPercentile(percentile),
+                "p" + percentile);
+        }
+    }
+}